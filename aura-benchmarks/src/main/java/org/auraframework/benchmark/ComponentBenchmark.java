@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.Aura;
+import org.auraframework.def.ComponentDef;
+import org.auraframework.instance.Component;
+import org.auraframework.system.AuraContext;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Creating a component instance on the server, including its super component and the components in its body.
+ *
+ * Each instance is registered with the context, so every call gets a new one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ComponentBenchmark {
+    @State(Scope.Thread)
+    public static class Inputs {
+        final Map<String, Object> attributes = ImmutableMap.<String, Object> of("label", "Save", "disabled", false);
+        ComponentDef small;
+        ComponentDef large;
+
+        @Setup(Level.Trial)
+        public void load() throws QuickFixException {
+            Aura.getContextService().startContext(AuraContext.Mode.PROD, AuraContext.Format.JSON,
+                    AuraContext.Authentication.AUTHENTICATED);
+            try {
+                small = Aura.getDefinitionService().getDefinition(Fixtures.SMALL_COMPONENT, ComponentDef.class);
+                large = Aura.getDefinitionService().getDefinition(Fixtures.LARGE_COMPONENT, ComponentDef.class);
+            } finally {
+                Aura.getContextService().endContext();
+            }
+        }
+    }
+
+    @Benchmark
+    public Component newSmallComponent(RequestState request, Inputs inputs) throws QuickFixException {
+        return Aura.getInstanceService().getInstance(inputs.small, inputs.attributes);
+    }
+
+    @Benchmark
+    public Component newLargeComponent(RequestState request, Inputs inputs) throws QuickFixException {
+        return Aura.getInstanceService().getInstance(inputs.large);
+    }
+}
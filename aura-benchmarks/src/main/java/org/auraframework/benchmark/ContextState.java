@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import org.auraframework.Aura;
+import org.auraframework.system.AuraContext;
+import org.auraframework.system.AuraContext.Authentication;
+import org.auraframework.system.AuraContext.Format;
+import org.auraframework.system.AuraContext.Mode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * An AuraContext that lasts for a whole benchmark run.
+ *
+ * Contexts are thread local, so there is one per benchmark thread. Use this for code that only reads from the
+ * context, since anything it registers in the context stays there until the run ends.
+ *
+ * Benchmarks that need definitions as inputs can load them in {@link #setUp(AuraContext)}, once the context has
+ * started.
+ */
+@State(Scope.Thread)
+public class ContextState {
+    private AuraContext context;
+
+    @Setup(Level.Trial)
+    public void startContext() throws Exception {
+        context = Aura.getContextService().startContext(Mode.PROD, Format.JSON, Authentication.AUTHENTICATED);
+        setUp(context);
+    }
+
+    /**
+     * Prepare the inputs for a benchmark, in the new context.
+     *
+     * @param context the context, which is also the current one.
+     * @throws Exception if the inputs cannot be loaded.
+     */
+    protected void setUp(AuraContext context) throws Exception {
+    }
+
+    @TearDown(Level.Trial)
+    public void endContext() {
+        Aura.getContextService().endContext();
+    }
+
+    public AuraContext getContext() {
+        return context;
+    }
+}
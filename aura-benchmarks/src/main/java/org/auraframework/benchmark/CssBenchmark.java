@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.Aura;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.StyleDef;
+import org.auraframework.impl.css.parser.CssPreprocessor;
+import org.auraframework.system.AuraContext;
+import org.auraframework.system.Source;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The runtime pass over a component's css, which is done each time a StyleDef's code is written out.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class CssBenchmark {
+    @State(Scope.Thread)
+    public static class Inputs extends ContextState {
+        DefDescriptor<StyleDef> descriptor;
+        String css;
+
+        /**
+         * Does the initial pass, as the StyleParser does, so the input is what a StyleDef holds.
+         */
+        @Override
+        protected void setUp(AuraContext context) throws QuickFixException {
+            descriptor = Aura.getDefinitionService().getDefDescriptor(Fixtures.LARGE_STYLE, StyleDef.class);
+            Source<StyleDef> source = context.getDefRegistry().getSource(descriptor);
+            css = CssPreprocessor.initial().source(source.getContents()).resourceName(source.getSystemId())
+                    .componentClass("uiCarousel", false).themes(descriptor).parse().content();
+        }
+    }
+
+    @Benchmark
+    public String parseRuntime(Inputs inputs) throws QuickFixException {
+        return CssPreprocessor.runtime().source(inputs.css).themes(inputs.descriptor).parse().content();
+    }
+}
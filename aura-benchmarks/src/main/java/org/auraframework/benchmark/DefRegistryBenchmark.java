@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.Aura;
+import org.auraframework.def.ComponentDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.system.SourceListener.SourceMonitorEvent;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Getting a definition from the MasterDefRegistryImpl of a new context.
+ *
+ * Cold is the first request after a source change, when every definition has to be parsed, validated and linked
+ * again. Warm is every request after that, when they all come from the global caches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class DefRegistryBenchmark {
+    /**
+     * Empties the global caches before each call, as a change to any source would.
+     */
+    @State(Scope.Thread)
+    public static class EmptyCaches {
+        @Setup(Level.Invocation)
+        public void emptyCaches() {
+            Aura.getDefinitionService().onSourceChanged(null, SourceMonitorEvent.changed, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Descriptors {
+        DefDescriptor<ComponentDef> small;
+        DefDescriptor<ComponentDef> large;
+
+        @Setup(Level.Trial)
+        public void getDescriptors() {
+            small = Aura.getDefinitionService().getDefDescriptor(Fixtures.SMALL_COMPONENT, ComponentDef.class);
+            large = Aura.getDefinitionService().getDefDescriptor(Fixtures.LARGE_COMPONENT, ComponentDef.class);
+        }
+    }
+
+    @Benchmark
+    public ComponentDef getDefCold(RequestState request, EmptyCaches empty, Descriptors descriptors)
+            throws QuickFixException {
+        return request.getContext().getDefRegistry().getDef(descriptors.large);
+    }
+
+    @Benchmark
+    public ComponentDef getDefWarm(RequestState request, Descriptors descriptors) throws QuickFixException {
+        return request.getContext().getDefRegistry().getDef(descriptors.large);
+    }
+
+    @Benchmark
+    public ComponentDef getDefWarmSmall(RequestState request, Descriptors descriptors) throws QuickFixException {
+        return request.getContext().getDefRegistry().getDef(descriptors.small);
+    }
+}
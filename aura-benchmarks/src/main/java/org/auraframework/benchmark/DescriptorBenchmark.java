@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.def.ComponentDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.impl.system.DefDescriptorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looking up descriptors by name, which is done for every tag, attribute type and reference in markup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class DescriptorBenchmark {
+    @Benchmark
+    public DefDescriptor<ComponentDef> getInstance() {
+        return DefDescriptorImpl.getInstance(Fixtures.SMALL_COMPONENT, ComponentDef.class);
+    }
+
+    @Benchmark
+    public DefDescriptor<ComponentDef> getInstanceQualified() {
+        return DefDescriptorImpl.getInstance("markup://" + Fixtures.SMALL_COMPONENT, ComponentDef.class);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.expression.Expression;
+import org.auraframework.expression.PropertyReference;
+import org.auraframework.impl.expression.ExpressionAdapterImpl;
+import org.auraframework.instance.ValueProvider;
+import org.auraframework.system.Location;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Parsing and evaluating an expression like those in component markup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ExpressionBenchmark {
+    private static final String EXPRESSION = "v.count * 2 + 1 > v.limit && !v.disabled ? v.label : 'none'";
+
+    @State(Scope.Thread)
+    public static class Inputs {
+        final ExpressionAdapterImpl adapter = new ExpressionAdapterImpl();
+        final Location location = new Location("markup://" + Fixtures.SMALL_COMPONENT, 1, 1, -1);
+        Expression expression;
+        int count = 0;
+
+        final ValueProvider values = new ValueProvider() {
+            private final Map<String, Object> byName = ImmutableMap.<String, Object> of("v.count", 7, "v.limit",
+                    10, "v.disabled", false, "v.label", "Save");
+
+            @Override
+            public Object getValue(PropertyReference key) {
+                return byName.get(key.toString());
+            }
+        };
+
+        @Setup(Level.Trial)
+        public void build() throws QuickFixException {
+            expression = adapter.buildExpression(EXPRESSION, location);
+        }
+    }
+
+    /**
+     * The same expression at the same location, which the adapter has already parsed.
+     */
+    @Benchmark
+    public Expression buildExpression(Inputs inputs) throws QuickFixException {
+        return inputs.adapter.buildExpression(EXPRESSION, inputs.location);
+    }
+
+    /**
+     * A different expression each time, so it is parsed every time. This includes adding it to the adapter's cache,
+     * and making room for it once the cache is full. The expressions differ only in a number, so they all parse the
+     * same way.
+     */
+    @Benchmark
+    public Expression buildExpressionUncached(Inputs inputs) throws QuickFixException {
+        String text = "v.count * 2 + " + (++inputs.count) + " > v.limit && !v.disabled ? v.label : 'none'";
+        return inputs.adapter.buildExpression(text, inputs.location);
+    }
+
+    @Benchmark
+    public Object evaluate(Inputs inputs) throws QuickFixException {
+        return inputs.expression.evaluate(inputs.values);
+    }
+}
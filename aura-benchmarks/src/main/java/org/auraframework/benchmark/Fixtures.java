@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.util.List;
+import java.util.Map;
+
+import org.auraframework.util.json.Json;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * Inputs shared by the benchmarks.
+ *
+ * These are all from aura-components, which ships with every release, so the same inputs can be measured on each.
+ */
+public final class Fixtures {
+    /** A small component, with a few attributes and a parent. */
+    public static final String SMALL_COMPONENT = "ui:button";
+
+    /** A large component, with many attributes, events, handlers and a client side controller, helper and renderer. */
+    public static final String LARGE_COMPONENT = "ui:carousel";
+
+    /** The style of {@link #LARGE_COMPONENT}. */
+    public static final String LARGE_STYLE = "css://ui.carousel";
+
+    /** The number of actions in {@link #actionMessage()}. */
+    public static final int ACTION_COUNT = 10;
+
+    private Fixtures() {
+    }
+
+    /**
+     * The body of a POST to the aura servlet, as the client sends it when it fetches components.
+     *
+     * @return the message as JSON.
+     */
+    public static String actionMessage() {
+        List<Map<String, Object>> actions = Lists.newArrayList();
+        for (int i = 0; i < ACTION_COUNT; i++) {
+            Map<String, Object> attributes = Maps.newLinkedHashMap();
+            attributes.put("label", "Button number " + i);
+            attributes.put("disabled", i % 2 == 0);
+            attributes.put("buttonTitle", "Click me, \"please\"\n\u00e9t\u00e9");
+            attributes.put("tabIndex", i);
+
+            Map<String, Object> params = Maps.newLinkedHashMap();
+            params.put("name", SMALL_COMPONENT);
+            params.put("attributes", attributes);
+
+            Map<String, Object> action = Maps.newLinkedHashMap();
+            action.put("id", i + ";a");
+            action.put("descriptor", "aura://ComponentController/ACTION$getComponent");
+            action.put("callingDescriptor", "markup://" + LARGE_COMPONENT);
+            action.put("params", params);
+            actions.add(action);
+        }
+        return Json.serialize(ImmutableMap.<String, Object> of("actions", actions));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.Aura;
+import org.auraframework.def.ComponentDef;
+import org.auraframework.system.AuraContext;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.auraframework.util.json.Json;
+import org.auraframework.util.json.JsonStreamReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a definition to the client, and reading the actions it sends back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class JsonBenchmark {
+    @State(Scope.Thread)
+    public static class Inputs extends ContextState {
+        ComponentDef def;
+        String message;
+
+        @Override
+        protected void setUp(AuraContext context) throws QuickFixException {
+            def = Aura.getDefinitionService().getDefinition(Fixtures.LARGE_COMPONENT, ComponentDef.class);
+            message = Fixtures.actionMessage();
+        }
+    }
+
+    @Benchmark
+    public String serializeComponentDef(Inputs inputs) {
+        return Json.serialize(inputs.def, inputs.getContext().getJsonSerializationContext());
+    }
+
+    @Benchmark
+    public Object parseActionMessage(Inputs inputs) throws IOException {
+        JsonStreamReader reader = new JsonStreamReader(inputs.message);
+        reader.next();
+        return reader.getValue();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.Aura;
+import org.auraframework.service.LocalizationService;
+import org.auraframework.util.AuraLocale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ibm.icu.text.DecimalFormat;
+import com.ibm.icu.text.NumberFormat;
+import com.ibm.icu.util.Currency;
+
+/**
+ * Formatting and parsing numbers in the locale of the request, as a data heavy list does for every cell.
+ *
+ * The new* benchmarks build the format for every value, which is what the localization service used to do, to
+ * compare against.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(2)
+public class LocalizationBenchmark {
+    private static final double VALUE = 1234567.891;
+    private static final BigDecimal AMOUNT = new BigDecimal("1234.56");
+    private static final Locale LOCALE = Locale.GERMANY;
+
+    private final LocalizationService localizationService = Aura.getLocalizationService();
+
+    @Benchmark
+    public String formatNumber(ContextState state) {
+        return localizationService.formatNumber(VALUE);
+    }
+
+    @Benchmark
+    public String formatNumberDigits(ContextState state) {
+        return localizationService.formatNumber(VALUE, LOCALE, 2, 2);
+    }
+
+    @Benchmark
+    public String newFormatNumberDigits() {
+        NumberFormat nf = NumberFormat.getNumberInstance(LOCALE);
+        nf.setMinimumFractionDigits(2);
+        nf.setMaximumFractionDigits(2);
+        return nf.format(VALUE);
+    }
+
+    @Benchmark
+    public String formatCurrency(ContextState state) {
+        return localizationService.formatCurrency(AMOUNT, LOCALE, 2, 2, null);
+    }
+
+    @Benchmark
+    public String newFormatCurrency() {
+        DecimalFormat df = (DecimalFormat) NumberFormat.getCurrencyInstance(LOCALE);
+        df.setParseBigDecimal(true);
+        df.setCurrency(Currency.getInstance(LOCALE));
+        df.setMinimumFractionDigits(2);
+        df.setMaximumFractionDigits(2);
+        return df.format(AMOUNT);
+    }
+
+    @Benchmark
+    public String formatPercent(ContextState state) {
+        return localizationService.formatPercent(0.256, LOCALE);
+    }
+
+    @Benchmark
+    public double parseDouble(ContextState state) throws ParseException {
+        return localizationService.parseDouble("1.234.567,891", LOCALE);
+    }
+
+    @Benchmark
+    public AuraLocale getAuraLocale(ContextState state) {
+        return Aura.getLocalizationAdapter().getAuraLocale();
+    }
+}
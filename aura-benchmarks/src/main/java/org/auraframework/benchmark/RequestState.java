@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.benchmark;
+
+import org.auraframework.Aura;
+import org.auraframework.system.AuraContext;
+import org.auraframework.system.AuraContext.Authentication;
+import org.auraframework.system.AuraContext.Format;
+import org.auraframework.system.AuraContext.Mode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A fresh AuraContext for every call, as each request gets.
+ *
+ * Starting and ending the context is not timed. JMH has to time each call on its own to do that, so this is only
+ * accurate for calls that take tens of microseconds or more.
+ */
+@State(Scope.Thread)
+public class RequestState {
+    private AuraContext context;
+
+    @Setup(Level.Invocation)
+    public void startContext() {
+        context = Aura.getContextService().startContext(Mode.PROD, Format.JSON, Authentication.AUTHENTICATED);
+    }
+
+    @TearDown(Level.Invocation)
+    public void endContext() {
+        Aura.getContextService().endContext();
+    }
+
+    public AuraContext getContext() {
+        return context;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+/**
+ * Micro-benchmarks for the framework's hot paths, written with <a href="http://openjdk.java.net/projects/code-tools/jmh/">JMH</a>.
+ * <p>
+ * These measure speed only. Correctness is covered by the tests in the other modules. The fixtures are components from
+ * aura-components, such as ui:button and ui:carousel, so results can be compared between releases.
+ * <p>
+ * To build and run everything:
+ *
+ * <pre>
+ * mvn install -DskipTests
+ * java -jar aura-benchmarks/target/benchmarks.jar
+ * </pre>
+ *
+ * A regular expression picks out some of the benchmarks, e.g. <code>java -jar benchmarks.jar Json</code>. Add
+ * <code>-h</code> for the other JMH options.
+ * <p>
+ * Benchmarks that need an {@link org.auraframework.system.AuraContext} use {@link ContextState}, which holds one
+ * context for the whole run, or {@link RequestState}, which starts a fresh one for each call, the way a request does.
+ */
+package org.auraframework.benchmark;
+
@@ -18,6 +18,7 @@ package org.auraframework.impl.expression;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.List;
 
 import org.antlr.runtime.ANTLRReaderStream;
 import org.antlr.runtime.BaseRecognizer;
@@ -37,13 +38,61 @@ import org.auraframework.throwable.AuraRuntimeException;
 import org.auraframework.throwable.quickfix.AuraValidationException;
 import org.auraframework.throwable.quickfix.InvalidExpressionException;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
 /**
  * adapter that calls our expression factory
  */
 public class ExpressionAdapterImpl implements ExpressionAdapter {
+    private static final int CACHE_SIZE = 10000;
+
+    /**
+     * Parsed expressions, by text.
+     *
+     * Expressions are immutable, but they carry their location, so an expression that was parsed somewhere else is
+     * copied with the caller's location. Copying the tree is much cheaper than parsing it again. Expressions that fail
+     * to parse are not cached, so errors are always reported with the right location.
+     */
+    private static final Cache<String, Expression> expressions = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE)
+            .build();
 
     @Override
     public Expression buildExpression(String s, Location l) throws AuraValidationException {
+        Expression expression = expressions.getIfPresent(s);
+        if (expression == null) {
+            expression = parseExpression(s, l);
+            if (expression != null) {
+                expressions.put(s, expression);
+            }
+        } else if (l == null ? expression.getLocation() != null : !l.equals(expression.getLocation())) {
+            expression = relocate(expression, l);
+        }
+        return expression;
+    }
+
+    /**
+     * Copy a parsed expression with a new location. The parser gives every node of the tree the same location.
+     */
+    private static Expression relocate(Expression e, Location l) {
+        if (e instanceof FunctionCallImpl) {
+            FunctionCallImpl call = (FunctionCallImpl) e;
+            List<Expression> args = Lists.newArrayListWithCapacity(call.getArguments().size());
+            for (Expression arg : call.getArguments()) {
+                args.add(relocate(arg, l));
+            }
+            return new FunctionCallImpl(call.getFunction(), ImmutableList.copyOf(args), l);
+        } else if (e instanceof PropertyReferenceImpl) {
+            return new PropertyReferenceImpl(((PropertyReferenceImpl) e).getList(), l);
+        } else if (e instanceof LiteralImpl) {
+            return new LiteralImpl(((LiteralImpl) e).getValue(), l);
+        }
+        throw new AuraRuntimeException("Unexpected expression: " + e, l);
+    }
+
+    private Expression parseExpression(String s, Location l) throws AuraValidationException {
         ExpressionLexer lexer;
         try {
             lexer = new ExpressionLexer(new CaseInsensitiveReaderStream(new StringReader(s)));
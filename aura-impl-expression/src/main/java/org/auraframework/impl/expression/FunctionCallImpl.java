@@ -61,6 +61,14 @@ public class FunctionCallImpl implements FunctionCall {
         return ExpressionType.FUNCTION;
     }
 
+    Function getFunction() {
+        return f;
+    }
+
+    List<Expression> getArguments() {
+        return args;
+    }
+
     @Override
     public Object evaluate(ValueProvider vp) throws QuickFixException {
         List<Object> list = new ArrayList<Object>(args.size());
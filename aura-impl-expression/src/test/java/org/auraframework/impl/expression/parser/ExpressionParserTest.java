@@ -15,16 +15,23 @@
  */
 package org.auraframework.impl.expression.parser;
 
+import java.util.Set;
+
 import org.auraframework.expression.Expression;
 import org.auraframework.expression.ExpressionType;
 import org.auraframework.expression.PropertyReference;
 import org.auraframework.impl.expression.AuraImplExpressionTestCase;
+import org.auraframework.impl.expression.ExpressionAdapterImpl;
 import org.auraframework.impl.expression.LiteralImpl;
 import org.auraframework.impl.expression.PropertyReferenceImpl;
+import org.auraframework.instance.ValueProvider;
+import org.auraframework.system.Location;
 import org.auraframework.test.annotation.UnAdaptableTest;
 import org.auraframework.throwable.AuraRuntimeException;
 import org.auraframework.throwable.quickfix.InvalidExpressionException;
 
+import com.google.common.collect.Sets;
+
 /**
  * Tests for the expression parser
  */
@@ -525,6 +532,37 @@ public class ExpressionParserTest extends AuraImplExpressionTestCase {
         verifyInvalidExpressionException("5\r\n  1", "unexpected token: '1' at line 2, column 3");
     }
 
+    /**
+     * Parsing the same text at the same location gives back the same expression, while a different location gives an
+     * equivalent expression at that location, so that errors are still reported in the right place.
+     */
+    public void testParsedExpressionsCached() throws Exception {
+        ExpressionAdapterImpl adapter = new ExpressionAdapterImpl();
+        Location first = new Location("first", 1, 1, 0);
+        Location second = new Location("second", 1, 1, 0);
+
+        Expression e = adapter.buildExpression("v.cached + 1", first);
+        assertSame(e, adapter.buildExpression("v.cached + 1", new Location("first", 1, 1, 0)));
+        assertSame(e, new ExpressionAdapterImpl().buildExpression("v.cached + 1", first));
+
+        Expression other = adapter.buildExpression("v.cached + 1", second);
+        assertNotSame(e, other);
+        assertEquals(ExpressionType.FUNCTION, other.getExpressionType());
+        assertEquals(second, other.getLocation());
+        assertEquals(2.0, other.evaluate(new ValueProvider() {
+            @Override
+            public Object getValue(PropertyReference key) {
+                return 1;
+            }
+        }));
+        Set<PropertyReference> refs = Sets.newHashSet();
+        other.gatherPropertyReferences(refs);
+        assertEquals(1, refs.size());
+        PropertyReference ref = refs.iterator().next();
+        assertEquals("v.cached", ref.toString());
+        assertEquals(second, ref.getLocation());
+    }
+
     /**
      * Verify the correct exception type is thrown and contains the correct error message.
      */
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The shared thread pool used to run independent server actions in parallel.
+ *
+ * Actions usually spend their time waiting on other systems rather than computing, so the pool is a few times the
+ * number of processors. It is created on first use.
+ */
+final class ActionExecutor {
+    private static final int POOL_SIZE = 4 * Runtime.getRuntime().availableProcessors();
+
+    private static class Holder {
+        private static final ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE,
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "aura-action-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+    }
+
+    private ActionExecutor() {
+    }
+
+    /**
+     * Start a task on the action threads.
+     */
+    static <T> Future<T> submit(Callable<T> task) {
+        return Holder.executor.submit(task);
+    }
+}
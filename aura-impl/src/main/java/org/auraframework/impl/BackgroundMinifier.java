@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl;
+
+import java.io.StringWriter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.auraframework.util.javascript.JavascriptProcessingError;
+import org.auraframework.util.javascript.JavascriptWriter;
+
+import com.google.common.collect.Maps;
+
+/**
+ * A queue of javascript minifications, run in the background.
+ *
+ * Running the closure compiler over the definitions for an app takes seconds, which is far too long to hold a request
+ * for. Instead, the first request for an app submits its definitions here and serves them unminified, and a later
+ * request picks up the minified version once it is done.
+ *
+ * Minification runs on a single thread with a bounded queue. The compiler is memory hungry, and running several at
+ * once would only slow each of them down. If the queue is full, nothing is submitted, and the caller should simply
+ * try again later.
+ *
+ * Only javascript whose result will be cached should be submitted, as this is not a cache itself.
+ */
+final class BackgroundMinifier {
+    private static final Logger logger = Logger.getLogger(BackgroundMinifier.class);
+
+    /**
+     * The number of minifications that can wait for the thread.
+     */
+    private static final int QUEUE_SIZE = 16;
+
+    /**
+     * How long a finished minification is kept before it is dropped.
+     */
+    private static final long RETAIN_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final ConcurrentMap<String, Minification> minifications = Maps.newConcurrentMap();
+
+    private static class Holder {
+        private static final ExecutorService executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "aura-minify-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+    }
+
+    /**
+     * A single minification, either waiting, running or done.
+     */
+    static final class Minification implements Runnable {
+        private final String key;
+        private volatile String source;
+        private volatile String result;
+        private volatile long finished;
+
+        private Minification(String key, String source) {
+            this.key = key;
+            this.source = source;
+        }
+
+        /**
+         * Get the unminified javascript.
+         *
+         * The source is dropped once the minification is done, after which this gives the result instead.
+         */
+        String getSource() {
+            String unminified = source;
+            return unminified != null ? unminified : result;
+        }
+
+        /**
+         * Get the minified javascript.
+         *
+         * If the compiler reported errors, this is the unminified javascript, as we would not be able to do any
+         * better by trying again.
+         *
+         * @return the result, or null if we are not done.
+         */
+        String getResult() {
+            return result;
+        }
+
+        @Override
+        public void run() {
+            String minified = source;
+            try {
+                StringWriter sw = new StringWriter();
+                List<JavascriptProcessingError> errors = JavascriptWriter.CLOSURE_SIMPLE.compress(source, sw, key);
+                if (errors == null || errors.isEmpty()) {
+                    minified = sw.toString();
+                }
+            } catch (Throwable t) {
+                logger.warn("Unable to minify " + key, t);
+            }
+            finished = System.currentTimeMillis();
+            result = minified;
+            source = null;
+        }
+    }
+
+    private BackgroundMinifier() {
+    }
+
+    /**
+     * Get the minification for a key.
+     *
+     * @param key the key given to {@link #submit(String, String)}.
+     * @return the minification, or null if there is none.
+     */
+    static Minification get(String key) {
+        return minifications.get(key);
+    }
+
+    /**
+     * Submit javascript to be minified, unless it has already been submitted.
+     *
+     * @param key a key that uniquely identifies the javascript.
+     * @param source the javascript to minify.
+     * @return the minification for the key, or null if the queue is full.
+     */
+    static Minification submit(String key, String source) {
+        purge();
+
+        Minification mine = new Minification(key, source);
+        Minification existing = minifications.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            Holder.executor.execute(mine);
+        } catch (RejectedExecutionException ree) {
+            minifications.remove(key, mine);
+            return null;
+        }
+        return mine;
+    }
+
+    /**
+     * Forget a minification once its result is stored elsewhere.
+     */
+    static void remove(Minification minification) {
+        minifications.remove(minification.key, minification);
+    }
+
+    /**
+     * Drop minifications that finished a while ago.
+     *
+     * Results are normally removed once they are cached, but an app can change before anyone asks for the minified
+     * version. Only javascript that can be cached is submitted, so nothing is meant to live here.
+     */
+    private static void purge() {
+        long cutoff = System.currentTimeMillis() - RETAIN_MILLIS;
+        Iterator<Minification> iter = minifications.values().iterator();
+        while (iter.hasNext()) {
+            Minification minification = iter.next();
+            if (minification.result != null && minification.finished < cutoff) {
+                iter.remove();
+            }
+        }
+    }
+}
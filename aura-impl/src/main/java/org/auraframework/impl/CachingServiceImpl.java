@@ -17,35 +17,60 @@ package org.auraframework.impl;
 
 import java.lang.ref.WeakReference;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.*;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 
 import org.apache.log4j.Logger;
 import org.auraframework.Aura;
+import org.auraframework.adapter.ConfigAdapter;
 import org.auraframework.builder.CacheBuilder;
 import org.auraframework.cache.Cache;
 import org.auraframework.def.*;
 import org.auraframework.def.DefDescriptor.DefType;
+import org.auraframework.impl.cache.AdaptiveCacheSizer;
 import org.auraframework.impl.cache.CacheImpl;
+import org.auraframework.impl.cache.CacheMonitor;
+import org.auraframework.impl.cache.DependencyIndex;
+import org.auraframework.impl.cache.EvictionListener;
 import org.auraframework.service.CachingService;
 import org.auraframework.service.DefinitionService;
+import org.auraframework.system.BatchSourceListener;
+import org.auraframework.system.CompressedContent;
 import org.auraframework.system.DependencyEntry;
 import org.auraframework.system.SourceListener;
+import org.auraframework.system.SourceListener.SourceChange;
+import org.auraframework.system.SourceListener.SourceMonitorEvent;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 
 public class CachingServiceImpl implements CachingService {
 
 	private static final long serialVersionUID = -3311707270226573084L;
+	/*
+	 * Default cache sizes, each can be overridden with aura.cache.<name>.size
+	 * in aura.conf. The strings cache is kept on disk, and sized in bytes.
+	 */
 	private final static int DEFINITION_CACHE_SIZE = 4096;
 	private final static int DEPENDENCY_CACHE_SIZE = 100;
 	private final static int STRING_CACHE_SIZE = 100;
+	private final static long STRING_CACHE_BYTES = 256L * 1024 * 1024;
+	private final static int COMPRESSED_CACHE_SIZE = 50;
 	private final static int CLIENT_LIB_CACHE_SIZE = 30;
+	private final static int DESCRIPTOR_CACHE_SIZE = 1024 * 10;
+	private final static int PAGE_SHELL_CACHE_SIZE = 200;
 
 	private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
 	private final WriteLock wLock = rwLock.writeLock();
+	private final AtomicLong cacheEpoch = new AtomicLong();
+	private final DependencyIndex dependencyIndex = new DependencyIndex();
 
 	@Override
 	public <K, T> CacheBuilder<K, T> getCacheBuilder() {
@@ -55,59 +80,135 @@ public class CachingServiceImpl implements CachingService {
 	private final Cache<DefDescriptor<?>, Boolean> existsCache;
 	private final Cache<DefDescriptor<?>, Optional<? extends Definition>> defsCache;
 	private final Cache<String, String> stringsCache;
+	private final Cache<String, CompressedContent> compressedContentCache;
 	private final Cache<String, Set<DefDescriptor<?>>> descriptorFilterCache;
 	private final Cache<String, DependencyEntry> depsCache;
 	private final Cache<String, String> clientLibraryOutputCache;
 	private final Cache<String, Set<String>> clientLibraryUrlsCache;
 	private final Cache<DefDescriptor.DescriptorKey, DefDescriptor<? extends Definition>> defDescriptorByNameCache;
+	private final Cache<List<Object>, List<String>> pageShellCache;
+	private final Map<String, Cache<?, ?>> caches;
 	
 	private static final Logger logger = Logger
 			.getLogger(CachingServiceImpl.class);
 
 	public CachingServiceImpl() {
+		ConfigAdapter config = Aura.getConfigAdapter();
+		boolean softValues = config.isCacheSoftValuesEnabled();
+
 		existsCache = this.<DefDescriptor<?>, Boolean> getCacheBuilder()
 				.setInitialSize(DEFINITION_CACHE_SIZE)
-				.setMaximumSize(DEFINITION_CACHE_SIZE).setRecordStats(true)
-				.setSoftValues(true).build();
+				.setMaximumSize(config.getCacheSize("exists", DEFINITION_CACHE_SIZE))
+				.setRecordStats(true)
+				.setSoftValues(softValues).build();
 
-		defsCache = this
-				.<DefDescriptor<?>, Optional<? extends Definition>> getCacheBuilder()
+		defsCache = new CacheImpl.Builder<DefDescriptor<?>, Optional<? extends Definition>>()
 				.setInitialSize(DEFINITION_CACHE_SIZE)
-				.setMaximumSize(DEFINITION_CACHE_SIZE).setRecordStats(true)
-				.setSoftValues(true).build();
-
-		stringsCache = this.<String, String> getCacheBuilder()
+				.setMaximumSize(config.getCacheSize("defs", DEFINITION_CACHE_SIZE))
+				.setRecordStats(true)
+				.setSoftValues(softValues)
+				.setEvictionListener(new EvictionListener<DefDescriptor<?>>() {
+					@Override
+					public void onEviction(DefDescriptor<?> key) {
+						dependencyIndex.removeDefinition(key);
+					}
+				}).build();
+
+		stringsCache = new CacheImpl.Builder<String, String>()
 				.setInitialSize(STRING_CACHE_SIZE)
-				.setMaximumSize(STRING_CACHE_SIZE).setRecordStats(true)
-				.setSoftValues(true).build();
+				.setMaximumSize(config.getCacheSize("strings", STRING_CACHE_BYTES))
+				.setRecordStats(true)
+				.setUseSecondaryStorage(true)
+				.setEvictionListener(new EvictionListener<String>() {
+					@Override
+					public void onEviction(String key) {
+						dependencyIndex.removeStringKey(key);
+					}
+				}).build();
+
+		compressedContentCache = this.<String, CompressedContent> getCacheBuilder()
+				.setInitialSize(COMPRESSED_CACHE_SIZE)
+				.setMaximumSize(config.getCacheSize("compressedContent", COMPRESSED_CACHE_SIZE))
+				.setRecordStats(true)
+				.setSoftValues(softValues).build();
 
 		descriptorFilterCache = this
 				.<String, Set<DefDescriptor<?>>> getCacheBuilder()
 				.setInitialSize(DEPENDENCY_CACHE_SIZE)
-				.setMaximumSize(DEPENDENCY_CACHE_SIZE).setRecordStats(true)
-				.setSoftValues(true).build();
+				.setMaximumSize(config.getCacheSize("descriptorFilter", DEPENDENCY_CACHE_SIZE))
+				.setRecordStats(true)
+				.setSoftValues(softValues).build();
 
-		depsCache = this.<String, DependencyEntry> getCacheBuilder()
+		depsCache = new CacheImpl.Builder<String, DependencyEntry>()
 				.setInitialSize(DEPENDENCY_CACHE_SIZE)
-				.setMaximumSize(DEPENDENCY_CACHE_SIZE).setRecordStats(true)
-				.setSoftValues(true).build();
+				.setMaximumSize(config.getCacheSize("deps", DEPENDENCY_CACHE_SIZE))
+				.setRecordStats(true)
+				.setSoftValues(softValues)
+				.setEvictionListener(new EvictionListener<String>() {
+					@Override
+					public void onEviction(String key) {
+						dependencyIndex.removeDependencyKey(key);
+					}
+				}).build();
 
 		clientLibraryOutputCache = this.<String, String> getCacheBuilder()
 				.setInitialSize(CLIENT_LIB_CACHE_SIZE)
-				.setMaximumSize(CLIENT_LIB_CACHE_SIZE).setSoftValues(true)
+				.setMaximumSize(config.getCacheSize("clientLibraryOutput", CLIENT_LIB_CACHE_SIZE))
+				.setSoftValues(softValues)
 				.setRecordStats(true).build();
 
 		clientLibraryUrlsCache = this.<String, Set<String>> getCacheBuilder()
 				.setInitialSize(CLIENT_LIB_CACHE_SIZE)
-				.setMaximumSize(CLIENT_LIB_CACHE_SIZE).setSoftValues(true)
+				.setMaximumSize(config.getCacheSize("clientLibraryUrls", CLIENT_LIB_CACHE_SIZE))
+				.setSoftValues(softValues)
 				.setRecordStats(true).build();
 
 		defDescriptorByNameCache = 
 	            this.<DefDescriptor.DescriptorKey, DefDescriptor<? extends Definition>>getCacheBuilder()
 	            .setInitialSize(512)
-	            .setMaximumSize(1024 * 10)
+	            .setMaximumSize(config.getCacheSize("defDescriptorByName", DESCRIPTOR_CACHE_SIZE))
 	            .setConcurrencyLevel(20)
+	            .setRecordStats(true)
 	            .build();
+
+		pageShellCache = this.<List<Object>, List<String>> getCacheBuilder()
+				.setInitialSize(PAGE_SHELL_CACHE_SIZE)
+				.setMaximumSize(config.getCacheSize("pageShells", PAGE_SHELL_CACHE_SIZE))
+				.setSoftValues(softValues)
+				.setRecordStats(true).build();
+
+		caches = ImmutableMap.<String, Cache<?, ?>> builder()
+				.put("defs", defsCache)
+				.put("exists", existsCache)
+				.put("strings", stringsCache)
+				.put("compressedContent", compressedContentCache)
+				.put("descriptorFilter", descriptorFilterCache)
+				.put("deps", depsCache)
+				.put("clientLibraryOutput", clientLibraryOutputCache)
+				.put("clientLibraryUrls", clientLibraryUrlsCache)
+				.put("defDescriptorByName", defDescriptorByNameCache)
+				.put("pageShells", pageShellCache).build();
+		CacheMonitor.register(caches);
+
+		if (config.isAdaptiveCacheSizingEnabled()) {
+			startAdaptiveSizing();
+		}
+	}
+
+	/**
+	 * Let the in memory caches grow and shrink with use.
+	 * 
+	 * The strings cache is left alone, as it is on disk, and does not use any
+	 * heap to speak of.
+	 */
+	private void startAdaptiveSizing() {
+		AdaptiveCacheSizer sizer = new AdaptiveCacheSizer();
+		for (Map.Entry<String, Cache<?, ?>> entry : caches.entrySet()) {
+			if (entry.getValue() instanceof CacheImpl) {
+				sizer.manage(entry.getKey(), (CacheImpl<?, ?>) entry.getValue());
+			}
+		}
+		sizer.start();
 	}
 
 	@Override
@@ -125,6 +226,11 @@ public class CachingServiceImpl implements CachingService {
 		return stringsCache;
 	}
 
+	@Override
+	public final Cache<String, CompressedContent> getCompressedContentCache() {
+		return compressedContentCache;
+	}
+
 	@Override
 	public final Cache<String, Set<DefDescriptor<?>>> getDescriptorFilterCache() {
 		return descriptorFilterCache;
@@ -151,6 +257,16 @@ public class CachingServiceImpl implements CachingService {
 	        return defDescriptorByNameCache;
 	    }
 	
+	@Override
+	public final Cache<List<Object>, List<String>> getPageShellCache() {
+		return pageShellCache;
+	}
+
+	@Override
+	public Map<String, Cache<?, ?>> getCaches() {
+		return caches;
+	}
+
 	@Override
 	public Lock getReadLock() {
 		return rwLock.readLock();
@@ -161,6 +277,31 @@ public class CachingServiceImpl implements CachingService {
 		return rwLock.writeLock();
 	}
 
+	@Override
+	public long getCacheEpoch() {
+		return cacheEpoch.get();
+	}
+
+	@Override
+	public long advanceCacheEpoch() {
+		return cacheEpoch.incrementAndGet();
+	}
+
+	@Override
+	public void indexDependencyEntry(String key, DependencyEntry entry) {
+		dependencyIndex.addDependencyEntry(key, entry);
+	}
+
+	@Override
+	public void indexCachedString(String key, DependencyEntry entry) {
+		dependencyIndex.addString(key, entry);
+	}
+
+	@Override
+	public void indexDefinition(DefDescriptor<?> descriptor) {
+		dependencyIndex.addDefinition(descriptor);
+	}
+
 	/**
 	 * The driver for cache-consistency management in response to source
 	 * changes. MDR drives the process, will notify all registered listeners
@@ -168,6 +309,11 @@ public class CachingServiceImpl implements CachingService {
 	 * can't acquire the lock , it will log it as an non-fatal error, as it only
 	 * results in staleness.
 	 * 
+	 * The write lock only serializes notifications against each other,
+	 * definition lookups do not take the read lock. Instead, the cache epoch is
+	 * advanced before anything is cleared, so that compiles which started
+	 * before the change will not publish their results.
+	 * 
 	 * @param listeners
 	 *            - collections of listeners to notify of source changes
 	 * @param source
@@ -182,6 +328,23 @@ public class CachingServiceImpl implements CachingService {
 			Collection<WeakReference<SourceListener>> listeners,
 			DefDescriptor<?> source, SourceListener.SourceMonitorEvent event,
 			String filePath) {
+		notifyDependentSourceChanges(listeners,
+				Collections.singletonList(new SourceChange(source, event,
+						filePath)));
+	}
+
+	/**
+	 * Notify listeners of a batch of changes, see
+	 * {@link #notifyDependentSourceChange(Collection, DefDescriptor, SourceMonitorEvent, String)}
+	 * .
+	 * 
+	 * The lock is taken, and the epoch advanced, once for the whole batch, and
+	 * the caches are cleared at most once however many files changed.
+	 */
+	@Override
+	public void notifyDependentSourceChanges(
+			Collection<WeakReference<SourceListener>> listeners,
+			Collection<SourceChange> changes) {
 		boolean haveLock = false;
 
 		try {
@@ -196,17 +359,25 @@ public class CachingServiceImpl implements CachingService {
 				return;
 			}
 
+			// make sure no compile in flight can re-populate what we clear
+			advanceCacheEpoch();
+
 			// successfully acquired the lock, start clearing caches
 			// notify provided listeners, presumably to clear caches
 			for (WeakReference<SourceListener> i : listeners) {
 				SourceListener sl = i.get();
 
-				if (sl != null) {
-					sl.onSourceChanged(source, event, filePath);
+				if (sl instanceof BatchSourceListener) {
+					((BatchSourceListener) sl).onSourceChanges(changes);
+				} else if (sl != null) {
+					for (SourceChange change : changes) {
+						sl.onSourceChanged(change.getSource(),
+								change.getEvent(), change.getFilePath());
+					}
 				}
 			}
 			// lastly, clear MDR's static caches
-			invalidateSourceRelatedCaches(source);
+			invalidateSourceRelatedCaches(changes);
 
 		} catch (InterruptedException e) {
 		} finally {
@@ -216,21 +387,49 @@ public class CachingServiceImpl implements CachingService {
 		}
 	}
 
-	private void invalidateSourceRelatedCaches(DefDescriptor<?> descriptor) {
-
-		depsCache.invalidateAll();
-		descriptorFilterCache.invalidateAll();
-		stringsCache.invalidateAll();
-
-		if (descriptor == null) {
-			defsCache.invalidateAll();
-			existsCache.invalidateAll();
-		} else {
+	/**
+	 * Invalidate the caches affected by changes to sources.
+	 * 
+	 * A plain change to a known descriptor only evicts the dependency entries
+	 * and strings that include it, found through the dependency index. Anything
+	 * else (a new or deleted source, which can change what a filter or a
+	 * wildcard dependency matches, or a namespace or layouts change, which
+	 * affects a whole scope) clears them all. Either is done once for all of
+	 * the changes.
+	 */
+	private void invalidateSourceRelatedCaches(Collection<SourceChange> changes) {
+		List<DefDescriptor<?>> changed = Lists.newArrayList();
+		boolean clearAll = false;
+
+		for (SourceChange change : changes) {
+			DefDescriptor<?> descriptor = change.getSource();
+
+			if (descriptor == null) {
+				depsCache.invalidateAll();
+				descriptorFilterCache.invalidateAll();
+				stringsCache.invalidateAll();
+				compressedContentCache.invalidateAll();
+				pageShellCache.invalidateAll();
+				defsCache.invalidateAll();
+				existsCache.invalidateAll();
+				return;
+			}
 			DefinitionService ds = Aura.getDefinitionService();
 			DefDescriptor<ComponentDef> cdesc = ds.getDefDescriptor(descriptor,
 					"markup", ComponentDef.class);
 			DefDescriptor<ApplicationDef> adesc = ds.getDefDescriptor(
 					descriptor, "markup", ApplicationDef.class);
+			DefType defType = descriptor.getDefType();
+
+			if (change.getEvent() == SourceMonitorEvent.changed
+					&& defType != DefType.NAMESPACE
+					&& defType != DefType.LAYOUTS) {
+				changed.add(descriptor);
+				changed.add(cdesc);
+				changed.add(adesc);
+			} else {
+				clearAll = true;
+			}
 
 			defsCache.invalidate(descriptor);
 			existsCache.invalidate(descriptor);
@@ -240,24 +439,39 @@ public class CachingServiceImpl implements CachingService {
 			existsCache.invalidate(adesc);
 
 			// invalidate all DDs with the same namespace if its a namespace DD
-			if (descriptor.getDefType() == DefType.NAMESPACE) {
+			if (defType == DefType.NAMESPACE) {
 				invalidateScope(descriptor, true, false);
 			}
 
-			if (descriptor.getDefType() == DefType.LAYOUTS) {
+			if (defType == DefType.LAYOUTS) {
 				invalidateScope(descriptor, true, true);
 			}
 		}
+
+		if (clearAll) {
+			depsCache.invalidateAll();
+			descriptorFilterCache.invalidateAll();
+			stringsCache.invalidateAll();
+			compressedContentCache.invalidateAll();
+			pageShellCache.invalidateAll();
+		} else if (!changed.isEmpty()) {
+			Set<String> uids = dependencyIndex.getDependents(changed);
+			Set<String> stringKeys = dependencyIndex.getStringKeys(uids);
+			depsCache.invalidate(dependencyIndex.getDependencyKeys(uids));
+			stringsCache.invalidate(stringKeys);
+			compressedContentCache.invalidate(stringKeys);
+		}
 	}
 
 	private void invalidateScope(DefDescriptor<?> descriptor,
 			boolean clearNamespace, boolean clearName) {
 
-		final Set<DefDescriptor<?>> defsKeySet = defsCache.getKeySet();
 		final String namespace = descriptor.getNamespace();
 		final String name = descriptor.getName();
 
-		for (DefDescriptor<?> dd : defsKeySet) {
+		// every scope we clear is within a namespace, so only look at that
+		// namespace's cached defs
+		for (DefDescriptor<?> dd : dependencyIndex.getDefinitions(namespace)) {
 			boolean sameNamespace = namespace.equals(dd.getNamespace());
 			boolean sameName = name.equals(dd.getName());
 			boolean shouldClear = (clearNamespace && clearName) ? (clearNamespace && sameNamespace)
@@ -16,6 +16,8 @@
 package org.auraframework.impl;
 
 import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -33,6 +35,7 @@ import org.auraframework.service.ContextService;
 import org.auraframework.service.DefinitionService;
 import org.auraframework.system.AuraContext;
 import org.auraframework.system.AuraContext.Authentication;
+import org.auraframework.system.DescriptorSet;
 import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.system.SourceListener;
 import org.auraframework.throwable.AuraRuntimeException;
@@ -40,6 +43,7 @@ import org.auraframework.throwable.ClientOutOfSyncException;
 import org.auraframework.throwable.quickfix.DefinitionNotFoundException;
 import org.auraframework.throwable.quickfix.QuickFixException;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
 /**
@@ -212,14 +216,19 @@ public class DefinitionServiceImpl implements DefinitionService {
         ContextService contextService = Aura.getContextService();
         AuraContext context;
         MasterDefRegistry mdr;
-        Set<DefDescriptor<?>> loaded = Sets.newHashSet();
-        Set<DefDescriptor<?>> prev = Sets.newHashSet();
+        Set<DefDescriptor<?>> loaded;
+        List<DefDescriptor<?>> prev = Lists.newArrayList();
         Set<DefDescriptor<?>> remove = null;
 
         contextService.assertEstablished();
         context = contextService.getCurrentContext();
         mdr = context.getDefRegistry();
         if (context.getPreloadedDefinitions() == null) {
+            //
+            // Dependency sets are bitsets of interned descriptor ids, so this union, and the
+            // contains checks below, are word operations rather than hash lookups.
+            //
+            DescriptorSet.Builder preloaded = DescriptorSet.builder();
             //
             // TODO (optimize): we could reverse this set randomly to try
             // to sanitize the list in opposite directions. No need to be
@@ -227,7 +236,7 @@ public class DefinitionServiceImpl implements DefinitionService {
             //
             for (Map.Entry<DefDescriptor<?>, String> entry : context.getClientLoaded().entrySet()) {
                 DefDescriptor<?> descriptor = entry.getKey();
-                if (loaded.contains(descriptor)) {
+                if (preloaded.contains(descriptor)) {
                     context.dropLoaded(descriptor);
                 } else {
                     // validate the uid.
@@ -254,7 +263,7 @@ public class DefinitionServiceImpl implements DefinitionService {
                         throw qfe;
                     }
                     Set<DefDescriptor<?>> deps = mdr.getDependencies(uid);
-                    loaded.addAll(deps);
+                    preloaded.addAll(deps);
                     for (DefDescriptor<?> x : prev) {
                         if (deps.contains(x)) {
                             if (remove == null) {
@@ -266,6 +275,7 @@ public class DefinitionServiceImpl implements DefinitionService {
                     prev.add(descriptor);
                 }
             }
+            loaded = preloaded.build();
             context.setPreloadedDefinitions(loaded);
         } else {
             loaded = context.getPreloadedDefinitions();
@@ -301,6 +311,16 @@ public class DefinitionServiceImpl implements DefinitionService {
         Aura.getCachingService().notifyDependentSourceChange(listeners, source, event, filePath);
     }
 
+    @Override
+    public void onSourceChanges(Collection<SourceListener.SourceChange> changes) {
+        for (WeakReference<SourceListener> i : listeners) {
+            if (i.get() == null) {
+                listeners.remove(i);
+            }
+        }
+        Aura.getCachingService().notifyDependentSourceChanges(listeners, changes);
+    }
+
     @Override
     public void subscribeToChangeNotification(SourceListener listener) {
         listeners.add(new WeakReference<SourceListener>(listener));
@@ -29,6 +29,10 @@ import org.auraframework.util.date.DateService;
 import org.auraframework.util.date.DateServiceImpl;
 import org.auraframework.util.number.AuraNumberFormat;
 
+import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.ibm.icu.text.DateFormat;
 import com.ibm.icu.text.DecimalFormat;
 import com.ibm.icu.text.NumberFormat;
@@ -47,6 +51,68 @@ public class LocalizationServiceImpl implements LocalizationService {
      */
     private static final long serialVersionUID = 9203705220037034653L;
 
+    private static final int FORMAT_CACHE_SIZE = 500;
+
+    private static enum FormatStyle {
+        GENERAL, NUMBER, PERCENT, CURRENCY
+    }
+
+    /**
+     * Configured number formats, by style, locale, fraction digits and currency.
+     *
+     * Looking up the locale data and parsing the pattern was most of the cost of formatting a number. Formats are
+     * not thread safe, so these are only used as prototypes, and every call gets its own clone.
+     */
+    private static final LoadingCache<FormatKey, NumberFormat> formats = CacheBuilder.newBuilder()
+            .maximumSize(FORMAT_CACHE_SIZE).build(new CacheLoader<FormatKey, NumberFormat>() {
+                @Override
+                public NumberFormat load(FormatKey key) {
+                    return key.create();
+                }
+            });
+
+    /**
+     * Stands for the locale's own number of fraction digits in a {@link FormatKey}. Callers cannot ask for it, as
+     * their negative counts are treated as 0.
+     */
+    private static final int DEFAULT_FRACTION_DIGITS = Integer.MIN_VALUE;
+
+    private static NumberFormat getFormat(FormatStyle style, Locale locale) {
+        return getFormat(style, locale, false);
+    }
+
+    /**
+     * Get a number format with the locale's own fraction digits, that the caller can change and use freely.
+     *
+     * @param style the kind of format.
+     * @param locale the locale.
+     * @param parseBigDecimal true if parsing should return BigDecimals.
+     */
+    private static NumberFormat getFormat(FormatStyle style, Locale locale, boolean parseBigDecimal) {
+        return getFormat(new FormatKey(style, locale, DEFAULT_FRACTION_DIGITS, DEFAULT_FRACTION_DIGITS, null,
+                parseBigDecimal));
+    }
+
+    /**
+     * Get a number format that the caller can change and use freely.
+     *
+     * @param style the kind of format.
+     * @param locale the locale.
+     * @param minFractionDigits the minimum number of fraction digits. Negative counts are treated as 0.
+     * @param maxFractionDigits the maximum number of fraction digits. Negative counts are treated as 0.
+     * @param currency the currency for a currency format, or null for the default.
+     * @param parseBigDecimal true if parsing should return BigDecimals.
+     */
+    private static NumberFormat getFormat(FormatStyle style, Locale locale, int minFractionDigits,
+            int maxFractionDigits, Currency currency, boolean parseBigDecimal) {
+        return getFormat(new FormatKey(style, locale, Math.max(0, minFractionDigits), Math.max(0, maxFractionDigits),
+                currency, parseBigDecimal));
+    }
+
+    private static NumberFormat getFormat(FormatKey key) {
+        return (NumberFormat) formats.getUnchecked(key).clone();
+    }
+
     @Override
     public String formatDate(Date date) {
         return formatDate(date, null, null, DateFormat.DEFAULT);
@@ -248,7 +314,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale);
         return nf.format(number);
     }
 
@@ -257,7 +323,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale);
         return nf.format(number);
     }
 
@@ -266,7 +332,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale);
         return nf.format(number);
     }
 
@@ -302,9 +368,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
-        nf.setMinimumFractionDigits(minFractionDigits);
-        nf.setMaximumFractionDigits(maxFractionDigits);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale, minFractionDigits, maxFractionDigits, null, false);
         return nf.format(number);
     }
 
@@ -323,7 +387,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getPercentInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.PERCENT, locale);
         return nf.format(percent);
     }
 
@@ -332,9 +396,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getPercentInstance(locale);
-        nf.setMinimumFractionDigits(minFractionDigits);
-        nf.setMaximumFractionDigits(maxFractionDigits);
+        NumberFormat nf = getFormat(FormatStyle.PERCENT, locale, minFractionDigits, maxFractionDigits, null, false);
         return nf.format(percent);
     }
 
@@ -353,7 +415,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
+        NumberFormat df = getFormat(FormatStyle.CURRENCY, locale);
         return df.format(currency);
     }
 
@@ -371,12 +433,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (currency == null) {
             currency = Currency.getInstance(locale);
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
-        // setCurrency will set fraction digits based on locale so that statement needs to happen before if we
-        // want to set fraction digits ourselves
-        df.setCurrency(currency);
-        df.setMinimumFractionDigits(minFractionDigits);
-        df.setMaximumFractionDigits(maxFractionDigits);
+        NumberFormat df = getFormat(FormatStyle.CURRENCY, locale, minFractionDigits, maxFractionDigits, currency, false);
         return df.format(value);
     }
 
@@ -395,8 +452,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
-        df.setParseBigDecimal(true);
+        NumberFormat df = getFormat(FormatStyle.CURRENCY, locale, true);
         return df.format(currency);
     }
 
@@ -414,11 +470,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (currency == null) {
             currency = Currency.getInstance(locale);
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
-        df.setParseBigDecimal(true);
-        df.setCurrency(currency);
-        df.setMinimumFractionDigits(minFractionDigits);
-        df.setMaximumFractionDigits(maxFractionDigits);
+        NumberFormat df = getFormat(FormatStyle.CURRENCY, locale, minFractionDigits, maxFractionDigits, currency, true);
         return df.format(value);
     }
 
@@ -625,7 +677,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.GENERAL, locale);
         return AuraNumberFormat.parseStrict(number, nf).intValue();
     }
 
@@ -637,7 +689,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.GENERAL, locale);
         return AuraNumberFormat.parseStrict(number, nf).longValue();
     }
 
@@ -649,7 +701,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.GENERAL, locale);
         return AuraNumberFormat.parseStrict(number, nf).floatValue();
     }
 
@@ -661,7 +713,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.GENERAL, locale);
         return AuraNumberFormat.parseStrict(number, nf).doubleValue();
     }
 
@@ -678,7 +730,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getPercentInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.PERCENT, locale);
         return AuraNumberFormat.parseStrict(percent, nf).doubleValue();
     }
 
@@ -695,8 +747,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getCurrencyLocale();
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
-        df.setParseBigDecimal(true);
+        NumberFormat df = getFormat(FormatStyle.CURRENCY, locale, true);
         // TODO: use parseStrict when ICU4J is updated >= 51.2
         return ((com.ibm.icu.math.BigDecimal) AuraNumberFormat.parse(currency, df, false)).toBigDecimal();
     }
@@ -719,7 +770,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale);
         return nf.format(number);
     }
 
@@ -731,9 +782,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
-        nf.setMinimumFractionDigits(minFractionDigits);
-        nf.setMaximumFractionDigits(maxFractionDigits);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale, minFractionDigits, maxFractionDigits, null, false);
         return nf.format(number);
     }
 
@@ -750,8 +799,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        DecimalFormat df = (DecimalFormat) NumberFormat.getInstance(locale);
-        df.setParseBigDecimal(true);
+        NumberFormat df = getFormat(FormatStyle.GENERAL, locale, true);
         // icu BigDecimal to java BigDecimal
         return ((com.ibm.icu.math.BigDecimal) AuraNumberFormat.parseStrict(number, df)).toBigDecimal();
     }
@@ -769,7 +817,7 @@ public class LocalizationServiceImpl implements LocalizationService {
         if (locale == null) {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale);
         return nf.format(number);
     }
 
@@ -782,10 +830,82 @@ public class LocalizationServiceImpl implements LocalizationService {
             locale = Aura.getLocalizationAdapter().getAuraLocale().getNumberLocale();
         }
 
-        NumberFormat nf = NumberFormat.getNumberInstance(locale);
-        nf.setMinimumFractionDigits(minFractionDigits);
-        nf.setMaximumFractionDigits(maxFractionDigits);
+        NumberFormat nf = getFormat(FormatStyle.NUMBER, locale, minFractionDigits, maxFractionDigits, null, false);
         return nf.format(number);
     }
 
+    private static final class FormatKey {
+        private final FormatStyle style;
+        private final Locale locale;
+        private final int minFractionDigits;
+        private final int maxFractionDigits;
+        private final Currency currency;
+        private final boolean parseBigDecimal;
+        private final int hashCode;
+
+        private FormatKey(FormatStyle style, Locale locale, int minFractionDigits, int maxFractionDigits,
+                Currency currency, boolean parseBigDecimal) {
+            this.style = style;
+            this.locale = locale;
+            this.minFractionDigits = minFractionDigits;
+            this.maxFractionDigits = maxFractionDigits;
+            this.currency = currency;
+            this.parseBigDecimal = parseBigDecimal;
+            this.hashCode = Objects.hashCode(style, locale, minFractionDigits, maxFractionDigits,
+                    currency == null ? null : currency.getCurrencyCode(), parseBigDecimal);
+        }
+
+        private NumberFormat create() {
+            NumberFormat nf;
+            switch (style) {
+            case NUMBER:
+                nf = NumberFormat.getNumberInstance(locale);
+                break;
+            case PERCENT:
+                nf = NumberFormat.getPercentInstance(locale);
+                break;
+            case CURRENCY:
+                nf = NumberFormat.getCurrencyInstance(locale);
+                break;
+            default:
+                nf = NumberFormat.getInstance(locale);
+                break;
+            }
+            if (parseBigDecimal) {
+                ((DecimalFormat) nf).setParseBigDecimal(true);
+            }
+            if (currency != null) {
+                // setCurrency will set fraction digits based on locale so that statement needs to happen before if we
+                // want to set fraction digits ourselves
+                nf.setCurrency(currency);
+            }
+            if (minFractionDigits != DEFAULT_FRACTION_DIGITS) {
+                nf.setMinimumFractionDigits(minFractionDigits);
+            }
+            if (maxFractionDigits != DEFAULT_FRACTION_DIGITS) {
+                nf.setMaximumFractionDigits(maxFractionDigits);
+            }
+            return nf;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FormatKey)) {
+                return false;
+            }
+            FormatKey other = (FormatKey) o;
+            return style == other.style && locale.equals(other.locale) && minFractionDigits == other.minFractionDigits
+                    && maxFractionDigits == other.maxFractionDigits && parseBigDecimal == other.parseBigDecimal
+                    && (currency == null ? other.currency == null : other.currency != null
+                            && currency.getCurrencyCode().equals(other.currency.getCurrencyCode()));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
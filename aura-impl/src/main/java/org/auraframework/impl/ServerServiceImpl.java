@@ -16,12 +16,15 @@
 package org.auraframework.impl;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.io.Writer;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.auraframework.Aura;
 import org.auraframework.def.ApplicationDef;
@@ -32,19 +35,20 @@ import org.auraframework.def.DefDescriptor.DefType;
 import org.auraframework.def.Definition;
 import org.auraframework.def.EventDef;
 import org.auraframework.def.StyleDef;
+import org.auraframework.impl.BackgroundMinifier.Minification;
+import org.auraframework.impl.java.controller.JavaAction;
 import org.auraframework.instance.Action;
 import org.auraframework.instance.Event;
 import org.auraframework.service.LoggingService;
 import org.auraframework.service.ServerService;
 import org.auraframework.system.AuraContext;
 import org.auraframework.system.AuraContext.Mode;
+import org.auraframework.system.CompressedContent;
 import org.auraframework.system.LoggingContext.KeyValueLogger;
 import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.system.Message;
 import org.auraframework.throwable.AuraExecutionException;
 import org.auraframework.throwable.quickfix.QuickFixException;
-import org.auraframework.util.javascript.JavascriptProcessingError;
-import org.auraframework.util.javascript.JavascriptWriter;
 import org.auraframework.util.json.Json;
 
 import com.google.common.collect.Sets;
@@ -91,9 +95,46 @@ public class ServerServiceImpl implements ServerService {
         }
     }
 
+    /**
+     * Start any independent actions on the action threads.
+     *
+     * Parameters are converted here, on the request thread, and only the call itself is handed off. The returned
+     * futures are completed in order by {@link #run(List, Json)}. An action that already failed while its parameters
+     * were converted is mapped to null, so that it is not run again.
+     *
+     * @return the prepared actions, by identity.
+     */
+    private Map<Action, Future<Object>> startIndependentActions(List<Action> actions) {
+        Map<Action, Future<Object>> started = new IdentityHashMap<Action, Future<Object>>();
+        AuraContext context = Aura.getContextService().getCurrentContext();
+
+        for (Action action : actions) {
+            if (action instanceof JavaAction && ((JavaAction) action).isIndependent()) {
+                JavaAction javaAction = (JavaAction) action;
+                Action oldAction = context.setCurrentAction(action);
+                try {
+                    Callable<Object> invocation = javaAction.prepareInvocation();
+                    if (invocation != null) {
+                        Aura.getLoggingService().incrementNum("JavaCallCount");
+                        started.put(action, ActionExecutor.submit(invocation));
+                    } else {
+                        started.put(action, null);
+                    }
+                } finally {
+                    context.setCurrentAction(oldAction);
+                }
+            }
+        }
+        return started;
+    }
+
     private void run(List<Action> actions, Json json) throws IOException {
         LoggingService loggingService = Aura.getLoggingService();
         AuraContext context = Aura.getContextService().getCurrentContext();
+        Map<Action, Future<Object>> started = Collections.emptyMap();
+        if (Aura.getConfigAdapter().isParallelActionsEnabled()) {
+            started = startIndependentActions(actions);
+        }
         for (Action action : actions) {
             StringBuffer actionAndParams = new StringBuffer(action.getDescriptor().getQualifiedName());
             KeyValueLogger logger = loggingService.getKeyValueLogger(actionAndParams);
@@ -111,7 +152,16 @@ public class ServerServiceImpl implements ServerService {
                 // DCHASMAN TODO Look into a common base for Action
                 // implementations that we can move the call to
                 // context.setCurrentAction() into!
-                action.run();
+                if (started.containsKey(action)) {
+                    Future<Object> result = started.get(action);
+                    if (result != null) {
+                        // already running, so this just waits for it.
+                        ((JavaAction) action).complete(result);
+                    }
+                    // otherwise it failed when it was prepared, and the error is already on the action.
+                } else {
+                    action.run();
+                }
             } catch (AuraExecutionException x) {
                 Aura.getExceptionAdapter().handleException(x, action);
             } finally {
@@ -137,16 +187,28 @@ public class ServerServiceImpl implements ServerService {
         }
     }
 
+    private static boolean isMinified(AuraContext context) {
+        Mode mode = context.getMode();
+        return !(mode.isTestMode() || mode.isDevMode());
+    }
+
+    private static String getAppCssKey(AuraContext context, String uid) {
+        final String mKey = isMinified(context) ? "MIN:" : "DEV:";
+        return "CSS:" + context.getClient().getType() + "$" + mKey + uid;
+    }
+
+    private static String getDefinitionsKey(AuraContext context, String uid) {
+        final String mKey = isMinified(context) ? "MIN:" : "DEV:";
+        return "JS:" + mKey + uid;
+    }
+
     @Override
     public void writeAppCss(Set<DefDescriptor<?>> dependencies, Writer out) throws IOException, QuickFixException {
         AuraContext context = Aura.getContextService().getCurrentContext();
-        Mode mode = context.getMode();
-        final boolean minify = !(mode.isTestMode() || mode.isDevMode());
-        final String mKey = minify ? "MIN:" : "DEV:";
 
         DefDescriptor<?> appDesc = context.getLoadingApplicationDescriptor();
         final String uid = context.getUid(appDesc);
-        final String key = "CSS:" + context.getClient().getType() + "$" + mKey + uid;
+        final String key = getAppCssKey(context, uid);
 
         context.setPreloading(true);
 
@@ -156,15 +218,17 @@ public class ServerServiceImpl implements ServerService {
             context.setOverrideThemeDescriptor(app.getOverrideThemeDescriptor());
         }
 
-        String cached = context.getDefRegistry().getCachedString(uid, appDesc, key);
-        if (cached == null) {
+        //
+        // The cached css can be large, so let the registry copy it straight to the output.
+        //
+        if (!context.getDefRegistry().writeCachedString(uid, appDesc, key, out)) {
             Collection<StyleDef> orderedStyleDefs = filterAndLoad(StyleDef.class, dependencies, null);
             StringBuffer sb = new StringBuffer();
             Aura.getSerializationService().writeCollection(orderedStyleDefs, StyleDef.class, sb, "CSS");
-            cached = sb.toString();
+            String cached = sb.toString();
             context.getDefRegistry().putCachedString(uid, appDesc, key, cached);
+            out.append(cached);
         }
-        out.append(cached);
     }
 
     @Override
@@ -172,9 +236,7 @@ public class ServerServiceImpl implements ServerService {
             throws IOException, QuickFixException {
         AuraContext context = Aura.getContextService().getCurrentContext();
 
-        Mode mode = context.getMode();
-        final boolean minify = !(mode.isTestMode() || mode.isDevMode());
-        final String mKey = minify ? "MIN:" : "DEV:";
+        final boolean minify = isMinified(context);
         //
         // create a temp buffer in case anything bad happens while we're processing this.
         // don't want to end up with a half a JS init function
@@ -187,54 +249,129 @@ public class ServerServiceImpl implements ServerService {
         context.setPreloading(true);
         DefDescriptor<?> applicationDescriptor = context.getLoadingApplicationDescriptor();
         final String uid = context.getUid(applicationDescriptor);
-        final String key = "JS:" + mKey + uid;
-        String cached = context.getDefRegistry().getCachedString(uid, applicationDescriptor, key);
-
-        if (cached == null) {
-
-            StringBuilder sb = new StringBuilder();
-
-            sb.append("$A.clientService.initDefs({");
-
-            // append component definitions
-            sb.append("componentDefs:");
-            Collection<BaseComponentDef> defs = filterAndLoad(BaseComponentDef.class, dependencies, null);
-            Aura.getSerializationService().writeCollection(defs, BaseComponentDef.class, sb, "JSON");
-            sb.append(",");
-
-            // append event definitions
-            sb.append("eventDefs:");
-            Collection<EventDef> events = filterAndLoad(EventDef.class, dependencies, null);
-            Aura.getSerializationService().writeCollection(events, EventDef.class, sb, "JSON");
-            sb.append(",");
-
-            //
-            // append controller definitions
-            // Dunno how this got to be this way. The code in the Format adaptor was twisted and stupid,
-            // as it walked the namespaces looking up the same descriptor, with a string.format that had
-            // the namespace but did not use it. This ends up just getting a single controller.
-            //
-            sb.append("controllerDefs:");
-            Collection<ControllerDef> controllers = filterAndLoad(ControllerDef.class, dependencies, ACF);
-            Aura.getSerializationService().writeCollection(controllers, ControllerDef.class, sb, "JSON");
-
-            sb.append("});");
-
-            cached = sb.toString();
-            // only use closure compiler in prod mode, due to compile cost
-            if (minify) {
-                StringWriter sw = new StringWriter();
-                List<JavascriptProcessingError> errors = JavascriptWriter.CLOSURE_SIMPLE.compress(cached, sw, key);
-                if (errors == null || errors.isEmpty()) {
-                    // For now, just use the non-compressed version if we can't get
-                    // the compression to work.
-                    cached = sw.toString();
-                }
+        final String key = getDefinitionsKey(context, uid);
+        if (!context.getDefRegistry().writeCachedString(uid, applicationDescriptor, key, out)) {
+            out.append(getUncachedDefinitions(context, dependencies, uid, key, minify));
+        }
+    }
+
+    @Override
+    public boolean prepareDefinitions(Set<DefDescriptor<?>> dependencies) throws IOException, QuickFixException {
+        AuraContext context = Aura.getContextService().getCurrentContext();
+
+        if (!isMinified(context)) {
+            return true;
+        }
+        context.setPreloading(true);
+        DefDescriptor<?> applicationDescriptor = context.getLoadingApplicationDescriptor();
+        MasterDefRegistry mdr = context.getDefRegistry();
+        final String uid = context.getUid(applicationDescriptor);
+        final String key = getDefinitionsKey(context, uid);
+
+        if (mdr.hasCachedString(uid, applicationDescriptor, key)
+                || !mdr.canCacheString(uid, applicationDescriptor)) {
+            return true;
+        }
+        getUncachedDefinitions(context, dependencies, uid, key, true);
+
+        Minification minification = BackgroundMinifier.get(getMinifierKey(applicationDescriptor, key));
+        if (minification != null) {
+            return minification.getResult() != null;
+        }
+        return mdr.hasCachedString(uid, applicationDescriptor, key);
+    }
+
+    private static String getMinifierKey(DefDescriptor<?> applicationDescriptor, String key) {
+        return applicationDescriptor.getQualifiedName() + "@" + key;
+    }
+
+    /**
+     * Get the definitions for the current app when they are not cached.
+     * 
+     * In production modes, minification is done in the background by {@link BackgroundMinifier}. Until it is done,
+     * this returns the unminified definitions, and once it is done, the minified version is cached. Definitions that
+     * cannot be cached are not minified, as the result would have nowhere to go.
+     */
+    private String getUncachedDefinitions(AuraContext context, Set<DefDescriptor<?>> dependencies, String uid,
+            String key, boolean minify) throws IOException, QuickFixException {
+        DefDescriptor<?> applicationDescriptor = context.getLoadingApplicationDescriptor();
+        MasterDefRegistry mdr = context.getDefRegistry();
+
+        if (!minify || !mdr.canCacheString(uid, applicationDescriptor)) {
+            String cached = serializeDefinitions(dependencies);
+            mdr.putCachedString(uid, applicationDescriptor, key, cached);
+            return cached;
+        }
+        String minifierKey = getMinifierKey(applicationDescriptor, key);
+        Minification minification = BackgroundMinifier.get(minifierKey);
+        if (minification == null) {
+            String source = serializeDefinitions(dependencies);
+            minification = BackgroundMinifier.submit(minifierKey, source);
+            if (minification == null) {
+                // queue is full, try again on the next request.
+                return source;
             }
-            context.getDefRegistry().putCachedString(uid, applicationDescriptor, key, cached);
         }
+        String minified = minification.getResult();
+        if (minified == null) {
+            return minification.getSource();
+        }
+        mdr.putCachedString(uid, applicationDescriptor, key, minified);
+        if (mdr.hasCachedString(uid, applicationDescriptor, key)) {
+            BackgroundMinifier.remove(minification);
+        }
+        return minified;
+    }
+
+    private String serializeDefinitions(Set<DefDescriptor<?>> dependencies) throws IOException, QuickFixException {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("$A.clientService.initDefs({");
+
+        // append component definitions
+        sb.append("componentDefs:");
+        Collection<BaseComponentDef> defs = filterAndLoad(BaseComponentDef.class, dependencies, null);
+        Aura.getSerializationService().writeCollection(defs, BaseComponentDef.class, sb, "JSON");
+        sb.append(",");
+
+        // append event definitions
+        sb.append("eventDefs:");
+        Collection<EventDef> events = filterAndLoad(EventDef.class, dependencies, null);
+        Aura.getSerializationService().writeCollection(events, EventDef.class, sb, "JSON");
+        sb.append(",");
+
+        //
+        // append controller definitions
+        // Dunno how this got to be this way. The code in the Format adaptor was twisted and stupid,
+        // as it walked the namespaces looking up the same descriptor, with a string.format that had
+        // the namespace but did not use it. This ends up just getting a single controller.
+        //
+        sb.append("controllerDefs:");
+        Collection<ControllerDef> controllers = filterAndLoad(ControllerDef.class, dependencies, ACF);
+        Aura.getSerializationService().writeCollection(controllers, ControllerDef.class, sb, "JSON");
+
+        sb.append("});");
+        return sb.toString();
+    }
+
+    @Override
+    public CompressedContent getCompressedAppCss(Set<DefDescriptor<?>> dependencies) throws IOException,
+            QuickFixException {
+        AuraContext context = Aura.getContextService().getCurrentContext();
+        DefDescriptor<?> appDesc = context.getLoadingApplicationDescriptor();
+        String uid = context.getUid(appDesc);
+
+        return context.getDefRegistry().getCompressedString(uid, appDesc, getAppCssKey(context, uid));
+    }
+
+    @Override
+    public CompressedContent getCompressedDefinitions(Set<DefDescriptor<?>> dependencies) throws IOException,
+            QuickFixException {
+        AuraContext context = Aura.getContextService().getCurrentContext();
+        DefDescriptor<?> appDesc = context.getLoadingApplicationDescriptor();
+        String uid = context.getUid(appDesc);
 
-        out.append(cached);
+        return context.getDefRegistry().getCompressedString(uid, appDesc, getDefinitionsKey(context, uid));
     }
 
     @Override
@@ -64,6 +64,13 @@ public class ConfigAdapterImpl implements ConfigAdapter {
     private static final String TIMESTAMP_PROPERTY = "aura.build.timestamp";
     private static final String VERSION_PROPERTY = "aura.build.version";
     private static final String VALIDATE_CSS_CONFIG = "aura.css.validate";
+    private static final String PARALLEL_COMPILE_CONFIG = "aura.compile.parallel";
+    private static final String CACHE_SIZE_CONFIG_PREFIX = "aura.cache.";
+    private static final String CACHE_SIZE_CONFIG_SUFFIX = ".size";
+    private static final String CACHE_SOFT_VALUES_CONFIG = "aura.cache.softValues";
+    private static final String CACHE_ADAPTIVE_CONFIG = "aura.cache.adaptive";
+    private static final String PARALLEL_ACTIONS_CONFIG = "aura.actions.parallel";
+    private static final String DEFINITION_CACHE_DIR_CONFIG = "aura.compile.cacheDir";
     
     private static final Set<String> SYSTEM_NAMESPACES = Sets.newHashSet();
 
@@ -84,6 +91,12 @@ public class ConfigAdapterImpl implements ConfigAdapter {
     private String auraVersionString;
     private boolean lastGenerationHadCompilationErrors = false;
     private final boolean validateCss;
+    private final boolean parallelCompile;
+    private final boolean cacheSoftValues;
+    private final boolean adaptiveCacheSizing;
+    private final boolean parallelActions;
+    private final File definitionCacheDirectory;
+    private final Properties config;
 
     public ConfigAdapterImpl() {
         this(getDefaultCacheDir());
@@ -148,10 +161,25 @@ public class ConfigAdapterImpl implements ConfigAdapter {
             buildTimestamp = readBuildTimestamp(props);
         }
 
-        Properties config = loadConfig();
+        config = loadConfig();
         String validateCssString = config.getProperty(VALIDATE_CSS_CONFIG);
         validateCss = AuraTextUtil.isNullEmptyOrWhitespace(validateCssString)
                 || Boolean.parseBoolean(validateCssString.trim());
+        String parallelCompileString = config.getProperty(PARALLEL_COMPILE_CONFIG);
+        parallelCompile = !AuraTextUtil.isNullEmptyOrWhitespace(parallelCompileString)
+                && Boolean.parseBoolean(parallelCompileString.trim());
+        String cacheSoftValuesString = config.getProperty(CACHE_SOFT_VALUES_CONFIG);
+        cacheSoftValues = AuraTextUtil.isNullEmptyOrWhitespace(cacheSoftValuesString)
+                || Boolean.parseBoolean(cacheSoftValuesString.trim());
+        String adaptiveCacheString = config.getProperty(CACHE_ADAPTIVE_CONFIG);
+        adaptiveCacheSizing = !AuraTextUtil.isNullEmptyOrWhitespace(adaptiveCacheString)
+                && Boolean.parseBoolean(adaptiveCacheString.trim());
+        String parallelActionsString = config.getProperty(PARALLEL_ACTIONS_CONFIG);
+        parallelActions = !AuraTextUtil.isNullEmptyOrWhitespace(parallelActionsString)
+                && Boolean.parseBoolean(parallelActionsString.trim());
+        String definitionCacheDirString = config.getProperty(DEFINITION_CACHE_DIR_CONFIG);
+        definitionCacheDirectory = AuraTextUtil.isNullEmptyOrWhitespace(definitionCacheDirString) ? null
+                : new File(definitionCacheDirString.trim());
 
         if (!isProduction()) {
             AuraFileMonitor.start();
@@ -400,6 +428,45 @@ public class ConfigAdapterImpl implements ConfigAdapter {
         return validateCss;
     }
 
+    @Override
+    public boolean isParallelCompileEnabled() {
+        return parallelCompile;
+    }
+
+    @Override
+    public long getCacheSize(String name, long defaultSize) {
+        String sizeString = config.getProperty(CACHE_SIZE_CONFIG_PREFIX + name + CACHE_SIZE_CONFIG_SUFFIX);
+        if (AuraTextUtil.isNullEmptyOrWhitespace(sizeString)) {
+            return defaultSize;
+        }
+        try {
+            long size = Long.parseLong(sizeString.trim());
+            return size > 0 ? size : defaultSize;
+        } catch (NumberFormatException nfe) {
+            return defaultSize;
+        }
+    }
+
+    @Override
+    public boolean isCacheSoftValuesEnabled() {
+        return cacheSoftValues;
+    }
+
+    @Override
+    public boolean isAdaptiveCacheSizingEnabled() {
+        return adaptiveCacheSizing;
+    }
+
+    @Override
+    public boolean isParallelActionsEnabled() {
+        return parallelActions;
+    }
+
+    @Override
+    public File getDefinitionCacheDirectory() {
+        return definitionCacheDirectory;
+    }
+
     @Override
     public final String getAuraFrameworkNonce() {
         regenerateAuraJS();
@@ -29,12 +29,22 @@ import org.auraframework.instance.ValueProviderType;
 import org.auraframework.throwable.quickfix.InvalidExpressionException;
 import org.auraframework.util.AuraTextUtil;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Maps;
 
 /**
  * Value provider for $Label
  */
 public class LabelValueProvider implements GlobalValueProvider {
+    private static final int UNESCAPED_CACHE_SIZE = 5000;
+
+    /**
+     * Labels as the adapter returns them, to the text sent to the client. This only depends on the text, so it can
+     * be shared by every request whatever the locale.
+     */
+    private static final Cache<String, String> unescaped = CacheBuilder.newBuilder()
+            .maximumSize(UNESCAPED_CACHE_SIZE).build();
 
     // MapValueProvider...
     private final Map<String, Map<String, String>> labels;
@@ -46,8 +56,15 @@ public class LabelValueProvider implements GlobalValueProvider {
     @Override
     public Object getValue(PropertyReference expr) {
         List<String> parts = expr.getList();
-        String section = parts.get(0);
-        String param = parts.get(1);
+        return getLabel(parts.get(0), parts.get(1));
+    }
+
+    /**
+     * Get a label, as it would be for $Label.section.name, without going through a {@link PropertyReference}.
+     *
+     * The label is also sent to the client with the context.
+     */
+    public String getLabel(String section, String param) {
         Map<String, String> m = labels.get(section);
         if (m == null) {
             m = new HashMap<String, String>();
@@ -55,11 +72,22 @@ public class LabelValueProvider implements GlobalValueProvider {
         }
         String ret = m.get(param);
         if (ret == null) {
-            String label = Aura.getLocalizationAdapter().getLabel(section, param);
+            ret = unescape(Aura.getLocalizationAdapter().getLabel(section, param));
+            m.put(param, ret);
+        }
+        return ret;
+    }
+
+    private static String unescape(String label) {
+        if (label == null) {
+            return null;
+        }
+        String ret = unescaped.getIfPresent(label);
+        if (ret == null) {
             // people escape stuff like &copy; in the labels, aura doesn't need
             // that.
             ret = AuraTextUtil.unescapeOutput(label, false);
-            m.put(param, ret);
+            unescaped.put(label, ret);
         }
         return ret;
     }
@@ -16,26 +16,38 @@
 package org.auraframework.impl.adapter.format.html;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.auraframework.Aura;
+import org.auraframework.cache.Cache;
 import org.auraframework.def.ApplicationDef;
 import org.auraframework.def.BaseComponentDef;
 import org.auraframework.def.ComponentDef;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.DefDescriptor.DefType;
+import org.auraframework.def.Definition;
+import org.auraframework.def.ProviderDef;
 import org.auraframework.def.StyleDef;
+import org.auraframework.expression.PropertyReference;
 import org.auraframework.http.AuraBaseServlet;
 import org.auraframework.http.AuraServlet;
 import org.auraframework.http.ManifestUtil;
+import org.auraframework.impl.root.component.BaseComponentDefImpl;
 import org.auraframework.instance.BaseComponent;
 import org.auraframework.instance.Component;
+import org.auraframework.instance.ValueProviderType;
 import org.auraframework.service.InstanceService;
 import org.auraframework.service.RenderingService;
 import org.auraframework.system.AuraContext;
 import org.auraframework.system.AuraContext.Mode;
+import org.auraframework.system.Client;
+import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.throwable.AuraRuntimeException;
 import org.auraframework.throwable.quickfix.QuickFixException;
 import org.auraframework.util.javascript.Literal;
@@ -45,9 +57,32 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
 /**
+ * Writes the html page for an application or component.
+ *
+ * Apart from the auraInit attribute, the rendered template only depends on the definition, the mode, the client, the
+ * locales and the serialized context, so it is rendered once for each of those and cut where auraInit goes. Later
+ * requests write the cached pieces around their own auraInit. The definition is keyed by its uid, so a change to it
+ * or to anything it depends on renders a new page. Templates that escape or otherwise transform auraInit are simply
+ * rendered every time, as are templates that could render something different for each request: those that use a
+ * model, a server side provider, a java renderer from outside the aura namespace or a global value provider other
+ * than $Label and $Locale.
+ *
+ * Locally rendered pages are never cached, as they include the component itself. The pieces are kept in
+ * {@link org.auraframework.service.CachingService#getPageShellCache()}.
  */
 @ThreadSafe
 public abstract class BaseComponentDefHTMLFormatAdapter<T extends BaseComponentDef> extends HTMLFormatAdapter<T> {
+    /**
+     * Rendered in place of auraInit. The quotes and brackets make sure that any escaping would show up as a mismatch
+     * between the counts of the whole marker and of its id.
+     */
+    private static final String MARKER_ID = "auraInit-4b0f2e9c7d1a";
+    private static final String MARKER = "<\"&" + MARKER_ID + "&\">";
+
+    /**
+     * Cached for pages that have to be rendered every time.
+     */
+    private static final List<String> UNCACHEABLE = Collections.emptyList();
 
     @Override
     public void write(Object value, Map<String, Object> componentAttributes, Appendable out) throws IOException {
@@ -55,26 +90,11 @@ public abstract class BaseComponentDefHTMLFormatAdapter<T extends BaseComponentD
             InstanceService instanceService = Aura.getInstanceService();
             RenderingService renderingService = Aura.getRenderingService();
             BaseComponentDef def = (BaseComponentDef) value;
-
-            ComponentDef templateDef = def.getTemplateDef();
-            Map<String, Object> attributes = Maps.newHashMap();
-
-            StringBuilder sb = new StringBuilder();
-            writeHtmlStyles(AuraServlet.getStyles(), sb);
-            attributes.put("auraStyleTags", sb.toString());
             AuraContext context = Aura.getContextService().getCurrentContext();
-
-            attributes.put("lastMod", Long.toString(AuraBaseServlet.getLastMod()));
-
-            DefDescriptor<StyleDef> styleDefDesc = templateDef.getStyleDescriptor();
-            if (styleDefDesc != null) {
-                attributes.put("auraInlineStyle", styleDefDesc.getDef().getCode());
-            }
-
-            String contextPath = context.getContextPath();
             Mode mode = context.getMode();
 
             if (mode.allowLocalRendering() && def.isLocallyRenderable()) {
+                Map<String, Object> attributes = getTemplateAttributes(def);
                 DefType defType = def.getDescriptor().getDefType();
                 BaseComponent<?, ?> cmp = null;
 
@@ -88,45 +108,189 @@ public abstract class BaseComponentDefHTMLFormatAdapter<T extends BaseComponentD
                 attributes.put("bodyClass", "");
                 attributes.put("defaultBodyClass", "");
                 attributes.put("autoInitialize", "false");
+                render(def, attributes, out);
+                return;
+            }
+
+            StringBuilder contextWriter = new StringBuilder();
+            Aura.getSerializationService().write(context, null, AuraContext.class, contextWriter, "HTML");
+            String serializedContext = contextWriter.toString();
+            String auraInit = getAuraInit(def, componentAttributes, context.getContextPath(), serializedContext);
+
+            Client client = context.getClient();
+            boolean manifest = ManifestUtil.isManifestEnabled();
+            List<Object> key = Arrays.<Object> asList(def.getDescriptor(),
+                    context.getDefRegistry().getUid(null, def.getDescriptor()), mode,
+                    client == null ? null : client.getType(), context.getRequestedLocales(),
+                    context.getContextPath(), manifest, context.getIsDebugToolEnabled(), AuraBaseServlet.getLastMod(),
+                    serializedContext);
+            Cache<List<Object>, List<String>> shells = Aura.getCachingService().getPageShellCache();
+            List<String> shell = shells.getIfPresent(key);
+
+            if (shell == null) {
+                if (isCacheable(def.getTemplateDef(), context.getDefRegistry())) {
+                    StringBuilder rendered = new StringBuilder();
+                    render(def, getShellAttributes(def, context, manifest, MARKER), rendered);
+                    shell = split(rendered.toString());
+                } else {
+                    shell = UNCACHEABLE;
+                }
+                shells.put(key, shell);
+            }
+            if (shell.isEmpty()) {
+                render(def, getShellAttributes(def, context, manifest, auraInit), out);
             } else {
-                if (ManifestUtil.isManifestEnabled()) {
-                    attributes.put("manifest", ManifestUtil.getManifestUrl());
+                writeShell(shell, auraInit, out);
+            }
+        } catch (QuickFixException e) {
+            throw new AuraRuntimeException(e);
+        }
+    }
+
+    /**
+     * Check that nothing in the template can render differently for each request.
+     */
+    private static boolean isCacheable(ComponentDef templateDef, MasterDefRegistry registry) throws QuickFixException {
+        Set<DefDescriptor<?>> dependencies = registry.getDependencies(registry.getUid(null,
+                templateDef.getDescriptor()));
+        if (dependencies == null) {
+            return false;
+        }
+        for (DefDescriptor<?> desc : dependencies) {
+            switch (desc.getDefType()) {
+            case MODEL:
+                return false;
+            case PROVIDER:
+                if (((ProviderDef) desc.getDef()).isLocal()) {
+                    return false;
+                }
+                break;
+            case COMPONENT:
+            case APPLICATION:
+                Definition def = desc.getDef();
+                if (!(def instanceof BaseComponentDefImpl)) {
+                    return false;
+                }
+                BaseComponentDefImpl<?> cmpDef = (BaseComponentDefImpl<?>) def;
+                if (!"aura".equals(desc.getNamespace()) && cmpDef.getLocalRendererDef() != null) {
+                    return false;
                 }
+                for (PropertyReference ref : cmpDef.getExpressionRefs()) {
+                    ValueProviderType type = ValueProviderType.getTypeByPrefix(ref.getRoot());
+                    if (type != null && type.isGlobal() && type != ValueProviderType.LABEL
+                            && type != ValueProviderType.LOCALE) {
+                        return false;
+                    }
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return true;
+    }
 
-                sb.setLength(0);
-                writeHtmlScripts(AuraServlet.getBaseScripts(context), sb);
-                attributes.put("auraBaseScriptTags", sb.toString());
+    private void render(BaseComponentDef def, Map<String, Object> attributes, Appendable out)
+            throws QuickFixException, IOException {
+        Component template = Aura.getInstanceService().getInstance(def.getTemplateDef().getDescriptor(), attributes);
+        Aura.getRenderingService().render(template, out);
+    }
 
-                sb.setLength(0);
-                writeHtmlScripts(AuraServlet.getNamespacesScripts(context), true, sb);
-                attributes.put("auraNamespacesScriptTags", sb.toString());
+    /**
+     * The attributes that every page gets.
+     */
+    private Map<String, Object> getTemplateAttributes(BaseComponentDef def) throws QuickFixException, IOException {
+        ComponentDef templateDef = def.getTemplateDef();
+        Map<String, Object> attributes = Maps.newHashMap();
 
-                if(!Aura.getContextService().getCurrentContext().getMode().equals(Mode.PROD) &&
-                        Aura.getContextService().getCurrentContext().getIsDebugToolEnabled()) {
-                    attributes.put("auraInitBlock", "<script>var debugWindow=window.open('/aura/debug.cmp','Aura Debug Tool','width=900,height=305,scrollbars=0,location=0,toolbar=0,menubar=0');$A.util.setDebugToolWindow(debugWindow);</script>");
+        StringBuilder sb = new StringBuilder();
+        writeHtmlStyles(AuraServlet.getStyles(), sb);
+        attributes.put("auraStyleTags", sb.toString());
 
+        attributes.put("lastMod", Long.toString(AuraBaseServlet.getLastMod()));
 
-                }
+        DefDescriptor<StyleDef> styleDefDesc = templateDef.getStyleDescriptor();
+        if (styleDefDesc != null) {
+            attributes.put("auraInlineStyle", styleDefDesc.getDef().getCode());
+        }
+        return attributes;
+    }
 
-                Map<String, Object> auraInit = Maps.newHashMap();
-                if (componentAttributes != null && !componentAttributes.isEmpty()) {
-                    auraInit.put("attributes", componentAttributes);
-                }
-                auraInit.put("descriptor", def.getDescriptor());
-                auraInit.put("deftype", def.getDescriptor().getDefType());
-                auraInit.put("host", contextPath);
+    /**
+     * The attributes for a page that is rendered on the client.
+     */
+    private Map<String, Object> getShellAttributes(BaseComponentDef def, AuraContext context, boolean manifest,
+            String auraInit) throws QuickFixException, IOException {
+        Map<String, Object> attributes = getTemplateAttributes(def);
+
+        if (manifest) {
+            attributes.put("manifest", ManifestUtil.getManifestUrl());
+        }
 
-                StringBuilder contextWriter = new StringBuilder();
-                Aura.getSerializationService().write(context, null, AuraContext.class, contextWriter, "HTML");
-                auraInit.put("context", new Literal(contextWriter.toString()));
+        StringBuilder sb = new StringBuilder();
+        writeHtmlScripts(AuraServlet.getBaseScripts(context), sb);
+        attributes.put("auraBaseScriptTags", sb.toString());
 
-                attributes.put("auraInit", Json.serialize(auraInit));
-            }
-            Component template = instanceService.getInstance(templateDef.getDescriptor(), attributes);
-            renderingService.render(template, out);
-        } catch (QuickFixException e) {
-            throw new AuraRuntimeException(e);
+        sb.setLength(0);
+        writeHtmlScripts(AuraServlet.getNamespacesScripts(context), true, sb);
+        attributes.put("auraNamespacesScriptTags", sb.toString());
+
+        if (!context.getMode().equals(Mode.PROD) && context.getIsDebugToolEnabled()) {
+            attributes.put("auraInitBlock", "<script>var debugWindow=window.open('/aura/debug.cmp','Aura Debug Tool','width=900,height=305,scrollbars=0,location=0,toolbar=0,menubar=0');$A.util.setDebugToolWindow(debugWindow);</script>");
         }
+
+        attributes.put("auraInit", auraInit);
+        return attributes;
     }
 
+    private String getAuraInit(BaseComponentDef def, Map<String, Object> componentAttributes, String contextPath,
+            String serializedContext) {
+        Map<String, Object> auraInit = Maps.newHashMap();
+        if (componentAttributes != null && !componentAttributes.isEmpty()) {
+            auraInit.put("attributes", componentAttributes);
+        }
+        auraInit.put("descriptor", def.getDescriptor());
+        auraInit.put("deftype", def.getDescriptor().getDefType());
+        auraInit.put("host", contextPath);
+        auraInit.put("context", new Literal(serializedContext));
+
+        return Json.serialize(auraInit);
+    }
+
+    /**
+     * Cut a page rendered with the marker for auraInit into the pieces that go between each use of it.
+     *
+     * @return the pieces, or {@link #UNCACHEABLE} if the marker was changed while rendering.
+     */
+    private static List<String> split(String rendered) {
+        List<String> segments = Lists.newArrayList();
+        int start = 0;
+        int next;
+
+        while ((next = rendered.indexOf(MARKER, start)) >= 0) {
+            segments.add(rendered.substring(start, next));
+            start = next + MARKER.length();
+        }
+        segments.add(rendered.substring(start));
+        if (rendered.indexOf(MARKER_ID) != -1 && countOf(rendered, MARKER_ID) != segments.size() - 1) {
+            return UNCACHEABLE;
+        }
+        return Collections.unmodifiableList(segments);
+    }
+
+    private static int countOf(String s, String part) {
+        int count = 0;
+        for (int i = s.indexOf(part); i >= 0; i = s.indexOf(part, i + part.length())) {
+            count += 1;
+        }
+        return count;
+    }
+
+    private static void writeShell(List<String> segments, String auraInit, Appendable out) throws IOException {
+        out.append(segments.get(0));
+        for (int i = 1; i < segments.size(); i++) {
+            out.append(auraInit);
+            out.append(segments.get(i));
+        }
+    }
 }
@@ -18,7 +18,6 @@
 package org.auraframework.impl.admin;
 
 import java.lang.management.ManagementFactory;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,14 +26,21 @@ import javax.management.JMException;
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
+import org.auraframework.Aura;
+import org.auraframework.cache.Cache;
+import org.auraframework.cache.CacheStatistics;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.Definition;
 import org.auraframework.impl.AuraImpl;
 import org.auraframework.impl.system.MasterDefRegistryImpl;
+import org.auraframework.service.CachingService;
 import org.auraframework.system.Annotations.AuraEnabled;
 import org.auraframework.system.Annotations.Model;
 import org.auraframework.system.AuraContext;
 import org.auraframework.system.AuraContext.Mode;
 import org.auraframework.system.DefRegistry;
 
+import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -51,47 +57,45 @@ public class AdminModel {
     private final Map<String,Object> existsData;
     private final Map<String,Object> stringsData;
     private final Map<String,Object> descriptorFilterData;
+    private final Map<String,Object> depsData;
+
+    private Map<String, Object> getStats(Cache<?, ?> cache) {
+        CacheStatistics stats = cache.getStatistics();
+        Map<String, Object> data = Maps.newHashMap();
+
+        data.put("size", String.valueOf(stats.getSize()));
+        data.put("evictionCount", String.valueOf(stats.getEvictionCount()));
+        data.put("hitCount", String.valueOf(stats.getHitCount()));
+        data.put("hitRate", String.valueOf(stats.getHitRate()));
+        data.put("missCount", String.valueOf(stats.getMissCount()));
+        data.put("missRate", String.valueOf(stats.getMissRate()));
+        data.put("requestCount", String.valueOf(stats.getRequestCount()));
+        return data;
+    }
 
-// TODO - W-2105858 - re-enable with either the private implementation of the Cache used, or
-//        a least-common-denominator implementation
-    
-//    private Map<String,Object> getStats(CacheStats stats) {
-//        Map<String, Object> data = Maps.newHashMap();
-//
-//        data.put("evictionCount", String.valueOf(stats.evictionCount()));
-//        data.put("hitCount", String.valueOf(stats.hitCount()));
-//        data.put("hitRate", String.valueOf(stats.hitRate()));
-//        data.put("missCount", String.valueOf(stats.missCount()));
-//        data.put("missRate", String.valueOf(stats.missRate()));
-//        data.put("requestCount", String.valueOf(stats.requestCount()));
-//        return data;
-//    }
-
-//    private void addDefsStats(Map<String, Object> data, Collection<Optional<? extends Definition>> defs) {
-//        List<Map<String, Object>> defsData = Lists.newArrayListWithCapacity(defs.size());
-//        int nulls = 0;
-//
-//        data.put("defs", defsData);
-//        for (Optional<? extends Definition> odef : defs) {
-//            Definition def = odef.orNull();
-//            if (def != null) {
-//                Map<String, Object> defData = Maps.newHashMap();
-//                defData.put("class", def.getClass().getName());
-//                defData.put("descriptor", def.getDescriptor().getQualifiedName());
-//                defData.put("type", def.getDescriptor().getDefType());
-//                defData.put("location", def.getLocation());
-//                defsData.add(defData);
-//            } else {
-//                nulls += 1;
-//            }
-//        }
-//        data.put("nulls", nulls);
-//    }
-    
-    public Map<String,Object> getMockMap() {
-    	HashMap<String,Object> map = new HashMap<String,Object>();
-    	map.put("not available", "not available");
-    	return map;
+    private void addDefsStats(Map<String, Object> data, Cache<DefDescriptor<?>, Optional<? extends Definition>> defs) {
+        List<Map<String, Object>> defsData = Lists.newArrayList();
+        int nulls = 0;
+
+        data.put("defs", defsData);
+        // Read the underlying map, so that listing the definitions does not count as a hit for each of them.
+        Object underlying = defs.getPrivateUnderlyingCache();
+        if (underlying instanceof com.google.common.cache.Cache) {
+            for (Object value : ((com.google.common.cache.Cache<?, ?>) underlying).asMap().values()) {
+                Definition def = (Definition) ((Optional<?>) value).orNull();
+                if (def != null) {
+                    Map<String, Object> defData = Maps.newHashMap();
+                    defData.put("class", def.getClass().getName());
+                    defData.put("descriptor", def.getDescriptor().getQualifiedName());
+                    defData.put("type", def.getDescriptor().getDefType());
+                    defData.put("location", def.getLocation());
+                    defsData.add(defData);
+                } else {
+                    nulls += 1;
+                }
+            }
+        }
+        data.put("nulls", nulls);
     }
 
     public AdminModel() throws JMException {
@@ -100,11 +104,13 @@ public class AdminModel {
         MasterDefRegistryImpl mdr = (MasterDefRegistryImpl) c.getDefRegistry();
         DefRegistry<?>[] regs = mdr.getAllRegistries();
 
-        defsData = getMockMap(); //getStats(MasterDefRegistryImpl.getDefsCacheStats());
-        //addDefsStats(defsData, MasterDefRegistryImpl.getCachedDefs());
-        existsData = getMockMap(); //getStats(MasterDefRegistryImpl.getExistsCacheStats());
-        stringsData = getMockMap(); // getStats(MasterDefRegistryImpl.getStringsCacheStats());
-        descriptorFilterData = getMockMap(); //getStats(MasterDefRegistryImpl.getDescriptorFilterCacheStats());
+        CachingService cachingService = Aura.getCachingService();
+        defsData = getStats(cachingService.getDefsCache());
+        addDefsStats(defsData, cachingService.getDefsCache());
+        existsData = getStats(cachingService.getExistsCache());
+        stringsData = getStats(cachingService.getStringsCache());
+        descriptorFilterData = getStats(cachingService.getDescriptorFilterCache());
+        depsData = getStats(cachingService.getDepsCache());
 
         registryData = Lists.newArrayListWithCapacity(regs.length);
         for (DefRegistry<?> dr : regs) {
@@ -157,6 +163,11 @@ public class AdminModel {
         return descriptorFilterData;
     }
 
+    @AuraEnabled
+    public Map<String, Object> getDepsData() {
+        return depsData;
+    }
+
     @AuraEnabled
     public List<Map<String, Object>> getRegistryData() {
         return registryData;
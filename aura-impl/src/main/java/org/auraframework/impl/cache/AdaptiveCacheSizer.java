@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.auraframework.cache.CacheStatistics;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Grows and shrinks a set of caches based on how well they are doing and how
+ * much heap is in use.
+ * 
+ * Each cache starts at its configured size, and may move between a quarter and
+ * four times that size. On each check:
+ * <ul>
+ * <li>If the heap in use after the last collection is over budget, the
+ * cache with the lowest hit rate since the last check is halved.</li>
+ * <li>Otherwise, any cache that evicted entries and missed more than
+ * {@link #GROW_MISS_RATE} of its lookups since the last check is doubled.</li>
+ * </ul>
+ * 
+ * Only one cache is shrunk per check, so that a burst of garbage does not
+ * empty everything at once.
+ */
+public class AdaptiveCacheSizer {
+	private static final Logger logger = Logger
+			.getLogger(AdaptiveCacheSizer.class);
+
+	/** The fraction of the maximum heap that may be in use before we shrink. */
+	static final double HEAP_BUDGET = 0.75;
+
+	/** The miss rate above which an evicting cache is grown. */
+	static final double GROW_MISS_RATE = 0.1;
+
+	static final int RANGE = 4;
+
+	private static final long CHECK_INTERVAL_SECONDS = 60;
+
+	private final List<Managed> caches = Lists.newArrayList();
+	private ScheduledExecutorService executor;
+
+	private static class Managed {
+		private final String name;
+		private final CacheImpl<?, ?> cache;
+		private final long minimumSize;
+		private final long maximumSize;
+		private CacheStatistics last;
+
+		private Managed(String name, CacheImpl<?, ?> cache) {
+			long size = cache.getMaximumSize();
+
+			this.name = name;
+			this.cache = cache;
+			this.minimumSize = Math.max(1, size / RANGE);
+			this.maximumSize = size * RANGE;
+			this.last = cache.getStatistics();
+		}
+	}
+
+	/**
+	 * Add a cache to be sized.
+	 * 
+	 * @param name the name of the cache, for logging.
+	 * @param cache the cache, which must have been created from a builder.
+	 */
+	public synchronized void manage(String name, CacheImpl<?, ?> cache) {
+		caches.add(new Managed(name, cache));
+	}
+
+	/**
+	 * Start checking the caches periodically on a daemon thread.
+	 */
+	public synchronized void start() {
+		if (executor != null) {
+			return;
+		}
+		executor = Executors
+				.newSingleThreadScheduledExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "aura-cache-sizer");
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		executor.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					adjust(getHeapUsedAfterCollection(), (long) (Runtime
+							.getRuntime().maxMemory() * HEAP_BUDGET));
+				} catch (Throwable t) {
+					// never let a failure stop future checks.
+					logger.error("Unable to adjust cache sizes", t);
+				}
+			}
+		}, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Make one adjustment pass.
+	 * 
+	 * @param heapUsed the heap in use, in bytes.
+	 * @param heapBudget the heap we are allowed to use, in bytes.
+	 */
+	synchronized void adjust(long heapUsed, long heapBudget) {
+		Managed worst = null;
+		double worstHitRate = 2.0;
+		List<Managed> growable = Lists.newArrayList();
+
+		for (Managed managed : caches) {
+			CacheStatistics current = managed.cache.getStatistics();
+			CacheStatistics last = managed.last;
+			CacheStatistics delta = new CacheStatistics(current.getSize(),
+					current.getHitCount() - last.getHitCount(),
+					current.getMissCount() - last.getMissCount(),
+					current.getEvictionCount() - last.getEvictionCount());
+			managed.last = current;
+
+			if (delta.getRequestCount() == 0) {
+				continue;
+			}
+			long size = managed.cache.getMaximumSize();
+			if (size > managed.minimumSize && delta.getHitRate() < worstHitRate) {
+				worst = managed;
+				worstHitRate = delta.getHitRate();
+			}
+			if (size < managed.maximumSize && delta.getEvictionCount() > 0
+					&& delta.getMissRate() > GROW_MISS_RATE) {
+				growable.add(managed);
+			}
+		}
+
+		if (heapUsed > heapBudget) {
+			if (worst != null) {
+				resize(worst, Math.max(worst.minimumSize,
+						worst.cache.getMaximumSize() / 2));
+			}
+		} else {
+			for (Managed managed : growable) {
+				resize(managed, Math.min(managed.maximumSize,
+						managed.cache.getMaximumSize() * 2));
+			}
+		}
+	}
+
+	private void resize(Managed managed, long size) {
+		if (logger.isDebugEnabled()) {
+			logger.debug("Resizing cache " + managed.name + " from "
+					+ managed.cache.getMaximumSize() + " to " + size);
+		}
+		managed.cache.resize(size);
+		// the counts carry over a resize, so last is still valid.
+	}
+
+	/**
+	 * Get the heap in use just after the most recent collection.
+	 * 
+	 * This is a much better measure of what the caches are holding than the
+	 * current heap use, which includes garbage.
+	 */
+	private static long getHeapUsedAfterCollection() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				MemoryUsage usage = pool.getCollectionUsage();
+				if (usage == null) {
+					usage = pool.getUsage();
+				}
+				used += usage.getUsed();
+			}
+		}
+		return used;
+	}
+}
@@ -17,24 +17,52 @@ package org.auraframework.impl.cache;
 
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.auraframework.cache.Cache;
+import org.auraframework.cache.CacheStatistics;
+import org.auraframework.cache.StreamingCache;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 
 public class CacheImpl<K, T> implements Cache<K, T> {
 
-	private com.google.common.cache.Cache<K, T> cache;
+	private volatile com.google.common.cache.Cache<K, T> cache;
+	private final Builder<K, T> builder;
+	private volatile long maximumSize;
+
+	/**
+	 * Guards swapping the cache on a resize. Puts and invalidations take the
+	 * read lock so that they cannot be lost while entries are being copied.
+	 * Gets do not need it.
+	 */
+	private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+
+	/**
+	 * Counts from caches that have been replaced by a resize.
+	 */
+	private volatile CacheStats retiredStats = new CacheStats(0, 0, 0, 0, 0, 0);
 
 	CacheImpl(com.google.common.cache.Cache<K, T> cache) {
 		this.cache = cache;
+		this.builder = null;
+		this.maximumSize = -1;
 	}
 
 	public CacheImpl(Builder<K, T> builder) {
-		// if builder.useSecondaryStorage is true, we should try to use a
-		// non-quava secondary-storage cache with streaming ability
+		this.builder = builder;
+		this.maximumSize = builder.maximumSize;
+		this.cache = newCache(builder, builder.maximumSize);
+	}
 
+	private static <K, T> com.google.common.cache.Cache<K, T> newCache(
+			Builder<K, T> builder, long maximumSize) {
 		com.google.common.cache.CacheBuilder<Object, Object> cb = com.google.common.cache.CacheBuilder
 				.newBuilder().initialCapacity(builder.initialCapacity)
-				.maximumSize(builder.maximumSize)
 				.concurrencyLevel(builder.concurrencyLevel);
 
 		if (builder.recordStats) {
@@ -44,7 +72,71 @@ public class CacheImpl<K, T> implements Cache<K, T> {
 		if (builder.softValues) {
 			cb = cb.softValues();
 		}
-		cache = cb.build();
+
+		cb = cb.maximumSize(maximumSize);
+
+		if (builder.evictionListener != null) {
+			return cb.removalListener(
+					new EvictionAdapter<K, T>(builder.evictionListener))
+					.build();
+		}
+		return cb.build();
+	}
+
+	/**
+	 * @return the current maximum size, or -1 if unknown.
+	 */
+	public long getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Change the maximum size of this cache.
+	 * 
+	 * Guava caches cannot be resized, so this builds a new cache and copies the
+	 * current entries across. If the new cache is smaller, the extra entries
+	 * are evicted as usual. Puts and invalidations wait for the copy.
+	 * 
+	 * @param newMaximumSize the new maximum.
+	 * @throws UnsupportedOperationException if the cache was not created from
+	 *             a builder.
+	 */
+	public void resize(long newMaximumSize) {
+		if (builder == null) {
+			throw new UnsupportedOperationException(
+					"Only caches created from a builder can be resized");
+		}
+		resizeLock.writeLock().lock();
+		try {
+			com.google.common.cache.Cache<K, T> old = cache;
+			com.google.common.cache.Cache<K, T> resized = newCache(builder,
+					newMaximumSize);
+
+			resized.putAll(old.asMap());
+			retiredStats = retiredStats.plus(old.stats());
+			cache = resized;
+			maximumSize = newMaximumSize;
+		} finally {
+			resizeLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Pass removals other than replacements on to an eviction listener.
+	 */
+	static class EvictionAdapter<K, V> implements RemovalListener<K, V> {
+		private final EvictionListener<K> listener;
+
+		EvictionAdapter(EvictionListener<K> listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void onRemoval(RemovalNotification<K, V> notification) {
+			if (notification.getCause() != RemovalCause.REPLACED) {
+				listener.onEviction(notification.getKey());
+			}
+		}
 	}
 
 	@Override
@@ -54,24 +146,42 @@ public class CacheImpl<K, T> implements Cache<K, T> {
 
 	@Override
 	public void put(K key, T data) {
-		cache.put(key, data);
-
+		resizeLock.readLock().lock();
+		try {
+			cache.put(key, data);
+		} finally {
+			resizeLock.readLock().unlock();
+		}
 	}
 
 	@Override
 	public void invalidate(K key) {
-		cache.invalidate(key);
-
+		resizeLock.readLock().lock();
+		try {
+			cache.invalidate(key);
+		} finally {
+			resizeLock.readLock().unlock();
+		}
 	}
 
 	@Override
 	public void invalidate(Iterable<K> keys) {
-		cache.invalidate(keys);
+		resizeLock.readLock().lock();
+		try {
+			cache.invalidateAll(keys);
+		} finally {
+			resizeLock.readLock().unlock();
+		}
 	}
 
 	@Override
 	public void invalidateAll() {
-		cache.invalidateAll();
+		resizeLock.readLock().lock();
+		try {
+			cache.invalidateAll();
+		} finally {
+			resizeLock.readLock().unlock();
+		}
 	}
 
 	@Override
@@ -98,10 +208,24 @@ public class CacheImpl<K, T> implements Cache<K, T> {
 
 		// invalidate collected items
 		if (!invalidItems.isEmpty()) {
-			cache.invalidate(invalidItems);
+			invalidate(invalidItems);
 		}
 	}
 
+	@Override
+	public CacheStatistics getStatistics() {
+		com.google.common.cache.Cache<K, T> current = cache;
+		return getStatistics(current.size(), current.stats().plus(retiredStats));
+	}
+
+	/**
+	 * Convert guava's stats to ours.
+	 */
+	static CacheStatistics getStatistics(long size, CacheStats stats) {
+		return new CacheStatistics(size, stats.hitCount(), stats.missCount(),
+				stats.evictionCount());
+	}
+
 	@Override
 	public Object getPrivateUnderlyingCache() {
 		return cache;
@@ -116,6 +240,7 @@ public class CacheImpl<K, T> implements Cache<K, T> {
 		public boolean recordStats = false;
 		public boolean softValues = true;
 		public boolean useSecondaryStorage = false;
+		public EvictionListener<K> evictionListener = null;
 
 		public Builder() {
 
@@ -157,8 +282,36 @@ public class CacheImpl<K, T> implements Cache<K, T> {
 			return this;
 		}
 
+		/**
+		 * Set a listener to be notified whenever a key leaves the cache,
+		 * other than by having its value replaced.
+		 * 
+		 * This is specific to this implementation.
+		 * 
+		 * @param evictionListener the listener.
+		 * @return the same Builder with this property set
+		 */
+		public Builder<K, T> setEvictionListener(
+				EvictionListener<K> evictionListener) {
+			this.evictionListener = evictionListener;
+			return this;
+		}
+
+		/**
+		 * Build the cache.
+		 * 
+		 * If secondary storage was requested, values are kept in files rather
+		 * than on the heap, and the returned cache is a {@link StreamingCache}.
+		 * Secondary storage only handles String values, and its maximum size
+		 * is the total number of bytes stored rather than a count.
+		 */
 		@Override
-		public CacheImpl<K, T> build() {
+		@SuppressWarnings("unchecked")
+		public Cache<K, T> build() {
+			if (useSecondaryStorage) {
+				return (Cache<K, T>) new SecondaryStorageCache<K>(
+						(Builder<K, String>) this);
+			}
 			return new CacheImpl<K, T>(this);
 		}
 
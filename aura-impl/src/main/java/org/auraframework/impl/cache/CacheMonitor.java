@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+import org.auraframework.cache.Cache;
+
+/**
+ * Exports the statistics for a cache through JMX.
+ * 
+ * Each cache is registered as aura.cache:name=&lt;name&gt;. Every read takes
+ * a fresh snapshot, so the values are always current.
+ */
+public class CacheMonitor implements CacheStatisticsMXBean {
+	private static final Logger logger = Logger.getLogger(CacheMonitor.class);
+	public static final String DOMAIN = "aura.cache";
+
+	private final Cache<?, ?> cache;
+
+	public CacheMonitor(Cache<?, ?> cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Register a set of named caches with the platform MBean server.
+	 * 
+	 * A cache already registered under the same name is replaced, so the most
+	 * recently created caching service is the one that is visible. Failures
+	 * are logged, as monitoring should never stop us from running.
+	 * 
+	 * @param caches the caches to register, by name.
+	 */
+	public static void register(Map<String, Cache<?, ?>> caches) {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for (Map.Entry<String, Cache<?, ?>> entry : caches.entrySet()) {
+			try {
+				ObjectName name = new ObjectName(DOMAIN, "name", entry.getKey());
+				if (server.isRegistered(name)) {
+					server.unregisterMBean(name);
+				}
+				server.registerMBean(new CacheMonitor(entry.getValue()), name);
+			} catch (JMException jme) {
+				logger.warn("Unable to register cache statistics for "
+						+ entry.getKey(), jme);
+			}
+		}
+	}
+
+	@Override
+	public long getSize() {
+		return cache.getStatistics().getSize();
+	}
+
+	@Override
+	public long getHitCount() {
+		return cache.getStatistics().getHitCount();
+	}
+
+	@Override
+	public long getMissCount() {
+		return cache.getStatistics().getMissCount();
+	}
+
+	@Override
+	public long getEvictionCount() {
+		return cache.getStatistics().getEvictionCount();
+	}
+
+	@Override
+	public long getRequestCount() {
+		return cache.getStatistics().getRequestCount();
+	}
+
+	@Override
+	public double getHitRate() {
+		return cache.getStatistics().getHitRate();
+	}
+
+	@Override
+	public double getMissRate() {
+		return cache.getStatistics().getMissRate();
+	}
+}
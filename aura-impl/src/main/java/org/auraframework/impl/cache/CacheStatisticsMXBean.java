@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+/**
+ * The JMX view of a single cache's statistics.
+ * 
+ * @see org.auraframework.cache.CacheStatistics
+ */
+public interface CacheStatisticsMXBean {
+	long getSize();
+
+	long getHitCount();
+
+	long getMissCount();
+
+	long getEvictionCount();
+
+	long getRequestCount();
+
+	double getHitRate();
+
+	double getMissRate();
+}
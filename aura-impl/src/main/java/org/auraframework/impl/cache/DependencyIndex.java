@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.system.DependencyEntry;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A reverse index from definitions to the cache entries that were built from
+ * them.
+ *
+ * Dependency entries and cached strings are both tied to a dependency entry
+ * uid, so we index descriptor to uid, and uid to the keys in each cache. This
+ * lets a source change evict only the entries that actually include the
+ * changed descriptor. We also keep the cached definitions by namespace, so that
+ * a namespace wide invalidation does not have to scan the whole cache.
+ *
+ * Entries are added by whoever puts into the caches, and must be added before
+ * the put so that a concurrent invalidation cannot miss them. They are removed
+ * by the removal listeners on the caches (ignoring replacements), so the index
+ * does not outlive the cached values.
+ */
+public class DependencyIndex {
+	private final Map<DefDescriptor<?>, Set<String>> uidsByDescriptor = Maps.newHashMap();
+	private final Map<String, Set<DefDescriptor<?>>> descriptorsByUid = Maps.newHashMap();
+	private final Map<String, Set<String>> dependencyKeysByUid = Maps.newHashMap();
+	private final Map<String, String> uidByDependencyKey = Maps.newHashMap();
+	private final Map<String, Set<String>> stringKeysByUid = Maps.newHashMap();
+	private final Map<String, String> uidByStringKey = Maps.newHashMap();
+	private final Map<String, Set<DefDescriptor<?>>> definitionsByNamespace = Maps.newHashMap();
+
+	/**
+	 * Index a dependency entry about to be put in the dependency cache.
+	 *
+	 * @param key the dependency cache key.
+	 * @param entry the entry, entries without a uid are ignored.
+	 */
+	public synchronized void addDependencyEntry(String key, DependencyEntry entry) {
+		if (entry.uid == null || entry.dependencies == null) {
+			return;
+		}
+		String previous = uidByDependencyKey.put(key, entry.uid);
+		if (previous != null && !previous.equals(entry.uid)) {
+			removeFromSet(dependencyKeysByUid, previous, key);
+			pruneUid(previous);
+		}
+		getSet(dependencyKeysByUid, entry.uid).add(key);
+		linkDependencies(entry);
+	}
+
+	/**
+	 * Index a string about to be put in the strings cache.
+	 *
+	 * @param key the strings cache key.
+	 * @param entry the dependency entry the string was built from.
+	 */
+	public synchronized void addString(String key, DependencyEntry entry) {
+		if (entry.uid == null || entry.dependencies == null) {
+			return;
+		}
+		uidByStringKey.put(key, entry.uid);
+		getSet(stringKeysByUid, entry.uid).add(key);
+		linkDependencies(entry);
+	}
+
+	/**
+	 * Index a definition about to be put in the definition cache.
+	 */
+	public synchronized void addDefinition(DefDescriptor<?> descriptor) {
+		String namespace = descriptor.getNamespace();
+		if (namespace != null) {
+			getSet(definitionsByNamespace, namespace).add(descriptor);
+		}
+	}
+
+	/**
+	 * Remove a key that has left the dependency cache.
+	 */
+	public synchronized void removeDependencyKey(String key) {
+		String uid = uidByDependencyKey.remove(key);
+		if (uid != null) {
+			removeFromSet(dependencyKeysByUid, uid, key);
+			pruneUid(uid);
+		}
+	}
+
+	/**
+	 * Remove a key that has left the strings cache.
+	 */
+	public synchronized void removeStringKey(String key) {
+		String uid = uidByStringKey.remove(key);
+		if (uid != null) {
+			removeFromSet(stringKeysByUid, uid, key);
+			pruneUid(uid);
+		}
+	}
+
+	/**
+	 * Remove a descriptor that has left the definition cache.
+	 */
+	public synchronized void removeDefinition(DefDescriptor<?> descriptor) {
+		String namespace = descriptor.getNamespace();
+		if (namespace != null) {
+			removeFromSet(definitionsByNamespace, namespace, descriptor);
+		}
+	}
+
+	/**
+	 * Get the uids of all dependency entries that include any of a set of
+	 * descriptors.
+	 */
+	public synchronized Set<String> getDependents(Collection<DefDescriptor<?>> descriptors) {
+		Set<String> uids = Sets.newHashSet();
+		for (DefDescriptor<?> descriptor : descriptors) {
+			Set<String> dependents = uidsByDescriptor.get(descriptor);
+			if (dependents != null) {
+				uids.addAll(dependents);
+			}
+		}
+		return uids;
+	}
+
+	/**
+	 * Get the dependency cache keys for a set of uids.
+	 */
+	public synchronized Set<String> getDependencyKeys(Collection<String> uids) {
+		return collect(dependencyKeysByUid, uids);
+	}
+
+	/**
+	 * Get the strings cache keys for a set of uids.
+	 */
+	public synchronized Set<String> getStringKeys(Collection<String> uids) {
+		return collect(stringKeysByUid, uids);
+	}
+
+	/**
+	 * Get the cached definitions in a namespace.
+	 */
+	public synchronized Set<DefDescriptor<?>> getDefinitions(String namespace) {
+		Set<DefDescriptor<?>> definitions = definitionsByNamespace.get(namespace);
+		if (definitions == null) {
+			return Sets.newHashSet();
+		}
+		return Sets.newHashSet(definitions);
+	}
+
+	private void linkDependencies(DependencyEntry entry) {
+		if (!descriptorsByUid.containsKey(entry.uid)) {
+			descriptorsByUid.put(entry.uid, Sets.<DefDescriptor<?>> newHashSet(entry.dependencies));
+			for (DefDescriptor<?> dependency : entry.dependencies) {
+				getSet(uidsByDescriptor, dependency).add(entry.uid);
+			}
+		}
+	}
+
+	/**
+	 * Drop a uid once nothing in either cache refers to it.
+	 */
+	private void pruneUid(String uid) {
+		if (dependencyKeysByUid.containsKey(uid) || stringKeysByUid.containsKey(uid)) {
+			return;
+		}
+		Set<DefDescriptor<?>> dependencies = descriptorsByUid.remove(uid);
+		if (dependencies != null) {
+			for (DefDescriptor<?> dependency : dependencies) {
+				removeFromSet(uidsByDescriptor, dependency, uid);
+			}
+		}
+	}
+
+	private static <K, V> Set<V> getSet(Map<K, Set<V>> map, K key) {
+		Set<V> set = map.get(key);
+		if (set == null) {
+			set = Sets.newHashSet();
+			map.put(key, set);
+		}
+		return set;
+	}
+
+	private static <K, V> void removeFromSet(Map<K, Set<V>> map, K key, V value) {
+		Set<V> set = map.get(key);
+		if (set != null) {
+			set.remove(value);
+			if (set.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+
+	private static Set<String> collect(Map<String, Set<String>> map, Collection<String> uids) {
+		Set<String> keys = Sets.newHashSet();
+		for (String uid : uids) {
+			Set<String> found = map.get(uid);
+			if (found != null) {
+				keys.addAll(found);
+			}
+		}
+		return keys;
+	}
+}
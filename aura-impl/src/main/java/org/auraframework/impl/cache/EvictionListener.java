@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+/**
+ * A listener for keys leaving a cache.
+ */
+public interface EvictionListener<K> {
+
+	/**
+	 * Called when a key leaves the cache, by eviction, collection or
+	 * invalidation. It is not called when a value is replaced by a put.
+	 * 
+	 * This is called on the thread that caused the removal.
+	 * 
+	 * @param key the key that was removed.
+	 */
+	void onEviction(K key);
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.auraframework.cache.CacheStatistics;
+import org.auraframework.cache.StreamingCache;
+import org.auraframework.util.IOUtil;
+
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+
+/**
+ * A cache that keeps its values in files instead of on the heap.
+ * 
+ * This is meant for a small number of large, stable strings, such as the
+ * generated javascript and css for an application. Only the keys and file
+ * handles are held in memory, each value is written once to its own file, and
+ * reads can be streamed straight to a writer. The maximum size of the cache
+ * is the total number of bytes stored.
+ * 
+ * Files are never rewritten. A put always writes a new file, and the old one
+ * is deleted when it leaves the cache, so a reader that has already opened a
+ * file will see a complete value. If the file is gone by the time a reader
+ * opens it, that is treated as a miss.
+ * 
+ * All caches in a JVM share one directory under java.io.tmpdir, created
+ * when the first cache is, and removed with everything in it when the JVM
+ * exits. The directory is locked while it is in use, so directories left
+ * behind by a JVM that did not exit cleanly are removed the next time one is
+ * created.
+ */
+public class SecondaryStorageCache<K> implements StreamingCache<K> {
+	private static final Logger logger = Logger
+			.getLogger(SecondaryStorageCache.class);
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * Weigh entries by the number of bytes stored.
+	 */
+	private static final Weigher<Object, File> BY_LENGTH = new Weigher<Object, File>() {
+		@Override
+		public int weigh(Object key, File value) {
+			return (int) Math.min(Integer.MAX_VALUE, value.length());
+		}
+	};
+
+	private static final String DIRECTORY_PREFIX = "auraCache";
+	private static final String LOCK_FILE = ".lock";
+
+	/**
+	 * How old a directory without a lock file has to be before it is assumed
+	 * to be left behind, rather than just being created.
+	 */
+	private static final long UNLOCKED_DIRECTORY_AGE = 60 * 60 * 1000L;
+
+	/**
+	 * The locks on our directories, held until the JVM exits.
+	 */
+	private static final List<FileLock> locks = Collections
+			.synchronizedList(new ArrayList<FileLock>());
+
+	private final File directory;
+	private final com.google.common.cache.Cache<K, File> files;
+
+	/**
+	 * The directory shared by the caches in this JVM, created on first use.
+	 */
+	private static class SharedDirectory {
+		private static final File DIRECTORY = createDirectory(new File(
+				System.getProperty("java.io.tmpdir")));
+	}
+
+	public SecondaryStorageCache(CacheImpl.Builder<K, String> builder) {
+		this(builder, SharedDirectory.DIRECTORY);
+	}
+
+	SecondaryStorageCache(CacheImpl.Builder<K, String> builder, File directory) {
+		final EvictionListener<K> evictionListener = builder.evictionListener;
+
+		com.google.common.cache.CacheBuilder<Object, Object> cb = com.google.common.cache.CacheBuilder
+				.newBuilder().initialCapacity(builder.initialCapacity)
+				.maximumWeight(builder.maximumSize)
+				.concurrencyLevel(builder.concurrencyLevel);
+
+		if (builder.recordStats) {
+			cb = cb.recordStats();
+		}
+
+		this.directory = directory;
+		this.files = cb.weigher(BY_LENGTH).removalListener(new RemovalListener<K, File>() {
+			@Override
+			public void onRemoval(RemovalNotification<K, File> notification) {
+				File file = notification.getValue();
+				if (file != null && !file.delete() && file.exists()) {
+					file.deleteOnExit();
+				}
+				if (evictionListener != null
+						&& notification.getCause() != RemovalCause.REPLACED) {
+					evictionListener.onEviction(notification.getKey());
+				}
+			}
+		}).build();
+	}
+
+	/**
+	 * Create and lock a new directory, removing any that were left behind.
+	 */
+	static File createDirectory(File parent) {
+		removeStaleDirectories(parent, System.currentTimeMillis());
+		try {
+			final File dir = File.createTempFile(DIRECTORY_PREFIX, "", parent);
+			if (!dir.delete() || !dir.mkdir()) {
+				throw new IOException("Unable to create " + dir);
+			}
+			RandomAccessFile lockFile = new RandomAccessFile(new File(dir,
+					LOCK_FILE), "rw");
+			final FileLock lock = lockFile.getChannel().lock();
+			locks.add(lock);
+			Runtime.getRuntime().addShutdownHook(new Thread("Remove " + dir) {
+				@Override
+				public void run() {
+					try {
+						lock.channel().close();
+					} catch (IOException ignored) {
+					}
+					delete(dir);
+				}
+			});
+			return dir;
+		} catch (IOException ioe) {
+			throw new IllegalStateException(
+					"Unable to create secondary storage for cache", ioe);
+		}
+	}
+
+	/**
+	 * Remove the directories of caches that are no longer in use.
+	 * 
+	 * A directory is in use if another JVM, or this one, holds the lock on it.
+	 */
+	static void removeStaleDirectories(File parent, long now) {
+		File[] dirs = parent.listFiles();
+		if (dirs == null) {
+			return;
+		}
+		for (File dir : dirs) {
+			if (!dir.isDirectory() || !dir.getName().startsWith(DIRECTORY_PREFIX)) {
+				continue;
+			}
+			File lockFile = new File(dir, LOCK_FILE);
+			if (!lockFile.exists()) {
+				if (now - dir.lastModified() > UNLOCKED_DIRECTORY_AGE) {
+					delete(dir);
+				}
+				continue;
+			}
+			if (isUnlocked(lockFile)) {
+				delete(dir);
+			}
+		}
+	}
+
+	private static boolean isUnlocked(File lockFile) {
+		RandomAccessFile file = null;
+		try {
+			file = new RandomAccessFile(lockFile, "rw");
+			FileLock lock = file.getChannel().tryLock();
+			if (lock == null) {
+				return false;
+			}
+			lock.release();
+			return true;
+		} catch (OverlappingFileLockException ofle) {
+			// locked by a cache in this JVM.
+			return false;
+		} catch (IOException ioe) {
+			return false;
+		} finally {
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+	}
+
+	private static void delete(File dir) {
+		try {
+			IOUtil.delete(dir);
+		} catch (IOUtil.DeleteFailedException dfe) {
+			logger.warn("Unable to remove cache directory " + dir + ": "
+					+ dfe.getMessage());
+		}
+	}
+
+	@Override
+	public String getIfPresent(K key) {
+		Reader reader = open(key);
+		if (reader == null) {
+			return null;
+		}
+		try {
+			return IOUtil.readText(reader);
+		} catch (IOException ioe) {
+			logger.warn("Unable to read cached value for " + key, ioe);
+			return null;
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	@Override
+	public boolean writeTo(K key, Writer out) throws IOException {
+		Reader reader = open(key);
+		if (reader == null) {
+			return false;
+		}
+		try {
+			char[] buf = new char[8192];
+			int len;
+			while ((len = reader.read(buf)) != -1) {
+				out.write(buf, 0, len);
+			}
+		} finally {
+			reader.close();
+		}
+		return true;
+	}
+
+	/**
+	 * Open the file for a key.
+	 * 
+	 * @return a reader for the value, or null if there is nothing cached.
+	 */
+	private Reader open(K key) {
+		File file = files.getIfPresent(key);
+		if (file == null) {
+			return null;
+		}
+		try {
+			return new BufferedReader(new InputStreamReader(
+					new FileInputStream(file), UTF8));
+		} catch (FileNotFoundException fnfe) {
+			// lost a race with removal, or someone cleaned up our directory.
+			files.asMap().remove(key, file);
+			return null;
+		}
+	}
+
+	@Override
+	public void put(K key, String data) {
+		File file = null;
+		Writer writer = null;
+		try {
+			file = File.createTempFile("value", ".txt", directory);
+			writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(file), UTF8));
+			writer.write(data);
+			writer.close();
+			writer = null;
+			files.put(key, file);
+			file = null;
+		} catch (IOException ioe) {
+			// The cache is only an optimization, so keep going, but make sure
+			// an older value is not left behind.
+			logger.warn("Unable to write cached value for " + key, ioe);
+			files.invalidate(key);
+		} finally {
+			if (writer != null) {
+				try {
+					writer.close();
+				} catch (IOException ignored) {
+				}
+			}
+			if (file != null) {
+				file.delete();
+			}
+		}
+	}
+
+	@Override
+	public Set<K> getKeySet() {
+		return files.asMap().keySet();
+	}
+
+	@Override
+	public void invalidate(K key) {
+		files.invalidate(key);
+	}
+
+	@Override
+	public void invalidate(Iterable<K> keys) {
+		files.invalidateAll(keys);
+	}
+
+	@Override
+	public void invalidateAll() {
+		files.invalidateAll();
+	}
+
+	@Override
+	public void invalidatePartial(String keyBeginsWith) {
+		if (keyBeginsWith == null || keyBeginsWith.length() == 0) {
+			invalidateAll();
+			return;
+		}
+
+		ArrayList<K> invalidItems = new ArrayList<K>();
+		for (K key : getKeySet()) {
+			if (key.toString().startsWith(keyBeginsWith)) {
+				invalidItems.add(key);
+			}
+		}
+		if (!invalidItems.isEmpty()) {
+			files.invalidateAll(invalidItems);
+		}
+	}
+
+	@Override
+	public CacheStatistics getStatistics() {
+		return CacheImpl.getStatistics(files.size(), files.stats());
+	}
+
+	@Override
+	public Object getPrivateUnderlyingCache() {
+		return files;
+	}
+}
@@ -16,6 +16,7 @@
 package org.auraframework.impl.clientlibrary;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -32,7 +33,7 @@ import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.ResourceDef;
 import org.auraframework.impl.system.DefDescriptorImpl;
 import org.auraframework.system.AuraContext;
-import org.auraframework.system.SourceListener;
+import org.auraframework.system.BatchSourceListener;
 import org.auraframework.throwable.AuraRuntimeException;
 import org.auraframework.throwable.NoContextException;
 import org.auraframework.throwable.quickfix.ClientLibraryException;
@@ -376,12 +377,17 @@ public class ClientLibraryServiceImpl implements ClientLibraryService {
         Aura.getDefinitionService().subscribeToChangeNotification(sourceNotifier);
     }
 
-    private static class SourceNotifier implements SourceListener {
+    private static class SourceNotifier implements BatchSourceListener {
         @Override
         public void onSourceChanged(DefDescriptor<?> source, SourceMonitorEvent event, String filePath) {
         	
             Aura.getCachingService().getClientLibraryOutputCache().invalidateAll();
             Aura.getCachingService().getClientLibraryUrlsCache().invalidateAll();
         }
+
+        @Override
+        public void onSourceChanges(Collection<SourceChange> changes) {
+            onSourceChanged(null, null, null);
+        }
     }
 }
@@ -45,6 +45,7 @@ import org.auraframework.instance.InstanceStack;
 import org.auraframework.instance.ValueProviderType;
 import org.auraframework.system.AuraContext;
 import org.auraframework.system.Client;
+import org.auraframework.system.DescriptorSet;
 import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.test.TestContext;
 import org.auraframework.test.TestContextAdapter;
@@ -413,7 +414,12 @@ public class AuraContextImpl implements AuraContext {
 
     @Override
     public void setPreloadedDefinitions(Set<DefDescriptor<?>> preloadedDefinitions) {
-        this.preloadedDefinitions = Collections.unmodifiableSet(preloadedDefinitions);
+        if (preloadedDefinitions instanceof DescriptorSet) {
+            // already immutable, and much faster to check than a wrapper.
+            this.preloadedDefinitions = preloadedDefinitions;
+        } else {
+            this.preloadedDefinitions = Collections.unmodifiableSet(preloadedDefinitions);
+        }
     }
 
     @Override
@@ -19,17 +19,32 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.auraframework.adapter.RegistryAdapter;
+import org.auraframework.impl.system.BinaryRegistryFormat;
 import org.auraframework.system.AuraContext.Authentication;
 import org.auraframework.system.AuraContext.Mode;
 import org.auraframework.system.DefRegistry;
 import org.auraframework.system.SourceLoader;
 import org.auraframework.throwable.AuraRuntimeException;
 
+import com.google.common.io.ByteStreams;
+
+/**
+ * A registry adapter for registries precompiled in to the classpath.
+ * 
+ * Registries are normally in the {@link BinaryRegistryFormat}, which is memory mapped when the resource is a plain
+ * file, and only decodes definitions as they are used. Registries written as a serialized array are still read, all at
+ * once.
+ */
 public class AuraPrecompiledRegistryAdapter implements RegistryAdapter {
 
     private final DefRegistry<?>[] registries;
@@ -38,34 +53,63 @@ public class AuraPrecompiledRegistryAdapter implements RegistryAdapter {
     public AuraPrecompiledRegistryAdapter(File sourceLocation, String precompiledPackagePath) {
         DefRegistry<?>[] precompiledRegistries = null;
         if (!sourceLocation.exists()) {
-            ObjectInputStream ois = null;
-            InputStream ris = AuraPrecompiledRegistryAdapter.class.getResourceAsStream(precompiledPackagePath);
-            if (ris != null) {
+            URL url = AuraPrecompiledRegistryAdapter.class.getResource(precompiledPackagePath);
+            if (url != null) {
                 try {
-                    ois = new ObjectInputStream(ris);
-                    precompiledRegistries = (DefRegistry[]) ois.readObject();
+                    ByteBuffer buffer = load(url);
+                    if (BinaryRegistryFormat.isBinaryRegistry(buffer)) {
+                        precompiledRegistries = BinaryRegistryFormat.read(buffer);
+                    } else {
+                        precompiledRegistries = readSerialized(url);
+                    }
                 } catch (Exception e) {
                     log.error(e.getClass() + ": " + e.getMessage(), e);
                     throw new AuraRuntimeException(e);
-                } finally {
-                    try {
-                        ris.close();
-                    } catch (IOException e) {
-                        throw new AuraRuntimeException(e);
-                    }
-                    if (ois != null) {
-                        try {
-                            ois.close();
-                        } catch (IOException e) {
-                            throw new AuraRuntimeException(e);
-                        }
-                    }
                 }
             }
         }
         this.registries = precompiledRegistries;
     }
 
+    /**
+     * Get the contents of a resource, mapping it in to memory if we can.
+     */
+    private static ByteBuffer load(URL url) throws IOException, URISyntaxException {
+        if ("file".equals(url.getProtocol())) {
+            RandomAccessFile file = new RandomAccessFile(new File(url.toURI()), "r");
+            try {
+                FileChannel channel = file.getChannel();
+                // the mapping stays valid after the file is closed.
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } finally {
+                file.close();
+            }
+        }
+        InputStream ris = url.openStream();
+        try {
+            return ByteBuffer.wrap(ByteStreams.toByteArray(ris));
+        } finally {
+            ris.close();
+        }
+    }
+
+    /**
+     * Read registries written as a serialized array.
+     */
+    private static DefRegistry<?>[] readSerialized(URL url) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = null;
+        InputStream ris = url.openStream();
+        try {
+            ois = new ObjectInputStream(ris);
+            return (DefRegistry[]) ois.readObject();
+        } finally {
+            ris.close();
+            if (ois != null) {
+                ois.close();
+            }
+        }
+    }
+
     @Override
     public DefRegistry<?>[] getRegistries(Mode mode, Authentication access, Set<SourceLoader> extraLoaders) {
         return registries;
@@ -23,9 +23,23 @@ import org.auraframework.impl.util.AuraLocaleImpl;
 import org.auraframework.system.AuraContext;
 import org.auraframework.util.AuraLocale;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+
 /**
  */
 public class LocalizationAdapterImpl implements LocalizationAdapter {
+    private static final int AURA_LOCALE_CACHE_SIZE = 100;
+
+    /**
+     * Time zones for requested locales. Making an AuraLocale without one looks up the default time zone through a
+     * DateFormat, which is too slow to do for every value that is formatted. The JVM defaults are part of the key, so
+     * changing them still looks the time zone up again. TimeZones can be changed, so every AuraLocale gets its own
+     * copy.
+     */
+    private static final Cache<List<Object>, TimeZone> timeZones = CacheBuilder.newBuilder()
+            .maximumSize(AURA_LOCALE_CACHE_SIZE).build();
 
     /**
      * Temporary workaround for localized labels for Aura Standalone
@@ -82,16 +96,41 @@ public class LocalizationAdapterImpl implements LocalizationAdapter {
         labels.put("provider", providerLabels);
     }
 
+    /**
+     * The same labels, as one table per language locale, so that a lookup is a single get on a map that is never
+     * written to.
+     */
+    private static final Map<String, Map<String, String>> labelTables = buildLabelTables(labels);
+
+    private static Map<String, Map<String, String>> buildLabelTables(Map<String, Map<String, String>> byName) {
+        Map<String, ImmutableMap.Builder<String, String>> builders = new HashMap<String, ImmutableMap.Builder<String, String>>();
+        for (Map.Entry<String, Map<String, String>> label : byName.entrySet()) {
+            for (Map.Entry<String, String> text : label.getValue().entrySet()) {
+                ImmutableMap.Builder<String, String> builder = builders.get(text.getKey());
+                if (builder == null) {
+                    builder = ImmutableMap.builder();
+                    builders.put(text.getKey(), builder);
+                }
+                builder.put(label.getKey(), text.getValue());
+            }
+        }
+        ImmutableMap.Builder<String, Map<String, String>> tables = ImmutableMap.builder();
+        for (Map.Entry<String, ImmutableMap.Builder<String, String>> entry : builders.entrySet()) {
+            tables.put(entry.getKey(), entry.getValue().build());
+        }
+        return tables.build();
+    }
+
     public LocalizationAdapterImpl() {
     }
 
     @Override
     public String getLabel(String section, String name, Object... params) {
-        Map<String, String> label = labels.get(name);
-        if (label == null) {
+        if (!labels.containsKey(name)) {
             return "FIXME - LocalizationAdapter.getLabel() needs implementation!";
         }
-        return label.get(this.getAuraLocale().getLanguageLocale().toString());
+        Map<String, String> table = labelTables.get(this.getAuraLocale().getLanguageLocale().toString());
+        return table == null ? null : table.get(name);
     }
 
     @Override
@@ -112,10 +151,21 @@ public class LocalizationAdapterImpl implements LocalizationAdapter {
         if (context != null) {
             List<Locale> locales = context.getRequestedLocales();
             if (locales != null && locales.size() > 0) {
-                return new AuraLocaleImpl(locales.get(0));
+                return getCachedAuraLocale(locales.get(0));
             }
         }
-        return new AuraLocaleImpl();
+        return getCachedAuraLocale(null);
+    }
+
+    private static AuraLocale getCachedAuraLocale(Locale locale) {
+        List<Object> key = Arrays.<Object> asList(locale, Locale.getDefault(), TimeZone.getDefault().getID());
+        TimeZone timeZone = timeZones.getIfPresent(key);
+        if (timeZone == null) {
+            AuraLocale auraLocale = new AuraLocaleImpl(locale);
+            timeZones.put(key, (TimeZone) auraLocale.getTimeZone().clone());
+            return auraLocale;
+        }
+        return new AuraLocaleImpl(locale, (TimeZone) timeZone.clone());
     }
 
     @Override
@@ -17,12 +17,14 @@ package org.auraframework.impl.controller;
 
 import org.auraframework.Aura;
 import org.auraframework.expression.PropertyReference;
+import org.auraframework.impl.adapter.LabelValueProvider;
 import org.auraframework.impl.expression.PropertyReferenceImpl;
 import org.auraframework.instance.GlobalValueProvider;
 import org.auraframework.system.Annotations.AuraEnabled;
 import org.auraframework.system.Annotations.Controller;
 import org.auraframework.system.Annotations.Key;
 import org.auraframework.throwable.quickfix.QuickFixException;
+import org.auraframework.util.AuraTextUtil;
 
 import static org.auraframework.instance.ValueProviderType.LABEL;
 
@@ -33,6 +35,12 @@ public class LabelController {
     public static String getLabel(@Key("section") String section, @Key("name") String name) throws QuickFixException {
         GlobalValueProvider labelProvider = Aura.getContextService().getCurrentContext().getGlobalProviders()
                 .get(LABEL);
+        // A section or name with a dot in it is split like any other $Label reference.
+        if (labelProvider instanceof LabelValueProvider && !AuraTextUtil.isNullEmptyOrWhitespace(section)
+                && !AuraTextUtil.isNullEmptyOrWhitespace(name) && section.indexOf('.') < 0
+                && name.indexOf('.') < 0) {
+            return ((LabelValueProvider) labelProvider).getLabel(section, name);
+        }
         PropertyReference labelRef = new PropertyReferenceImpl(section + "." + name, null);
         return (String) labelProvider.getValue(labelRef);
     }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.java;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentMap;
+
+import org.auraframework.util.AuraTextUtil;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+
+/**
+ * Cached reflective access to java models, beans and controllers.
+ *
+ * Class.getMethod searches the class and copies the method every time it is called, which was most of the cost of
+ * a property reference on a java object. Here each getter is looked up once per class and property, and the same
+ * Method is reused, so the JVM can replace reflective calls on it with generated accessors once it is hot.
+ *
+ * Classes are weak keys, so that this does not keep a discarded class loader alive. The getters for a class
+ * refer back to it, so they are held softly, and are dropped under memory pressure like the JDK's own reflection
+ * data.
+ */
+public final class JavaAccessors {
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Method>> getters = CacheBuilder.newBuilder()
+            .weakKeys().softValues().<Class<?>, ConcurrentMap<String, Method>> build().asMap();
+
+    private JavaAccessors() {
+    }
+
+    /**
+     * Find the getter for a property, either getXxx() or isXxx().
+     *
+     * @param clazz the class of the object.
+     * @param property the name of the property.
+     * @return the getter.
+     * @throws NoSuchMethodException for getXxx() if there is neither getter.
+     */
+    public static Method getGetter(Class<?> clazz, String property) throws NoSuchMethodException {
+        ConcurrentMap<String, Method> classGetters = getters.get(clazz);
+        if (classGetters == null) {
+            classGetters = Maps.newConcurrentMap();
+            ConcurrentMap<String, Method> existing = getters.putIfAbsent(clazz, classGetters);
+            if (existing != null) {
+                classGetters = existing;
+            }
+        }
+        Method getter = classGetters.get(property);
+        if (getter == null) {
+            // a miss is not cached, it is an error anyway.
+            getter = findGetter(clazz, property);
+            classGetters.put(property, getter);
+        }
+        return getter;
+    }
+
+    private static Method findGetter(Class<?> clazz, String property) throws NoSuchMethodException {
+        String name = AuraTextUtil.initCap(property);
+        try {
+            return makeAccessible(clazz.getMethod("get" + name));
+        } catch (NoSuchMethodException e) {
+            try {
+                return makeAccessible(clazz.getMethod("is" + name));
+            } catch (NoSuchMethodException nme) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Skip the access check on each call to a method that could always be called anyway.
+     *
+     * Only public methods of public classes are changed, so this never makes something callable that was not
+     * already.
+     *
+     * @param method the method.
+     * @return the same method.
+     */
+    public static Method makeAccessible(Method method) {
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return method;
+        }
+        for (Class<?> clazz = method.getDeclaringClass(); clazz != null; clazz = clazz.getEnclosingClass()) {
+            if (!Modifier.isPublic(clazz.getModifiers())) {
+                return method;
+            }
+        }
+        try {
+            method.setAccessible(true);
+        } catch (RuntimeException re) {
+            // refused, e.g. by a security manager. The check stays, which is fine.
+        }
+        return method;
+    }
+}
@@ -17,8 +17,12 @@ package org.auraframework.impl.java.controller;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.auraframework.Aura;
 import org.auraframework.def.ControllerDef;
@@ -113,40 +117,95 @@ public class JavaAction extends AbstractActionImpl<JavaActionDef> {
         }
     }
 
-    @Override
-    public void run() {
+    /**
+     * Can this action be invoked on another thread?
+     *
+     * @see #prepareInvocation()
+     */
+    public boolean isIndependent() {
+        return this.actionDef != null && this.actionDef.isIndependent();
+    }
+
+    /**
+     * Prepare to invoke the action.
+     *
+     * This converts the parameters, and must be called on the request thread. The invocation that is returned only
+     * calls the method, so an independent action can be invoked on any thread, with the result given back to
+     * {@link #complete(Future)} on the request thread.
+     *
+     * @return the invocation, or null if the action has already failed.
+     */
+    public Callable<Object> prepareInvocation() {
         if (this.actionDef == null) {
             addException(
                     new InvalidDefinitionException("No action found", new Location(
                             this.controllerDescriptor.getQualifiedName(), 0)), State.ERROR, true, false);
-            return;
+            return null;
         }
         this.state = State.RUNNING;
 
-        Object[] args = getArgs();
+        final Object[] args = getArgs();
         if (args == null) {
-            return;
+            return null;
         }
+        final Method method = this.actionDef.getMethod();
+        return new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                return method.invoke(bean, args);
+            }
+        };
+    }
 
-        LoggingService loggingService = Aura.getLoggingService();
-        loggingService.stopTimer(LoggingService.TIMER_AURA);
-        loggingService.startTimer("java");
+    /**
+     * Complete an invocation that was run elsewhere.
+     *
+     * @param result the result of calling the invocation from {@link #prepareInvocation()}.
+     */
+    public void complete(Future<Object> result) {
         try {
-            loggingService.incrementNum("JavaCallCount");
-            this.returnValue = this.actionDef.getMethod().invoke(bean, args);
+            this.returnValue = result.get();
             this.state = State.SUCCESS;
-        } catch (InvocationTargetException e) {
+        } catch (ExecutionException ee) {
+            failed(ee.getCause());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            addException(new AuraUnhandledException("Interrupted waiting for action", ie), State.ERROR, true, false);
+        }
+    }
+
+    private void failed(Throwable t) {
+        if (t instanceof InvocationTargetException) {
             // something bad happened in the body of the action itself
             // getCause() unwraps the InvocationTargetException, gives us the
             // real information.
-            addException(e.getCause(), State.ERROR, true, true);
-        } catch (Exception e) {
+            addException(t.getCause(), State.ERROR, true, true);
+        } else {
             //
             // Several cases handled here, including
             // * IllegalArgumentError: the conversion probably didn't work.
             // * IllegalAccessException: should not be possible.
             //
-            addException(e, State.ERROR, true, false);
+            addException(t, State.ERROR, true, false);
+        }
+    }
+
+    @Override
+    public void run() {
+        Callable<Object> invocation = prepareInvocation();
+        if (invocation == null) {
+            return;
+        }
+
+        LoggingService loggingService = Aura.getLoggingService();
+        loggingService.stopTimer(LoggingService.TIMER_AURA);
+        loggingService.startTimer("java");
+        try {
+            loggingService.incrementNum("JavaCallCount");
+            this.returnValue = invocation.call();
+            this.state = State.SUCCESS;
+        } catch (Exception e) {
+            failed(e);
         } finally {
             loggingService.stopTimer("java");
             loggingService.startTimer(LoggingService.TIMER_AURA);
@@ -39,6 +39,7 @@ public class JavaActionDef extends DefinitionImpl<ActionDef> implements ActionDe
     private final Method method;
     private final boolean background;
     private final boolean caboose;
+    private final boolean independent;
 
     protected JavaActionDef(Builder builder) {
         super(builder);
@@ -49,6 +50,7 @@ public class JavaActionDef extends DefinitionImpl<ActionDef> implements ActionDe
         this.method = builder.method;
         this.background = builder.background;
         this.caboose = builder.caboose;
+        this.independent = builder.independent;
     }
 
     @Override
@@ -92,6 +94,13 @@ public class JavaActionDef extends DefinitionImpl<ActionDef> implements ActionDe
     	return caboose;
     }
 
+    /**
+     * Can this action run in parallel with the rest of the request?
+     */
+    public boolean isIndependent() {
+        return independent;
+    }
+
     @Override
     public void serialize(Json json) throws IOException {
         json.writeMapBegin();
@@ -118,6 +127,7 @@ public class JavaActionDef extends DefinitionImpl<ActionDef> implements ActionDe
         private Method method;
         private boolean background = false;
         private boolean caboose = false;
+        private boolean independent = false;
 
         @Override
         public JavaActionDef build() {
@@ -171,5 +181,9 @@ public class JavaActionDef extends DefinitionImpl<ActionDef> implements ActionDe
 	public void setCaboose(boolean caboose) {
 	    this.caboose = caboose;
 	}
+
+	public void setIndependent(boolean independent) {
+	    this.independent = independent;
+	}
     }
 }
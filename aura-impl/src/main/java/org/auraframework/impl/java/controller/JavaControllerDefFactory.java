@@ -30,6 +30,7 @@ import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.TypeDef;
 import org.auraframework.def.ValueDef;
 import org.auraframework.impl.java.BaseJavaDefFactory;
+import org.auraframework.impl.java.JavaAccessors;
 import org.auraframework.impl.java.model.JavaValueDef;
 import org.auraframework.impl.java.type.JavaTypeDef;
 import org.auraframework.impl.system.DefDescriptorImpl;
@@ -37,6 +38,7 @@ import org.auraframework.impl.system.SubDefDescriptorImpl;
 import org.auraframework.system.Annotations.AuraEnabled;
 import org.auraframework.system.Annotations.BackgroundAction;
 import org.auraframework.system.Annotations.CabooseAction;
+import org.auraframework.system.Annotations.IndependentAction;
 import org.auraframework.system.Annotations.Controller;
 import org.auraframework.system.Annotations.Key;
 import org.auraframework.system.DefFactory;
@@ -127,7 +129,7 @@ public class JavaControllerDefFactory extends BaseJavaDefFactory<ControllerDef>
         Annotation[][] paramAnnotations = method.getParameterAnnotations();
 
         actionBuilder.setDescriptor(SubDefDescriptorImpl.getInstance(name, controllerDesc, ActionDef.class));
-        actionBuilder.setMethod(method);
+        actionBuilder.setMethod(JavaAccessors.makeAccessible(method));
         actionBuilder.setReturnTypeDescriptor(DefDescriptorImpl.getInstance("java://"
                 + method.getReturnType().getName(), TypeDef.class));
         actionBuilder.setJavaParams(method.getParameterTypes());
@@ -162,6 +164,7 @@ public class JavaControllerDefFactory extends BaseJavaDefFactory<ControllerDef>
         
     	actionBuilder.setBackground(method.isAnnotationPresent(BackgroundAction.class));
     	actionBuilder.setCaboose(method.isAnnotationPresent(CabooseAction.class));
+    	actionBuilder.setIndependent(method.isAnnotationPresent(IndependentAction.class));
         
         return actionBuilder.build();
     }
@@ -26,6 +26,7 @@ import org.auraframework.def.*;
 import org.auraframework.expression.PropertyReference;
 
 import org.auraframework.impl.adapter.BeanAdapterImpl;
+import org.auraframework.impl.java.JavaAccessors;
 import org.auraframework.impl.java.type.JavaValueProvider;
 import org.auraframework.instance.InstanceStack;
 import org.auraframework.instance.Model;
@@ -34,7 +35,6 @@ import org.auraframework.service.LoggingService;
 import org.auraframework.throwable.AuraExecutionException;
 import org.auraframework.throwable.AuraRuntimeException;
 import org.auraframework.throwable.quickfix.QuickFixException;
-import org.auraframework.util.AuraTextUtil;
 import org.auraframework.util.json.Json;
 
 /**
@@ -161,15 +161,11 @@ public class JavaModel implements Model {
                     ret = ((List<?>) root).get(i);
                 }
             } else {
-                Method meth = null;
+                Method meth;
                 try {
-                    meth = root.getClass().getMethod("get" + AuraTextUtil.initCap(part));
+                    meth = JavaAccessors.getGetter(root.getClass(), part);
                 } catch (NoSuchMethodException e) {
-                    try {
-                        meth = root.getClass().getMethod("is" + AuraTextUtil.initCap(part));
-                    } catch (NoSuchMethodException nme) {
-                        throw makeException("no such property: " + part, e, def);
-                    }
+                    throw makeException("no such property: " + part, e, def);
                 }
                 try {
                     ret = meth.invoke(root);
@@ -23,6 +23,7 @@ import org.auraframework.Aura;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.TypeDef;
 import org.auraframework.def.ValueDef;
+import org.auraframework.impl.java.JavaAccessors;
 import org.auraframework.impl.system.DefinitionImpl;
 import org.auraframework.service.LoggingService;
 import org.auraframework.system.Location;
@@ -52,7 +53,7 @@ public class JavaValueDef extends DefinitionImpl<ValueDef> implements ValueDef {
     public JavaValueDef(String name, Method getter, DefDescriptor<TypeDef> typeDescriptor, Location location) {
         super(null, location, null);
         this.name = name;
-        this.getter = getter;
+        this.getter = JavaAccessors.makeAccessible(getter);
         this.typeDescriptor = typeDescriptor;
     }
 
@@ -27,6 +27,7 @@ import org.auraframework.impl.parser.ParserFactory;
 import org.auraframework.impl.source.SourceFactory;
 import org.auraframework.impl.system.DefDescriptorImpl;
 import org.auraframework.impl.system.DefFactoryImpl;
+import org.auraframework.impl.system.PersistentDefCache;
 import org.auraframework.system.CacheableDefFactory;
 import org.auraframework.system.Parser;
 import org.auraframework.system.Source;
@@ -69,8 +70,12 @@ public final class RootDefFactory extends DefFactoryImpl<RootDefinition> impleme
 
         descriptor = (DefDescriptor<RootDefinition>) source.getDescriptor();
 
-        Parser parser = ParserFactory.getParser(source.getFormat());
-        def = parser.parse(descriptor, source);
+        if (source.exists()) {
+            def = PersistentDefCache.parse(descriptor, source);
+        } else {
+            Parser parser = ParserFactory.getParser(source.getFormat());
+            def = parser.parse(descriptor, source);
+        }
         return def;
     }
 
@@ -1132,6 +1132,13 @@ public abstract class BaseComponentDefImpl<T extends BaseComponentDef> extends
         return facets;
     }
 
+    /**
+     * The expressions used in this component's markup.
+     */
+    public Set<PropertyReference> getExpressionRefs() {
+        return expressionRefs;
+    }
+
     @Override
     public List<DefDescriptor<?>> getBundle() {
         List<DefDescriptor<?>> ret = Lists.newArrayList();
@@ -17,13 +17,10 @@ package org.auraframework.impl.source.file;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringWriter;
-import java.io.UnsupportedEncodingException;
+import java.io.StringReader;
 import java.io.Writer;
 
 import org.auraframework.Aura;
@@ -31,9 +28,7 @@ import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.Definition;
 import org.auraframework.system.Parser.Format;
 import org.auraframework.system.Source;
-import org.auraframework.throwable.AuraError;
 import org.auraframework.throwable.AuraRuntimeException;
-import org.auraframework.util.IOUtil;
 
 public class FileSource<D extends Definition> extends Source<D> {
 
@@ -61,15 +56,12 @@ public class FileSource<D extends Definition> extends Source<D> {
         return lastModified;
     }
 
+    /**
+     * The file is read and hashed as bytes, and decoded once.
+     */
     @Override
     public Reader getReader() {
-        try {
-            return new InputStreamReader(new FileInputStream(file), "UTF8");
-        } catch (FileNotFoundException e) {
-            throw new AuraRuntimeException(e);
-        } catch (UnsupportedEncodingException uee) {
-            throw new AuraError(uee);
-        }
+        return new StringReader(getContents());
     }
 
     @Override
@@ -112,9 +104,7 @@ public class FileSource<D extends Definition> extends Source<D> {
     @Override
     public String getContents() {
         try {
-            StringWriter sw = new StringWriter();
-            IOUtil.copyStream(getHashingReader(), sw);
-            return sw.toString();
+            return readContents(new FileInputStream(file), (int) Math.min(file.length(), Integer.MAX_VALUE - 1));
         } catch (IOException e) {
             throw new AuraRuntimeException(e);
         }
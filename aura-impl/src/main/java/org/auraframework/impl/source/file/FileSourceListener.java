@@ -16,7 +16,13 @@
 package org.auraframework.impl.source.file;
 
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.vfs2.FileChangeEvent;
 import org.apache.commons.vfs2.FileListener;
@@ -25,15 +31,47 @@ import org.auraframework.Aura;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.impl.system.DefDescriptorImpl;
 import org.auraframework.system.SourceListener;
+import org.auraframework.system.SourceListener.SourceChange;
 import org.auraframework.system.SourceListener.SourceMonitorEvent;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
 /**
  * Used by {@link FileSourceLoader} to monitor and notify when file has changed. When a file does change, it notifies
  * its listener to clear cache of specific descriptor.
+ *
+ * Changes are not passed on one at a time. They are collected until no more have arrived for a short while, and then
+ * sent as one batch, so that a build writing hundreds of files clears the caches once rather than hundreds of times.
  */
 public class FileSourceListener implements FileListener {
 
     private static final Logger LOG = Logger.getLogger(FileSourceListener.class);
+
+    /**
+     * How long to wait without changes before sending a batch.
+     */
+    private static final long QUIET_MILLIS = 250;
+
+    /**
+     * How long a change can wait while more keep arriving.
+     */
+    private static final long MAX_DELAY_MILLIS = 2000;
+
+    private static final ScheduledExecutorService executor = Executors
+            .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "aura-source-changes");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+    private final Set<SourceChange> pending = Sets.newLinkedHashSet();
+    private long firstChange;
+    private long lastChange;
+    private boolean scheduled = false;
     private static final EnumMap<DefDescriptor.DefType, String> extensions = new EnumMap<DefDescriptor.DefType, String>(
             DefDescriptor.DefType.class);
 
@@ -71,9 +109,62 @@ public class FileSourceListener implements FileListener {
         notifySourceChanges(event, SourceMonitorEvent.changed);
     }
 
-    public void onSourceChanged(DefDescriptor<?> defDescriptor, SourceListener.SourceMonitorEvent smEvent,
+    /**
+     * Add a change to the next batch.
+     */
+    public synchronized void onSourceChanged(DefDescriptor<?> defDescriptor, SourceListener.SourceMonitorEvent smEvent,
                                 String filePath) {
-        Aura.getDefinitionService().onSourceChanged(defDescriptor, smEvent, filePath);
+        long now = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            firstChange = now;
+        }
+        lastChange = now;
+        pending.add(new SourceChange(defDescriptor, smEvent, filePath));
+        if (!scheduled) {
+            scheduled = true;
+            scheduleFlush(QUIET_MILLIS);
+        }
+    }
+
+    /**
+     * Send a batch of changes on.
+     *
+     * @param changes the changes, in the order they were seen, without duplicates.
+     */
+    public void onSourceChanges(List<SourceChange> changes) {
+        Aura.getDefinitionService().onSourceChanges(changes);
+    }
+
+    private void scheduleFlush(long delay) {
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        List<SourceChange> batch;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long quiet = now - lastChange;
+            if (quiet < QUIET_MILLIS && now - firstChange < MAX_DELAY_MILLIS) {
+                // still changing, wait some more.
+                scheduleFlush(QUIET_MILLIS - quiet);
+                return;
+            }
+            batch = Lists.newArrayList(pending);
+            pending.clear();
+            scheduled = false;
+        }
+        LOG.info("Notifying " + batch.size() + " source changes");
+        try {
+            onSourceChanges(batch);
+        } catch (Throwable t) {
+            // never let a failure stop later batches.
+            LOG.error("Unable to notify source changes", t);
+        }
     }
 
     private void notifySourceChanges(FileChangeEvent event, SourceListener.SourceMonitorEvent smEvent) {
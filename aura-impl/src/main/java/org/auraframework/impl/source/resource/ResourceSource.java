@@ -17,9 +17,8 @@ package org.auraframework.impl.source.resource;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringWriter;
+import java.io.StringReader;
 import java.io.Writer;
 import java.net.URL;
 import java.util.concurrent.ExecutionException;
@@ -30,7 +29,6 @@ import org.auraframework.def.Definition;
 import org.auraframework.system.Parser.Format;
 import org.auraframework.system.Source;
 import org.auraframework.throwable.AuraRuntimeException;
-import org.auraframework.util.IOUtil;
 import org.auraframework.util.resource.ResourceLoader;
 
 /**
@@ -99,10 +97,12 @@ public class ResourceSource<D extends Definition> extends Source<D> {
 
     @Override
     public String getContents() {
+        InputStream is = resourceLoader.getResourceAsStream(getSystemId());
+        if (is == null) {
+            throw new AuraRuntimeException("Resource not found: " + getSystemId());
+        }
         try {
-            StringWriter sw = new StringWriter();
-            IOUtil.copyStream(getHashingReader(), sw);
-            return sw.toString();
+            return readContents(is, 0);
         } catch (IOException e) {
             throw new AuraRuntimeException(e);
         }
@@ -113,13 +113,12 @@ public class ResourceSource<D extends Definition> extends Source<D> {
         return -1;
     }
 
+    /**
+     * The resource is read and hashed as bytes, and decoded once as UTF-8.
+     */
     @Override
     public Reader getReader() {
-        InputStream is = resourceLoader.getResourceAsStream(getSystemId());
-        if (is == null) {
-            throw new AuraRuntimeException("Resource not found: " + getSystemId());
-        }
-        return new InputStreamReader(is);
+        return new StringReader(getContents());
     }
 
     @Override
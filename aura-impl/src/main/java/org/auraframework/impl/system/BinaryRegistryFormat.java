@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.DefDescriptor.DefType;
+import org.auraframework.def.Definition;
+import org.auraframework.def.DescriptorFilter;
+import org.auraframework.system.DefRegistry;
+import org.auraframework.throwable.AuraRuntimeException;
+import org.auraframework.throwable.quickfix.QuickFixException;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * A compact binary format for precompiled registries.
+ *
+ * Serializing the whole registry array with an ObjectOutputStream means that every definition has to be read back at
+ * startup, whether or not it is ever used. This format keeps each definition as a separate serialized blob, with an
+ * index in front of them, so that reading a file only builds the descriptors, and definitions are decoded the first
+ * time they are asked for (see {@link LazyDefRegistryImpl}).
+ *
+ * The layout is:
+ *
+ * <pre>
+ * int      magic
+ * int      version
+ * int      string count, followed by the strings (int length + UTF-8 bytes)
+ * int      registry count, followed by each registry:
+ *   int      def type count, followed by string indexes
+ *   int      prefix count, followed by string indexes
+ *   int      namespace count, followed by string indexes
+ *   int      definition count, followed by each definition:
+ *     int      qualified name (string index)
+ *     int      def type (string index)
+ *     int      offset in the data section
+ *     int      length in the data section
+ * ...      data section: the serialized definitions
+ * </pre>
+ *
+ * Everything is big endian, as written by {@link DataOutputStream}. The version must be bumped whenever the layout
+ * changes. Files written with a different version are rejected rather than guessed at.
+ */
+public final class BinaryRegistryFormat {
+    public static final int MAGIC = 0x41524547; // "AREG"
+    public static final int VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final DescriptorFilter ALL = new DescriptorFilter("*://*:*");
+
+    private BinaryRegistryFormat() {
+    }
+
+    /**
+     * Is this buffer in the binary registry format?
+     *
+     * This does not move the position of the buffer.
+     */
+    public static boolean isBinaryRegistry(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Write a set of registries.
+     *
+     * All definitions are fetched from the registries and serialized, so the registries must support find.
+     *
+     * @param out the stream to write to, which is not closed.
+     * @param registries the registries to write.
+     */
+    public static void write(OutputStream out, DefRegistry<?>... registries) throws IOException, QuickFixException {
+        List<String> strings = Lists.newArrayList();
+        Map<String, Integer> stringIndexes = Maps.newHashMap();
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        indexOut.writeInt(registries.length);
+        for (DefRegistry<?> registry : registries) {
+            writeRegistry(registry, indexOut, data, strings, stringIndexes);
+        }
+        indexOut.flush();
+
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.writeInt(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(UTF8);
+            dataOut.writeInt(bytes.length);
+            dataOut.write(bytes);
+        }
+        index.writeTo(dataOut);
+        data.writeTo(dataOut);
+        dataOut.flush();
+    }
+
+    private static <T extends Definition> void writeRegistry(DefRegistry<T> registry, DataOutputStream out,
+            ByteArrayOutputStream data, List<String> strings, Map<String, Integer> stringIndexes) throws IOException,
+            QuickFixException {
+        Set<String> defTypes = Sets.newLinkedHashSet();
+        for (DefType defType : registry.getDefTypes()) {
+            defTypes.add(defType.name());
+        }
+        writeStrings(defTypes, out, strings, stringIndexes);
+        writeStrings(registry.getPrefixes(), out, strings, stringIndexes);
+        writeStrings(registry.getNamespaces(), out, strings, stringIndexes);
+
+        Set<DefDescriptor<?>> descriptors = registry.find(ALL);
+        List<T> defs = Lists.newArrayListWithCapacity(descriptors.size());
+        for (DefDescriptor<?> descriptor : descriptors) {
+            @SuppressWarnings("unchecked")
+            T def = registry.getDef((DefDescriptor<T>) descriptor);
+            if (def != null) {
+                defs.add(def);
+            }
+        }
+
+        out.writeInt(defs.size());
+        for (T def : defs) {
+            DefDescriptor<?> descriptor = def.getDescriptor();
+            int offset = data.size();
+            ObjectOutputStream objectOut = new ObjectOutputStream(data);
+            objectOut.writeObject(def);
+            objectOut.close();
+
+            out.writeInt(intern(descriptor.getQualifiedName(), strings, stringIndexes));
+            out.writeInt(intern(descriptor.getDefType().name(), strings, stringIndexes));
+            out.writeInt(offset);
+            out.writeInt(data.size() - offset);
+        }
+    }
+
+    private static void writeStrings(Set<String> values, DataOutputStream out, List<String> strings,
+            Map<String, Integer> stringIndexes) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(intern(value, strings, stringIndexes));
+        }
+    }
+
+    private static int intern(String value, List<String> strings, Map<String, Integer> stringIndexes) {
+        Integer index = stringIndexes.get(value);
+        if (index == null) {
+            index = strings.size();
+            strings.add(value);
+            stringIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * Read a set of registries.
+     *
+     * Only the index is read here. The registries keep a reference to the buffer, and decode definitions from it as
+     * they are needed, so the buffer must not be changed afterwards. It can be memory mapped.
+     *
+     * @param buffer the buffer, positioned at the start of the registries.
+     * @return the registries.
+     * @throws AuraRuntimeException if the buffer is not a valid binary registry.
+     */
+    public static DefRegistry<?>[] read(ByteBuffer buffer) {
+        ByteBuffer in = buffer.duplicate();
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new AuraRuntimeException("Not a binary registry");
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new AuraRuntimeException("Unsupported binary registry version " + version + ", expected "
+                        + VERSION);
+            }
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                strings[i] = new String(bytes, UTF8);
+            }
+
+            List<LazyDefRegistryImpl<?>> registries = Lists.newArrayList();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                registries.add(readRegistry(in, strings));
+            }
+
+            // offsets are relative to the data section, which starts right after the index.
+            ByteBuffer data = in.slice();
+            for (LazyDefRegistryImpl<?> registry : registries) {
+                registry.setData(data);
+            }
+            return registries.toArray(new DefRegistry<?>[registries.size()]);
+        } catch (BufferUnderflowException bue) {
+            throw new AuraRuntimeException("Truncated binary registry", bue);
+        } catch (ArrayIndexOutOfBoundsException aioobe) {
+            throw new AuraRuntimeException("Corrupt binary registry", aioobe);
+        }
+    }
+
+    private static LazyDefRegistryImpl<?> readRegistry(ByteBuffer in, String[] strings) {
+        Set<DefType> defTypes = EnumSet.noneOf(DefType.class);
+        for (String defType : readStrings(in, strings)) {
+            defTypes.add(DefType.valueOf(defType));
+        }
+        Set<String> prefixes = readStrings(in, strings);
+        Set<String> namespaces = readStrings(in, strings);
+
+        int count = in.getInt();
+        Map<DefDescriptor<Definition>, LazyDefRegistryImpl.Entry> entries = Maps.newHashMapWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            String qualifiedName = strings[in.getInt()];
+            DefType defType = DefType.valueOf(strings[in.getInt()]);
+            int offset = in.getInt();
+            int length = in.getInt();
+
+            @SuppressWarnings("unchecked")
+            Class<Definition> defClass = (Class<Definition>) defType.getPrimaryInterface();
+            entries.put(DefDescriptorImpl.getInstance(qualifiedName, defClass), new LazyDefRegistryImpl.Entry(offset,
+                    length));
+        }
+        return new LazyDefRegistryImpl<Definition>(defTypes, prefixes, namespaces, entries);
+    }
+
+    private static Set<String> readStrings(ByteBuffer in, String[] strings) {
+        int count = in.getInt();
+        Set<String> values = Sets.newHashSetWithExpectedSize(count);
+        for (int i = 0; i < count; i++) {
+            values.add(strings[in.getInt()]);
+        }
+        return values;
+    }
+}
@@ -19,10 +19,8 @@ import java.util.Set;
 
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.Definition;
-import org.auraframework.impl.parser.ParserFactory;
 import org.auraframework.impl.source.SourceFactory;
 import org.auraframework.system.CacheableDefFactory;
-import org.auraframework.system.Parser;
 import org.auraframework.system.Source;
 import org.auraframework.throwable.quickfix.QuickFixException;
 
@@ -37,8 +35,7 @@ public class CacheableDefFactoryImpl<D extends Definition> extends DefFactoryImp
     public D getDef(DefDescriptor<D> descriptor) throws QuickFixException {
         Source<?> source = sourceFactory.getSource(descriptor);
         if (source != null && source.exists()) {
-            Parser parser = ParserFactory.getParser(source.getFormat());
-            D def = parser.parse(descriptor, source);
+            D def = PersistentDefCache.parse(descriptor, source);
             // def.validateDefinition();
             return def;
         }
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The shared thread pool used for parallel definition compiles.
+ *
+ * The pool is created on first use, and sized to the number of processors. Tasks are marked so that a compile
+ * started from inside a task (e.g. a nested lookup during validation) stays on that thread instead of fanning out
+ * again and starving the pool.
+ */
+final class CompileExecutor {
+    /**
+     * The number of compile threads.
+     */
+    static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final ThreadLocal<Boolean> inWorker = new ThreadLocal<Boolean>();
+
+    private static class Holder {
+        private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS,
+                new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, "aura-compile-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+    }
+
+    private CompileExecutor() {
+    }
+
+    /**
+     * Is the current thread one of the compile threads?
+     */
+    static boolean isWorker() {
+        return Boolean.TRUE.equals(inWorker.get());
+    }
+
+    /**
+     * Run a set of tasks on the compile threads, waiting for all of them to complete.
+     *
+     * @param tasks the tasks to run.
+     * @return the futures for the tasks, in the same order, all of which are done.
+     * @throws InterruptedException if we are interrupted while waiting.
+     */
+    static <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return Holder.executor.invokeAll(tasks);
+    }
+
+    /**
+     * Mark the current thread as running a compile task.
+     *
+     * @param worker true when starting a task, false when it is done.
+     */
+    static void setWorker(boolean worker) {
+        if (worker) {
+            inWorker.set(Boolean.TRUE);
+        } else {
+            inWorker.remove();
+        }
+    }
+}
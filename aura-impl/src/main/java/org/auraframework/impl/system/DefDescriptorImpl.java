@@ -364,7 +364,9 @@ public class DefDescriptorImpl<T extends Definition> implements DefDescriptor<T>
      */
     @Override
     public boolean exists() {
-        return Aura.getContextService().getCurrentContext().getDefRegistry().exists(this);
+        boolean exists = Aura.getContextService().getCurrentContext().getDefRegistry().exists(this);
+        PersistentDefCache.recordExists(this, exists);
+        return exists;
     }
 
     /**
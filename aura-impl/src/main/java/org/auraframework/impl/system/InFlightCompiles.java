@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Maps;
+
+/**
+ * A table of compiles that are currently running, shared across all master def registries.
+ *
+ * Each master def registry is single threaded, so two requests that both miss the global caches for the same
+ * top level descriptor would otherwise compile the whole tree twice. Instead, the first request registers a
+ * pending entry here, and later requests wait for it to finish and then pick the result up from the global
+ * dependency cache.
+ *
+ * Note that waiting is only an optimization. If the result is not in the cache when the wait finishes (e.g. the
+ * compile failed, was not cacheable, or was invalidated), the waiter simply compiles on its own. The same goes
+ * for a compile that takes longer than {@link #MAX_WAIT_SECONDS}, so that a stuck compile cannot hold up every
+ * request for the same descriptor.
+ */
+final class InFlightCompiles {
+    /**
+     * How long to wait for another thread's compile before doing our own.
+     */
+    static final long MAX_WAIT_SECONDS = 30;
+
+    private static final ConcurrentMap<String, Pending> pending = Maps.newConcurrentMap();
+
+    /**
+     * A single compile in progress.
+     */
+    static final class Pending {
+        private final String key;
+        private final Thread owner = Thread.currentThread();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Pending(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Mark this compile as finished, releasing anyone waiting on it.
+         *
+         * This must be called in a finally block by the thread that started the compile.
+         */
+        void finish() {
+            pending.remove(key, this);
+            done.countDown();
+        }
+    }
+
+    private InFlightCompiles() {
+    }
+
+    /**
+     * Start a compile for the given key, or wait for a compile already in progress.
+     *
+     * @param key the global (non-uid) key for the descriptor being compiled.
+     * @return a pending entry that the caller must {@link Pending#finish()}, or null if a compile from another
+     *         thread finished while we waited, and the caller should re-check the caches.
+     */
+    static Pending startOrAwait(String key) {
+        Pending mine = new Pending(key);
+
+        Pending existing = pending.putIfAbsent(key, mine);
+        if (existing == null) {
+            return mine;
+        }
+        if (existing.owner == mine.owner) {
+            //
+            // We are already compiling this on our own thread (via another registry). Waiting would
+            // deadlock, so just compile it again without registering.
+            //
+            return mine;
+        }
+        try {
+            if (existing.done.await(MAX_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                return null;
+            }
+            // Still running, compile it ourselves, leaving the original registered.
+            return mine;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return mine;
+        }
+    }
+}
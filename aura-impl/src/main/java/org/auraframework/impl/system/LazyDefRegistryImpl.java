@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.DefDescriptor.DefType;
+import org.auraframework.def.Definition;
+import org.auraframework.def.DescriptorFilter;
+import org.auraframework.system.Source;
+import org.auraframework.throwable.AuraRuntimeException;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Immutable DefRegistry implementation, backed by a {@link BinaryRegistryFormat} buffer.
+ *
+ * Only the index of descriptors is held in memory to start with. Each definition is deserialized the first time it
+ * is asked for, and then kept.
+ */
+public class LazyDefRegistryImpl<T extends Definition> extends DefRegistryImpl<T> {
+    private static final long serialVersionUID = 1L;
+    private static final String WILD = "*";
+
+    /**
+     * The location of a definition in the data section.
+     */
+    static final class Entry {
+        private final int offset;
+        private final int length;
+
+        Entry(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final Map<DefDescriptor<T>, Entry> entries;
+    private final ConcurrentMap<DefDescriptor<T>, T> defs;
+    private transient ByteBuffer data;
+
+    LazyDefRegistryImpl(Set<DefType> defTypes, Set<String> prefixes, Set<String> namespaces,
+            Map<DefDescriptor<T>, Entry> entries) {
+        super(defTypes, prefixes, namespaces);
+        this.entries = entries;
+        this.defs = Maps.newConcurrentMap();
+    }
+
+    /**
+     * Set the data section that entries are read from.
+     */
+    void setData(ByteBuffer data) {
+        this.data = data;
+    }
+
+    @Override
+    public T getDef(DefDescriptor<T> descriptor) {
+        T def = defs.get(descriptor);
+        if (def == null) {
+            Entry entry = entries.get(descriptor);
+            if (entry == null) {
+                return null;
+            }
+            //
+            // Two threads may both decode the same definition here, but they produce equal results, and only
+            // one of them is kept.
+            //
+            T decoded = decode(descriptor, entry);
+            def = defs.putIfAbsent(descriptor, decoded);
+            if (def == null) {
+                def = decoded;
+            }
+        }
+        return def;
+    }
+
+    private T decode(DefDescriptor<T> descriptor, Entry entry) {
+        // the buffer position is shared, so work on our own view of it.
+        ByteBuffer buffer = data.duplicate();
+        buffer.position(entry.offset);
+        buffer.limit(entry.offset + entry.length);
+
+        ObjectInputStream ois = null;
+        try {
+            ois = new ObjectInputStream(new ByteBufferInputStream(buffer));
+            @SuppressWarnings("unchecked")
+            T def = (T) ois.readObject();
+            return def;
+        } catch (Exception e) {
+            throw new AuraRuntimeException("Unable to read precompiled " + descriptor, e);
+        } finally {
+            if (ois != null) {
+                try {
+                    ois.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean hasFind() {
+        return true;
+    }
+
+    @Override
+    public Set<DefDescriptor<T>> find(DefDescriptor<T> matcher) {
+        String namespace = matcher.getNamespace();
+        String prefix = matcher.getPrefix();
+        DefType defType = matcher.getDefType();
+        Set<DefDescriptor<T>> ret = new HashSet<DefDescriptor<T>>();
+        for (DefDescriptor<T> key : entries.keySet()) {
+            if (defType == key.getDefType() && key.getPrefix().equalsIgnoreCase(prefix)
+                    && (namespace.equalsIgnoreCase(WILD) || namespace.equalsIgnoreCase(key.getNamespace()))) {
+                ret.add(key);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public Set<DefDescriptor<?>> find(DescriptorFilter matcher) {
+        Set<DefDescriptor<?>> ret = new HashSet<DefDescriptor<?>>();
+
+        for (DefDescriptor<T> key : entries.keySet()) {
+            if (matcher.matchDescriptor(key)) {
+                ret.add(key);
+            }
+        }
+        return ret;
+    }
+
+    @Override
+    public void save(T def) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean exists(DefDescriptor<T> descriptor) {
+        return entries.containsKey(descriptor);
+    }
+
+    @Override
+    public Source<T> getSource(DefDescriptor<T> descriptor) {
+        return null;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public boolean isStatic() {
+        return true;
+    }
+
+    /**
+     * Serialize as a plain static registry, as the buffer cannot be serialized.
+     */
+    private Object writeReplace() {
+        Map<DefDescriptor<T>, T> all = Maps.newHashMapWithExpectedSize(entries.size());
+        for (DefDescriptor<T> descriptor : entries.keySet()) {
+            all.put(descriptor, getDef(descriptor));
+        }
+        return new StaticDefRegistryImpl<T>(getDefTypes(), getPrefixes(), getNamespaces(), all, null);
+    }
+
+    /**
+     * A stream over the remaining bytes of a buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -15,17 +15,23 @@
  */
 package org.auraframework.impl.system;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.locks.Lock;
 
 import org.apache.log4j.Logger;
 import org.auraframework.Aura;
 import org.auraframework.adapter.ConfigAdapter;
 import org.auraframework.cache.Cache;
+import org.auraframework.cache.StreamingCache;
 import org.auraframework.def.AttributeDef;
 import org.auraframework.def.BaseComponentDef;
 import org.auraframework.def.ClientLibraryDef;
@@ -36,9 +42,14 @@ import org.auraframework.def.DefinitionAccess;
 import org.auraframework.def.DescriptorFilter;
 import org.auraframework.def.RootDefinition;
 import org.auraframework.impl.root.DependencyDefImpl;
+import org.auraframework.service.CachingService;
+import org.auraframework.service.ContextService;
 import org.auraframework.service.LoggingService;
 import org.auraframework.system.AuraContext;
+import org.auraframework.system.AuraContext.Authentication;
+import org.auraframework.system.AuraContext.Format;
 import org.auraframework.system.AuraContext.Mode;
+import org.auraframework.system.CompressedContent;
 import org.auraframework.system.DefRegistry;
 import org.auraframework.system.DependencyEntry;
 import org.auraframework.system.Location;
@@ -66,17 +77,22 @@ import com.google.common.collect.Sets;
  * what is effectively a thread local cache. This means that once something is pulled into the local thread, it will not
  * change.
  * 
+ * Lookups do not take any global lock. Each compile records the cache epoch from the caching service when it starts,
+ * and only publishes into the global caches if no invalidation happened while it was running. Concurrent compiles of
+ * the same top level descriptor are shared through {@link InFlightCompiles}.
  */
 public class MasterDefRegistryImpl implements MasterDefRegistry {
-    private static Lock rLock = Aura.getCachingService().getReadLock();
     private static Lock wLock = Aura.getCachingService().getWriteLock();
 
     private static final Logger logger = Logger.getLogger(MasterDefRegistryImpl.class);
 
+    private final CachingService cachingService = Aura.getCachingService();
     private final Cache<DefDescriptor<?>, Boolean> existsCache = Aura.getCachingService().getExistsCache();
     private final Cache<DefDescriptor<?>, Optional<? extends Definition>> defsCache= Aura.getCachingService().getDefsCache();
     private final Cache<String, DependencyEntry> depsCache= Aura.getCachingService().getDepsCache();
     private final Cache<String, String> stringsCache = Aura.getCachingService().getStringsCache();
+    private final Cache<String, CompressedContent> compressedContentCache = Aura.getCachingService()
+            .getCompressedContentCache();
     private final Cache<String, Set<DefDescriptor<?>>> descriptorFilterCache = Aura.getCachingService().getDescriptorFilterCache(); 
     private static final ImmutableSortedSet<String> cacheDependencyExceptions = ImmutableSortedSet.of (
             "apex://array",
@@ -192,42 +208,38 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         final String filterKey = matcher.toString();
         Set<DefRegistry<?>> registries = delegateRegistries.getRegistries(matcher);
         Set<DefDescriptor<?>> matched = Sets.newHashSet();
+        long epoch = cachingService.getCacheEpoch();
 
-        rLock.lock();
-        try {
-            boolean cacheable = shouldCache(matcher);
-            for (DefRegistry<?> reg : registries) {
-                //
-                // This could be a little dangerous, but unless we force all of our
-                // registries to implement find, this is necessary.
-                //
-                if (reg.hasFind()) {
-                    Set<DefDescriptor<?>> registryResults = null;
-
-                    if (cacheable && isCacheable(reg)) {
-                        // cache results per registry
-                        String cacheKey = filterKey + "|" + reg.toString();
-                        registryResults = descriptorFilterCache.getIfPresent(cacheKey);
-                        if (registryResults == null) {
-                            registryResults = reg.find(matcher);
-                            descriptorFilterCache.put(cacheKey, registryResults);
-                        }
-                    } else {
+        boolean cacheable = shouldCache(matcher);
+        for (DefRegistry<?> reg : registries) {
+            //
+            // This could be a little dangerous, but unless we force all of our
+            // registries to implement find, this is necessary.
+            //
+            if (reg.hasFind()) {
+                Set<DefDescriptor<?>> registryResults = null;
+
+                if (cacheable && isCacheable(reg)) {
+                    // cache results per registry
+                    String cacheKey = filterKey + "|" + reg.toString();
+                    registryResults = descriptorFilterCache.getIfPresent(cacheKey);
+                    if (registryResults == null) {
                         registryResults = reg.find(matcher);
+                        publish(descriptorFilterCache, cacheKey, registryResults, epoch);
                     }
-
-                    matched.addAll(registryResults);
+                } else {
+                    registryResults = reg.find(matcher);
                 }
+
+                matched.addAll(registryResults);
             }
-            if (localDescs != null) {
-                for (DefDescriptor<? extends Definition> desc : localDescs) {
-                    if (matcher.matchDescriptor(desc)) {
-                        matched.add(desc);
-                    }
+        }
+        if (localDescs != null) {
+            for (DefDescriptor<? extends Definition> desc : localDescs) {
+                if (matcher.matchDescriptor(desc)) {
+                    matched.add(desc);
                 }
             }
-        } finally {
-            rLock.unlock();
         }
 
         return matched;
@@ -273,8 +285,6 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                 // TODO: FIXME
                 throw new AuraRuntimeException(String.format("Find on %s defs not supported.", matcher.getDefType().name()));
             }
-            rLock.lock();
-            try {
             for (String namespace : delegateRegistries.getAllNamespaces()) {
                 String qualifiedName = String.format(qualifiedNamePattern,
                         matcher.getPrefix() != null ? matcher.getPrefix() : "*", namespace,
@@ -287,9 +297,6 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                     matched.addAll(registry.find(namespacedMatcher));
                 }
             }
-            } finally {
-                rLock.unlock();
-            }
         } else {
             matched = getRegistryFor(matcher).find(matcher);
         }
@@ -348,6 +355,13 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
          */
         public boolean validated = false;
 
+        /**
+         * Was this def filled in by a parallel prefetch?
+         * 
+         * If so, the first visit in the normal walk must still treat it as new.
+         */
+        public boolean prefetched = false;
+
         @Override
         public String toString() {
             StringBuffer sb = new StringBuffer();
@@ -391,6 +405,8 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         public final AuraContext context = Aura.getContextService().getCurrentContext();
         public final LoggingService loggingService = Aura.getLoggingService();
         public final Map<DefDescriptor<? extends Definition>, CompilingDef<?>> compiled = Maps.newHashMap();
+        /** The cache epoch when this compile started, see {@link MasterDefRegistryImpl#publish}. */
+        public final long epoch = Aura.getCachingService().getCacheEpoch();
         public final List<ClientLibraryDef> clientLibs;
         public final DefDescriptor<? extends Definition> topLevel;
         public int level;
@@ -455,6 +471,24 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
      */
     private <D extends Definition> boolean fillCompilingDef(CompilingDef<D> compiling, AuraContext context)
             throws QuickFixException {
+        DefRegistry<D> registry = findCompilingDef(compiling);
+
+        if (registry == null) {
+            return compiling.def != null;
+        }
+        return buildCompilingDef(compiling, registry, context, currentCC.loggingService);
+    }
+
+    /**
+     * Find a compiling def in the local or global caches.
+     * 
+     * @param compiling the current compiling def.
+     * @return the registry from which the def must be built, or null if we are done, in which case compiling.def
+     *         will be set if the def was found.
+     * @throws QuickFixException if validateDefinition caused a quickfix.
+     */
+    private <D extends Definition> DefRegistry<D> findCompilingDef(CompilingDef<D> compiling)
+            throws QuickFixException {
         assert compiling.def == null;
 
         //
@@ -470,10 +504,8 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                 if (compiling.built) {
                     localDef.validateDefinition();
                 }
-                return true;
-            } else {
-                return false;
             }
+            return null;
         }
 
         //
@@ -483,7 +515,7 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         DefRegistry<D> registry = getRegistryFor(compiling.descriptor);
         if (registry == null) {
             defs.put(compiling.descriptor, null);
-            return false;
+            return null;
         }
 
         //
@@ -507,10 +539,8 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                         compiling.def = cachedDef;
                         compiling.descriptor = canonical;
                         compiling.built = false;
-                        return true;
-                    } else {
-                        return false;
                     }
+                    return null;
                 }
             } 
             else {
@@ -523,12 +553,26 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                 currentCC.shouldCacheDependencies = qualified;
             }
         }
+        return registry;
+    }
 
-        //
-        // The last case. This is our first compile or the def is uncacheable.
-        // In this case, we make sure that the initial validation is called, and put
-        // the def in the 'built' set.
-        //
+    /**
+     * Build a compiling def from its registry.
+     * 
+     * This is the last case. This is our first compile or the def is uncacheable. In this case, we make sure that the
+     * initial validation is called, and put the def in the 'built' set.
+     * 
+     * This does not touch any registry state, so that it can be run on a compile thread.
+     * 
+     * @param compiling the current compiling def.
+     * @param registry the registry to build from.
+     * @param context the context to mark the caller on.
+     * @param loggingService the logging service to count defs on, or null if the caller will count.
+     * @return true if the def was found.
+     * @throws QuickFixException if validateDefinition caused a quickfix.
+     */
+    private static <D extends Definition> boolean buildCompilingDef(CompilingDef<D> compiling,
+            DefRegistry<D> registry, AuraContext context, LoggingService loggingService) throws QuickFixException {
         compiling.def = registry.getDef(compiling.descriptor);
         if (compiling.def == null) {
             return false;
@@ -536,7 +580,9 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         @SuppressWarnings("unchecked")
         DefDescriptor<D> canonical = (DefDescriptor<D>) compiling.def.getDescriptor();
         compiling.descriptor = canonical;
-        currentCC.loggingService.incrementNum(LoggingService.DEF_COUNT);
+        if (loggingService != null) {
+            loggingService.incrementNum(LoggingService.DEF_COUNT);
+        }
         context.setCurrentCaller(canonical);
 
         compiling.def.validateDefinition();
@@ -567,7 +613,7 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                 //System.out.println("recalculating at "+stack+" "+descriptor);
             }
         } else {
-            if (cd.def != null) {
+            if (cd.def != null && !cd.prefetched) {
                 return cd.def;
             }
         }
@@ -578,8 +624,10 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
             // careful here. We don't just return with the non-null def because that breaks our levels.
             // We need to walk the whole tree, which is unfortunate perf-wise.
             //
-            if (cd.def == null) {
-                if (!fillCompilingDef(cd, cc.context)) {
+            if (cd.def == null || cd.prefetched) {
+                if (cd.prefetched) {
+                    cd.prefetched = false;
+                } else if (!fillCompilingDef(cd, cc.context)) {
                     // No def. Blow up.
                     Location l = null;
                     if (parent != null) {
@@ -626,6 +674,190 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         }
     }
 
+    /**
+     * A compiling def to build on one of the compile threads.
+     */
+    private static class ParallelBuild<D extends Definition> {
+        private final CompilingDef<D> compiling;
+        private final DefRegistry<D> registry;
+
+        public ParallelBuild(CompilingDef<D> compiling, DefRegistry<D> registry) {
+            this.compiling = compiling;
+            this.registry = registry;
+        }
+
+        public boolean build(AuraContext context) throws QuickFixException {
+            return buildCompilingDef(compiling, registry, context, null);
+        }
+    }
+
+    /**
+     * Build a batch of compiling defs on one of the compile threads.
+     * 
+     * The batch runs in a single context of its own, using the mode, format and access of the requesting context,
+     * since contexts are not shared across threads. A def that fails is logged and left unbuilt, without stopping
+     * the rest of the batch.
+     */
+    private static class ParallelBatch implements Callable<boolean[]> {
+        private final List<ParallelBuild<?>> builds = Lists.newArrayList();
+        private final Mode mode;
+        private final Format format;
+        private final Authentication access;
+        private final DefDescriptor<? extends BaseComponentDef> appDesc;
+
+        public ParallelBatch(AuraContext context) {
+            this.mode = context.getMode();
+            this.format = context.getFormat();
+            this.access = context.getAccess();
+            this.appDesc = context.getApplicationDescriptor();
+        }
+
+        @Override
+        public boolean[] call() {
+            ContextService contextService = Aura.getContextService();
+            AuraContext context = contextService.startContext(mode, format, access, appDesc);
+            boolean[] found = new boolean[builds.size()];
+            CompileExecutor.setWorker(true);
+            try {
+                for (int i = 0; i < found.length; i++) {
+                    ParallelBuild<?> build = builds.get(i);
+                    try {
+                        found[i] = build.build(context);
+                    } catch (QuickFixException qfe) {
+                        logPrefetchFailure(build.compiling.descriptor, qfe);
+                    } catch (RuntimeException re) {
+                        logPrefetchFailure(build.compiling.descriptor, re);
+                    }
+                }
+                return found;
+            } finally {
+                CompileExecutor.setWorker(false);
+                contextService.endContext();
+            }
+        }
+    }
+
+    private static void logPrefetchFailure(DefDescriptor<?> descriptor, Throwable t) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Parallel prefetch of " + descriptor + " failed, leaving it for the serial compile", t);
+        }
+    }
+
+    private <D extends Definition> ParallelBuild<D> prepareBuild(CompilingDef<D> compiling, CompileContext cc)
+            throws QuickFixException {
+        DefRegistry<D> registry = findCompilingDef(compiling);
+
+        if (registry == null) {
+            return null;
+        }
+        return new ParallelBuild<D>(compiling, registry);
+    }
+
+    /**
+     * Should we prefetch the tree for this compile in parallel?
+     */
+    private boolean shouldCompileInParallel() {
+        return !CompileExecutor.isWorker() && Aura.getConfigAdapter().isParallelCompileEnabled();
+    }
+
+    /**
+     * Fill in the compiling defs for a whole dependency tree in parallel.
+     * 
+     * This walks the tree breadth first, building each level of newly discovered definitions on the compile threads
+     * (parse and validateDefinition). Nothing else is done here: the normal depth first walk in {@link #getHelper} is
+     * still run afterwards, so levels, client libraries, preloads, and validateReferences happen on this thread in
+     * exactly the same order as a serial compile. Any def that fails here is simply left unfilled, and the walk will
+     * build it again and report the error.
+     * 
+     * @param descriptor the top level descriptor.
+     * @param cc the compile context, which must be the current one.
+     */
+    private void prefetchDefs(DefDescriptor<?> descriptor, CompileContext cc) {
+        Set<DefDescriptor<?>> seen = Sets.newHashSet();
+        List<DefDescriptor<?>> frontier = Lists.newArrayList();
+
+        seen.add(descriptor);
+        frontier.add(descriptor);
+        while (!frontier.isEmpty()) {
+            List<CompilingDef<?>> filled = Lists.newArrayList();
+            List<ParallelBuild<?>> builds = Lists.newArrayList();
+
+            for (DefDescriptor<?> desc : frontier) {
+                CompilingDef<?> cd = cc.getCompiling(desc);
+                if (cd.def != null) {
+                    continue;
+                }
+                try {
+                    ParallelBuild<?> build = prepareBuild(cd, cc);
+                    if (build != null) {
+                        builds.add(build);
+                    } else if (cd.def != null) {
+                        filled.add(cd);
+                    }
+                } catch (QuickFixException qfe) {
+                    logPrefetchFailure(desc, qfe);
+                    cd.def = null;
+                    cd.built = false;
+                }
+            }
+            if (!builds.isEmpty()) {
+                //
+                // Deal the builds out round robin, one batch (and so one context) per compile thread.
+                //
+                int batchCount = Math.min(builds.size(), CompileExecutor.THREADS);
+                List<ParallelBatch> batches = Lists.newArrayList();
+                for (int i = 0; i < batchCount; i++) {
+                    batches.add(new ParallelBatch(cc.context));
+                }
+                for (int i = 0; i < builds.size(); i++) {
+                    batches.get(i % batchCount).builds.add(builds.get(i));
+                }
+                List<Future<boolean[]>> results;
+                try {
+                    results = CompileExecutor.<boolean[]> invokeAll(batches);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < batchCount; i++) {
+                    List<ParallelBuild<?>> batch = batches.get(i).builds;
+                    boolean[] found = null;
+                    try {
+                        found = results.get(i).get();
+                    } catch (ExecutionException ee) {
+                        // leave them all for the serial walk.
+                        logPrefetchFailure(batch.get(0).compiling.descriptor, ee.getCause());
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int j = 0; j < batch.size(); j++) {
+                        CompilingDef<?> cd = batch.get(j).compiling;
+                        if (found != null && found[j]) {
+                            cc.loggingService.incrementNum(LoggingService.DEF_COUNT);
+                            filled.add(cd);
+                        } else {
+                            cd.def = null;
+                            cd.built = false;
+                        }
+                    }
+                }
+            }
+
+            frontier = Lists.newArrayList();
+            for (CompilingDef<?> cd : filled) {
+                Set<DefDescriptor<?>> deps = Sets.newHashSet();
+
+                cd.prefetched = true;
+                cd.def.appendDependencies(deps);
+                for (DefDescriptor<?> dep : deps) {
+                    if (seen.add(dep)) {
+                        frontier.add(dep);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * finish up the validation of a set of compiling defs.
      * 
@@ -672,7 +904,8 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                 defs.put(cd.descriptor, cd.def);
                 if (cd.built) {
                     if (cd.cacheable) { //false for non-privileged namespaces, or non-cacheable registries
-                        defsCache.put(cd.descriptor, Optional.of(cd.def));
+                        publish(defsCache, cd.descriptor, Optional.of(cd.def), currentCC.epoch,
+                                definitionIndexer(cd.descriptor));
                     }
                     cd.def.markValid();
                 }
@@ -711,13 +944,15 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         if (!nested && currentCC != null) {
             throw new AuraRuntimeException("Unexpected nesting of contexts. This is not allowed");
         }
-        rLock.lock();
         try {
             currentCC = cc;
             if (!nested) {
                 currentCC.loggingService.startTimer(LoggingService.TIMER_DEFINITION_CREATION);
             }
             try {
+                if (!nested && shouldCompileInParallel()) {
+                    prefetchDefs(descriptor, currentCC);
+                }
                 Set<DefDescriptor<?>> stack = Sets.newLinkedHashSet();
                 try {
                     def = getHelper(descriptor, currentCC, stack, null);
@@ -754,7 +989,6 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
             if (!nested) {
                 currentCC = null;
             }
-            rLock.unlock();
         }
     }
 
@@ -775,6 +1009,9 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
      * <li>a dependency entry is cached globally if the definition compiled</li>
      * </ul>
      * 
+     * If another thread is already compiling the same descriptor, we wait for it to finish and build from the entry
+     * it cached instead. If there is no such entry once it is done, we compile as usual.
+     * 
      * @param descriptor the incoming descriptor to compile
      * @return the definition compiled from the descriptor, or null if not found.currentCC
      * @throws QuickFixException if the definition failed to compile.
@@ -788,6 +1025,22 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                     +" trying to build "+descriptor);
         }
 
+        InFlightCompiles.Pending pending = null;
+        if (shouldCache(descriptor)) {
+            pending = InFlightCompiles.startOrAwait(makeNonUidGlobalKey(descriptor));
+            if (pending == null) {
+                DependencyEntry de = getDE(null, descriptor);
+                if (de != null && de.qfe == null) {
+                    try {
+                        buildDE(de, descriptor);
+                        return de;
+                    } catch (DefinitionNotFoundException dnfe) {
+                        // Something changed underneath us, just compile it.
+                    }
+                }
+            }
+        }
+
         try {
             List<ClientLibraryDef> clientLibs = Lists.newArrayList();
             CompileContext cc = new CompileContext(descriptor, clientLibs);
@@ -846,14 +1099,16 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
             // de = getDE(uid, key);
             // if (de == null) {
 
-            de = new DependencyEntry(uid, Collections.unmodifiableSet(deps), lmt, clientLibs);
+            de = new DependencyEntry(uid, deps, lmt, clientLibs);
             if (shouldCache(descriptor)) {
                 // put UID-qualified descriptor key for dependency
-                depsCache.put(makeGlobalKey(de.uid, descriptor), de);
+                String globalKey = makeGlobalKey(de.uid, descriptor);
+                publish(depsCache, globalKey, de, cc.epoch, dependencyIndexer(globalKey, de));
 
                 // put unqualified descriptor key for dependency
                 if (cc.shouldCacheDependencies) {
-                   depsCache.put(makeNonUidGlobalKey(descriptor), de);
+                    String nonUidKey = makeNonUidGlobalKey(descriptor);
+                    publish(depsCache, nonUidKey, de, cc.epoch, dependencyIndexer(nonUidKey, de));
                 }
             }
 
@@ -866,6 +1121,83 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
             // See localDependencies comment
             localDependencies.put(key, new DependencyEntry(qfe));
             throw qfe;
+        } finally {
+            if (pending != null) {
+                pending.finish();
+            }
+        }
+    }
+
+    /**
+     * Adds a value to the dependency index, see {@link #publish(Cache, Object, Object, long, Indexer)}.
+     */
+    private interface Indexer {
+        void index();
+    }
+
+    private Indexer definitionIndexer(final DefDescriptor<?> descriptor) {
+        return new Indexer() {
+            @Override
+            public void index() {
+                cachingService.indexDefinition(descriptor);
+            }
+        };
+    }
+
+    private Indexer dependencyIndexer(final String key, final DependencyEntry de) {
+        return new Indexer() {
+            @Override
+            public void index() {
+                cachingService.indexDependencyEntry(key, de);
+            }
+        };
+    }
+
+    private Indexer stringIndexer(final String key, final DependencyEntry de) {
+        return new Indexer() {
+            @Override
+            public void index() {
+                cachingService.indexCachedString(key, de);
+            }
+        };
+    }
+
+    /**
+     * Publish a value into one of the global caches, unless they were invalidated since our compile started.
+     * 
+     * @see #publish(Cache, Object, Object, long, Indexer)
+     */
+    private <K, V> void publish(Cache<K, V> cache, K key, V value, long epoch) {
+        publish(cache, key, value, epoch, null);
+    }
+
+    /**
+     * Publish a value into one of the global caches, unless they were invalidated since our compile started.
+     * 
+     * The epoch is checked again after the put, because an invalidation may have cleared the cache between the first
+     * check and the put. Since invalidation advances the epoch before clearing anything, one of the two checks will
+     * always catch it.
+     * 
+     * A value that is tracked by the dependency index is indexed only once it is certain to be put, and before the
+     * put, so that a concurrent invalidation cannot miss it. From then on, whatever removes the value from the cache
+     * also removes it from the index, through the removal listener. A value that is dropped is never indexed.
+     * 
+     * @param cache the global cache to update.
+     * @param key the key to put.
+     * @param value the value to put.
+     * @param epoch the cache epoch when the value was computed.
+     * @param indexer indexes the value, or null if the cache is not indexed.
+     */
+    private <K, V> void publish(Cache<K, V> cache, K key, V value, long epoch, Indexer indexer) {
+        if (cachingService.getCacheEpoch() != epoch) {
+            return;
+        }
+        if (indexer != null) {
+            indexer.index();
+        }
+        cache.put(key, value);
+        if (cachingService.getCacheEpoch() != epoch) {
+            cache.invalidate(key);
         }
     }
 
@@ -1018,68 +1350,63 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
             return null;
         }
         
-        rLock.lock();
-        try {
-            if (hasLocalDef(descriptor)) {
-                return getLocalDef(descriptor);
+        if (hasLocalDef(descriptor)) {
+            return getLocalDef(descriptor);
+        }
+        //
+        // If our current context is not null, we always want to recurse
+        // in to properly include the defs.
+        //
+        if (currentCC != null) {
+            if (currentCC.compiled.containsKey(descriptor)) {
+                @SuppressWarnings("unchecked")
+                CompilingDef<D> cd = (CompilingDef<D>)currentCC.compiled.get(descriptor);
+                if (cd.def != null) {
+                    return cd.def;
+                }
             }
+            
             //
-            // If our current context is not null, we always want to recurse
-            // in to properly include the defs.
+            // If we are nested, compileDef will do the right thing.
+            // This is a bit ugly though.
             //
-            if (currentCC != null) {
-                if (currentCC.compiled.containsKey(descriptor)) {
-                    @SuppressWarnings("unchecked")
-                    CompilingDef<D> cd = (CompilingDef<D>)currentCC.compiled.get(descriptor);
-                    if (cd.def != null) {
-                        return cd.def;
-                    }
-                }
-                
-                //
-                // If we are nested, compileDef will do the right thing.
-                // This is a bit ugly though.
-                //
-                return compileDef(descriptor, currentCC);
-            }
+            return compileDef(descriptor, currentCC);
+        }
 
-            DependencyEntry de = getDE(null, descriptor);
-            if (de == null) {
-                for (DependencyEntry det : localDependencies.values()) {
-                    if (det.dependencies != null && det.dependencies.contains(descriptor)) {
-                        de = det;
-                        break;
-                    }
-                }
-            
-                if (de == null) {
-                    compileDE(descriptor);
-                    
-                    @SuppressWarnings("unchecked")
-                    D def = (D) defs.get(descriptor);
-                    return def;
+        DependencyEntry de = getDE(null, descriptor);
+        if (de == null) {
+            for (DependencyEntry det : localDependencies.values()) {
+                if (det.dependencies != null && det.dependencies.contains(descriptor)) {
+                    de = det;
+                    break;
                 }
             }
-            
-            //
-            // found an entry.
-            // In this case, throw a QFE if we have one.
-            //
-            if (de.qfe != null) {
-                throw de.qfe;
+        
+            if (de == null) {
+                compileDE(descriptor);
+                
+                @SuppressWarnings("unchecked")
+                D def = (D) defs.get(descriptor);
+                return def;
             }
-            
-            //
-            // Now we need to actually do the build..
-            //
-            buildDE(de, descriptor);
-            
-            @SuppressWarnings("unchecked")
-            D def = (D) defs.get(descriptor);
-            return def;
-        } finally {
-            rLock.unlock();
         }
+        
+        //
+        // found an entry.
+        // In this case, throw a QFE if we have one.
+        //
+        if (de.qfe != null) {
+            throw de.qfe;
+        }
+        
+        //
+        // Now we need to actually do the build..
+        //
+        buildDE(de, descriptor);
+        
+        @SuppressWarnings("unchecked")
+        D def = (D) defs.get(descriptor);
+        return def;
     }
 
     @SuppressWarnings("unchecked")
@@ -1087,11 +1414,11 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
     public <D extends Definition> void save(D def) {
         wLock.lock();
         try {
-        getRegistryFor((DefDescriptor<D>) def.getDescriptor()).save(def);
-        invalidate(def.getDescriptor());
+            getRegistryFor((DefDescriptor<D>) def.getDescriptor()).save(def);
+            invalidate(def.getDescriptor());
         } finally {
             wLock.unlock();
-    }
+        }
     }
 
     @Override
@@ -1099,8 +1426,7 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         boolean cacheable;
         boolean regExists;
 
-        rLock.lock();
-        try {
+        long epoch = cachingService.getCacheEpoch();
         if (defs.get(descriptor) != null) {
             return true;
         }
@@ -1123,10 +1449,10 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
                 // We cache here.
                 //
                 if (opt.isPresent()) {
-                    existsCache.put(descriptor, Boolean.TRUE);
+                    publish(existsCache, descriptor, Boolean.TRUE, epoch);
                     return true;
                 } else {
-                    existsCache.put(descriptor, Boolean.FALSE);
+                    publish(existsCache, descriptor, Boolean.FALSE, epoch);
                     return false;
                 }
             }
@@ -1134,10 +1460,7 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         regExists = reg.exists(descriptor);
         if (cacheable) {
             Boolean cacheVal = Boolean.valueOf(regExists);
-            existsCache.put(descriptor, cacheVal);
-        }
-        } finally {
-            rLock.unlock();
+            publish(existsCache, descriptor, cacheVal, epoch);
         }
         return regExists;
     }
@@ -1301,6 +1624,7 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         }
         localDependencies.clear();
         if (shouldCache(descriptor)) {
+            cachingService.advanceCacheEpoch();
             depsCache.invalidateAll();
             defsCache.invalidateAll();
             existsCache.invalidateAll();
@@ -1325,13 +1649,75 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         return null;
     }
 
+    @Override
+    public boolean hasCachedString(String uid, DefDescriptor<?> descriptor, String key) {
+        if (shouldCache(descriptor)) {
+            DependencyEntry de = localDependencies.get(uid);
+
+            if (de != null) {
+                return stringsCache.getKeySet().contains(getKey(de, descriptor, key));
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean writeCachedString(String uid, DefDescriptor<?> descriptor, String key, Writer out)
+            throws IOException {
+        if (shouldCache(descriptor)) {
+            DependencyEntry de = localDependencies.get(uid);
+
+            if (de != null) {
+                String stringKey = getKey(de, descriptor, key);
+                if (stringsCache instanceof StreamingCache) {
+                    return ((StreamingCache<String>) stringsCache).writeTo(stringKey, out);
+                }
+                String value = stringsCache.getIfPresent(stringKey);
+                if (value != null) {
+                    out.write(value);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public CompressedContent getCompressedString(String uid, DefDescriptor<?> descriptor, String key) {
+        if (shouldCache(descriptor)) {
+            long epoch = cachingService.getCacheEpoch();
+            DependencyEntry de = localDependencies.get(uid);
+
+            if (de != null) {
+                String stringKey = getKey(de, descriptor, key);
+                CompressedContent compressed = compressedContentCache.getIfPresent(stringKey);
+                if (compressed == null) {
+                    String value = stringsCache.getIfPresent(stringKey);
+                    if (value != null) {
+                        compressed = CompressedContent.create(value);
+                        publish(compressedContentCache, stringKey, compressed, epoch);
+                    }
+                }
+                return compressed;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean canCacheString(String uid, DefDescriptor<?> descriptor) {
+        return shouldCache(descriptor) && localDependencies.get(uid) != null;
+    }
+
     @Override
     public void putCachedString(String uid, DefDescriptor<?> descriptor, String key, String value) {
         if (shouldCache(descriptor)) {
+            long epoch = cachingService.getCacheEpoch();
             DependencyEntry de = localDependencies.get(uid);
     
             if (de != null) {
-                stringsCache.put(getKey(de, descriptor, key), value);
+                String stringKey = getKey(de, descriptor, key);
+                publish(stringsCache, stringKey, value, epoch, stringIndexer(stringKey, de));
             }
         }
     }
@@ -1458,27 +1844,4 @@ public class MasterDefRegistryImpl implements MasterDefRegistry {
         }
         return cacheable;
     }
-
-// TODO - W-2105858 - re-enable with either the private implementation of the Cache used, or
-//  a least-common-denominator implementation
-    
-//    public static Collection<Optional<? extends Definition>> getCachedDefs() {
-//        return defsCache.asMap().values();
-//    }
-//
-//    public static CacheStats getDefsCacheStats() {
-//        return defsCache.stats();
-//    }
-//
-//    public static CacheStats getExistsCacheStats() {
-//        return existsCache.stats();
-//    }
-//
-//    public static CacheStats getStringsCacheStats() {
-//        return stringsCache.stats();
-//    }
-//
-//    public static CacheStats getDescriptorFilterCacheStats() {
-//        return descriptorFilterCache.stats();
-//    }
 }
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.auraframework.Aura;
+import org.auraframework.adapter.ConfigAdapter;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.Definition;
+import org.auraframework.impl.parser.ParserFactory;
+import org.auraframework.system.Parser;
+import org.auraframework.system.Source;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.auraframework.util.text.Hash;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Parsed definitions, kept on disk across restarts.
+ *
+ * Each definition is stored in its own file, named by a hash of the framework build, the descriptor, the hash of
+ * the source it was parsed from, the mode and whether CSS is validated, as parsers give different results for those.
+ * A changed source or a new build simply looks for a different file, so entries are never updated in place, and a
+ * directory can be shared by several servers. Files are written to a temporary name and then renamed, so a reader
+ * never sees a partial file.
+ *
+ * Parsing also looks for other definitions, such as the controller or style next to a component, and the result
+ * depends on whether they exist. Those lookups are recorded while parsing and stored with the definition, and an
+ * entry is only used if all of them still give the same answer.
+ *
+ * Old entries are pruned when the cache is opened: files that have not been used for {@link #MAX_AGE} are removed,
+ * and then the least recently used files until the directory is under {@link #MAX_SIZE}. A hit marks the file as
+ * used.
+ *
+ * Only the parsed definition is kept. Validation depends on other definitions, and is still done by the registry
+ * after loading. Definitions that cannot be serialized are parsed every time, and a file that cannot be read back is
+ * deleted and treated as a miss. Since anyone who can write to the directory decides what is read back, only
+ * classes from an allowed set can be written or read, see {@link #isAllowed(String)}.
+ *
+ * The source is read once, and the definition is parsed from the same contents that were hashed, so an edit while
+ * parsing can not store a definition under the wrong hash. Development builds are stamped with their start time, so
+ * this only pays off across restarts of a real build.
+ */
+public final class PersistentDefCache {
+    private static final Logger logger = Logger.getLogger(PersistentDefCache.class);
+    private static final String SUFFIX = ".def";
+    private static final String TEMP_PREFIX = "def";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** How long an entry is kept without being used. */
+    static final long MAX_AGE = TimeUnit.DAYS.toMillis(14);
+
+    /** The most that is kept in the directory. */
+    static final long MAX_SIZE = 256L * 1024 * 1024;
+
+    /** How long a temporary file can be left before it is assumed to be from a writer that died. */
+    private static final long MAX_TEMP_AGE = TimeUnit.HOURS.toMillis(1);
+
+    private static final Set<String> ALLOWED_CLASSES = ImmutableSet.of("boolean", "byte", "char", "short", "int",
+            "long", "float", "double", "java.lang.Object", "java.lang.String", "java.lang.Boolean", "java.lang.Byte",
+            "java.lang.Character", "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float",
+            "java.lang.Double", "java.lang.Number", "java.lang.Enum", "java.lang.Throwable", "java.lang.Exception",
+            "java.lang.RuntimeException", "java.lang.StackTraceElement", "java.math.BigDecimal",
+            "java.math.BigInteger");
+    private static final String[] ALLOWED_PACKAGES = { "org.auraframework.", "java.util.",
+            "com.google.common.collect." };
+
+    private static volatile PersistentDefCache instance;
+
+    /**
+     * The existence checks made by the parse running on this thread, if it is being cached.
+     */
+    private static final ThreadLocal<Map<DefDescriptor<?>, Boolean>> existenceChecks =
+            new ThreadLocal<Map<DefDescriptor<?>, Boolean>>();
+
+    private final File directory;
+    private final String version;
+    private final Set<Class<?>> unserializable = Sets.newSetFromMap(Maps.<Class<?>, Boolean> newConcurrentMap());
+
+    PersistentDefCache(File directory, String version) {
+        this.directory = directory;
+        this.version = version;
+    }
+
+    /**
+     * Parse a definition, or load it from disk if it has been parsed from the same source before.
+     *
+     * @param descriptor the descriptor of the definition.
+     * @param source an existing source for the definition.
+     * @return the definition.
+     */
+    public static <D extends Definition> D parse(DefDescriptor<D> descriptor, Source<?> source)
+            throws QuickFixException {
+        PersistentDefCache cache = getInstance();
+        if (cache == null) {
+            return doParse(descriptor, source);
+        }
+        return cache.load(descriptor, source);
+    }
+
+    <D extends Definition> D load(DefDescriptor<D> descriptor, Source<?> source) throws QuickFixException {
+        Source<D> snapshot = new SnapshotSource<D>(descriptor, source);
+        Hash.StringBuilder key = new Hash.StringBuilder();
+        key.addString(snapshot.getHash().toString());
+        key.addString("\n");
+        key.addString(Aura.getContextService().getCurrentContext().getMode().toString());
+        key.addString("\n");
+        key.addString(String.valueOf(Aura.getConfigAdapter().validateCss()));
+        Hash hash = key.build();
+
+        D def = get(descriptor, hash);
+        if (def == null) {
+            Map<DefDescriptor<?>, Boolean> outer = existenceChecks.get();
+            Map<DefDescriptor<?>, Boolean> checks = Maps.newLinkedHashMap();
+            existenceChecks.set(checks);
+            try {
+                def = doParse(descriptor, snapshot);
+            } finally {
+                existenceChecks.set(outer);
+            }
+            put(descriptor, hash, def, checks);
+        }
+        return def;
+    }
+
+    /**
+     * Note whether a definition exists, if a definition that is being cached is being parsed on this thread.
+     */
+    static void recordExists(DefDescriptor<?> descriptor, boolean exists) {
+        Map<DefDescriptor<?>, Boolean> checks = existenceChecks.get();
+        if (checks != null) {
+            checks.put(descriptor, exists);
+        }
+    }
+
+    private static <D extends Definition> D doParse(DefDescriptor<D> descriptor, Source<?> source)
+            throws QuickFixException {
+        Parser parser = ParserFactory.getParser(source.getFormat());
+        return parser.parse(descriptor, source);
+    }
+
+    /**
+     * Get the cache for the configured directory, or null if there is none.
+     */
+    private static PersistentDefCache getInstance() {
+        ConfigAdapter config = Aura.getConfigAdapter();
+        File directory = config.getDefinitionCacheDirectory();
+        if (directory == null) {
+            return null;
+        }
+        PersistentDefCache current = instance;
+        if (current == null || !current.directory.equals(directory)) {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                logger.warn("Unable to create definition cache directory " + directory);
+                return null;
+            }
+            current = new PersistentDefCache(directory, config.getAuraVersion() + "@" + config.getBuildTimestamp());
+            current.prune(System.currentTimeMillis(), MAX_AGE, MAX_SIZE);
+            instance = current;
+        }
+        return current;
+    }
+
+    /**
+     * Remove entries that have not been used for a while, and then the least recently used ones until the rest fit.
+     *
+     * Another server sharing the directory may be using a file that is removed, which is only a miss for it.
+     */
+    void prune(long now, long maxAge, long maxSize) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        List<File> kept = Lists.newArrayList();
+        for (File file : files) {
+            String name = file.getName();
+            long lastModified = file.lastModified();
+            if (name.endsWith(SUFFIX)) {
+                if (now - lastModified > maxAge) {
+                    file.delete();
+                } else {
+                    kept.add(file);
+                }
+            } else if (name.startsWith(TEMP_PREFIX) && name.endsWith(TEMP_SUFFIX)
+                    && now - lastModified > MAX_TEMP_AGE) {
+                file.delete();
+            }
+        }
+        Collections.sort(kept, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long aModified = a.lastModified();
+                long bModified = b.lastModified();
+                // most recently used first.
+                return aModified > bModified ? -1 : (aModified == bModified ? 0 : 1);
+            }
+        });
+        long size = 0;
+        for (File file : kept) {
+            size += file.length();
+            if (size > maxSize) {
+                file.delete();
+            }
+        }
+    }
+
+    File getFile(DefDescriptor<?> descriptor, Hash hash) {
+        Hash.StringBuilder name = new Hash.StringBuilder();
+        name.addString(version);
+        name.addString("\n");
+        name.addString(descriptor.getDefType().toString());
+        name.addString(":");
+        name.addString(descriptor.getQualifiedName());
+        name.addString("\n");
+        name.addString(hash.toString());
+        return new File(directory, name.build().toString() + SUFFIX);
+    }
+
+    /**
+     * Load a definition.
+     *
+     * @return the definition, or null if it was not found or could not be read.
+     */
+    <D extends Definition> D get(DefDescriptor<D> descriptor, Hash hash) {
+        File file = getFile(descriptor, hash);
+        if (!file.isFile()) {
+            return null;
+        }
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(file));
+            ObjectInputStream objects = new DefinitionInputStream(in);
+            Object read = objects.readObject();
+            Object checks = objects.readObject();
+            if (read instanceof Definition && descriptor.equals(((Definition) read).getDescriptor())
+                    && checks instanceof Map) {
+                if (!isCurrent((Map<?, ?>) checks)) {
+                    // parsing now would give a different definition, and store it here.
+                    return null;
+                }
+                @SuppressWarnings("unchecked")
+                D def = (D) read;
+                file.setLastModified(System.currentTimeMillis());
+                return def;
+            }
+            logger.warn("Unexpected definition in " + file + " for " + descriptor);
+        } catch (IOException ioe) {
+            if (!file.exists()) {
+                // removed under us.
+                return null;
+            }
+            logger.warn("Unable to read cached definition for " + descriptor, ioe);
+        } catch (ClassNotFoundException cnfe) {
+            logger.warn("Unable to read cached definition for " + descriptor, cnfe);
+        } finally {
+            close(in);
+        }
+        file.delete();
+        return null;
+    }
+
+    /**
+     * Check that the definitions that were looked for while parsing still exist, or still do not.
+     */
+    private static boolean isCurrent(Map<?, ?> checks) {
+        for (Map.Entry<?, ?> check : checks.entrySet()) {
+            if (!(check.getKey() instanceof DefDescriptor)
+                    || !Boolean.valueOf(((DefDescriptor<?>) check.getKey()).exists()).equals(check.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    <D extends Definition> void put(DefDescriptor<D> descriptor, Hash hash, D def) {
+        put(descriptor, hash, def, Collections.<DefDescriptor<?>, Boolean> emptyMap());
+    }
+
+    /**
+     * Store a definition, if it can be serialized.
+     *
+     * @param checks whether each definition that was looked for while parsing existed.
+     */
+    <D extends Definition> void put(DefDescriptor<D> descriptor, Hash hash, D def,
+            Map<DefDescriptor<?>, Boolean> checks) {
+        if (def == null || unserializable.contains(def.getClass())) {
+            return;
+        }
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            ObjectOutputStream out = new DefinitionOutputStream(buffer);
+            out.writeObject(def);
+            out.writeObject(Maps.newHashMap(checks));
+            out.close();
+            bytes = buffer.toByteArray();
+        } catch (NotSerializableException nse) {
+            logger.debug("Not caching " + def.getClass().getName() + ": " + nse.getMessage());
+            unserializable.add(def.getClass());
+            return;
+        } catch (IOException ioe) {
+            logger.debug("Not caching " + descriptor, ioe);
+            return;
+        }
+        File file = getFile(descriptor, hash);
+        File temp = null;
+        OutputStream out = null;
+        try {
+            temp = File.createTempFile(TEMP_PREFIX, TEMP_SUFFIX, directory);
+            out = new FileOutputStream(temp);
+            out.write(bytes);
+            out.close();
+            out = null;
+            // the file may already be there, from a parse when other definitions existed.
+            if (temp.renameTo(file) || (file.delete() && temp.renameTo(file))) {
+                temp = null;
+            }
+        } catch (IOException ioe) {
+            logger.warn("Unable to cache definition for " + descriptor, ioe);
+        } finally {
+            close(out);
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Can instances of a class be stored?
+     *
+     * This allows the classes that definitions are made of, but none of the JDK or library classes that can be
+     * abused to run code while they are read.
+     *
+     * @param className the binary name of the class, or the name of an array class.
+     */
+    static boolean isAllowed(String className) {
+        String name = className;
+        if (name.startsWith("[")) {
+            int dimensions = 0;
+            while (name.charAt(dimensions) == '[') {
+                dimensions += 1;
+            }
+            name = name.substring(dimensions);
+            if (name.length() == 1) {
+                // an array of primitives.
+                return true;
+            }
+            if (!name.startsWith("L") || !name.endsWith(";")) {
+                return false;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+        if (ALLOWED_CLASSES.contains(name)) {
+            return true;
+        }
+        for (String prefix : ALLOWED_PACKAGES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Refuse to write anything that could not be read back.
+     */
+    private static class DefinitionOutputStream extends ObjectOutputStream {
+        DefinitionOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> cl) throws IOException {
+            if (!isAllowed(cl.getName())) {
+                throw new NotSerializableException(cl.getName());
+            }
+        }
+
+        @Override
+        protected void annotateProxyClass(Class<?> cl) throws IOException {
+            throw new NotSerializableException(cl.getName());
+        }
+    }
+
+    /**
+     * Only read allowed classes, with the loader that has the definitions rather than whatever is on the call stack.
+     */
+    private static class DefinitionInputStream extends ObjectInputStream {
+        DefinitionInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "not allowed in the definition cache");
+            }
+            try {
+                return Class.forName(desc.getName(), false, PersistentDefCache.class.getClassLoader());
+            } catch (ClassNotFoundException cnfe) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("proxy", "not allowed in the definition cache");
+        }
+    }
+
+    /**
+     * A source that is read once, so that the hash and the parser see the same contents.
+     */
+    private static class SnapshotSource<D extends Definition> extends Source<D> {
+        private static final long serialVersionUID = -6196543360950402367L;
+        private static final Charset UTF8 = Charset.forName("UTF-8");
+
+        private final Source<?> source;
+        private final String contents;
+        private final Hash hash;
+
+        SnapshotSource(DefDescriptor<D> descriptor, Source<?> source) {
+            super(descriptor, source.getSystemId(), source.getFormat());
+            this.source = source;
+            this.contents = source.getContents();
+            MessageDigest digest = Hash.newDigest();
+            digest.update(contents.getBytes(UTF8));
+            this.hash = new Hash(digest.digest());
+        }
+
+        @Override
+        public Hash getHash() {
+            return hash;
+        }
+
+        @Override
+        public Reader getReader() {
+            return new StringReader(contents);
+        }
+
+        @Override
+        public String getContents() {
+            return contents;
+        }
+
+        @Override
+        public Writer getWriter() {
+            return source.getWriter();
+        }
+
+        @Override
+        public boolean addOrUpdate(CharSequence newContents) {
+            return source.addOrUpdate(newContents);
+        }
+
+        @Override
+        public long getLastModified() {
+            return source.getLastModified();
+        }
+
+        @Override
+        public boolean exists() {
+            return source.exists();
+        }
+
+        @Override
+        public String getUrl() {
+            return source.getUrl();
+        }
+
+        @Override
+        public URL getCacheUrl() {
+            return source.getCacheUrl();
+        }
+    }
+}
@@ -17,7 +17,6 @@ package org.auraframework.impl.util.json;
 
 import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import org.auraframework.adapter.JsonSerializerAdapter;
@@ -30,13 +29,18 @@ import org.auraframework.util.json.JsonSerializers;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.collect.MapMaker;
 
 /**
  * json serialization context for aura
  */
 public class AuraJsonContext extends ClassMapJsonSerializationContext {
     private static final Map<String, JsonSerializer<?>> mappyFasty;
-    private static final ConcurrentMap<String, JsonSerializer<?>> cache = new ConcurrentHashMap<String, JsonSerializer<?>>();
+    /**
+     * The serializer found for each class. Keys are weak, so that classes from a discarded class loader (e.g.
+     * after a redeploy) are not kept alive by this.
+     */
+    private static final ConcurrentMap<Class<?>, Object> cache = new MapMaker().weakKeys().makeMap();
     private static final Map<Class<?>, JsonSerializer<?>> mappySlowly;
 
     static {
@@ -60,13 +64,11 @@ public class AuraJsonContext extends ClassMapJsonSerializationContext {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public <T> JsonSerializer<T> getSerializer(T o) {
-        JsonSerializer<T> s = super.getSerializer(o);
+    protected JsonSerializer<?> findSerializer(Class<?> c) {
+        JsonSerializer<?> s = super.findSerializer(c);
         // try the old way until we stop using it
-        if (s == null && o instanceof JsonSerializable) {
-            // System.out.println("bah old serializer: " + c.getName());
-            s = (JsonSerializer<T>) JsonSerializers.OLD;
+        if (s == null && JsonSerializable.class.isAssignableFrom(c)) {
+            s = JsonSerializers.OldSerializer.forClass(c);
         }
         return s;
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl;
+
+import org.auraframework.impl.BackgroundMinifier.Minification;
+import org.auraframework.test.UnitTestCase;
+
+public class BackgroundMinifierTest extends UnitTestCase {
+    private String waitForResult(Minification minification) throws Exception {
+        long timeout = System.currentTimeMillis() + 30000;
+
+        while (minification.getResult() == null) {
+            assertTrue("Timed out waiting for minification", System.currentTimeMillis() < timeout);
+            Thread.sleep(10);
+        }
+        return minification.getResult();
+    }
+
+    /**
+     * A submitted minification produces a smaller result, and then only keeps that.
+     */
+    public void testSubmit() throws Exception {
+        String key = getName() + System.nanoTime();
+        String source = "function  test ( longArgumentName )  {\n    return longArgumentName   +  1;\n}\n";
+        Minification minification = BackgroundMinifier.submit(key, source);
+
+        try {
+            assertNotNull(minification);
+            assertSame(minification, BackgroundMinifier.get(key));
+            String result = waitForResult(minification);
+            assertTrue("Expected minified output, got: " + result, result.length() < source.length());
+            assertSame("Expected the source to be dropped", result, minification.getSource());
+        } finally {
+            BackgroundMinifier.remove(minification);
+        }
+        assertNull(BackgroundMinifier.get(key));
+    }
+
+    /**
+     * Submitting the same key twice should only minify once.
+     */
+    public void testSubmitTwiceReturnsExisting() throws Exception {
+        String key = getName() + System.nanoTime();
+        Minification first = BackgroundMinifier.submit(key, "var a = 1;");
+        Minification second = BackgroundMinifier.submit(key, "var b = 2;");
+
+        try {
+            assertSame(first, second);
+            String result = waitForResult(first);
+            assertTrue("Expected the first source, got: " + result, result.contains("a"));
+        } finally {
+            BackgroundMinifier.remove(first);
+        }
+    }
+
+    /**
+     * Javascript that does not compile is left as is.
+     */
+    public void testErrorsKeepSource() throws Exception {
+        String key = getName() + System.nanoTime();
+        String source = "function ( { broken";
+        Minification minification = BackgroundMinifier.submit(key, source);
+
+        try {
+            assertEquals(source, waitForResult(minification));
+        } finally {
+            BackgroundMinifier.remove(minification);
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package org.auraframework.impl;
 
 import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.lang.ref.WeakReference;
 import java.util.Collection;
 import java.util.Collections;
@@ -23,6 +24,9 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.apache.log4j.AppenderSkeleton;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -37,10 +41,13 @@ import org.auraframework.def.DefDescriptor.DefType;
 import org.auraframework.def.Definition;
 import org.auraframework.def.HelperDef;
 import org.auraframework.def.StyleDef;
+import org.auraframework.impl.cache.CacheMonitor;
 import org.auraframework.impl.system.DefDescriptorImpl;
 import org.auraframework.service.CachingService;
+import org.auraframework.system.BatchSourceListener;
 import org.auraframework.system.DependencyEntry;
 import org.auraframework.system.SourceListener;
+import org.auraframework.system.SourceListener.SourceChange;
 import org.auraframework.system.SourceListener.SourceMonitorEvent;
 import org.mockito.Mockito;
 
@@ -138,6 +145,41 @@ public class CachingServiceImplTest extends AuraImplTestCase {
 		}
 	}
 
+	public void testNotifyDependentSourceChanges_NotifiesListenersOncePerBatch() {
+		List<SourceChange> changes = Lists.newArrayList();
+		for (int i = 0; i < 3; i++) {
+			DefDescriptor<?> source = DefDescriptorImpl.getInstance(
+					getAuraTestingUtil().getNonce("some:descriptor"),
+					ComponentDef.class);
+			changes.add(new SourceChange(source, SourceMonitorEvent.changed,
+					"someFilePath" + i));
+		}
+		SourceListener listener = Mockito.mock(SourceListener.class);
+		BatchSourceListener batchListener = Mockito
+				.mock(BatchSourceListener.class);
+		Collection<WeakReference<SourceListener>> listeners = Lists
+				.newArrayList();
+		listeners.add(new WeakReference<SourceListener>(listener));
+		listeners.add(new WeakReference<SourceListener>(batchListener));
+
+		CachingServiceImpl service = new CachingServiceImpl();
+		long epoch = service.getCacheEpoch();
+		service.notifyDependentSourceChanges(listeners, changes);
+
+		for (SourceChange change : changes) {
+			Mockito.verify(listener, Mockito.times(1)).onSourceChanged(
+					change.getSource(), change.getEvent(),
+					change.getFilePath());
+		}
+		Mockito.verify(batchListener, Mockito.times(1)).onSourceChanges(
+				changes);
+		Mockito.verify(batchListener, Mockito.never()).onSourceChanged(
+				Mockito.<DefDescriptor<?>> any(),
+				Mockito.<SourceMonitorEvent> any(), Mockito.anyString());
+		assertEquals("Cache epoch should advance once per batch", epoch + 1,
+				service.getCacheEpoch());
+	}
+
 	public void testNotifyDependentSourceChange_NotifiesNoListeners() {
 		DefDescriptor<?> source = DefDescriptorImpl.getInstance(
 				getAuraTestingUtil().getNonce("some:descriptor"),
@@ -150,6 +192,34 @@ public class CachingServiceImplTest extends AuraImplTestCase {
 		service.notifyDependentSourceChange(listeners, source, event, filePath);
 	}
 
+	public void testNotifyDependentSourceChange_AdvancesCacheEpoch() {
+		CachingServiceImpl service = new CachingServiceImpl();
+		long epoch = service.getCacheEpoch();
+
+		service.notifyDependentSourceChange(
+				Collections.<WeakReference<SourceListener>> emptySet(), null,
+				null, null);
+
+		assertTrue("Cache epoch should advance on source change",
+				service.getCacheEpoch() > epoch);
+	}
+
+	public void testNotifyDependentSourceChange_DoesNotAdvanceEpochIfWriteLockLocked() {
+		CachingServiceImpl service = new CachingServiceImpl();
+		long epoch = service.getCacheEpoch();
+		Lock lock = service.getReadLock();
+		lock.lock();
+		try {
+			service.notifyDependentSourceChange(
+					Collections.<WeakReference<SourceListener>> emptySet(),
+					null, null, null);
+			assertEquals("Cache epoch should not move without the lock",
+					epoch, service.getCacheEpoch());
+		} finally {
+			lock.unlock();
+		}
+	}
+
 	private <K, V> void testNotifyDependentSourceChange_InvalidatesSomeCachedValues(
 			CachingService service, Cache<K, V> cache,
 			Function<K, V> valGenerator, Set<K> keys, DefDescriptor<?> source,
@@ -362,4 +432,21 @@ public class CachingServiceImplTest extends AuraImplTestCase {
 					}
 				}, keys);
 	}
+
+	public void testCachesAreRegisteredWithJmx() throws Exception {
+		CachingServiceImpl service = new CachingServiceImpl();
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		service.getExistsCache().getIfPresent(DefDescriptorImpl.getInstance(
+				getAuraTestingUtil().getNonce("some:descriptor"),
+				ComponentDef.class));
+
+		for (String name : service.getCaches().keySet()) {
+			assertTrue("Cache not registered: " + name,
+					server.isRegistered(new ObjectName(CacheMonitor.DOMAIN,
+							"name", name)));
+		}
+		Object misses = server.getAttribute(new ObjectName(
+				CacheMonitor.DOMAIN, "name", "exists"), "MissCount");
+		assertEquals(Long.valueOf(1), misses);
+	}
 }
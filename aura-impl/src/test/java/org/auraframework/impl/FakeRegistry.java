@@ -15,6 +15,7 @@
  */
 package org.auraframework.impl;
 
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -23,6 +24,7 @@ import org.auraframework.def.ClientLibraryDef;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.Definition;
 import org.auraframework.def.DescriptorFilter;
+import org.auraframework.system.CompressedContent;
 import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.system.Source;
 import org.auraframework.throwable.ClientOutOfSyncException;
@@ -120,6 +122,26 @@ public class FakeRegistry implements MasterDefRegistry {
         return null;
     }
 
+    @Override
+    public boolean hasCachedString(String uid, DefDescriptor<?> descriptor, String key) {
+        return false;
+    }
+
+    @Override
+    public boolean writeCachedString(String uid, DefDescriptor<?> descriptor, String key, Writer out) {
+        return false;
+    }
+
+    @Override
+    public CompressedContent getCompressedString(String uid, DefDescriptor<?> descriptor, String key) {
+        return null;
+    }
+
+    @Override
+    public boolean canCacheString(String uid, DefDescriptor<?> descriptor) {
+        return false;
+    }
+
     @Override
     public void putCachedString(String uid, DefDescriptor<?> descriptor, String key, String value) {
     }
@@ -18,11 +18,17 @@ package org.auraframework.impl;
 import java.math.BigDecimal;
 import java.text.DateFormat;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.auraframework.Aura;
 import org.auraframework.service.LocalizationService;
@@ -497,6 +503,77 @@ public class LocalizationServiceImplTest extends AuraTestCase {
         }
     }
     
+    /**
+     * Settings for one call do not leak into other calls with the same locale.
+     */
+    public void testFormatSettingsAreNotShared() throws Exception {
+        assertEquals("1.500", localizationService.formatNumber(1.5, Locale.ENGLISH, 3, 3));
+        assertEquals("1.5", localizationService.formatNumber(1.5, Locale.ENGLISH));
+        assertEquals("2", localizationService.formatNumber(1.5, Locale.ENGLISH, 0, 0));
+        assertEquals("1.500", localizationService.formatNumber(1.5, Locale.ENGLISH, 3, 3));
+        assertEquals("1.5", localizationService.formatNumber(1.5, Locale.ENGLISH));
+
+        BigDecimal parsed = localizationService.parseBigDecimal("1.25", Locale.ENGLISH);
+        assertEquals(new BigDecimal("1.25"), parsed);
+        assertEquals(1.25, localizationService.parseDouble("1.25", Locale.ENGLISH), 0);
+    }
+
+    /**
+     * Negative fraction digits are treated as 0, not as the locale default.
+     */
+    public void testNegativeFractionDigitsAreZero() throws Exception {
+        assertEquals("2", localizationService.formatNumber(1.5, Locale.ENGLISH, -1, -1));
+        assertEquals("150%", localizationService.formatPercent(1.5, Locale.ENGLISH, -1, -1));
+        assertEquals("$2", localizationService.formatCurrency(1.5, Locale.US, -1, -1));
+    }
+
+    /**
+     * Changing the time zone of one AuraLocale does not change it for later requests.
+     */
+    public void testAuraLocaleTimeZoneIsNotShared() throws Exception {
+        TimeZone timeZone = Aura.getLocalizationAdapter().getAuraLocale().getTimeZone();
+        String id = timeZone.getID();
+        timeZone.setID("Changed/By_Caller");
+        try {
+            assertEquals(id, Aura.getLocalizationAdapter().getAuraLocale().getTimeZone().getID());
+        } finally {
+            timeZone.setID(id);
+        }
+    }
+
+    /**
+     * Formats are shared between threads, each call must still get the right result.
+     */
+    public void testConcurrentFormatting() throws Exception {
+        final Locale[] locales = { Locale.ENGLISH, Locale.GERMANY, Locale.FRANCE, Locale.JAPAN };
+        final Map<Locale, String> expected = new HashMap<Locale, String>();
+        for (Locale locale : locales) {
+            expected.put(locale, localizationService.formatNumber(1234567.891, locale, 2, 2)
+                    + localizationService.formatCurrency(new BigDecimal("1234.5"), locale, 2, 2, null)
+                    + localizationService.formatPercent(0.25, locale));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(locales.length);
+        try {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for (int i = 0; i < 400; i++) {
+                final Locale locale = locales[i % locales.length];
+                results.add(executor.submit(new Callable<String>() {
+                    @Override
+                    public String call() throws Exception {
+                        return localizationService.formatNumber(1234567.891, locale, 2, 2)
+                                + localizationService.formatCurrency(new BigDecimal("1234.5"), locale, 2, 2, null)
+                                + localizationService.formatPercent(0.25, locale);
+                    }
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected.get(locales[i % locales.length]), results.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /*
      * return error message we are expecting, throw by parse() in AuraNumberFormat.java
      */
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.adapter;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+import org.auraframework.Aura;
+import org.auraframework.impl.AuraImplTestCase;
+import org.auraframework.impl.expression.PropertyReferenceImpl;
+import org.auraframework.test.annotation.UnAdaptableTest;
+
+/**
+ * Unit tests for LabelValueProvider.
+ */
+@UnAdaptableTest
+// Labels come from a different adapter in the SFDC stack
+public class LabelValueProviderTest extends AuraImplTestCase {
+
+    public LabelValueProviderTest(String name) {
+        super(name);
+    }
+
+    public void testLabelIsLocalized() throws Exception {
+        Aura.getContextService().getCurrentContext().setRequestedLocales(Arrays.asList(Locale.GERMAN));
+        LabelValueProvider provider = new LabelValueProvider();
+
+        assertEquals("Heute", provider.getLabel("Related_Lists", "task_mode_today"));
+        assertEquals("Heute", provider.getValue(new PropertyReferenceImpl("Related_Lists.task_mode_today", null)));
+    }
+
+    public void testLabelsAreSharedAcrossRequests() throws Exception {
+        String first = new LabelValueProvider().getLabel("Related_Lists", "task_mode_today_overdue");
+        String second = new LabelValueProvider().getLabel("Related_Lists", "task_mode_today_overdue");
+
+        assertEquals("Today + Overdue", first);
+        assertSame("Labels should be shared", first, second);
+    }
+
+    public void testLabelsAreSentToClient() throws Exception {
+        LabelValueProvider provider = new LabelValueProvider();
+        assertTrue(provider.isEmpty());
+
+        provider.getLabel("Related_Lists", "task_mode_today");
+
+        Map<String, ?> data = provider.getData();
+        assertEquals(1, data.size());
+        assertEquals("Today", ((Map<?, ?>) data.get("Related_Lists")).get("task_mode_today"));
+    }
+}
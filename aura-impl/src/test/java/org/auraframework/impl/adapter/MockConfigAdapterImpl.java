@@ -44,6 +44,8 @@ public class MockConfigAdapterImpl extends ConfigAdapterImpl implements MockConf
     private Boolean isProduction = null;
     private Boolean isAuraJSStatic = null;
     private Boolean validateCss = null;
+    private Boolean isParallelCompileEnabled = null;
+    private Boolean isParallelActionsEnabled = null;
     
     public MockConfigAdapterImpl() {
         super();
@@ -59,6 +61,8 @@ public class MockConfigAdapterImpl extends ConfigAdapterImpl implements MockConf
         isProduction = null;
         isAuraJSStatic = null;
         validateCss = null;
+        isParallelCompileEnabled = null;
+        isParallelActionsEnabled = null;
     }
 
     @Override
@@ -101,6 +105,26 @@ public class MockConfigAdapterImpl extends ConfigAdapterImpl implements MockConf
         return (validateCss == null) ? super.validateCss() : validateCss;
     }
 
+    @Override
+    public void setIsParallelCompileEnabled(boolean isParallelCompileEnabled) {
+        this.isParallelCompileEnabled = isParallelCompileEnabled;
+    }
+
+    @Override
+    public boolean isParallelCompileEnabled() {
+        return (isParallelCompileEnabled == null) ? super.isParallelCompileEnabled() : isParallelCompileEnabled;
+    }
+
+    @Override
+    public void setIsParallelActionsEnabled(boolean isParallelActionsEnabled) {
+        this.isParallelActionsEnabled = isParallelActionsEnabled;
+    }
+
+    @Override
+    public boolean isParallelActionsEnabled() {
+        return (isParallelActionsEnabled == null) ? super.isParallelActionsEnabled() : isParallelActionsEnabled;
+    }
+
 	@Override
 	public boolean isPrivilegedNamespace(String namespace) {
 		if (StringSourceLoader.getInstance().isPrivilegedNamespace(namespace) || SYSTEM_TEST_NAMESPACES.contains(namespace) || super.isPrivilegedNamespace(namespace)) {
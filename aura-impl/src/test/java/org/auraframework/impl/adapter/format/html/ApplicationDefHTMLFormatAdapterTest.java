@@ -26,6 +26,8 @@ import org.auraframework.system.AuraContext;
 import org.auraframework.test.annotation.ThreadHostileTest;
 import org.auraframework.util.AuraTextUtil;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * Tests for BaseComponentDefHTMLFormatAdapter, as it relates to ApplicationDef
  * 
@@ -117,6 +119,42 @@ public class ApplicationDefHTMLFormatAdapterTest extends BaseComponentDefHTMLFor
         }
     }
 
+    /**
+     * The rendered page is reused, with the attributes for each request in auraInit.
+     */
+    public void testWriteReusesRenderedPage() throws Exception {
+        AuraContext context = Aura.getContextService().getCurrentContext();
+        DefDescriptor<ApplicationDef> desc = addSourceAutoCleanup(ApplicationDef.class,
+                "<aura:application render='client'></aura:application>");
+        String first = doWrite(desc.getDef(), ImmutableMap.<String, Object> of("value", "firstRequestValue"));
+        int nextId = context.getNextId();
+        String second = doWrite(desc.getDef(), ImmutableMap.<String, Object> of("value", "secondRequestValue"));
+
+        assertEquals("Template was rendered again", nextId + 1, context.getNextId());
+        assertTrue("Attributes missing from auraInit:\n" + first, first.contains("\"firstRequestValue\""));
+        assertEquals(first.replace("firstRequestValue", "secondRequestValue"), second);
+        assertEquals(first, doWrite(desc.getDef(), ImmutableMap.<String, Object> of("value", "firstRequestValue")));
+    }
+
+    /**
+     * A template that can render something different for each request is rendered every time.
+     */
+    public void testWriteRendersRequestDependentTemplate() throws Exception {
+        AuraContext context = Aura.getContextService().getCurrentContext();
+        DefDescriptor<ComponentDef> template = addSourceAutoCleanup(ComponentDef.class, String.format(
+                baseComponentTag, "isTemplate='true' extends='aura:template'",
+                "<aura:set attribute='title' value='{!$Browser.formFactor}'/>"));
+        DefDescriptor<ApplicationDef> desc = addSourceAutoCleanup(ApplicationDef.class,
+                "<aura:application render='client' template='" + template.getQualifiedName()
+                        + "'></aura:application>");
+        String first = doWrite(desc.getDef());
+        int nextId = context.getNextId();
+        String second = doWrite(desc.getDef());
+
+        assertTrue("Template was not rendered again", context.getNextId() > nextId + 1);
+        assertEquals(first, second);
+    }
+
     /**
      * Verify that comments in Template CSS are stripped out before sending it to client.
      * 
@@ -15,6 +15,8 @@
  */
 package org.auraframework.impl.adapter.format.html;
 
+import java.util.Map;
+
 import org.auraframework.adapter.FormatAdapter;
 import org.auraframework.def.Definition;
 import org.auraframework.impl.AuraImpl;
@@ -35,10 +37,14 @@ public abstract class BaseComponentDefHTMLFormatAdapterTest<T extends Definition
     public abstract Class<T> getDefClass();
 
     protected String doWrite(T def) throws Exception {
+        return doWrite(def, null);
+    }
+
+    protected String doWrite(T def, Map<String, Object> attributes) throws Exception {
         FormatAdapter<T> adapter = AuraImpl.getFormatAdapter(Format.HTML.name(), getDefClass());
         adapter.getClass().asSubclass(BaseComponentDefHTMLFormatAdapter.class);
         StringBuffer out = new StringBuffer();
-        adapter.write(def, null, out);
+        adapter.write(def, attributes, out);
         return out.toString();
     }
 }
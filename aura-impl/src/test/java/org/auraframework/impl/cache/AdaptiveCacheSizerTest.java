@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import org.auraframework.test.UnitTestCase;
+
+public class AdaptiveCacheSizerTest extends UnitTestCase {
+
+	private CacheImpl<String, String> makeCache(long size) {
+		return new CacheImpl<String, String>(
+				new CacheImpl.Builder<String, String>().setMaximumSize(size)
+						.setConcurrencyLevel(1).setRecordStats(true)
+						.setSoftValues(false));
+	}
+
+	/**
+	 * Put more entries than fit, and look all of them up, so that the cache
+	 * both evicts and misses.
+	 */
+	private void thrash(CacheImpl<String, String> cache, int count) {
+		for (int i = 0; i < count; i++) {
+			cache.put("key" + i, "value");
+		}
+		for (int i = 0; i < count; i++) {
+			cache.getIfPresent("key" + i);
+		}
+	}
+
+	private void hitAll(CacheImpl<String, String> cache) {
+		for (String key : cache.getKeySet()) {
+			cache.getIfPresent(key);
+		}
+	}
+
+	public void testGrowsThrashingCacheUnderBudget() {
+		CacheImpl<String, String> thrashing = makeCache(8);
+		CacheImpl<String, String> happy = makeCache(8);
+		AdaptiveCacheSizer sizer = new AdaptiveCacheSizer();
+		sizer.manage("thrashing", thrashing);
+		sizer.manage("happy", happy);
+
+		thrash(thrashing, 20);
+		happy.put("key", "value");
+		hitAll(happy);
+		sizer.adjust(0, 100);
+
+		assertEquals(16, thrashing.getMaximumSize());
+		assertEquals(8, happy.getMaximumSize());
+	}
+
+	public void testGrowthIsCapped() {
+		CacheImpl<String, String> cache = makeCache(8);
+		AdaptiveCacheSizer sizer = new AdaptiveCacheSizer();
+		sizer.manage("cache", cache);
+
+		for (int i = 0; i < 5; i++) {
+			thrash(cache, 100);
+			sizer.adjust(0, 100);
+		}
+		assertEquals(8 * AdaptiveCacheSizer.RANGE, cache.getMaximumSize());
+	}
+
+	public void testShrinksWorstCacheOverBudget() {
+		CacheImpl<String, String> thrashing = makeCache(8);
+		CacheImpl<String, String> happy = makeCache(8);
+		AdaptiveCacheSizer sizer = new AdaptiveCacheSizer();
+		sizer.manage("thrashing", thrashing);
+		sizer.manage("happy", happy);
+
+		thrash(thrashing, 20);
+		happy.put("key", "value");
+		hitAll(happy);
+		sizer.adjust(200, 100);
+
+		assertEquals(4, thrashing.getMaximumSize());
+		assertEquals(8, happy.getMaximumSize());
+	}
+
+	public void testIdleCachesAreLeftAlone() {
+		CacheImpl<String, String> cache = makeCache(8);
+		AdaptiveCacheSizer sizer = new AdaptiveCacheSizer();
+		sizer.manage("cache", cache);
+
+		sizer.adjust(200, 100);
+		assertEquals(8, cache.getMaximumSize());
+	}
+}
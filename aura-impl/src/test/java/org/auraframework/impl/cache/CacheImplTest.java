@@ -20,10 +20,13 @@ import java.util.Collection;
 import java.util.Set;
 
 import org.auraframework.cache.Cache;
+import org.auraframework.cache.CacheStatistics;
 import org.auraframework.test.UnitTestCase;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
+import com.google.common.collect.Sets;
+
 public class CacheImplTest extends UnitTestCase {
 
 	private <K, T> com.google.common.cache.Cache<K, T> getMockCache() {
@@ -88,7 +91,7 @@ public class CacheImplTest extends UnitTestCase {
 		Iterable<Object> keys = Mockito.mock(Iterable.class);
 
 		cache.invalidate(keys);
-		Mockito.verify(backingCache, Mockito.times(1)).invalidate(keys);
+		Mockito.verify(backingCache, Mockito.times(1)).invalidateAll(keys);
 	}
 
 	public void testInvalidateAll() {
@@ -131,7 +134,7 @@ public class CacheImplTest extends UnitTestCase {
 				backingCache);
 		backingCache.put("someKey", "someValue");
 		cache.invalidatePartial(" ");
-		Mockito.verify(backingCache, Mockito.never()).invalidate(
+		Mockito.verify(backingCache, Mockito.never()).invalidateAll(
 				Mockito.anyCollection());
 	}
 
@@ -141,7 +144,7 @@ public class CacheImplTest extends UnitTestCase {
 				backingCache);
 		backingCache.put("someKey", "someValue");
 		cache.invalidatePartial("someKey");
-		Mockito.verify(backingCache, Mockito.times(1)).invalidate(
+		Mockito.verify(backingCache, Mockito.times(1)).invalidateAll(
 				Mockito.argThat(new CollectionContainsAllMatcher<Object>("someKey")));
 	}
 
@@ -155,7 +158,7 @@ public class CacheImplTest extends UnitTestCase {
 		backingCache.put("someThing", "someValue");
 
 		cache.invalidatePartial("some");
-		Mockito.verify(backingCache, Mockito.times(1)).invalidate(
+		Mockito.verify(backingCache, Mockito.times(1)).invalidateAll(
 				Mockito.argThat(new CollectionContainsAllMatcher<Object>("someKey",
 						"someOtherKey", "someThing")));
 	}
@@ -166,7 +169,114 @@ public class CacheImplTest extends UnitTestCase {
 				backingCache);
 		backingCache.put("someKey", "someValue");
 		cache.invalidatePartial("otherKey");
-		Mockito.verify(backingCache, Mockito.never()).invalidate(
+		Mockito.verify(backingCache, Mockito.never()).invalidateAll(
 				Mockito.anyCollection());
 	}
+
+	public void testGetStatistics() {
+		Cache<String, String> cache = new CacheImpl.Builder<String, String>()
+				.setRecordStats(true).setMaximumSize(1).build();
+		cache.put("key", "value");
+		cache.getIfPresent("key");
+		cache.getIfPresent("missing");
+		cache.put("other", "value");
+
+		CacheStatistics stats = cache.getStatistics();
+		assertEquals(1, stats.getSize());
+		assertEquals(1, stats.getHitCount());
+		assertEquals(1, stats.getMissCount());
+		assertEquals(2, stats.getRequestCount());
+		assertEquals(1, stats.getEvictionCount());
+		assertEquals(0.5, stats.getHitRate());
+	}
+
+	public void testGetStatisticsWithoutRecordStats() {
+		Cache<String, String> cache = new CacheImpl.Builder<String, String>()
+				.setRecordStats(false).build();
+		cache.put("key", "value");
+		cache.getIfPresent("key");
+
+		CacheStatistics stats = cache.getStatistics();
+		assertEquals(1, stats.getSize());
+		assertEquals(0, stats.getRequestCount());
+		assertEquals(1.0, stats.getHitRate());
+	}
+
+	public void testInvalidateKeysRemovesEachKey() {
+		Cache<String, String> cache = new CacheImpl.Builder<String, String>()
+				.build();
+		cache.put("one", "value");
+		cache.put("two", "value");
+		cache.put("three", "value");
+
+		cache.invalidate(Arrays.asList("one", "two"));
+		assertEquals(Sets.newHashSet("three"), cache.getKeySet());
+	}
+
+	public void testResizeKeepsEntriesAndStatistics() {
+		CacheImpl<String, String> cache = new CacheImpl<String, String>(
+				new CacheImpl.Builder<String, String>().setMaximumSize(10)
+						.setRecordStats(true).setSoftValues(false));
+		cache.put("one", "value");
+		cache.put("two", "value");
+		cache.getIfPresent("one");
+
+		cache.resize(20);
+		assertEquals(20, cache.getMaximumSize());
+		assertEquals("value", cache.getIfPresent("two"));
+		assertEquals(2, cache.getStatistics().getHitCount());
+		assertEquals(2, cache.getStatistics().getSize());
+	}
+
+	public void testResizeSmallerEvicts() {
+		final Set<String> evicted = Sets.newHashSet();
+		CacheImpl<String, String> cache = new CacheImpl<String, String>(
+				new CacheImpl.Builder<String, String>().setMaximumSize(10)
+						.setConcurrencyLevel(1).setSoftValues(false)
+						.setEvictionListener(new EvictionListener<String>() {
+							@Override
+							public void onEviction(String key) {
+								evicted.add(key);
+							}
+						}));
+		for (int i = 0; i < 10; i++) {
+			cache.put("key" + i, "value");
+		}
+
+		cache.resize(4);
+		assertEquals(4, cache.getStatistics().getSize());
+		assertEquals(6, evicted.size());
+	}
+
+	public void testResizeKeepsRacingPuts() throws Exception {
+		final CacheImpl<Integer, String> cache = new CacheImpl<Integer, String>(
+				new CacheImpl.Builder<Integer, String>().setMaximumSize(100000)
+						.setSoftValues(false));
+		final int count = 20000;
+		Thread writer = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < count; i++) {
+					cache.put(i, "value");
+				}
+			}
+		};
+		writer.start();
+		for (int size = 100000; writer.isAlive(); size++) {
+			cache.resize(size);
+		}
+		writer.join();
+
+		assertEquals(count, cache.getStatistics().getSize());
+	}
+
+	public void testResizeWrappedCacheNotSupported() {
+		CacheImpl<Object, Object> cache = new CacheImpl<Object, Object>(
+				getMockCache());
+		try {
+			cache.resize(10);
+			fail("Expected resize to fail on a wrapped cache");
+		} catch (UnsupportedOperationException expected) {
+		}
+	}
 }
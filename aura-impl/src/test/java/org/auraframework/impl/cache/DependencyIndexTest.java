@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.auraframework.def.ClientLibraryDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.Definition;
+import org.auraframework.system.DependencyEntry;
+import org.auraframework.test.UnitTestCase;
+import org.auraframework.throwable.quickfix.QuickFixException;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+
+public class DependencyIndexTest extends UnitTestCase {
+
+	private final DefDescriptor<?> cmpA = getMockDescriptor("index");
+	private final DefDescriptor<?> cmpB = getMockDescriptor("index");
+	private final DefDescriptor<?> cmpC = getMockDescriptor("other");
+
+	private DefDescriptor<?> getMockDescriptor(String namespace) {
+		DefDescriptor<?> descriptor = Mockito.mock(DefDescriptor.class);
+		Mockito.doReturn(namespace).when(descriptor).getNamespace();
+		return descriptor;
+	}
+
+	private DependencyEntry makeEntry(String uid,
+			DefDescriptor<?>... dependencies) {
+		Set<DefDescriptor<? extends Definition>> deps = Sets.newLinkedHashSet();
+		for (DefDescriptor<?> dependency : dependencies) {
+			deps.add(dependency);
+		}
+		return new DependencyEntry(uid, deps, 0,
+				Collections.<ClientLibraryDef> emptyList());
+	}
+
+	private Set<DefDescriptor<?>> descriptors(DefDescriptor<?>... descriptors) {
+		return ImmutableSet.<DefDescriptor<?>> copyOf(descriptors);
+	}
+
+	public void testGetDependentsOnlyIncludesEntriesWithDescriptor() {
+		DependencyIndex index = new DependencyIndex();
+		index.addDependencyEntry("key1", makeEntry("uid1", cmpA, cmpB));
+		index.addDependencyEntry("key2", makeEntry("uid2", cmpB));
+
+		assertEquals(ImmutableSet.of("uid1"),
+				index.getDependents(descriptors(cmpA)));
+		assertEquals(ImmutableSet.of("uid1", "uid2"),
+				index.getDependents(descriptors(cmpB)));
+		assertTrue(index.getDependents(descriptors(cmpC)).isEmpty());
+	}
+
+	public void testGetKeysForDependents() {
+		DependencyIndex index = new DependencyIndex();
+		DependencyEntry entry = makeEntry("uid1", cmpA);
+		index.addDependencyEntry("uid1/key", entry);
+		index.addDependencyEntry("#/key", entry);
+		index.addString("uid1@a@js", entry);
+		index.addDependencyEntry("key2", makeEntry("uid2", cmpB));
+
+		Set<String> uids = index.getDependents(descriptors(cmpA));
+		assertEquals(ImmutableSet.of("uid1/key", "#/key"),
+				index.getDependencyKeys(uids));
+		assertEquals(ImmutableSet.of("uid1@a@js"), index.getStringKeys(uids));
+	}
+
+	public void testRemovingAllKeysDropsDependents() {
+		DependencyIndex index = new DependencyIndex();
+		DependencyEntry entry = makeEntry("uid1", cmpA);
+		index.addDependencyEntry("key1", entry);
+		index.addString("string1", entry);
+
+		index.removeDependencyKey("key1");
+		assertEquals("Uid should be kept while a string refers to it",
+				ImmutableSet.of("uid1"), index.getDependents(descriptors(cmpA)));
+
+		index.removeStringKey("string1");
+		assertTrue(index.getDependents(descriptors(cmpA)).isEmpty());
+	}
+
+	public void testReplacingKeyMovesItToNewUid() {
+		DependencyIndex index = new DependencyIndex();
+		index.addDependencyEntry("#/key", makeEntry("uid1", cmpA));
+		index.addDependencyEntry("#/key", makeEntry("uid2", cmpB));
+
+		assertTrue(index.getDependents(descriptors(cmpA)).isEmpty());
+		assertEquals(ImmutableSet.of("#/key"), index.getDependencyKeys(index
+				.getDependents(descriptors(cmpB))));
+	}
+
+	public void testEntriesWithoutUidAreIgnored() {
+		DependencyIndex index = new DependencyIndex();
+		index.addDependencyEntry("key1", new DependencyEntry((QuickFixException) null));
+
+		assertTrue(index.getDependencyKeys(Collections.<String> singleton(null))
+				.isEmpty());
+	}
+
+	public void testGetDefinitionsByNamespace() {
+		DependencyIndex index = new DependencyIndex();
+		index.addDefinition(cmpA);
+		index.addDefinition(cmpB);
+		index.addDefinition(cmpC);
+
+		assertEquals(descriptors(cmpA, cmpB), index.getDefinitions("index"));
+		index.removeDefinition(cmpA);
+		assertEquals(descriptors(cmpB), index.getDefinitions("index"));
+		assertTrue(index.getDefinitions("nothere").isEmpty());
+	}
+}
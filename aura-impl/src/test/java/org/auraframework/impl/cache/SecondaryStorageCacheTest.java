@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.cache;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.auraframework.cache.Cache;
+import org.auraframework.cache.StreamingCache;
+import org.auraframework.test.UnitTestCase;
+import org.auraframework.util.IOUtil;
+
+import com.google.common.collect.Lists;
+
+public class SecondaryStorageCacheTest extends UnitTestCase {
+
+	private File getFile(StreamingCache<String> cache, String key) {
+		@SuppressWarnings("unchecked")
+		com.google.common.cache.Cache<String, File> files = (com.google.common.cache.Cache<String, File>) cache
+				.getPrivateUnderlyingCache();
+		return files.getIfPresent(key);
+	}
+
+	public void testBuilderUsesSecondaryStorage() {
+		Cache<String, String> cache = new CacheImpl.Builder<String, String>()
+				.setUseSecondaryStorage(true).build();
+		assertTrue("Expected a streaming cache",
+				cache instanceof StreamingCache);
+		assertFalse(new CacheImpl.Builder<String, String>().build() instanceof StreamingCache);
+	}
+
+	public void testPutAndGet() throws Exception {
+		StreamingCache<String> cache = new SecondaryStorageCache<String>(
+				new CacheImpl.Builder<String, String>());
+		String value = "some value \u00e9\u4e2d";
+
+		assertNull(cache.getIfPresent("key"));
+		cache.put("key", value);
+		assertEquals(value, cache.getIfPresent("key"));
+
+		StringWriter sw = new StringWriter();
+		assertTrue(cache.writeTo("key", sw));
+		assertEquals(value, sw.toString());
+	}
+
+	public void testWriteToMissingKeyWritesNothing() throws Exception {
+		StreamingCache<String> cache = new SecondaryStorageCache<String>(
+				new CacheImpl.Builder<String, String>());
+		StringWriter sw = new StringWriter();
+
+		assertFalse(cache.writeTo("key", sw));
+		assertEquals("", sw.toString());
+	}
+
+	public void testInvalidateDeletesFile() {
+		StreamingCache<String> cache = new SecondaryStorageCache<String>(
+				new CacheImpl.Builder<String, String>());
+		cache.put("key", "value");
+		File file = getFile(cache, "key");
+		assertTrue(file.exists());
+
+		cache.invalidate("key");
+		assertFalse(file.exists());
+		assertNull(cache.getIfPresent("key"));
+	}
+
+	public void testReplaceDeletesOldFile() {
+		StreamingCache<String> cache = new SecondaryStorageCache<String>(
+				new CacheImpl.Builder<String, String>());
+		cache.put("key", "first");
+		File first = getFile(cache, "key");
+		cache.put("key", "second");
+
+		assertFalse(first.exists());
+		assertEquals("second", cache.getIfPresent("key"));
+	}
+
+	public void testMissingFileIsAMiss() throws Exception {
+		StreamingCache<String> cache = new SecondaryStorageCache<String>(
+				new CacheImpl.Builder<String, String>());
+		cache.put("key", "value");
+		assertTrue(getFile(cache, "key").delete());
+
+		assertFalse(cache.writeTo("key", new StringWriter()));
+		assertFalse(cache.getKeySet().contains("key"));
+	}
+
+	public void testEvictionListenerIgnoresReplacement() {
+		final List<String> evicted = Lists.newArrayList();
+		StreamingCache<String> cache = new SecondaryStorageCache<String>(
+				new CacheImpl.Builder<String, String>()
+						.setEvictionListener(new EvictionListener<String>() {
+							@Override
+							public void onEviction(String key) {
+								evicted.add(key);
+							}
+						}));
+		cache.put("key", "first");
+		cache.put("key", "second");
+		assertTrue(evicted.isEmpty());
+
+		cache.invalidate("key");
+		assertEquals(Lists.newArrayList("key"), evicted);
+	}
+
+	private File createParent() throws Exception {
+		File parent = File.createTempFile("cacheParent", "");
+		assertTrue(parent.delete() && parent.mkdir());
+		return parent;
+	}
+
+	/**
+	 * Directories that are no longer locked are removed when a cache is
+	 * created, while those in use are kept.
+	 */
+	public void testStaleDirectoriesRemoved() throws Exception {
+		File parent = createParent();
+		try {
+			File inUse = SecondaryStorageCache.createDirectory(parent);
+			File stale = new File(parent, "auraCacheStale");
+			assertTrue(stale.mkdir());
+			assertTrue(new File(stale, ".lock").createNewFile());
+			assertTrue(new File(stale, "value1.txt").createNewFile());
+			File unlockedNew = new File(parent, "auraCacheNew");
+			assertTrue(unlockedNew.mkdir());
+			File other = new File(parent, "other");
+			assertTrue(other.mkdir());
+
+			File created = SecondaryStorageCache.createDirectory(parent);
+
+			assertTrue(created.isDirectory());
+			assertTrue(inUse.isDirectory());
+			assertFalse(stale.exists());
+			assertTrue("A directory being created should be kept",
+					unlockedNew.exists());
+			assertTrue(other.exists());
+
+			assertTrue(unlockedNew.setLastModified(System.currentTimeMillis()
+					- 2 * 60 * 60 * 1000L));
+			SecondaryStorageCache.removeStaleDirectories(parent,
+					System.currentTimeMillis());
+			assertFalse(unlockedNew.exists());
+			assertTrue(created.isDirectory());
+		} finally {
+			IOUtil.delete(parent);
+		}
+	}
+}
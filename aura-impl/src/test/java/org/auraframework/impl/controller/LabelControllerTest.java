@@ -65,6 +65,14 @@ public class LabelControllerTest extends AuraImplTestCase {
         runLabelAction("", "FooBared" , State.SUCCESS, placeholder);
     }
     
+    /**
+     * A section or name with a dot is split the same way as a $Label reference.
+     */
+    public void testDottedName() throws Exception {
+        runLabelAction("FOO", "task_mode_today.extra", State.SUCCESS, "Today");
+        runLabelAction("FOO.task_mode_today", "extra", State.SUCCESS, "Today");
+    }
+    
     public Action runLabelAction(String section, String name, State expectedStatus, String expectedLabel) throws Exception{
         Map<String, Object> params = Maps.newHashMap();
         params.put("section", section);
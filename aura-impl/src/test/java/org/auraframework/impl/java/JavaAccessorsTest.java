@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.java;
+
+import java.lang.reflect.Method;
+
+import org.auraframework.test.UnitTestCase;
+import org.auraframework.util.AuraTextUtil;
+
+public class JavaAccessorsTest extends UnitTestCase {
+    public static class Bean {
+        public String getName() {
+            return "name";
+        }
+
+        public boolean isActive() {
+            return true;
+        }
+
+        public String getBoth() {
+            return "get";
+        }
+
+        public boolean isBoth() {
+            return false;
+        }
+
+        String getHidden() {
+            return "hidden";
+        }
+    }
+
+    private static class PrivateBean {
+        @SuppressWarnings("unused")
+        public String getName() {
+            return "private";
+        }
+    }
+
+    /**
+     * Getters are found by get or is prefix, with get first.
+     */
+    public void testGetGetter() throws Exception {
+        Bean bean = new Bean();
+
+        assertEquals("name", JavaAccessors.getGetter(Bean.class, "name").invoke(bean));
+        assertEquals(Boolean.TRUE, JavaAccessors.getGetter(Bean.class, "active").invoke(bean));
+        assertEquals("get", JavaAccessors.getGetter(Bean.class, "both").invoke(bean));
+    }
+
+    /**
+     * Missing and non-public getters are not found.
+     */
+    public void testGetGetterMissing() {
+        for (String property : new String[] { "nothing", "hidden" }) {
+            try {
+                JavaAccessors.getGetter(Bean.class, property);
+                fail("Expected no getter for " + property);
+            } catch (NoSuchMethodException expected) {
+                assertTrue(expected.getMessage().contains("get" + AuraTextUtil.initCap(property)));
+            }
+        }
+    }
+
+    /**
+     * The same method is given back each time.
+     */
+    public void testGetGetterCached() throws Exception {
+        assertSame(JavaAccessors.getGetter(Bean.class, "name"), JavaAccessors.getGetter(Bean.class, "name"));
+    }
+
+    /**
+     * Only methods that could already be called skip the access check.
+     */
+    public void testMakeAccessible() throws Exception {
+        assertTrue(JavaAccessors.makeAccessible(Bean.class.getMethod("getName")).isAccessible());
+        assertFalse(JavaAccessors.makeAccessible(PrivateBean.class.getMethod("getName")).isAccessible());
+
+        Method hidden = Bean.class.getDeclaredMethod("getHidden");
+        assertFalse(JavaAccessors.makeAccessible(hidden).isAccessible());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.java.controller;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.auraframework.system.Annotations.AuraEnabled;
+import org.auraframework.system.Annotations.Controller;
+import org.auraframework.system.Annotations.IndependentAction;
+import org.auraframework.system.Annotations.Key;
+
+@Controller
+public class IndependentActionTestController {
+    private static volatile CountDownLatch arrived;
+
+    /**
+     * Set up a meeting of a number of actions.
+     */
+    static void reset(int count) {
+        arrived = new CountDownLatch(count);
+    }
+
+    /**
+     * Wait for the other actions to arrive.
+     * 
+     * @return true if they all arrived, which can only happen if they run at the same time.
+     */
+    @AuraEnabled
+    @IndependentAction
+    public static boolean meet() throws InterruptedException {
+        CountDownLatch latch = arrived;
+        latch.countDown();
+        return latch.await(5, TimeUnit.SECONDS);
+    }
+
+    @AuraEnabled
+    @IndependentAction
+    public static String echo(@Key("value") String value) {
+        return value;
+    }
+
+    @AuraEnabled
+    @IndependentAction
+    public static Integer increment(@Key("value") Integer value) {
+        return value + 1;
+    }
+
+    @AuraEnabled
+    @IndependentAction
+    public static void fail() {
+        throw new IllegalStateException("independent failure");
+    }
+
+    @AuraEnabled
+    public static boolean dependent() {
+        return true;
+    }
+}
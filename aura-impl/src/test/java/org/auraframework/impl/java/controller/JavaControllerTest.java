@@ -269,6 +269,96 @@ public class JavaControllerTest extends AuraImplTestCase {
                 ((JavaActionDef) actionDef).isBackground());
     }
 
+    /**
+     * IndependentAction marks an action as independent.
+     */
+    public void testJavaActionDefIsIndependent() throws Exception {
+        ControllerDef controller = getJavaController("java://org.auraframework.impl.java.controller.IndependentActionTestController");
+        assertTrue(((JavaActionDef) controller.getActionDefs().get("meet")).isIndependent());
+        assertFalse(((JavaActionDef) controller.getActionDefs().get("dependent")).isIndependent());
+    }
+
+    private void runActions(List<Action> actions) throws Exception {
+        StringWriter sw = new StringWriter();
+        Aura.getServerService().run(new Message(actions), Aura.getContextService().getCurrentContext(), sw, null);
+    }
+
+    /**
+     * Independent actions should run at the same time when parallel actions are enabled, and be completed in order.
+     */
+    @ThreadHostileTest("enables parallel actions")
+    public void testIndependentActionsRunInParallel() throws Exception {
+        getMockConfigAdapter().setIsParallelActionsEnabled(true);
+        IndependentActionTestController.reset(2);
+        ControllerDef controller = getJavaController("java://org.auraframework.impl.java.controller.IndependentActionTestController");
+        Map<String, Object> args = Maps.newHashMap();
+        args.put("value", "hello");
+        List<Action> actions = Lists.newArrayList(controller.createAction("meet", null),
+                controller.createAction("echo", args), controller.createAction("dependent", null),
+                controller.createAction("meet", null));
+
+        runActions(actions);
+
+        for (Action action : actions) {
+            assertEquals(action.getDescriptor() + " State", State.SUCCESS, action.getState());
+        }
+        assertEquals(Boolean.TRUE, actions.get(0).getReturnValue());
+        assertEquals("hello", actions.get(1).getReturnValue());
+        assertEquals(Boolean.TRUE, actions.get(2).getReturnValue());
+        assertEquals(Boolean.TRUE, actions.get(3).getReturnValue());
+    }
+
+    /**
+     * Errors from independent actions run in parallel are reported like any other.
+     */
+    @ThreadHostileTest("enables parallel actions")
+    public void testIndependentActionErrorInParallel() throws Exception {
+        getMockConfigAdapter().setIsParallelActionsEnabled(true);
+        ControllerDef controller = getJavaController("java://org.auraframework.impl.java.controller.IndependentActionTestController");
+        Action action = controller.createAction("fail", null);
+
+        runActions(Lists.newArrayList(action));
+
+        assertEquals(State.ERROR, action.getState());
+        assertEquals(1, action.getErrors().size());
+        checkExceptionContains((Exception) action.getErrors().get(0), AuraUnhandledException.class,
+                "java.lang.IllegalStateException: independent failure");
+    }
+
+    /**
+     * An independent action with a bad parameter fails once, and is not run again on the request thread.
+     */
+    @ThreadHostileTest("enables parallel actions")
+    public void testIndependentActionBadParameterInParallel() throws Exception {
+        getMockConfigAdapter().setIsParallelActionsEnabled(true);
+        ControllerDef controller = getJavaController("java://org.auraframework.impl.java.controller.IndependentActionTestController");
+        Map<String, Object> args = Maps.newHashMap();
+        args.put("value", "not a number");
+        Action action = controller.createAction("increment", args);
+
+        runActions(Lists.newArrayList(action));
+
+        assertEquals(State.ERROR, action.getState());
+        assertEquals(1, action.getErrors().size());
+        assertNull(action.getReturnValue());
+    }
+
+    /**
+     * Without parallel actions, independent actions still run, one at a time.
+     */
+    @ThreadHostileTest("disables parallel actions")
+    public void testIndependentActionsWithoutParallel() throws Exception {
+        getMockConfigAdapter().setIsParallelActionsEnabled(false);
+        IndependentActionTestController.reset(1);
+        ControllerDef controller = getJavaController("java://org.auraframework.impl.java.controller.IndependentActionTestController");
+        Action action = controller.createAction("meet", null);
+
+        runActions(Lists.<Action> newArrayList(action));
+
+        assertEquals(State.SUCCESS, action.getState());
+        assertEquals(Boolean.TRUE, action.getReturnValue());
+    }
+
     public void testSerialize() throws Exception {
         ControllerDef controller = getJavaController("java://org.auraframework.impl.java.controller.ParallelActionTestController");
         serializeAndGoldFile(controller);
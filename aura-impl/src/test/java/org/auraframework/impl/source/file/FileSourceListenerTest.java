@@ -15,21 +15,27 @@
  */
 package org.auraframework.impl.source.file;
 
+import java.util.List;
+
 import org.apache.commons.vfs2.FileChangeEvent;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.system.SourceListener;
+import org.auraframework.system.SourceListener.SourceChange;
 import org.auraframework.test.UnitTestCase;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +46,8 @@ import static org.mockito.Mockito.when;
 public class FileSourceListenerTest extends UnitTestCase {
     @Captor
     private ArgumentCaptor<DefDescriptor<?>> defDescriptorCaptor;
+    @Captor
+    private ArgumentCaptor<List<SourceChange>> changesCaptor;
 
     private FileSourceListener listener = new FileSourceListener();
 
@@ -91,6 +99,29 @@ public class FileSourceListenerTest extends UnitTestCase {
         assertFileChangeEvent();
     }
 
+    /**
+     * Changes that arrive together are sent on as one batch, without duplicates.
+     */
+    @SuppressWarnings("unchecked")
+    public void testChangesBatched() throws Exception {
+        doNothing().when(listener).onSourceChanges(any(List.class));
+
+        when(fileName.getPath()).thenReturn("/some/awesome/ui/inputSearch/inputSearch.cmp");
+        listener.fileChanged(fileChangeEvent);
+        when(fileName.getPath()).thenReturn("/some/awesome/ui/inputSearch/inputSearch.css");
+        listener.fileChanged(fileChangeEvent);
+        when(fileName.getPath()).thenReturn("/some/awesome/ui/inputSearch/inputSearch.cmp");
+        listener.fileChanged(fileChangeEvent);
+
+        verify(listener, timeout(10000)).onSourceChanges(changesCaptor.capture());
+        List<SourceChange> changes = changesCaptor.getValue();
+        assertEquals(2, changes.size());
+        assertEquals("/some/awesome/ui/inputSearch/inputSearch.cmp", changes.get(0).getFilePath());
+        assertEquals(DefDescriptor.DefType.COMPONENT, changes.get(0).getSource().getDefType());
+        assertEquals("/some/awesome/ui/inputSearch/inputSearch.css", changes.get(1).getFilePath());
+        assertEquals(SourceListener.SourceMonitorEvent.changed, changes.get(1).getEvent());
+    }
+
     private void assertFileChangeEvent() {
         DefDescriptor<?> dd = defDescriptorCaptor.getValue();
         assertEquals("ui", dd.getNamespace());
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.auraframework.def.ComponentDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.DefDescriptor.DefType;
+import org.auraframework.def.DescriptorFilter;
+import org.auraframework.impl.AuraImplTestCase;
+import org.auraframework.system.DefRegistry;
+import org.auraframework.throwable.AuraRuntimeException;
+
+import com.google.common.collect.Sets;
+
+public class BinaryRegistryFormatTest extends AuraImplTestCase {
+    public BinaryRegistryFormatTest(String name) {
+        super(name);
+    }
+
+    private ByteBuffer write(DefRegistry<?>... registries) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryRegistryFormat.write(out, registries);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    private DefRegistry<ComponentDef> createRegistry(ComponentDef... defs) {
+        return new StaticDefRegistryImpl<ComponentDef>(EnumSet.of(DefType.COMPONENT), Sets.newHashSet("markup"),
+                Sets.newHashSet("aura"), Sets.newHashSet(defs));
+    }
+
+    /**
+     * Registries read back should have the same definitions and settings.
+     */
+    public void testRoundTrip() throws Exception {
+        ComponentDef text = definitionService.getDefinition("aura:text", ComponentDef.class);
+        ComponentDef html = definitionService.getDefinition("aura:html", ComponentDef.class);
+        ByteBuffer buffer = write(createRegistry(text, html));
+
+        assertTrue(BinaryRegistryFormat.isBinaryRegistry(buffer));
+        DefRegistry<?>[] registries = BinaryRegistryFormat.read(buffer);
+        assertEquals(1, registries.length);
+
+        @SuppressWarnings("unchecked")
+        DefRegistry<ComponentDef> registry = (DefRegistry<ComponentDef>) registries[0];
+        assertEquals(EnumSet.of(DefType.COMPONENT), registry.getDefTypes());
+        assertEquals(Sets.newHashSet("markup"), registry.getPrefixes());
+        assertEquals(Sets.newHashSet("aura"), registry.getNamespaces());
+        assertTrue(registry.isStatic());
+
+        Set<DefDescriptor<?>> found = registry.find(new DescriptorFilter("markup://aura:*"));
+        assertEquals(Sets.<DefDescriptor<?>> newHashSet(text.getDescriptor(), html.getDescriptor()), found);
+        assertTrue(registry.exists(text.getDescriptor()));
+
+        ComponentDef read = registry.getDef(text.getDescriptor());
+        assertNotNull(read);
+        assertEquals(text.getDescriptor(), read.getDescriptor());
+        assertSame("Definitions should only be decoded once", read, registry.getDef(text.getDescriptor()));
+    }
+
+    /**
+     * Definitions that are not in the registry are not found.
+     */
+    public void testMissingDefinition() throws Exception {
+        ComponentDef text = definitionService.getDefinition("aura:text", ComponentDef.class);
+        @SuppressWarnings("unchecked")
+        DefRegistry<ComponentDef> registry = (DefRegistry<ComponentDef>) BinaryRegistryFormat.read(write(
+                createRegistry(text)))[0];
+        DefDescriptor<ComponentDef> missing = definitionService.getDefDescriptor("aura:html", ComponentDef.class);
+
+        assertFalse(registry.exists(missing));
+        assertNull(registry.getDef(missing));
+    }
+
+    /**
+     * Other content, such as a serialized array, is not mistaken for a binary registry.
+     */
+    public void testIsBinaryRegistry() {
+        assertFalse(BinaryRegistryFormat.isBinaryRegistry(ByteBuffer.wrap(new byte[] { (byte) 0xac, (byte) 0xed, 0,
+                5 })));
+        assertFalse(BinaryRegistryFormat.isBinaryRegistry(ByteBuffer.wrap(new byte[0])));
+    }
+
+    /**
+     * A different version must not be read.
+     */
+    public void testWrongVersion() throws Exception {
+        ByteBuffer buffer = write();
+        buffer.putInt(4, BinaryRegistryFormat.VERSION + 1);
+        try {
+            BinaryRegistryFormat.read(buffer);
+            fail("Expected an exception for the wrong version");
+        } catch (AuraRuntimeException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("version"));
+        }
+    }
+
+    /**
+     * A truncated file must not be read.
+     */
+    public void testTruncated() throws Exception {
+        ComponentDef text = definitionService.getDefinition("aura:text", ComponentDef.class);
+        ByteBuffer buffer = write(createRegistry(text));
+        buffer.limit(12);
+        try {
+            BinaryRegistryFormat.read(buffer);
+            fail("Expected an exception for a truncated registry");
+        } catch (AuraRuntimeException expected) {
+        }
+    }
+}
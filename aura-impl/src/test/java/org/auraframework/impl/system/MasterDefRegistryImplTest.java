@@ -755,6 +755,33 @@ public class MasterDefRegistryImplTest extends AuraImplTestCase {
                 checkDependenciesContains(deps, depCmpDesc2.getQualifiedName()));
     }
 
+    /**
+     * Verify that a parallel compile finds the same dependencies, in the same order, as a serial compile.
+     */
+    @ThreadHostileTest("changes compile mode")
+    public void testGetDependenciesInParallelCompile() throws Exception {
+        DefDescriptor<ComponentDef> depCmpDesc = addSourceAutoCleanup(ComponentDef.class, "<aura:component/>");
+        DefDescriptor<ComponentDef> innerCmpDesc = addSourceAutoCleanup(ComponentDef.class,
+                "<aura:component><aura:dependency resource=\"" + depCmpDesc.getQualifiedName()
+                        + "\"/></aura:component>");
+        DefDescriptor<ComponentDef> cmpDesc = addSourceAutoCleanup(ComponentDef.class,
+                String.format(baseComponentTag, "", String.format("<%s/><%s/>", innerCmpDesc.getDescriptorName(),
+                        depCmpDesc.getDescriptorName())));
+
+        MasterDefRegistryImpl serialRegistry = getDefRegistry(false);
+        String serialUid = serialRegistry.getUid(null, cmpDesc);
+        List<DefDescriptor<?>> serialDeps = Lists.newArrayList(serialRegistry.getDependencies(serialUid));
+
+        getMockConfigAdapter().setIsParallelCompileEnabled(true);
+        MasterDefRegistryImpl parallelRegistry = getDefRegistry(false);
+        String parallelUid = parallelRegistry.getUid(null, cmpDesc);
+        List<DefDescriptor<?>> parallelDeps = Lists.newArrayList(parallelRegistry.getDependencies(parallelUid));
+
+        assertEquals("Parallel compile should produce the same uid", serialUid, parallelUid);
+        assertEquals("Parallel compile should produce the same dependencies", serialDeps, parallelDeps);
+        assertNotNull("Top level def not compiled", parallelRegistry.getDef(cmpDesc));
+    }
+
     /**
      * Verify that the file source listener picks up a newly created file and sends out a notification to clear the
      * proper caches.
@@ -892,6 +919,42 @@ public class MasterDefRegistryImplTest extends AuraImplTestCase {
                 isInDefsCache(defs.get(DefType.COMPONENT), mdr));
     }
 
+    /**
+     * Verify that a source change evicts the dependency entries and cached strings that include the changed
+     * definition, and leaves the others alone.
+     */
+    @ThreadHostileTest("requires cache to remain stable")
+    public void testInvalidateCacheEvictsDependentEntries() throws Exception {
+        DefDescriptor<ComponentDef> cmpDesc = DefDescriptorImpl.getInstance("test:test_button", ComponentDef.class);
+        DefDescriptor<ControllerDef> controllerDesc = DefDescriptorImpl.getInstance("js://test.test_button",
+                ControllerDef.class);
+        DefDescriptor<ComponentDef> otherDesc = DefDescriptorImpl.getInstance("aura:text", ComponentDef.class);
+        MasterDefRegistryImpl mdr = getDefRegistry(false);
+        String uid = mdr.getUid(null, cmpDesc);
+        String otherUid = mdr.getUid(null, otherDesc);
+        mdr.putCachedString(uid, cmpDesc, "test1", "dependent");
+        mdr.putCachedString(otherUid, otherDesc, "test1", "other");
+
+        Cache<String, DependencyEntry> dependencies = AuraPrivateAccessor.get(mdr, "depsCache");
+        String key = AuraPrivateAccessor.invoke(mdr, "makeGlobalKey", uid, cmpDesc);
+        String otherKey = AuraPrivateAccessor.invoke(mdr, "makeGlobalKey", otherUid, otherDesc);
+        assertNotNull(dependencies.getIfPresent(key));
+        assertNotNull(dependencies.getIfPresent(otherKey));
+
+        Aura.getCachingService().notifyDependentSourceChange(Collections.<WeakReference<SourceListener>> emptySet(),
+                controllerDesc, SourceListener.SourceMonitorEvent.changed, null);
+
+        assertNull("Dependency entry including the change was not evicted", dependencies.getIfPresent(key));
+        assertNotNull("Unrelated dependency entry was evicted", dependencies.getIfPresent(otherKey));
+
+        // a new registry has to find the strings in the global cache.
+        MasterDefRegistryImpl fresh = getDefRegistry(false);
+        assertEquals(uid, fresh.getUid(uid, cmpDesc));
+        assertEquals(otherUid, fresh.getUid(otherUid, otherDesc));
+        assertNull("String including the change was not evicted", fresh.getCachedString(uid, cmpDesc, "test1"));
+        assertEquals("other", fresh.getCachedString(otherUid, otherDesc, "test1"));
+    }
+
     /**
      * Create a set of DefDescriptors and add them to the MDR caches by calling getDef() on them.
      *
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.impl.system;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.text.SimpleDateFormat;
+
+import org.auraframework.Aura;
+import org.auraframework.def.ComponentDef;
+import org.auraframework.def.ControllerDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.def.Definition;
+import org.auraframework.def.StyleDef;
+import org.auraframework.impl.AuraImplTestCase;
+import org.auraframework.impl.parser.ParserFactory;
+import org.auraframework.service.ContextService;
+import org.auraframework.system.AuraContext.Authentication;
+import org.auraframework.system.AuraContext.Format;
+import org.auraframework.system.AuraContext.Mode;
+import org.auraframework.system.Source;
+import org.auraframework.util.text.Hash;
+
+public class PersistentDefCacheTest extends AuraImplTestCase {
+    private File directory;
+
+    public PersistentDefCacheTest(String name) {
+        super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        directory = File.createTempFile("defCache", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Unable to create " + directory);
+        }
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+        super.tearDown();
+    }
+
+    private static Hash hash(int seed) {
+        return new Hash(new byte[] { (byte) seed, 1, 2, 3 });
+    }
+
+    /**
+     * A stored definition is read back for the same descriptor and source hash.
+     */
+    public void testRoundTrip() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        ComponentDef def = definitionService.getDefinition("aura:text", ComponentDef.class);
+
+        assertNull(cache.get(def.getDescriptor(), hash(0)));
+        cache.put(def.getDescriptor(), hash(0), def);
+        assertTrue(cache.getFile(def.getDescriptor(), hash(0)).isFile());
+
+        ComponentDef read = cache.get(def.getDescriptor(), hash(0));
+        assertNotNull(read);
+        assertNotSame(def, read);
+        assertEquals(def.getDescriptor(), read.getDescriptor());
+        assertEquals(def.getAttributeDefs().keySet(), read.getAttributeDefs().keySet());
+    }
+
+    /**
+     * A changed source or a different build does not find the old definition.
+     */
+    public void testKeyedBySourceHashAndVersion() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        ComponentDef def = definitionService.getDefinition("aura:text", ComponentDef.class);
+        cache.put(def.getDescriptor(), hash(0), def);
+
+        assertNull(cache.get(def.getDescriptor(), hash(1)));
+        assertNull(new PersistentDefCache(directory, "1@2").get(def.getDescriptor(), hash(0)));
+        assertNotNull(new PersistentDefCache(directory, "1@1").get(def.getDescriptor(), hash(0)));
+    }
+
+    /**
+     * A definition stored under another descriptor is not returned.
+     */
+    public void testOtherDescriptor() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        ComponentDef def = definitionService.getDefinition("aura:text", ComponentDef.class);
+        DefDescriptor<ComponentDef> other = definitionService.getDefDescriptor("aura:html", ComponentDef.class);
+        cache.put(def.getDescriptor(), hash(0), def);
+        assertTrue(cache.getFile(def.getDescriptor(), hash(0)).renameTo(cache.getFile(other, hash(0))));
+
+        assertNull(cache.get(other, hash(0)));
+        assertFalse(cache.getFile(other, hash(0)).exists());
+    }
+
+    /**
+     * A file that cannot be read is a miss, and is removed.
+     */
+    public void testCorruptFile() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        DefDescriptor<ComponentDef> desc = definitionService.getDefDescriptor("aura:text", ComponentDef.class);
+        File file = cache.getFile(desc, hash(0));
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 1, 2, 3, 4, 5 });
+        out.close();
+
+        assertNull(cache.get(desc, hash(0)));
+        assertFalse(file.exists());
+    }
+
+    /**
+     * A component is parsed again when a controller is added next to it, even though its own source is unchanged.
+     */
+    public void testSiblingAddedToUnchangedComponent() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        DefDescriptor<ComponentDef> desc = addSourceAutoCleanup(ComponentDef.class, "<aura:component/>");
+        Source<ComponentDef> source = getSource(desc);
+        ComponentDef def = cache.load(desc, source);
+        assertTrue(def.getControllerDefDescriptors().isEmpty());
+        assertEquals(1, directory.listFiles().length);
+
+        DefDescriptor<ControllerDef> controllerDesc = definitionService.getDefDescriptor(
+                String.format("js://%s.%s", desc.getNamespace(), desc.getName()), ControllerDef.class);
+        addSourceAutoCleanup(controllerDesc, "({method: function(cmp) {}})");
+        restartContext();
+
+        ComponentDef withController = cache.load(desc, getSource(desc));
+        assertEquals(1, withController.getControllerDefDescriptors().size());
+        assertEquals(controllerDesc, withController.getControllerDefDescriptors().get(0));
+    }
+
+    private void restartContext() {
+        ContextService contextService = Aura.getContextService();
+        if (contextService.isEstablished()) {
+            contextService.endContext();
+        }
+        contextService.startContext(Mode.UTEST, Format.JSON, Authentication.AUTHENTICATED);
+    }
+
+    private <D extends Definition> D parse(DefDescriptor<D> descriptor) throws Exception {
+        Source<D> source = Aura.getContextService().getCurrentContext().getDefRegistry().getSource(descriptor);
+        return ParserFactory.getParser(source.getFormat()).parse(descriptor, source);
+    }
+
+    /**
+     * Javascript definitions are stored as they are just after parsing.
+     */
+    public void testRoundTripParsedJavascript() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        DefDescriptor<ControllerDef> desc = definitionService.getDefDescriptor("js://ui.button", ControllerDef.class);
+        ControllerDef def = parse(desc);
+
+        cache.put(desc, hash(0), def);
+        assertTrue(cache.getFile(desc, hash(0)).isFile());
+
+        ControllerDef read = cache.get(desc, hash(0));
+        assertNotNull(read);
+        assertNotSame(def, read);
+        assertEquals(def.getActionDefs().keySet(), read.getActionDefs().keySet());
+        assertEquals(def.getOwnHash(), read.getOwnHash());
+    }
+
+    /**
+     * Style definitions are stored as they are just after parsing.
+     */
+    public void testRoundTripParsedStyle() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        DefDescriptor<StyleDef> desc = definitionService.getDefDescriptor("css://ui.button", StyleDef.class);
+        StyleDef def = parse(desc);
+
+        cache.put(desc, hash(0), def);
+        assertTrue(cache.getFile(desc, hash(0)).isFile());
+
+        StyleDef read = cache.get(desc, hash(0));
+        assertNotNull(read);
+        assertNotSame(def, read);
+        assertEquals(def.getClassName(), read.getClassName());
+        assertEquals(def.getCode(), read.getCode());
+    }
+
+    /**
+     * A file with classes that definitions are not made of is not read.
+     */
+    public void testDisallowedClassNotRead() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        DefDescriptor<ComponentDef> desc = definitionService.getDefDescriptor("aura:text", ComponentDef.class);
+        File file = cache.getFile(desc, hash(0));
+        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file));
+        out.writeObject(new SimpleDateFormat());
+        out.close();
+
+        assertNull(cache.get(desc, hash(0)));
+        assertFalse(file.exists());
+    }
+
+    public void testIsAllowed() throws Exception {
+        assertTrue(PersistentDefCache.isAllowed("org.auraframework.system.Location"));
+        assertTrue(PersistentDefCache.isAllowed("java.util.HashMap"));
+        assertTrue(PersistentDefCache.isAllowed("java.lang.String"));
+        assertTrue(PersistentDefCache.isAllowed("int"));
+        assertTrue(PersistentDefCache.isAllowed("[B"));
+        assertTrue(PersistentDefCache.isAllowed("[[Ljava.lang.String;"));
+        assertFalse(PersistentDefCache.isAllowed("java.text.SimpleDateFormat"));
+        assertFalse(PersistentDefCache.isAllowed("[Ljava.text.SimpleDateFormat;"));
+        assertFalse(PersistentDefCache.isAllowed("java.lang.reflect.Proxy"));
+        assertFalse(PersistentDefCache.isAllowed("org.apache.commons.collections.functors.InvokerTransformer"));
+    }
+
+    /**
+     * Old files are removed, and then the least recently used ones until the rest fit.
+     */
+    public void testPrune() throws Exception {
+        PersistentDefCache cache = new PersistentDefCache(directory, "1@1");
+        ComponentDef def = definitionService.getDefinition("aura:text", ComponentDef.class);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            cache.put(def.getDescriptor(), hash(i), def);
+            assertTrue(cache.getFile(def.getDescriptor(), hash(i)).setLastModified(now - i * 60000L));
+        }
+        File stale = File.createTempFile("def", ".tmp", directory);
+        assertTrue(stale.setLastModified(now - 2 * 3600000L));
+        long size = cache.getFile(def.getDescriptor(), hash(0)).length();
+
+        cache.prune(now, 150000L, 2 * size);
+
+        assertTrue(cache.getFile(def.getDescriptor(), hash(0)).exists());
+        assertTrue(cache.getFile(def.getDescriptor(), hash(1)).exists());
+        // over the size.
+        assertFalse(cache.getFile(def.getDescriptor(), hash(2)).exists());
+        // too old.
+        assertFalse(cache.getFile(def.getDescriptor(), hash(3)).exists());
+        assertFalse(stale.exists());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.system;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.zip.GZIPInputStream;
+
+import org.auraframework.test.UnitTestCase;
+
+public class CompressedContentTest extends UnitTestCase {
+    private String gunzip(byte[] bytes) throws Exception {
+        Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(bytes)), "UTF-8");
+        StringWriter sw = new StringWriter();
+        char[] buffer = new char[1024];
+        int count;
+
+        while ((count = reader.read(buffer)) != -1) {
+            sw.write(buffer, 0, count);
+        }
+        reader.close();
+        return sw.toString();
+    }
+
+    /**
+     * Compressed content should decompress to exactly the original string.
+     */
+    public void testCreateRoundTrips() throws Exception {
+        String content = "function() { return '\u00e9\u4e2d'; }";
+        CompressedContent compressed = CompressedContent.create(content);
+
+        assertEquals(content, gunzip(compressed.gzipped));
+    }
+
+    /**
+     * The entity tag is quoted, and depends only on the content.
+     */
+    public void testEtag() {
+        CompressedContent first = CompressedContent.create("a {color:red}");
+        CompressedContent second = CompressedContent.create("a {color:red}");
+        CompressedContent other = CompressedContent.create("a {color:blue}");
+
+        assertTrue("Entity tag must be quoted: " + first.etag,
+                first.etag.startsWith("\"") && first.etag.endsWith("\""));
+        assertEquals(first.etag, second.etag);
+        assertFalse(first.etag.equals(other.etag));
+    }
+}
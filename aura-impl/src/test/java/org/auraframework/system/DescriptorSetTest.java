@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.system;
+
+import java.util.List;
+import java.util.Set;
+
+import org.auraframework.def.ComponentDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.impl.system.DefDescriptorImpl;
+import org.auraframework.test.UnitTestCase;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+public class DescriptorSetTest extends UnitTestCase {
+    private DefDescriptor<?> descriptor(String name) {
+        return DefDescriptorImpl.getInstance("descriptorSetTest:" + name, ComponentDef.class);
+    }
+
+    private List<DefDescriptor<?>> descriptors(int count) {
+        List<DefDescriptor<?>> list = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            list.add(descriptor(getName() + i));
+        }
+        return list;
+    }
+
+    /**
+     * A copy keeps the order it was given, and drops duplicates.
+     */
+    public void testCopyOfKeepsOrder() {
+        DefDescriptor<?> a = descriptor("zeta");
+        DefDescriptor<?> b = descriptor("alpha");
+        DefDescriptor<?> c = descriptor("mu");
+        DescriptorSet set = DescriptorSet.copyOf(Lists.<DefDescriptor<?>> newArrayList(a, b, c, b));
+
+        assertEquals(3, set.size());
+        assertEquals(ImmutableList.of(a, b, c), ImmutableList.copyOf(set));
+        assertTrue(set.contains(b));
+        assertFalse(set.contains(descriptor("notThere")));
+        assertFalse(set.contains("zeta"));
+        assertFalse(set.contains(null));
+    }
+
+    /**
+     * Sets compare equal to other sets with the same descriptors.
+     */
+    public void testEquals() {
+        List<DefDescriptor<?>> list = descriptors(10);
+        Set<DefDescriptor<?>> hashSet = Sets.newHashSet(list);
+        DescriptorSet set = DescriptorSet.copyOf(list);
+
+        assertEquals(hashSet, set);
+        assertEquals(set, hashSet);
+        assertEquals(hashSet.hashCode(), set.hashCode());
+    }
+
+    /**
+     * A builder unions sets, counting each descriptor once.
+     */
+    public void testBuilderUnion() {
+        List<DefDescriptor<?>> list = descriptors(200);
+        DescriptorSet first = DescriptorSet.copyOf(list.subList(0, 150));
+        DescriptorSet second = DescriptorSet.copyOf(list.subList(100, 200));
+        DescriptorSet.Builder builder = DescriptorSet.builder();
+
+        builder.addAll(first);
+        assertEquals(150, builder.size());
+        builder.addAll(second);
+        assertEquals(200, builder.size());
+        builder.addAll(Sets.newHashSet(list.subList(0, 10)));
+        assertEquals(200, builder.size());
+        assertTrue(builder.contains(list.get(199)));
+
+        DescriptorSet union = builder.build();
+        assertEquals(Sets.newHashSet(list), union);
+    }
+
+    /**
+     * A few descriptors with ids far apart behave like any other set, and union with dense ones.
+     */
+    public void testSparse() {
+        List<DefDescriptor<?>> list = descriptors(300);
+        List<DefDescriptor<?>> ends = ImmutableList.of(list.get(299), list.get(0), list.get(150));
+        DescriptorSet sparse = DescriptorSet.copyOf(ends);
+
+        assertEquals(ends, ImmutableList.copyOf(sparse));
+        assertTrue(sparse.contains(list.get(0)));
+        assertTrue(sparse.contains(list.get(299)));
+        assertFalse(sparse.contains(list.get(1)));
+        assertFalse(sparse.contains(descriptor("notThere")));
+
+        DescriptorSet.Builder builder = DescriptorSet.builder();
+        builder.addAll(DescriptorSet.copyOf(list.subList(140, 160)));
+        builder.addAll(sparse);
+        assertEquals(22, builder.size());
+        DescriptorSet union = builder.build();
+        assertTrue(union.containsAll(ends));
+        assertTrue(union.containsAll(list.subList(140, 160)));
+        assertFalse(union.contains(list.get(200)));
+    }
+
+    /**
+     * Empty sets and builders are fine.
+     */
+    public void testEmpty() {
+        DescriptorSet empty = DescriptorSet.copyOf(Lists.<DefDescriptor<?>> newArrayList());
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.iterator().hasNext());
+        assertFalse(empty.contains(descriptor("any")));
+        assertTrue(DescriptorSet.builder().build().isEmpty());
+    }
+
+    /**
+     * Sets cannot be changed.
+     */
+    public void testImmutable() {
+        DescriptorSet set = DescriptorSet.copyOf(descriptors(2));
+        try {
+            set.add(descriptor("more"));
+            fail("Expected the set to be immutable");
+        } catch (UnsupportedOperationException expected) {
+        }
+        try {
+            set.iterator().remove();
+            fail("Expected the iterator to be immutable");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+}
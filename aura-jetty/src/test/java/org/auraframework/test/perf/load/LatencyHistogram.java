@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.test.perf.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in microseconds, which many threads can record to at once.
+ *
+ * Values up to 64 are counted exactly. Above that there are 64 buckets for each power of two, so a percentile is at
+ * most about 1.6% above the true value. The memory used is fixed no matter how many values are recorded, so a long
+ * run can keep every latency.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * The largest value that is counted in a bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long first = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return first + (1L << shift) - 1;
+    }
+
+    /**
+     * Record one value.
+     *
+     * @param micros the latency, negative values are counted as 0.
+     */
+    public void record(long micros) {
+        long value = Math.max(micros, 0);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * Add all of the values recorded in another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+        count.addAndGet(other.count.get());
+        total.addAndGet(other.total.get());
+        long otherMax = other.max.get();
+        long current = max.get();
+        while (otherMax > current && !max.compareAndSet(current, otherMax)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    /**
+     * Get the value that the given percentage of values are at or below.
+     *
+     * @param percentile between 0 and 100, e.g. 99.9.
+     * @return the value, or 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        // allow for rounding, e.g. 99.9% of 10000 should be 9990, not 9991.
+        long rank = Math.max(1, (long) Math.ceil(percentile * n / 100 - 1e-6));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+}
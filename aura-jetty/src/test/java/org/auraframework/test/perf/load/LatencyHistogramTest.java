@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.test.perf.load;
+
+import java.util.Random;
+
+import org.auraframework.test.UnitTestCase;
+
+public class LatencyHistogramTest extends UnitTestCase {
+
+    public LatencyHistogramTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Each value falls in a bucket that ends at or above it, and not much above it.
+     */
+    public void testBuckets() {
+        int last = -1;
+        for (long value = 0; value < 1L << 40; value = value * 5 / 4 + 1) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+
+            assertTrue("Buckets should not go down at " + value, bucket >= last);
+            assertTrue(value + " is above its bucket, which ends at " + highest, highest >= value);
+            assertTrue(value + " is too far from the end of its bucket, " + highest, highest - value <= value / 64);
+            assertEquals("The end of a bucket should be in it", bucket, LatencyHistogram.bucketOf(highest));
+            assertEquals("The bucket after should start after it", bucket + 1,
+                    LatencyHistogram.bucketOf(highest + 1));
+            last = bucket;
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertClose(500, histogram.getValueAtPercentile(50));
+        assertClose(990, histogram.getValueAtPercentile(99));
+        assertClose(999, histogram.getValueAtPercentile(99.9));
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    /**
+     * A few slow requests show up at the far end, and nowhere else.
+     */
+    public void testOutliers() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        for (int i = 0; i < 9990; i++) {
+            histogram.record(1000 + random.nextInt(100));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(2000000);
+        }
+
+        assertTrue(histogram.getValueAtPercentile(50) < 1120);
+        assertTrue(histogram.getValueAtPercentile(99.9) < 1120);
+        assertClose(2000000, histogram.getValueAtPercentile(99.95));
+        assertEquals(2000000, histogram.getMax());
+    }
+
+    public void testAdd() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        first.record(20);
+        second.record(30000);
+        second.record(-5);
+
+        first.add(second);
+        assertEquals(4, first.getCount());
+        assertEquals(30000, first.getMax());
+        assertEquals(0, first.getValueAtPercentile(1));
+        assertEquals(20, first.getValueAtPercentile(75));
+        assertEquals(2, second.getCount());
+    }
+
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean());
+    }
+
+    private void assertClose(long expected, long actual) {
+        assertTrue("Expected about " + expected + " but got " + actual,
+                actual >= expected && actual <= expected + expected / 64);
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.test.perf.load;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.auraframework.Aura;
+import org.auraframework.def.ApplicationDef;
+import org.auraframework.def.DefDescriptor;
+import org.auraframework.http.AuraBaseServlet;
+import org.auraframework.system.AuraContext;
+import org.auraframework.system.AuraContext.Authentication;
+import org.auraframework.system.AuraContext.Format;
+import org.auraframework.system.AuraContext.Mode;
+import org.auraframework.system.SourceListener.SourceMonitorEvent;
+import org.auraframework.test.AuraJettyServer;
+import org.auraframework.util.AuraTextUtil;
+import org.auraframework.util.json.Json;
+import org.eclipse.jetty.server.Server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+/**
+ * Replays a mix of requests against an AuraJettyServer in this JVM, and reports latencies by kind of request.
+ *
+ * There are three phases:
+ * <ol>
+ * <li>cold: one pass over the requests, straight after every cache has been emptied.</li>
+ * <li>warm: the requests over and over, for a fixed time.</li>
+ * <li>change: the same again, while the app is reported as changed every few seconds, as when a developer is editing
+ * it.</li>
+ * </ol>
+ * Each thread sends its next request as soon as it has read the last response, so the number of threads is the
+ * number of requests in flight.
+ *
+ * It is configured with system properties:
+ * <dl>
+ * <dt>load.app</dt>
+ * <dd>the app to load, default auradocs:docs.</dd>
+ * <dt>load.requests</dt>
+ * <dd>a file of {@link RecordedRequest recorded requests}. Without one, the requests are the app's page, app.js and
+ * app.css, and a getComponent action.</dd>
+ * <dt>load.threads</dt>
+ * <dd>the number of requests in flight, default 16.</dd>
+ * <dt>load.seconds</dt>
+ * <dd>how long the warm and change phases each run, default 60.</dd>
+ * <dt>load.changeSeconds</dt>
+ * <dd>the time between changes in the change phase, default 5.</dd>
+ * </dl>
+ * The server itself uses jetty.port as usual. From aura-jetty, after a build:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dload.app=auradocs:docs -Dload.threads=32
+ * </pre>
+ */
+public class LoadRunner {
+    private static final String COMPONENT = "ui:button";
+
+    private final DefDescriptor<ApplicationDef> app;
+    private final int threads;
+    private final long phaseMillis;
+    private final long changeMillis;
+    private final HttpClient client;
+    private String baseUrl;
+    private List<RecordedRequest> requests;
+
+    public LoadRunner(String app, int threads, long phaseMillis, long changeMillis) {
+        this.app = Aura.getDefinitionService().getDefDescriptor(app, ApplicationDef.class);
+        this.threads = threads;
+        this.phaseMillis = phaseMillis;
+        this.changeMillis = changeMillis;
+
+        PoolingClientConnectionManager connections = new PoolingClientConnectionManager();
+        connections.setMaxTotal(threads);
+        connections.setDefaultMaxPerRoute(threads);
+        this.client = new DefaultHttpClient(connections);
+    }
+
+    /**
+     * The results of one phase.
+     */
+    public static class Results {
+        private final String phase;
+        private final Map<RequestType, LatencyHistogram> latencies = new EnumMap<RequestType, LatencyHistogram>(
+                RequestType.class);
+        private final Map<RequestType, AtomicLong> errors = new EnumMap<RequestType, AtomicLong>(RequestType.class);
+        private final long start = System.nanoTime();
+        private long end;
+        private int changes;
+
+        Results(String phase) {
+            this.phase = phase;
+            // filled in up front, so that the maps are only read while the phase runs.
+            for (RequestType type : RequestType.values()) {
+                latencies.put(type, new LatencyHistogram());
+                errors.put(type, new AtomicLong());
+            }
+        }
+
+        void record(RequestType type, long micros, boolean ok) {
+            latencies.get(type).record(micros);
+            if (!ok) {
+                errors.get(type).incrementAndGet();
+            }
+        }
+
+        void finish() {
+            end = System.nanoTime();
+        }
+
+        public LatencyHistogram getLatencies(RequestType type) {
+            return latencies.get(type);
+        }
+
+        public long getErrors(RequestType type) {
+            return errors.get(type).get();
+        }
+
+        public double getSeconds() {
+            return (end - start) / 1e9;
+        }
+
+        /**
+         * Print a line for each kind of request that was sent, and one for all of them.
+         */
+        public void print(PrintStream out) {
+            LatencyHistogram all = new LatencyHistogram();
+            long allErrors = 0;
+
+            out.println();
+            out.printf("%s: %.1fs%s%n", phase, getSeconds(), changes > 0 ? ", " + changes + " changes" : "");
+            out.printf("%-10s %8s %7s %9s %9s %9s %9s %9s%n", "type", "count", "errors", "req/s", "p50 ms", "p99 ms",
+                    "p99.9 ms", "max ms");
+            for (RequestType type : RequestType.values()) {
+                LatencyHistogram latency = latencies.get(type);
+                if (latency.getCount() > 0) {
+                    print(out, type.name(), latency, getErrors(type));
+                    all.add(latency);
+                    allErrors += getErrors(type);
+                }
+            }
+            print(out, "all", all, allErrors);
+        }
+
+        private void print(PrintStream out, String name, LatencyHistogram latency, long errorCount) {
+            out.printf("%-10s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, latency.getCount(), errorCount,
+                    latency.getCount() / getSeconds(), latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0, latency.getValueAtPercentile(99.9) / 1000.0,
+                    latency.getMax() / 1000.0);
+        }
+    }
+
+    /**
+     * Run all of the phases.
+     *
+     * @param server the server, which has been started.
+     * @param recording the recorded requests, or null for the default ones.
+     * @return the results of each phase, in order.
+     */
+    public List<Results> run(Server server, Reader recording) throws Exception {
+        baseUrl = "http://localhost:" + server.getConnectors()[0].getLocalPort();
+        requests = fill(recording == null ? getDefaultRequests() : RecordedRequest.read(recording));
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("There are no requests to send");
+        }
+
+        List<Results> results = Lists.newArrayList();
+        // working out the default requests compiles the app, so always start from nothing.
+        Aura.getDefinitionService().onSourceChanged(null, SourceMonitorEvent.changed, null);
+        results.add(runPhase("cold", requests.size(), false, false));
+        results.add(runPhase("warm", phaseMillis, true, false));
+        results.add(runPhase("change", phaseMillis, true, true));
+        return results;
+    }
+
+    /**
+     * Send requests from all of the threads until the limit is reached.
+     *
+     * @param name the name of the phase.
+     * @param limit the number of requests to send, or for timed phases, the number of milliseconds.
+     * @param timed whether the limit is a time.
+     * @param changing whether to report a change to the app every few seconds.
+     */
+    private Results runPhase(String name, final long limit, final boolean timed, boolean changing)
+            throws InterruptedException {
+        final Results results = new Results(name);
+        final long deadline = System.currentTimeMillis() + limit;
+        final AtomicLong next = new AtomicLong();
+        final AtomicInteger changes = new AtomicInteger();
+        ScheduledExecutorService changer = null;
+
+        if (changing) {
+            changer = Executors.newSingleThreadScheduledExecutor();
+            changer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    Aura.getDefinitionService().onSourceChanged(app, SourceMonitorEvent.changed, null);
+                    changes.incrementAndGet();
+                }
+            }, changeMillis, changeMillis, TimeUnit.MILLISECONDS);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    while (true) {
+                        long n = next.getAndIncrement();
+                        if (timed ? System.currentTimeMillis() >= deadline : n >= limit) {
+                            return;
+                        }
+                        send(requests.get((int) (n % requests.size())), results);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        if (changer != null) {
+            changer.shutdownNow();
+        }
+        results.finish();
+        results.changes = changes.get();
+        return results;
+    }
+
+    private void send(RecordedRequest request, Results results) {
+        HttpUriRequest httpRequest = request.toHttpRequest(baseUrl);
+        long start = System.nanoTime();
+        boolean ok;
+
+        try {
+            HttpResponse response = client.execute(httpRequest);
+            // read all of it, as a browser would.
+            EntityUtils.consume(response.getEntity());
+            ok = response.getStatusLine().getStatusCode() < 400;
+        } catch (IOException ioe) {
+            httpRequest.abort();
+            ok = false;
+        }
+        results.record(request.getType(), (System.nanoTime() - start) / 1000, ok);
+    }
+
+    /**
+     * Put this server's framework uid and token in place of the recorded ones.
+     */
+    private List<RecordedRequest> fill(List<RecordedRequest> recorded) {
+        Map<String, String> values = ImmutableMap.of("fwuid", Aura.getConfigAdapter().getAuraFrameworkNonce(),
+                "token", Aura.getConfigAdapter().getCSRFToken());
+        List<RecordedRequest> filled = Lists.newArrayListWithCapacity(recorded.size());
+        for (RecordedRequest request : recorded) {
+            filled.add(request.fill(values));
+        }
+        return filled;
+    }
+
+    /**
+     * The requests a browser makes to load the app and then fetch a component, with the same URLs the server would
+     * give it.
+     */
+    private List<RecordedRequest> getDefaultRequests() throws Exception {
+        AuraContext context = Aura.getContextService().startContext(Mode.PROD, Format.HTML,
+                Authentication.AUTHENTICATED, app);
+        try {
+            context.setFrameworkUID(Aura.getConfigAdapter().getAuraFrameworkNonce());
+            String uid = AuraBaseServlet.getContextAppUid();
+            if (uid != null) {
+                context.addLoaded(app, uid);
+            }
+
+            List<RecordedRequest> defaults = Lists.newArrayList();
+            defaults.add(new RecordedRequest("GET", "/" + app.getNamespace() + "/" + app.getName() + ".app", null));
+            for (String url : ImmutableList.<String> builder().addAll(AuraBaseServlet.getNamespacesScripts(context))
+                    .addAll(AuraBaseServlet.getStyles()).build()) {
+                if (url.startsWith("/l/")) {
+                    defaults.add(new RecordedRequest("GET", url, null));
+                }
+            }
+
+            StringBuilder contextJson = new StringBuilder();
+            Aura.getSerializationService().write(context, null, AuraContext.class, contextJson, "HTML");
+            Map<String, Object> action = ImmutableMap.<String, Object> of("id", "1;a", "descriptor",
+                    "aura://ComponentController/ACTION$getComponent", "callingDescriptor", "UNKNOWN", "params",
+                    ImmutableMap.<String, Object> of("name", COMPONENT, "attributes", ImmutableMap.of("label", "Load")));
+            String message = Json.serialize(ImmutableMap.of("actions", ImmutableList.of(action)));
+            defaults.add(new RecordedRequest("POST", "/aura", "message=" + AuraTextUtil.urlencode(message)
+                    + "&aura.context=" + AuraTextUtil.urlencode(contextJson.toString()) + "&aura.token={token}"));
+            return defaults;
+        } finally {
+            Aura.getContextService().endContext();
+        }
+    }
+
+    public void close() {
+        client.getConnectionManager().shutdown();
+    }
+
+    public static void main(String... args) throws Exception {
+        String recordingFile = System.getProperty("load.requests");
+        LoadRunner runner = new LoadRunner(System.getProperty("load.app", "auradocs:docs"),
+                Integer.getInteger("load.threads", 16), Integer.getInteger("load.seconds", 60) * 1000L,
+                Integer.getInteger("load.changeSeconds", 5) * 1000L);
+        Server server = AuraJettyServer.getInstance();
+        Reader recording = null;
+
+        server.start();
+        try {
+            if (recordingFile != null) {
+                recording = new FileReader(recordingFile);
+            }
+            for (Results results : runner.run(server, recording)) {
+                results.print(System.out);
+            }
+        } finally {
+            if (recording != null) {
+                recording.close();
+            }
+            runner.close();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.test.perf.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.auraframework.util.AuraTextUtil;
+
+import com.google.common.collect.Lists;
+
+/**
+ * A request to replay against the server.
+ *
+ * Recordings are text, with one request on each line, either
+ *
+ * <pre>
+ * GET /l/%7B%22mode%22%3A%22PROD%22...%7D/app.js
+ * POST /aura message=...&amp;aura.context=...&amp;aura.token={token}
+ * </pre>
+ *
+ * where the body of a POST is form encoded, so has no spaces. Blank lines and lines that start with '#' are skipped.
+ * The framework uid and CSRF token of the server that was recorded will not match this one, so they can be replaced
+ * with <code>{fwuid}</code> and <code>{token}</code>, which are filled in before the run.
+ */
+public class RecordedRequest {
+    private final String method;
+    private final String path;
+    private final String body;
+    private final RequestType type;
+
+    public RecordedRequest(String method, String path, String body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        this.type = RequestType.of(method, path);
+    }
+
+    /**
+     * Read a recording.
+     *
+     * @param in the recording, which is not closed.
+     * @return the requests, in order.
+     * @throws IOException if the recording cannot be read, or has a line that is not a GET or POST.
+     */
+    public static List<RecordedRequest> read(Reader in) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        List<RecordedRequest> requests = Lists.newArrayList();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber += 1;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split(" ", 3);
+            if (parts.length >= 2 && "GET".equals(parts[0])) {
+                requests.add(new RecordedRequest("GET", parts[1], null));
+            } else if (parts.length >= 2 && "POST".equals(parts[0])) {
+                requests.add(new RecordedRequest("POST", parts[1], parts.length > 2 ? parts[2] : ""));
+            } else {
+                throw new IOException("Line " + lineNumber + " is not a GET or POST: " + line);
+            }
+        }
+        return requests;
+    }
+
+    /**
+     * Fill in the placeholders in the path and body.
+     *
+     * @param values the values, by name without the braces. They are url encoded as they are put in.
+     * @return a new request.
+     */
+    public RecordedRequest fill(Map<String, String> values) {
+        String newPath = path;
+        String newBody = body;
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            String placeholder = "{" + value.getKey() + "}";
+            String encoded = AuraTextUtil.urlencode(value.getValue());
+            newPath = newPath.replace(placeholder, encoded);
+            if (newBody != null) {
+                newBody = newBody.replace(placeholder, encoded);
+            }
+        }
+        return new RecordedRequest(method, newPath, newBody);
+    }
+
+    /**
+     * Make the request to send.
+     *
+     * @param baseUrl the scheme, host and port of the server, without a trailing slash.
+     */
+    public HttpUriRequest toHttpRequest(String baseUrl) {
+        if (body == null) {
+            return new HttpGet(baseUrl + path);
+        }
+        HttpPost post = new HttpPost(baseUrl + path);
+        post.setEntity(new StringEntity(body, ContentType.APPLICATION_FORM_URLENCODED));
+        return post;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public RequestType getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return body == null ? method + " " + path : method + " " + path + " " + body;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.test.perf.load;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import org.auraframework.test.UnitTestCase;
+
+import com.google.common.collect.ImmutableMap;
+
+public class RecordedRequestTest extends UnitTestCase {
+
+    public RecordedRequestTest(String name) {
+        super(name);
+    }
+
+    public void testRead() throws Exception {
+        List<RecordedRequest> requests = RecordedRequest.read(new StringReader("# recorded\n"
+                + "GET /auradocs/docs.app\n"
+                + "\n"
+                + "GET /l/%7B%22mode%22%3A%22PROD%22%7D/app.js\n"
+                + "  GET /l/%7B%22mode%22%3A%22PROD%22%7D/app.css  \n"
+                + "GET /l/%7B%22mode%22%3A%22PROD%22%7D/resources.js\n"
+                + "GET /l/%7B%22mode%22%3A%22PROD%22%7D/app.manifest\n"
+                + "GET /auraResource?aura.format=js&aura.type=app&aura.context=x\n"
+                + "POST /aura message=%7B%7D&aura.token={token}\n"
+                + "GET /auraFW/javascript/aura_prod.js\n"));
+
+        assertEquals(8, requests.size());
+        assertEquals(RequestType.HTML, requests.get(0).getType());
+        assertEquals(RequestType.APP_JS, requests.get(1).getType());
+        assertEquals(RequestType.APP_CSS, requests.get(2).getType());
+        assertEquals(RequestType.RESOURCES, requests.get(3).getType());
+        assertEquals(RequestType.MANIFEST, requests.get(4).getType());
+        assertEquals(RequestType.APP_JS, requests.get(5).getType());
+        assertEquals(RequestType.ACTION, requests.get(6).getType());
+        assertEquals(RequestType.OTHER, requests.get(7).getType());
+
+        RecordedRequest action = requests.get(6);
+        assertEquals("POST", action.getMethod());
+        assertEquals("/aura", action.getPath());
+        assertEquals("message=%7B%7D&aura.token={token}", action.getBody());
+        assertNull(requests.get(0).getBody());
+    }
+
+    public void testReadBadLine() {
+        try {
+            RecordedRequest.read(new StringReader("GET /a.app\nPUT /aura\n"));
+            fail("Expected an error for a PUT");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("Line 2 "));
+        }
+    }
+
+    public void testFill() {
+        RecordedRequest request = new RecordedRequest("POST", "/aura?fw={fwuid}", "aura.token={token}&x={other}");
+        RecordedRequest filled = request.fill(ImmutableMap.of("fwuid", "abc-123", "token", "a b&c"));
+
+        assertEquals("/aura?fw=abc-123", filled.getPath());
+        assertEquals("aura.token=a+b%26c&x={other}", filled.getBody());
+        assertEquals(RequestType.ACTION, filled.getType());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.test.perf.load;
+
+/**
+ * The kinds of request that results are broken down by.
+ */
+public enum RequestType {
+    /** A POST of actions to the AuraServlet. */
+    ACTION,
+    /** The HTML page for an app or component. */
+    HTML,
+    /** The definitions for an app, from the AuraResourceServlet. */
+    APP_JS,
+    /** The styles for an app. */
+    APP_CSS,
+    /** The resources, e.g. resources.js or resources.css. */
+    RESOURCES,
+    /** The AppCache manifest. */
+    MANIFEST,
+    /** Anything else, e.g. framework js from the AuraFrameworkServlet. */
+    OTHER;
+
+    /**
+     * Work out the kind of a request from its URL.
+     *
+     * Resources can be fetched either with a /l/ path, which the AuraResourceRewriteFilter forwards, or directly from
+     * /auraResource with parameters. Both are recognized.
+     *
+     * @param method the HTTP method.
+     * @param path the path and query, without the host.
+     */
+    public static RequestType of(String method, String path) {
+        int query = path.indexOf('?');
+        String file = query < 0 ? path : path.substring(0, query);
+
+        if ("POST".equals(method)) {
+            return "/aura".equals(file) ? ACTION : OTHER;
+        }
+        if (file.startsWith("/l/")) {
+            return ofResource(file.substring(file.lastIndexOf('/') + 1));
+        }
+        if ("/auraResource".equals(file) && query >= 0) {
+            String params = path.substring(query + 1);
+            return ofResource(param(params, "aura.type") + "." + param(params, "aura.format"));
+        }
+        if (file.endsWith(".app") || file.endsWith(".cmp")) {
+            return HTML;
+        }
+        return OTHER;
+    }
+
+    private static RequestType ofResource(String name) {
+        if ("app.js".equals(name)) {
+            return APP_JS;
+        } else if ("app.css".equals(name)) {
+            return APP_CSS;
+        } else if ("app.manifest".equals(name)) {
+            return MANIFEST;
+        } else if (name.startsWith("resources")) {
+            return RESOURCES;
+        }
+        return OTHER;
+    }
+
+    private static String param(String params, String name) {
+        for (String param : params.split("&")) {
+            if (param.startsWith(name + "=")) {
+                return param.substring(name.length() + 1);
+            }
+        }
+        return "";
+    }
+}
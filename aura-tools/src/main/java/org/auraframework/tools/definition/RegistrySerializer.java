@@ -18,7 +18,6 @@ package org.auraframework.tools.definition;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.util.EnumSet;
 import java.util.List;
@@ -40,6 +39,7 @@ import org.auraframework.def.RendererDef;
 import org.auraframework.def.ResourceDef;
 import org.auraframework.def.TestSuiteDef;
 import org.auraframework.def.StyleDef;
+import org.auraframework.impl.system.BinaryRegistryFormat;
 import org.auraframework.impl.system.StaticDefRegistryImpl;
 import org.auraframework.service.DefinitionService;
 import org.auraframework.system.AuraContext.Authentication;
@@ -65,12 +65,12 @@ public class RegistrySerializer {
         this.namespaces = namespaces;
     }
 
+    /**
+     * Write the registries in the {@link BinaryRegistryFormat}.
+     */
     public void write(OutputStream out) throws QuickFixException, IOException {
-        ObjectOutputStream objectOut = null;
         try {
-            objectOut = new ObjectOutputStream(out);
-            objectOut.writeObject(getRegistries(namespaces));
-
+            BinaryRegistryFormat.write(out, getRegistries(namespaces));
         } finally {
             out.close();
         }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.auraframework.util.ServiceLoaderImpl.AuraConfiguration;
+import org.auraframework.util.ServiceLoaderImpl.Impl;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Writes the {@link ServiceLoaderImpl#CONFIGURATION_INDEX} for the configuration classes being compiled.
+ *
+ * This is registered as a service in the aura-util jar, so javac runs it for any module that has aura-util on the
+ * classpath. When only some classes are recompiled, the entries for the others are kept from the existing index. An
+ * entry for a class that has since been deleted makes {@link ServiceLoaderImpl} ignore the index and scan instead.
+ */
+@SupportedAnnotationTypes("org.auraframework.util.ServiceLoaderImpl.AuraConfiguration")
+public class AuraConfigurationProcessor extends AbstractProcessor {
+    private final Set<String> compiled = Sets.newHashSet();
+    private final Set<String> entries = Sets.newTreeSet();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Elements elements = processingEnv.getElementUtils();
+
+        for (Element root : roundEnv.getRootElements()) {
+            if (root instanceof TypeElement) {
+                compiled.add(elements.getBinaryName((TypeElement) root).toString());
+            }
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(AuraConfiguration.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            String className = elements.getBinaryName((TypeElement) element).toString();
+            for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+                Set<Modifier> modifiers = method.getModifiers();
+                if (method.getAnnotation(Impl.class) != null && modifiers.contains(Modifier.PUBLIC)
+                        && modifiers.contains(Modifier.STATIC) && method.getParameters().isEmpty()) {
+                    entries.add(className + "#" + method.getSimpleName());
+                }
+            }
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        Filer filer = processingEnv.getFiler();
+        boolean existing = readExisting(filer);
+
+        if (entries.isEmpty() && !existing) {
+            return;
+        }
+        Writer writer = null;
+        try {
+            FileObject index = filer.createResource(StandardLocation.CLASS_OUTPUT, "",
+                    ServiceLoaderImpl.CONFIGURATION_INDEX);
+            writer = index.openWriter();
+            writer.write("# Generated by " + getClass().getName() + ", do not edit.\n");
+            for (String entry : entries) {
+                writer.write(entry);
+                writer.write('\n');
+            }
+        } catch (IOException ioe) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + ServiceLoaderImpl.CONFIGURATION_INDEX + ": " + ioe.getMessage());
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Keep the entries from a previous build for classes that were not compiled this time.
+     *
+     * @return true if there was a previous index.
+     */
+    private boolean readExisting(Filer filer) {
+        BufferedReader reader = null;
+        try {
+            FileObject index = filer.getResource(StandardLocation.CLASS_OUTPUT, "",
+                    ServiceLoaderImpl.CONFIGURATION_INDEX);
+            reader = new BufferedReader(index.openReader(true));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int hash = line.indexOf('#');
+                if (hash <= 0) {
+                    continue;
+                }
+                String className = line.substring(0, hash);
+                int nested = className.indexOf('$');
+                if (!compiled.contains(nested < 0 ? className : className.substring(0, nested))) {
+                    entries.add(line);
+                }
+            }
+            return true;
+        } catch (IOException ioe) {
+            // no previous index.
+            return false;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
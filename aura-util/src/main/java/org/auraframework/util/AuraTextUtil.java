@@ -15,7 +15,9 @@
  */
 package org.auraframework.util;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.util.ArrayList;
@@ -191,6 +193,90 @@ public class AuraTextUtil {
         return TrieMatcher.replaceMultiple(in, JSON_SEARCH_REPLACE);
     }
 
+    /**
+     * Properly escapes string for JSON, writing it out directly.
+     *
+     * This gives the same result as {@link #escapeForJSONString(String)}, but the escaped string is never built.
+     * Runs of characters that need no escaping are copied straight to the output, which does not allocate for a
+     * Writer or a StringBuilder.
+     *
+     * @param in the incoming (unsafe) string
+     * @param out where to write the escaped string
+     */
+    public static void escapeForJSONString(String in, Appendable out) throws IOException {
+        int length = in.length();
+        int start = 0;
+
+        for (int i = 0; i < length; i++) {
+            String replacement;
+            int matched = 1;
+
+            switch (in.charAt(i)) {
+            case '\\':
+                replacement = "\\\\";
+                break;
+            case '\n':
+            case '\u2028':
+                replacement = "\\n";
+                break;
+            case '\r':
+                replacement = "\\r";
+                break;
+            case '\t':
+                replacement = "\\t";
+                break;
+            case '"':
+                replacement = "\\\"";
+                break;
+            case '<':
+                replacement = "\\u003C";
+                break;
+            case '>':
+                replacement = "\\u003E";
+                break;
+            case '\u2029':
+                replacement = "\\u2029";
+                break;
+            case '\u0000':
+                replacement = "";
+                break;
+            case '!':
+                if (!in.startsWith("--", i + 1)) {
+                    continue;
+                }
+                replacement = "\\u0021--";
+                matched = 3;
+                break;
+            case '*':
+                if (!in.startsWith("/", i + 1)) {
+                    continue;
+                }
+                replacement = "\\u002A/";
+                matched = 2;
+                break;
+            default:
+                continue;
+            }
+            appendRange(in, start, i, out);
+            out.append(replacement);
+            i += matched - 1;
+            start = i + 1;
+        }
+        appendRange(in, start, length, out);
+    }
+
+    private static void appendRange(String in, int start, int end, Appendable out) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (out instanceof Writer) {
+            // Writer.append(CharSequence, int, int) would make a substring.
+            ((Writer) out).write(in, start, end - start);
+        } else {
+            out.append(in, start, end);
+        }
+    }
+
     /**
      * Properly escapes string for JSON Function.
      *
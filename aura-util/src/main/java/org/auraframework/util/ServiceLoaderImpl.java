@@ -15,12 +15,20 @@
  */
 package org.auraframework.util;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.auraframework.util.ServiceLocator.ServiceLocatorException;
@@ -35,6 +43,8 @@ import org.reflections.util.FilterBuilder;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
 /**
@@ -58,22 +68,156 @@ public class ServiceLoaderImpl implements ServiceLoader {
     public @interface PrimaryImpl {
     }
 
-    private static final ServiceLoader instance = new ServiceLoaderImpl();
+    /**
+     * The resource listing the {@link Impl} methods of the configuration classes in a jar or directory.
+     *
+     * It is written at build time by {@link AuraConfigurationProcessor}, one "class#method" per line, so that the
+     * classpath does not have to be scanned at startup. Anything that does not have one is still scanned.
+     */
+    public static final String CONFIGURATION_INDEX = "META-INF/aura/configuration.idx";
+
+    private static final String CONFIGURATION_PACKAGE = "configuration";
 
     @SuppressWarnings("unchecked")
     private static final Predicate<? super Method> predicate = Predicates.and(
             ReflectionUtils.withModifier(Modifier.PUBLIC), ReflectionUtils.withAnnotation(Impl.class),
             ReflectionUtils.withModifier(Modifier.STATIC), ReflectionUtils.withParametersCount(0));
 
-    private final Reflections reflections;
+    // after the predicate, as the constructor uses it.
+    private static final ServiceLoader instance = new ServiceLoaderImpl();
+
+    /**
+     * All of the implementation methods, by return type.
+     */
+    private final Map<Class<?>, Set<Method>> implMethods;
 
     private ServiceLoaderImpl() {
-        Predicate<String> filter = new FilterBuilder().include(FilterBuilder.prefix("configuration"));
+        implMethods = Maps.newHashMap();
+
+        Map<String, URL> unindexed = Maps.newHashMap();
+        for (URL url : ClasspathHelper.forPackage(CONFIGURATION_PACKAGE)) {
+            unindexed.put(url.toExternalForm(), url);
+        }
+        for (ClassLoader loader : getClassLoaders()) {
+            Enumeration<URL> indexes;
+            try {
+                indexes = loader.getResources(CONFIGURATION_INDEX);
+            } catch (IOException ioe) {
+                throw new ServiceLocatorException(ioe);
+            }
+            while (indexes.hasMoreElements()) {
+                URL index = indexes.nextElement();
+                String root = index.toExternalForm();
+                root = root.substring(0, root.length() - CONFIGURATION_INDEX.length());
+                if (unindexed.containsKey(root) && readIndex(index, loader)) {
+                    unindexed.remove(root);
+                }
+            }
+        }
+        if (!unindexed.isEmpty()) {
+            scan(unindexed.values());
+        }
+    }
+
+    private static List<ClassLoader> getClassLoaders() {
+        List<ClassLoader> loaders = Lists.newArrayListWithCapacity(2);
+        ClassLoader context = Thread.currentThread().getContextClassLoader();
+        if (context != null) {
+            loaders.add(context);
+        }
+        ClassLoader local = ServiceLoaderImpl.class.getClassLoader();
+        if (local != null && local != context) {
+            loaders.add(local);
+        }
+        return loaders;
+    }
+
+    private void addImplMethod(Method method) {
+        Set<Method> methods = implMethods.get(method.getReturnType());
+        if (methods == null) {
+            methods = Sets.newHashSet();
+            implMethods.put(method.getReturnType(), methods);
+        }
+        methods.add(method);
+    }
+
+    /**
+     * Read the methods from an index.
+     *
+     * @return false if the index does not match the classes, in which case nothing is added and the location should
+     *         be scanned instead.
+     */
+    private boolean readIndex(URL index, ClassLoader loader) {
+        List<Method> methods = Lists.newArrayList();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(index.openStream(), "UTF-8"));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith("#")) {
+                    continue;
+                }
+                int hash = line.indexOf('#');
+                if (hash <= 0) {
+                    return false;
+                }
+                Class<?> clazz = Class.forName(line.substring(0, hash), true, loader);
+                Method method = clazz.getDeclaredMethod(line.substring(hash + 1));
+                if (!clazz.isAnnotationPresent(AuraConfiguration.class) || !predicate.apply(method)) {
+                    return false;
+                }
+                methods.add(method);
+            }
+        } catch (IOException ioe) {
+            return false;
+        } catch (ClassNotFoundException cnfe) {
+            return false;
+        } catch (NoSuchMethodException nsme) {
+            return false;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        for (Method method : methods) {
+            addImplMethod(method);
+        }
+        return true;
+    }
 
-        reflections = new Reflections(new ConfigurationBuilder().filterInputsBy(filter)
-                .setUrls(ClasspathHelper.forPackage("configuration"))
+    /**
+     * Find the methods by scanning the configuration package, for locations that do not have an index.
+     */
+    private void scan(Collection<URL> urls) {
+        Predicate<String> filter = new FilterBuilder().include(FilterBuilder.prefix(CONFIGURATION_PACKAGE));
+
+        Reflections reflections = new Reflections(new ConfigurationBuilder().filterInputsBy(filter).setUrls(urls)
                 .setScanners(new TypeAnnotationsScanner(), new MethodAnnotationsScanner(), new TypesScanner()));
 
+        for (Class<?> clazz : reflections.getTypesAnnotatedWith(AuraConfiguration.class)) {
+            for (Method meth : clazz.getDeclaredMethods()) {
+                if (predicate.apply(meth)) {
+                    addImplMethod(meth);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the implementation methods that return the given type.
+     */
+    private Set<Method> getImplMethods(Class<?> type) {
+        Set<Method> methods = Sets.newHashSet();
+        for (Map.Entry<Class<?>, Set<Method>> entry : implMethods.entrySet()) {
+            if (type.isAssignableFrom(entry.getKey())) {
+                methods.addAll(entry.getValue());
+            }
+        }
+        return methods;
     }
 
     public static final ServiceLoader get() {
@@ -84,15 +228,15 @@ public class ServiceLoaderImpl implements ServiceLoader {
     public <T> T get(Class<T> type) {
         try {
 
-            Set<Class<?>> classes = reflections.getTypesAnnotatedWith(AuraConfiguration.class);
+            Set<Method> methods = getImplMethods(type);
 
             // First try those marked with primary
-            T ret = get(type, classes, true, predicate);
+            T ret = get(type, methods, true, Predicates.<Method> alwaysTrue());
             if (ret != null) {
                 return ret;
             }
 
-            return get(type, classes, false, predicate);
+            return get(type, methods, false, Predicates.<Method> alwaysTrue());
 
         } catch (Throwable t) {
             throw new ServiceLocatorException(t);
@@ -100,25 +244,16 @@ public class ServiceLoaderImpl implements ServiceLoader {
     }
 
     @SuppressWarnings("unchecked")
-    private <T> T get(Class<T> type, Set<Class<?>> classes, boolean primary, Predicate<? super Method> predicate) {
+    private <T> T get(Class<T> type, Set<Method> methods, boolean primary, Predicate<? super Method> predicate) {
         Set<Method> beanMethods = Sets.newHashSet();
-        Predicate<Method> pred;
+        Predicate<? super Method> pred = predicate;
 
-        pred = Predicates.and(predicate, ReflectionUtils.withReturnTypeAssignableTo(type));
         if (primary) {
             pred = Predicates.and(pred, ReflectionUtils.withAnnotation(PrimaryImpl.class));
         }
-
-        /*
-         * This is a better way to do it, but hits a runtime dep on Guava 12, so
-         * until we upgrade to Guava 12, working around this.
-         */
-
-        for (Class<?> clazz : classes) {
-            for (Method meth : clazz.getDeclaredMethods()) {
-                if (pred.apply(meth)) {
-                    beanMethods.add(meth);
-                }
+        for (Method meth : methods) {
+            if (pred.apply(meth)) {
+                beanMethods.add(meth);
             }
         }
 
@@ -143,27 +278,10 @@ public class ServiceLoaderImpl implements ServiceLoader {
     @SuppressWarnings("unchecked")
     @Override
     public <T> Set<T> getAll(Class<T> type) {
-        Set<Method> beanMethods = Sets.newHashSet();
+        Set<Method> beanMethods = getImplMethods(type);
 
         Set<T> ret = Sets.newHashSet();
 
-        Predicate<Method> pred = Predicates.and(predicate, ReflectionUtils.withReturnTypeAssignableTo(type));
-
-        Set<Class<?>> classes = reflections.getTypesAnnotatedWith(AuraConfiguration.class);
-
-        /*
-         * This is a better way to do it, but hits a runtime dep on Guava 12, so
-         * until we upgrade to Guava 12, working around this.
-         */
-
-        for (Class<?> clazz : classes) {
-            for (Method meth : clazz.getDeclaredMethods()) {
-                if (pred.apply(meth)) {
-                    beanMethods.add(meth);
-                }
-            }
-        }
-
         try {
             for (Method meth : beanMethods) {
                 T val = (T) meth.invoke(null);
@@ -182,23 +300,23 @@ public class ServiceLoaderImpl implements ServiceLoader {
     public <T> T get(Class<T> type, final String name) {
         try {
 
-            Predicate<? super Method> predicate = Predicates.and(ServiceLoaderImpl.predicate, new Predicate<Method>() {
+            Predicate<Method> predicate = new Predicate<Method>() {
 
                 @Override
                 public boolean apply(Method input) {
                     return input.getAnnotation(Impl.class).name().equals(name);
                 }
 
-            });
-            Set<Class<?>> classes = reflections.getTypesAnnotatedWith(AuraConfiguration.class);
+            };
+            Set<Method> methods = getImplMethods(type);
 
             // First try those marked with primary
-            T ret = get(type, classes, true, predicate);
+            T ret = get(type, methods, true, predicate);
             if (ret != null) {
                 return ret;
             }
 
-            return get(type, classes, false, predicate);
+            return get(type, methods, false, predicate);
 
         } catch (Throwable t) {
             throw new ServiceLocatorException(t);
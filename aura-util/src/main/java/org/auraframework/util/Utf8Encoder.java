@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.util;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Encodes chars as UTF-8 into a byte array, without a CharsetEncoder.<br>
+ * <br>
+ * Codepoints that are represented in UTF-16 as surrogate pairs are supported,
+ * including pairs that are split across calls, so an encoder keeps the high
+ * surrogate of a pair until it sees the low one. Unpaired surrogates are
+ * encoded as '?', as OutputStreamWriter does.
+ */
+@NotThreadSafe
+public final class Utf8Encoder {
+    /**
+     * The most bytes that encoding one char can add.
+     */
+    public static final int MAX_BYTES_PER_CHAR = 4;
+
+    private char highSurrogate;
+
+    /**
+     * @return true if a high surrogate is waiting for the rest of its pair.
+     */
+    public boolean isPending() {
+        return highSurrogate != 0;
+    }
+
+    /**
+     * Encode a char.
+     *
+     * @param c the char.
+     * @param bytes where to put the encoding, with room for at least
+     *            {@link #MAX_BYTES_PER_CHAR} bytes at pos.
+     * @param pos where in bytes to start.
+     * @return the position after the encoding.
+     */
+    public int encode(char c, byte[] bytes, int pos) {
+        if (highSurrogate != 0) {
+            char high = highSurrogate;
+            highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                bytes[pos++] = (byte) (0xf0 | (codePoint >> 18));
+                bytes[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                bytes[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                bytes[pos++] = (byte) (0x80 | (codePoint & 0x3f));
+                return pos;
+            }
+            bytes[pos++] = '?';
+        }
+        if (c < 0x80) {
+            bytes[pos++] = (byte) c;
+        } else if (c < 0x800) {
+            bytes[pos++] = (byte) (0xc0 | (c >> 6));
+            bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+        } else if (Character.isHighSurrogate(c)) {
+            highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            bytes[pos++] = '?';
+        } else {
+            bytes[pos++] = (byte) (0xe0 | (c >> 12));
+            bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+            bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+        }
+        return pos;
+    }
+
+    /**
+     * Encode a high surrogate that was never followed by its pair, at the end
+     * of the input.
+     *
+     * @param bytes where to put the encoding, with room for at least one byte
+     *            at pos.
+     * @param pos where in bytes to start.
+     * @return the position after the encoding.
+     */
+    public int finish(byte[] bytes, int pos) {
+        if (highSurrogate != 0) {
+            highSurrogate = 0;
+            bytes[pos++] = '?';
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A minimal OutputStreamWriter implementation that always writes UTF-8.<br>
+ * <br>
+ * Characters are encoded straight into a byte buffer, which is written to the
+ * wrapped OutputStream when it fills up or on {@link #flush()}. This avoids
+ * the CharsetEncoder and the intermediate char buffer of Java's
+ * OutputStreamWriter, and writing a String or part of one does not copy it.
+ * Most JSON output is ASCII, which takes a single comparison per character.<br>
+ * <br>
+ * Codepoints that are represented in UTF-16 as surrogate pairs are supported,
+ * including pairs that are split across two writes. Unpaired surrogates are
+ * written as '?', as OutputStreamWriter does.
+ */
+@NotThreadSafe
+public class Utf8OutputStreamWriter extends Writer {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final Utf8Encoder encoder = new Utf8Encoder();
+    private int count;
+
+    /**
+     * Creates an OutputStreamWriter-like class that always uses UTF-8.
+     *
+     * @param out The OutputStream to wrap
+     */
+    public Utf8OutputStreamWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param out The OutputStream to wrap
+     * @param bufferSize The number of bytes to buffer, at least
+     *            {@link Utf8Encoder#MAX_BYTES_PER_CHAR}.
+     */
+    public Utf8OutputStreamWriter(OutputStream out, int bufferSize) {
+        if (bufferSize < Utf8Encoder.MAX_BYTES_PER_CHAR) {
+            throw new IllegalArgumentException("Buffer size must be at least " + Utf8Encoder.MAX_BYTES_PER_CHAR);
+        }
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        writeChar((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            char c = cbuf[i];
+            if (c < 0x80 && !encoder.isPending()) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                buffer[count++] = (byte) c;
+            } else {
+                writeChar(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && !encoder.isPending()) {
+                if (count == buffer.length) {
+                    flushBuffer();
+                }
+                buffer[count++] = (byte) c;
+            } else {
+                writeChar(c);
+            }
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq, int start, int end) throws IOException {
+        if (csq == null) {
+            return append("null", 0, 4);
+        }
+        for (int i = start; i < end; i++) {
+            writeChar(csq.charAt(i));
+        }
+        return this;
+    }
+
+    private void writeChar(char c) throws IOException {
+        if (buffer.length - count < Utf8Encoder.MAX_BYTES_PER_CHAR) {
+            flushBuffer();
+        }
+        count = encoder.encode(c, buffer, count);
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    /**
+     * Writes out the buffered bytes, and flushes the wrapped OutputStream.
+     *
+     * A high surrogate that has not yet been followed by its pair stays
+     * buffered.
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (count == buffer.length) {
+            flushBuffer();
+        }
+        count = encoder.finish(buffer, count);
+        flushBuffer();
+        out.close();
+    }
+}
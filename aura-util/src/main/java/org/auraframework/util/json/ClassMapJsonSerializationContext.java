@@ -26,15 +26,28 @@ import java.util.concurrent.ConcurrentMap;
 /**
  * uses 2 maps to find serializers. first is direct class lookup (fast), second
  * is an instanceof lookup (slow)
+ * 
+ * The result is cached by class, including classes that have no serializer,
+ * so each class is only looked up once.
  */
 public class ClassMapJsonSerializationContext extends BaseJsonSerializationContext {
 
+    /**
+     * Marks a class with no serializer in the cache.
+     */
+    private static final Object NOT_FOUND = new Object();
+
     private final Map<String, JsonSerializer<?>> mappyFasty;
     private final Map<Class<?>, JsonSerializer<?>> mappySlowly;
-    private final ConcurrentMap<String, JsonSerializer<?>> cache;
+    private final ConcurrentMap<Class<?>, Object> cache;
 
+    /**
+     * @param cache the serializers found so far, shared between contexts with
+     *            the same maps. Values are serializers, or a marker for a class
+     *            without one.
+     */
     public ClassMapJsonSerializationContext(Map<String, JsonSerializer<?>> mappyFasty,
-            Map<Class<?>, JsonSerializer<?>> mappySlowly, ConcurrentMap<String, JsonSerializer<?>> cache,
+            Map<Class<?>, JsonSerializer<?>> mappySlowly, ConcurrentMap<Class<?>, Object> cache,
             boolean format, boolean refSupport, int dataSizeLimit, int collectionSizeLimit) {
         super(format, refSupport, dataSizeLimit, collectionSizeLimit, false);
         this.mappyFasty = mappyFasty;
@@ -50,29 +63,38 @@ public class ClassMapJsonSerializationContext extends BaseJsonSerializationConte
             return (JsonSerializer<T>) LITERAL;
         }
         Class<?> c = o.getClass();
-        if (c.isArray()) {
-            return (JsonSerializer<T>) ARRAY;
-        } else if (c.isEnum()) {
-            return (JsonSerializer<T>) STRING;
+        Object s = cache.get(c);
+        if (s == null) {
+            s = findSerializer(c);
+            if (s == null) {
+                s = NOT_FOUND;
+            }
+            cache.putIfAbsent(c, s);
         }
+        return s == NOT_FOUND ? null : (JsonSerializer<T>) s;
+    }
 
-        JsonSerializer<T> s = (JsonSerializer<T>) cache.get(c.getName());
-        if (s != null) {
-            return s;
+    /**
+     * Find the serializer for a class, the result is cached.
+     * 
+     * @param c the class of the value to serialize.
+     * @return the serializer, or null if there is none.
+     */
+    protected JsonSerializer<?> findSerializer(Class<?> c) {
+        if (c.isArray()) {
+            return ARRAY;
+        } else if (c.isEnum()) {
+            return STRING;
         }
 
-        String className = c.getName();
-        s = (JsonSerializer<T>) mappyFasty.get(className);
+        JsonSerializer<?> s = mappyFasty.get(c.getName());
         if (s != null) {
-            cache.putIfAbsent(className, s);
             return s;
         }
 
         for (Entry<Class<?>, JsonSerializer<?>> e : mappySlowly.entrySet()) {
             if (e.getKey().isAssignableFrom(c)) {
-                s = (JsonSerializer<T>) e.getValue();
-                cache.putIfAbsent(className, s);
-                return s;
+                return e.getValue();
             }
         }
         return null;
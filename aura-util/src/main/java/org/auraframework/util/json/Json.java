@@ -18,7 +18,6 @@ package org.auraframework.util.json;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Inherited;
@@ -42,10 +41,10 @@ import javax.annotation.Nonnull;
 
 import org.auraframework.util.AuraTextUtil;
 import org.auraframework.util.UncloseableOutputStream;
+import org.auraframework.util.Utf8OutputStreamWriter;
 import org.auraframework.util.json.Json.Serialization.ReferenceType;
 import org.auraframework.util.json.Json.Serialization.ReferenceScope;
 
-import com.google.common.base.Charsets;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.io.CountingOutputStream;
@@ -358,7 +357,7 @@ public class Json {
         if (out == null) {
             throw new IllegalArgumentException("out must not be null");
         }
-        final Writer writer = new OutputStreamWriter(out, Charsets.UTF_8);
+        final Writer writer = new Utf8OutputStreamWriter(out);
         return new Json(writer, out, context);
     }
 
@@ -648,14 +647,15 @@ public class Json {
         }
         ReferenceType rt = serializationContext.refSupport() ? serializer.getReferenceType(value) : ReferenceType.NONE;
         if (rt != ReferenceType.NONE) {
+            ReferenceScope rs = serializer.getReferenceScope(value);
             Integer refId;
-            if ((refId = getRefId(serializer.getReferenceScope(value), value)) != null) {
+            if ((refId = getRefId(rs, value)) != null) {
                 // Output a simple reference
                 writeMapBegin();
                 writeMapEntry(REF_INDICATOR, refId);
                 writeMapEnd();
             } else {
-                refId = addReference(serializer.getReferenceScope(value), value);
+                refId = addReference(rs, value);
                 // Now manually output this 2-element map to avoid loop
                 writeMapBegin();
                 writeMapEntry(ID_INDICATOR, refId);
@@ -686,7 +686,7 @@ public class Json {
      */
     public void writeString(Object value) throws IOException {
         out.append('"');
-        out.append(AuraTextUtil.escapeForJSONString(value.toString()));
+        AuraTextUtil.escapeForJSONString(value.toString(), out);
         out.append('"');
     }
 
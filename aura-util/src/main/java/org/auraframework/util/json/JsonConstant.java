@@ -108,6 +108,10 @@ public enum JsonConstant {
     }
 
     public static JsonConstant valueOf(Character c) {
+        return valueOf(c.charValue());
+    }
+
+    public static JsonConstant valueOf(char c) {
 
         JsonConstant ret = null;
         int charVal = c;
@@ -103,8 +103,39 @@ public class JsonSerializers {
      * temp class until all the json serializable stuff moves out of the defs
      */
     public static class OldSerializer implements JsonSerializer<JsonSerializable> {
+        private final ReferenceType referenceType;
+        private final ReferenceScope referenceScope;
+
+        /**
+         * A serializer that reads the {@link Serialization} annotation of each
+         * value.
+         */
+        public OldSerializer() {
+            this(null, null);
+        }
+
+        private OldSerializer(ReferenceType referenceType, ReferenceScope referenceScope) {
+            this.referenceType = referenceType;
+            this.referenceScope = referenceScope;
+        }
+
+        /**
+         * Get a serializer for values of a single class, with the
+         * {@link Serialization} annotation read up front.
+         */
+        public static OldSerializer forClass(Class<?> c) {
+            Serialization serialization = c.getAnnotation(Serialization.class);
+            if (serialization != null) {
+                return new OldSerializer(serialization.referenceType(), serialization.referenceScope());
+            }
+            return new OldSerializer(ReferenceType.NONE, ReferenceScope.ACTION);
+        }
+
         @Override
         public final ReferenceType getReferenceType(JsonSerializable value) {
+            if (referenceType != null) {
+                return referenceType;
+            }
             Serialization serialization = value.getClass().getAnnotation(Serialization.class);
             if (serialization != null) {
                 return serialization.referenceType();
@@ -114,6 +145,9 @@ public class JsonSerializers {
 
         @Override
         public final ReferenceScope getReferenceScope(JsonSerializable value) {
+            if (referenceScope != null) {
+                return referenceScope;
+            }
             Serialization serialization = value.getClass().getAnnotation(Serialization.class);
             if (serialization != null) {
                 return serialization.referenceScope();
@@ -41,7 +41,6 @@ import static org.auraframework.util.json.JsonConstant.WHITESPACE;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.math.BigDecimal;
@@ -55,7 +54,6 @@ import org.auraframework.util.Utf8InputStreamReader;
 import org.auraframework.util.json.JsonHandler.JsonValidationException;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -104,34 +102,29 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  * pass in your own implementation of JsonHandlerProvider, and then your
  * JsonHandlers will be used. This allows you to skip the intermediate step of
  * parsing into Maps and Lists, and lets you put the primitives directly into
- * your objects as they are parsed.
+ * your objects as they are parsed.<br>
+ * <br>
+ * Input is read a block at a time, except from an InputStream, where the
+ * reader must not read past a binary stream. The column is only worked out
+ * when a position is needed, from the start of the current line.
  */
 public class JsonStreamReader {
 
     private static final int MAX_LENGTH = 1000000;
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_UNREAD = 2; // chars that can be unread, kept when the buffer is refilled
     private static JsonHandlerProvider defaultProvider = new JsonHandlerProviderImpl();
-    private static Map<Character, Character> escapes = Maps.newHashMapWithExpectedSize(13);
-    static {
-        escapes.put('"', '"');
-        escapes.put('\\', '\\');
-        escapes.put('/', '/');
-        escapes.put('b', '\b');
-        escapes.put('f', '\f');
-        escapes.put('n', '\n');
-        escapes.put('r', '\r');
-        escapes.put('t', '\t');
-        escapes.put('\'', '\'');
-        escapes.put('0', '\0');
-        escapes.put('v', '\u000B');
-    }
 
-    private final PushbackReader reader;
+    private final Reader reader;
+    private final char[] buffer;
+    private int bufferPos = MAX_UNREAD; // next char in the buffer
+    private int bufferEnd = MAX_UNREAD; // end of the chars in the buffer
 
     private JsonConstant currentToken;
     private Object current;
     private int charNum = 0;
-    private int colNum = 1; // current parse column number
-    private int prevColNum = 0; // max colNum of previously parsed line
+    private int lineStart = 0; // charNum at the start of the current line
+    private int prevLineStart = 0; // charNum at the start of the previous line
     private int lineNum = 1; // current parse line number (start at 1)
     private int lastLineNum = 0;        // the line number before the last token.
     private int lastColNum = 0;         // the column number before the last token.
@@ -148,7 +141,9 @@ public class JsonStreamReader {
         if (reader == null) {
             throw new JsonParseException("Reader cannot be null");
         }
-        this.reader = new PushbackReader(reader, 2);
+        this.reader = reader;
+        // Read one char at a time from a binary stream, so the bytes that follow a backtick are left in the stream.
+        this.buffer = new char[binaryInput == null ? BUFFER_SIZE : MAX_UNREAD + 1];
         this.binaryInput = binaryInput == null ? null
                 : (binaryInput instanceof DataInputStream ? (DataInputStream) binaryInput : new DataInputStream(
                         binaryInput));
@@ -776,7 +771,7 @@ public class JsonStreamReader {
 
     private JsFunction readFunction() throws IOException, JsonEndOfStreamException {
         int line = lineNum;
-        int col = colNum;
+        int col = currentColNum();
         // We hint 'literal' to let the parser know that arbitrary literals are ok.
         JsonConstant next = next(LITERAL);
         String functionName = null;
@@ -863,15 +858,21 @@ public class JsonStreamReader {
 
     private Number readNumber() throws IOException, JsonEndOfStreamException {
         StringBuilder sb = new StringBuilder();
-        while (hasNext()) {
-            char c = readChar();
-            JsonConstant token = JsonConstant.valueOf(c);
-            if ((!token.equals(LITERAL_START))) {
-                unreadChar(c);
-                break;
-            } else {
+        try {
+            while (true) {
+                // Whitespace within a number is skipped, as hasNext() used to do here.
+                char c;
+                do {
+                    c = readChar();
+                } while (Character.isWhitespace(c));
+                if (JsonConstant.valueOf(c) != LITERAL_START) {
+                    unreadChar(c);
+                    break;
+                }
                 sb.append(c);
             }
+        } catch (JsonEndOfStreamException eof) {
+            // the end of the number.
         }
         BigDecimal ret;
         try {
@@ -920,9 +921,7 @@ public class JsonStreamReader {
     }
 
     private char readChar() throws IOException, JsonEndOfStreamException {
-        int i = reader.read();
-
-        if (i == -1) {
+        if (bufferPos == bufferEnd && !fillBuffer()) {
             throw new JsonEndOfStreamException("End of stream unexpectedly reached.");
         }
 
@@ -937,51 +936,96 @@ public class JsonStreamReader {
             throw new JsonStreamParseException("Input too long.");
         }
 
-        char c = (char) i;
+        char c = buffer[bufferPos++];
 
         if (c == '\n') {
-            prevColNum = colNum;
+            prevLineStart = lineStart;
+            lineStart = charNum;
             lineNum++;
-            colNum = 1;
-        } else {
-            colNum++;
         }
 
         return c;
     }
 
-    private void unreadChar(char c) throws IOException {
-        reader.unread(c);
+    /**
+     * Read the next block of chars, keeping the last few so that they can
+     * still be unread.
+     *
+     * @return false at the end of the stream.
+     */
+    private boolean fillBuffer() throws IOException {
+        System.arraycopy(buffer, bufferEnd - MAX_UNREAD, buffer, 0, MAX_UNREAD);
+        bufferPos = MAX_UNREAD;
+        bufferEnd = MAX_UNREAD;
+
+        int read = reader.read(buffer, MAX_UNREAD, buffer.length - MAX_UNREAD);
+        if (read == 0) {
+            // Not allowed by Reader, but fall back to reading a single char rather than spinning.
+            int c = reader.read();
+            if (c == -1) {
+                return false;
+            }
+            buffer[bufferEnd++] = (char) c;
+            return true;
+        }
+        if (read < 0) {
+            return false;
+        }
+        bufferEnd += read;
+        return true;
+    }
+
+    /**
+     * Step back over the last char read, which must be c.
+     */
+    private void unreadChar(char c) {
+        bufferPos--;
         charNum--;
         if (c == '\n') {
-            colNum = prevColNum;
+            lineStart = prevLineStart;
             lineNum--;
-        } else {
-            colNum--;
         }
     }
 
+    private int currentColNum() {
+        return charNum - lineStart + 1;
+    }
+
     private char readEscapedChar() throws IOException, JsonEndOfStreamException {
         char c = readChar();
 
-        if (c == 'u') {
-            c = readUnicodeEscapedChar();
-        } else {
-            Character esc = escapes.get(c);
-            if (esc == null) {
-                throw new JsonStreamParseException(String.format("Unknown escape sequence : \\%s", c));
-            } else {
-                c = esc;
-            }
+        switch (c) {
+        case 'u':
+            return readUnicodeEscapedChar();
+        case '"':
+        case '\\':
+        case '/':
+        case '\'':
+            return c;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case '0':
+            return '\0';
+        case 'v':
+            return '\u000B';
+        default:
+            throw new JsonStreamParseException(String.format("Unknown escape sequence : \\%s", c));
         }
-        return c;
     }
 
     private char readUnicodeEscapedChar() throws IOException, JsonEndOfStreamException {
 
         // Read the next 4 hex digits.
         int line = lineNum;
-        int col = colNum;
+        int col = currentColNum();
         StringBuilder sb = new StringBuilder(4);
         for (int i = 0; i < 4; i++) {
             sb.append(readChar());
@@ -1018,7 +1062,7 @@ public class JsonStreamReader {
 
     private void markPosition(int offset) {
         lastLineNum = lineNum;
-        lastColNum = colNum-offset;
+        lastColNum = currentColNum() - offset;
     }
 
     public int getLineNum() {
@@ -18,6 +18,7 @@ package org.auraframework.util.text;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
@@ -31,7 +32,11 @@ import org.apache.commons.codec.binary.Base64;
  * A wrapper around an MD5 hash. This functions as a future, being created
  * before the hash value is actually computed.
  */
-public class Hash {
+public class Hash implements Serializable {
+    private static final long serialVersionUID = 5254393282375383424L;
+
+    private static final MessageDigest MD5_PROTOTYPE = createMD5();
+
     /**
      * Radix for hash bytes to string, using 0-9a-f. We might someday want to be
      * base64 to have a shorter string, but that makes the encoding marginally
@@ -51,6 +56,31 @@ public class Hash {
         return new Hash();
     }
 
+    /**
+     * Gets a new, empty MD5 digest.
+     *
+     * This copies a prototype rather than going through the security providers with
+     * {@link MessageDigest#getInstance(String)} every time.
+     */
+    public static MessageDigest newDigest() {
+        if (MD5_PROTOTYPE != null) {
+            try {
+                return (MessageDigest) MD5_PROTOTYPE.clone();
+            } catch (CloneNotSupportedException e) {
+                // fall through to a lookup.
+            }
+        }
+        return createMD5();
+    }
+
+    private static MessageDigest createMD5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("MD5 is a required MessageDigest algorithm, but is not registered here.");
+        }
+    }
+
     /** Creates a Hash object with given contents. */
     public Hash(byte[] input) {
         setHash(input);
@@ -72,18 +102,14 @@ public class Hash {
             value = null;
             return;
         }
-        try {
-            MessageDigest digest = MessageDigest.getInstance("MD5");
-            byte[] buffer = new byte[4096];
-            int read = bytecode.read(buffer);
-            while (read >= 0) {
-                digest.update(buffer, 0, read);
-                read = bytecode.read(buffer);
-            }
-            value = digest.digest();
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD-5 is a required hash algorithm, but isn't defined", e);
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[4096];
+        int read = bytecode.read(buffer);
+        while (read >= 0) {
+            digest.update(buffer, 0, read);
+            read = bytecode.read(buffer);
         }
+        value = digest.digest();
     }
 
     /**
@@ -155,7 +181,7 @@ public class Hash {
      */ 
     public void setHash(Reader reader) throws IOException, IllegalStateException {
         try {
-            MessageDigest digest = MessageDigest.getInstance("MD5");
+            MessageDigest digest = newDigest();
             Charset utf8 = Charset.forName("UTF-8");
             CharBuffer cbuffer = CharBuffer.allocate(2048);
             while (reader.read(cbuffer) >= 0) {
@@ -165,8 +191,6 @@ public class Hash {
                 cbuffer.clear();
             }
             setHash(digest.digest());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException("MD5 is a required MessageDigest algorithm, but is not registered here.");
         } finally {
             reader.close();
         }
@@ -178,11 +202,7 @@ public class Hash {
 
         public StringBuilder() {
             utf8 = Charset.forName("UTF-8");
-            try {
-                digest = MessageDigest.getInstance("MD5");
-            } catch (NoSuchAlgorithmException e) {
-                throw new RuntimeException("MD5 is a required MessageDigest algorithm, but is not registered here.");
-            }
+            digest = newDigest();
         }
 
         /**
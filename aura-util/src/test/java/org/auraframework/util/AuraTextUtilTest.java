@@ -15,6 +15,7 @@
  */
 package org.auraframework.util;
 
+import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.List;
 
@@ -191,6 +192,24 @@ public class AuraTextUtilTest extends UnitTestCase {
         }
     }
 
+    /**
+     * Writing the escaped string out must give the same result as building it.
+     */
+    public void testEscapeForJSONStringAppendable() throws Exception {
+        String[] inputs = new String[] { "", "\t\t", "a<!--b-->c", "!!--", "!-", "**/", "*", "/*x*/", "\u2029end",
+                "\u0000\u0000", "\"quoted\"\r\n" };
+        for (StringPair p : JSON_STRING_PAIRS) {
+            StringBuilder sb = new StringBuilder();
+            AuraTextUtil.escapeForJSONString(p.input, sb);
+            assertEquals(p.expected, sb.toString());
+        }
+        for (String input : inputs) {
+            StringWriter sw = new StringWriter();
+            AuraTextUtil.escapeForJSONString(input, sw);
+            assertEquals(AuraTextUtil.escapeForJSONString(input), sw.toString());
+        }
+    }
+
     private static class SplitMatch {
         public final String input;
         public final String delimiter;
@@ -15,6 +15,9 @@
  */
 package org.auraframework.util;
 
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -259,6 +262,22 @@ public class ServiceLocatorTest extends UnitTestCase {
         assertNull(s.get(SimpleService.class, "IGOTTANAME"));
     }
 
+    /**
+     * The configuration classes should be indexed at build time, so that the classpath is not scanned.
+     */
+    public void testConfigurationIndexed() throws Exception {
+        Enumeration<URL> indexes = getClass().getClassLoader().getResources(ServiceLoaderImpl.CONFIGURATION_INDEX);
+        boolean found = false;
+
+        while (indexes.hasMoreElements()) {
+            String index = IOUtil.readText(new InputStreamReader(indexes.nextElement().openStream(), "UTF-8"));
+            if (index.contains("configuration.TestConfig#singleImplService\n")) {
+                found = true;
+            }
+        }
+        assertTrue("Expected an index entry for the test configuration", found);
+    }
+
     private <X, Y> void verifyServiceLocated(Class<X> serviceInterface, Class<Y> serviceProvider) {
         X sis = s.get(serviceInterface);
         assertNotNull("Failed to locate the provider for service interface:" + serviceInterface.getSimpleName(), sis);
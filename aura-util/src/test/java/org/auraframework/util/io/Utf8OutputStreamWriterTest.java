@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.util.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.auraframework.test.UnitTestCase;
+import org.auraframework.util.Utf8OutputStreamWriter;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Test cases for the Utf8OutputStreamWriter
+ */
+public class Utf8OutputStreamWriterTest extends UnitTestCase {
+
+    public Utf8OutputStreamWriterTest(String name) {
+        super(name);
+    }
+
+    /**
+     * 1-byte, 2-byte, 3-byte, and 4-byte UTF-8 characters.
+     */
+    private static final String MIXED = "abc\u00e9\u00fc\u07ff\u0800\u20ac\uffff\ud83d\ude00z\ud800\udc00";
+
+    private void assertWritten(String expected, byte[] actual) {
+        assertTrue("Unexpected bytes for " + expected,
+                Arrays.equals(expected.getBytes(Charsets.UTF_8), actual));
+    }
+
+    public void testLatinCharsOnly() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new Utf8OutputStreamWriter(baos);
+        writer.write("abc123_+/`");
+        writer.close();
+        assertWritten("abc123_+/`", baos.toByteArray());
+    }
+
+    public void testUTF8Chars() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new Utf8OutputStreamWriter(baos);
+        writer.write(MIXED);
+        writer.write(MIXED.toCharArray());
+        writer.append(new StringBuilder(MIXED));
+        writer.close();
+        assertWritten(MIXED + MIXED + MIXED, baos.toByteArray());
+    }
+
+    /**
+     * The smallest buffer has to be flushed for almost every character.
+     */
+    public void testSmallBuffer() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new Utf8OutputStreamWriter(baos, 4);
+        for (int i = 0; i < 10; i++) {
+            writer.write(MIXED);
+        }
+        writer.close();
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            expected.append(MIXED);
+        }
+        assertWritten(expected.toString(), baos.toByteArray());
+    }
+
+    public void testSurrogatePairSplitAcrossWrites() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new Utf8OutputStreamWriter(baos);
+        writer.write("a\ud83d");
+        writer.flush();
+        writer.write('\ude00');
+        writer.close();
+        assertWritten("a\ud83d\ude00", baos.toByteArray());
+    }
+
+    public void testUnpairedSurrogates() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new Utf8OutputStreamWriter(baos);
+        writer.write("a\ude00b\ud83dc\ud83d");
+        writer.close();
+        assertWritten("a?b?c?", baos.toByteArray());
+    }
+
+    public void testFlush() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Writer writer = new Utf8OutputStreamWriter(baos);
+        writer.write("abc");
+        assertEquals(0, baos.size());
+        writer.flush();
+        assertWritten("abc", baos.toByteArray());
+        writer.close();
+    }
+
+    public void testBufferTooSmall() {
+        try {
+            new Utf8OutputStreamWriter(new ByteArrayOutputStream(), 3);
+            fail("Expected a buffer of 3 bytes to be rejected");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
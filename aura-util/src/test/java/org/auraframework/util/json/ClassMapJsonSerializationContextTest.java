@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.util.json;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.auraframework.test.UnitTestCase;
+import org.auraframework.util.json.Json.Serialization.ReferenceScope;
+import org.auraframework.util.json.Json.Serialization.ReferenceType;
+
+import com.google.common.collect.Maps;
+
+public class ClassMapJsonSerializationContextTest extends UnitTestCase {
+    private enum Color {
+        RED
+    }
+
+    private ClassMapJsonSerializationContext createContext(ConcurrentMap<Class<?>, Object> cache) {
+        return new ClassMapJsonSerializationContext(JsonSerializers.MAPPY_FASTY, JsonSerializers.MAPPY_SLOWY, cache,
+                false, true, -1, -1);
+    }
+
+    /**
+     * Serializers are found by exact class, by instanceof, and for arrays and
+     * enums.
+     */
+    public void testGetSerializer() {
+        ClassMapJsonSerializationContext context = createContext(Maps.<Class<?>, Object> newConcurrentMap());
+
+        assertSame(JsonSerializers.LITERAL, context.getSerializer(null));
+        assertSame(JsonSerializers.STRING, context.getSerializer("string"));
+        assertSame(JsonSerializers.COLLECTION, context.getSerializer(new ArrayList<Object>()));
+        assertSame(JsonSerializers.MAP, context.getSerializer(new TreeMap<Object, Object>()));
+        assertSame(JsonSerializers.ARRAY, context.getSerializer(new Object[0]));
+        assertSame(JsonSerializers.STRING, context.getSerializer(Color.RED));
+        assertNull(context.getSerializer(new Object()));
+    }
+
+    /**
+     * Each class is looked up once, including classes with no serializer.
+     */
+    public void testSerializersCachedByClass() {
+        ConcurrentMap<Class<?>, Object> cache = Maps.newConcurrentMap();
+        ClassMapJsonSerializationContext context = createContext(cache);
+
+        context.getSerializer(new TreeMap<Object, Object>());
+        context.getSerializer(new Object());
+        assertSame(JsonSerializers.MAP, cache.get(TreeMap.class));
+        assertTrue(cache.containsKey(Object.class));
+
+        // A second context shares what the first one found.
+        cache.put(TreeMap.class, JsonSerializers.LITERAL);
+        assertSame(JsonSerializers.LITERAL, createContext(cache).getSerializer(new TreeMap<Object, Object>()));
+        assertNull(createContext(cache).getSerializer(new Object()));
+    }
+
+    /**
+     * A serializer for one class has its reference settings read up front.
+     */
+    public void testOldSerializerForClass() {
+        JsonSerializers.OldSerializer identity = JsonSerializers.OldSerializer
+                .forClass(JsonIdentitySerializableTest.class);
+        JsonSerializable value = new JsonIdentitySerializableTest(1);
+
+        assertEquals(ReferenceType.IDENTITY, identity.getReferenceType(value));
+        assertEquals(ReferenceScope.ACTION, identity.getReferenceScope(value));
+        assertEquals(JsonSerializers.OLD.getReferenceType(value), identity.getReferenceType(value));
+
+        JsonSerializers.OldSerializer none = JsonSerializers.OldSerializer.forClass(JsonSerializable.class);
+        assertEquals(ReferenceType.NONE, none.getReferenceType(value));
+        assertEquals(ReferenceScope.ACTION, none.getReferenceScope(value));
+    }
+}
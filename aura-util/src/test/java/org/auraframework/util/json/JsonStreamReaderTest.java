@@ -1013,6 +1013,31 @@ public class JsonStreamReaderTest extends UnitTestCase {
         reader.disableLengthLimitsBecauseIAmStreamingAndMyMemoryUseIsNotProportionalToTheStreamLength();
     }
 
+    /**
+     * Input is read in blocks, so check that comments, escapes and positions
+     * are right wherever they fall relative to the end of a block.
+     */
+    public void testReadAcrossBlocks() throws Exception {
+        for (int pad = 4070; pad < 4110; pad++) {
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < pad; i++) {
+                sb.append(' ');
+            }
+            String json = sb.toString() + "/* c */ 12,\n// x\n'a\\u0062', {k:/**/true}]";
+            Object o = parseAndRetrieve(json);
+            assertEquals("Wrong value with " + pad + " spaces",
+                    Arrays.asList(new BigDecimal(12), "ab", Collections.singletonMap("k", true)), o);
+
+            try {
+                parseAndRetrieve(sb.toString() + "1,\n  #]");
+                fail("Expected a parse failure with " + pad + " spaces");
+            } catch (JsonStreamParseException expected) {
+                assertEquals("Wrong line with " + pad + " spaces", 2, expected.line);
+                assertEquals("Wrong column with " + pad + " spaces", 3, expected.col);
+            }
+        }
+    }
+
     /**
      * A convenience method to verify the functioning of JsonStreamReader. All
      * this method does is accepts a String, creates a stream with this and
@@ -15,6 +15,7 @@
  */
 package org.auraframework.adapter;
 
+import java.io.File;
 import java.util.List;
 import java.util.Set;
 
@@ -75,4 +76,59 @@ public interface ConfigAdapter extends AuraAdapter {
 	boolean isDocumentedNamespace(String namespace);
 	
 	boolean isCacheablePrefix(String prefix);
+
+    /**
+     * Should definitions be compiled in parallel?
+     *
+     * If true, the master def registry will fan out the parsing and initial validation of the dependency tree of
+     * a top level definition across a shared set of compile threads.
+     */
+    boolean isParallelCompileEnabled();
+
+    /**
+     * Get the configured maximum size for one of the shared caches.
+     *
+     * This is read from aura.cache.&lt;name&gt;.size in aura.conf, where name is the name used by
+     * {@link org.auraframework.service.CachingService#getCaches()}. For weighed caches, it is the maximum total
+     * weight.
+     *
+     * @param name the name of the cache.
+     * @param defaultSize the size to use if nothing is configured.
+     * @return the maximum size.
+     */
+    long getCacheSize(String name, long defaultSize);
+
+    /**
+     * Should the shared caches hold their values with soft references?
+     *
+     * Soft values let the garbage collector empty the caches under memory pressure, at the cost of losing the
+     * whole cache on a full collection.
+     */
+    boolean isCacheSoftValuesEnabled();
+
+    /**
+     * Should the shared caches be resized at runtime?
+     *
+     * If true, cache sizes are periodically adjusted, within bounds around the configured size, based on hit
+     * rates and the heap used after garbage collection.
+     */
+    boolean isAdaptiveCacheSizingEnabled();
+
+    /**
+     * Should independent server actions be run in parallel?
+     *
+     * If true, actions marked with {@link org.auraframework.system.Annotations.IndependentAction} are started
+     * on a shared set of threads as soon as a request is read, and their results are written in request order.
+     */
+    boolean isParallelActionsEnabled();
+
+    /**
+     * Get the directory in which parsed definitions are kept across restarts.
+     *
+     * Definitions are stored by descriptor, source hash and framework build, so a directory can be shared by
+     * several servers. This is read from aura.compile.cacheDir in aura.conf.
+     *
+     * @return the directory, or null if parsed definitions are not kept.
+     */
+    File getDefinitionCacheDirectory();
 }
@@ -41,6 +41,13 @@ public interface Cache<K,T> {
 	 */
 	void invalidatePartial(String partial);
 
+	/**
+	 * Get the current usage counts for this cache.
+	 * 
+	 * @return a snapshot of the counts, never null.
+	 */
+	CacheStatistics getStatistics();
+
 	/**
 	 * returns a reference to the implementing cache - this should NEVER be 
 	 * used for anything but admin and statistical access, specific to an implementation
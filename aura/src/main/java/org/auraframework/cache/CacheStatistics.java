@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.cache;
+
+/**
+ * A snapshot of the usage counts for a cache.
+ * 
+ * Counts are only kept by caches that were built with recordStats set, other
+ * caches will report zero for everything but the size.
+ */
+public class CacheStatistics {
+	private final long size;
+	private final long hitCount;
+	private final long missCount;
+	private final long evictionCount;
+
+	public CacheStatistics(long size, long hitCount, long missCount,
+			long evictionCount) {
+		this.size = size;
+		this.hitCount = hitCount;
+		this.missCount = missCount;
+		this.evictionCount = evictionCount;
+	}
+
+	/**
+	 * @return the approximate number of entries in the cache.
+	 */
+	public long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of lookups that found a value.
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of lookups that did not find a value.
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of entries removed because the cache was full or the
+	 *         value was collected. Invalidations are not counted.
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the total number of lookups.
+	 */
+	public long getRequestCount() {
+		return hitCount + missCount;
+	}
+
+	/**
+	 * @return the fraction of lookups that found a value, 1.0 if there were
+	 *         none.
+	 */
+	public double getHitRate() {
+		long requests = getRequestCount();
+		return requests == 0 ? 1.0 : (double) hitCount / requests;
+	}
+
+	/**
+	 * @return the fraction of lookups that did not find a value, 0.0 if there
+	 *         were none.
+	 */
+	public double getMissRate() {
+		long requests = getRequestCount();
+		return requests == 0 ? 0.0 : (double) missCount / requests;
+	}
+}
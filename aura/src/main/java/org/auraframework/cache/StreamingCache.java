@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.cache;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A cache of large strings that can be written out without being read in to
+ * memory first.
+ */
+public interface StreamingCache<K> extends Cache<K, String> {
+
+	/**
+	 * Write a cached value to a writer.
+	 * 
+	 * @param key the key to write.
+	 * @param out the writer to copy the value to.
+	 * @return true if the value was present and written, false if there was
+	 *         nothing cached, in which case nothing is written.
+	 * @throws IOException if the write fails part way through.
+	 */
+	boolean writeTo(K key, Writer out) throws IOException;
+}
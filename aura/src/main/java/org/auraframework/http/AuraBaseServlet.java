@@ -18,6 +18,7 @@ package org.auraframework.http;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -45,8 +46,8 @@ import org.auraframework.service.DefinitionService;
 import org.auraframework.system.AuraContext;
 import org.auraframework.system.AuraContext.Format;
 import org.auraframework.system.AuraContext.Mode;
+import org.auraframework.system.BatchSourceListener;
 import org.auraframework.system.MasterDefRegistry;
-import org.auraframework.system.SourceListener;
 import org.auraframework.throwable.AuraError;
 import org.auraframework.throwable.AuraRuntimeException;
 import org.auraframework.throwable.AuraUnhandledException;
@@ -54,6 +55,7 @@ import org.auraframework.throwable.NoAccessException;
 import org.auraframework.throwable.quickfix.DefinitionNotFoundException;
 import org.auraframework.throwable.quickfix.QuickFixException;
 import org.auraframework.util.AuraTextUtil;
+import org.auraframework.util.Utf8OutputStreamWriter;
 import org.auraframework.util.json.Json;
 
 import com.google.common.collect.Lists;
@@ -85,6 +87,11 @@ public abstract class AuraBaseServlet extends HttpServlet {
     protected final static StringParam csrfToken = new StringParam(AURA_PREFIX + "token", 0, true);
     private static SourceNotifier sourceNotifier = new SourceNotifier();
 
+    /**
+     * The request attribute holding the writer from {@link #getWriter(HttpServletRequest, HttpServletResponse)}.
+     */
+    private static final String WRITER_ATTRIBUTE = AURA_PREFIX + "writer";
+
     static {
         Aura.getDefinitionService().subscribeToChangeNotification(sourceNotifier);
     }
@@ -177,10 +184,47 @@ public abstract class AuraBaseServlet extends HttpServlet {
         super();
     }
 
+    /**
+     * Get the writer for a response.
+     * 
+     * Aura servlets write text through this rather than {@link HttpServletResponse#getWriter()}, so that text is
+     * encoded straight into the response's output stream as UTF-8, and so that error handling can write to a response
+     * whose body was started as bytes (e.g. precompressed resources). The writer is created once per request and
+     * flushed when {@link #service(HttpServletRequest, HttpServletResponse)} returns.
+     * 
+     * @param request the request.
+     * @param response the response.
+     * @return the writer, always the same one for a request.
+     * @throws IOException if the output stream cannot be obtained.
+     */
+    protected static PrintWriter getWriter(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        PrintWriter writer = (PrintWriter) request.getAttribute(WRITER_ATTRIBUTE);
+        if (writer == null) {
+            response.setCharacterEncoding(UTF_ENCODING);
+            writer = new PrintWriter(new Utf8OutputStreamWriter(response.getOutputStream()));
+            request.setAttribute(WRITER_ATTRIBUTE, writer);
+        }
+        return writer;
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException,
+            IOException {
+        try {
+            super.service(request, response);
+        } finally {
+            PrintWriter writer = (PrintWriter) request.getAttribute(WRITER_ATTRIBUTE);
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+
     protected void send404(HttpServletRequest request, HttpServletResponse response) throws ServletException,
             IOException {
         response.setStatus(HttpServletResponse.SC_NOT_FOUND);
-        response.getWriter().println("404 Not Found"
+        getWriter(request, response).println("404 Not Found"
                 + "<!-- Extra text so IE will display our custom 404 page -->"
                 + "<!--                                                   -->"
                 + "<!--                                                   -->"
@@ -262,7 +306,7 @@ public abstract class AuraBaseServlet extends HttpServlet {
                         // Preserve new lines and tabs in the stacktrace since this is directly being written on to the
                         // page
                         denyMessage = "<pre>" + denyMessage + "</pre>";
-                        response.getWriter().println(denyMessage);
+                        getWriter(request, response).println(denyMessage);
                     }
                     return;
                 }
@@ -292,7 +336,7 @@ public abstract class AuraBaseServlet extends HttpServlet {
                 mappedEx = Aura.getExceptionAdapter().handleException(mappedEx);
             }
 
-            PrintWriter out = response.getWriter();
+            PrintWriter out = getWriter(request, response);
 
             //
             // If we have written out data, We are kinda toast in this case.
@@ -344,14 +388,14 @@ public abstract class AuraBaseServlet extends HttpServlet {
                 Aura.getExceptionAdapter().handleException(death);
                 send404(request, response);
                 if (!isProductionMode(context.getMode())) {
-                    response.getWriter().println(death.getMessage());
+                    getWriter(request, response).println(death.getMessage());
                 }
             } catch (IOException ioe) {
                 throw ioe;
             } catch (Throwable doubleDeath) {
                 // we are totally hosed.
                 if (!isProductionMode(context.getMode())) {
-                    response.getWriter().println(doubleDeath.getMessage());
+                    getWriter(request, response).println(doubleDeath.getMessage());
                 }
             }
         }
@@ -559,11 +603,16 @@ public abstract class AuraBaseServlet extends HttpServlet {
     /**
      * Singleton class to manage external calls to the parent class' static cache
      */
-    private static class SourceNotifier implements SourceListener {
+    private static class SourceNotifier implements BatchSourceListener {
         @Override
         public void onSourceChanged(DefDescriptor<?> source, SourceMonitorEvent event, String filePath) {
             lastModMap.clear();
         }
+
+        @Override
+        public void onSourceChanges(Collection<SourceChange> changes) {
+            lastModMap.clear();
+        }
     }
 
 }
@@ -41,6 +41,7 @@ import org.auraframework.instance.Component;
 import org.auraframework.service.DefinitionService;
 import org.auraframework.service.InstanceService;
 import org.auraframework.system.AuraContext;
+import org.auraframework.system.CompressedContent;
 import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.throwable.ClientOutOfSyncException;
 import org.auraframework.throwable.quickfix.QuickFixException;
@@ -289,7 +290,7 @@ public class AuraResourceServlet extends AuraBaseServlet {
             DefDescriptor<ComponentDef> tmplDesc = definitionService
                     .getDefDescriptor("ui:manifest", ComponentDef.class);
             Component tmpl = instanceService.getInstance(tmplDesc, attribs);
-            Aura.getRenderingService().render(tmpl, response.getWriter());
+            Aura.getRenderingService().render(tmpl, getWriter(request, response));
         } catch (Exception e) {
             Aura.getExceptionAdapter().handleException(e);
             // Can't throw exception here: to set manifest OBSOLETE
@@ -323,6 +324,64 @@ public class AuraResourceServlet extends AuraBaseServlet {
         }
     }
 
+    /**
+     * Does the client accept a gzipped response?
+     */
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim()) || "x-gzip".equalsIgnoreCase(parts[0].trim())) {
+                // gzip;q=0 means 'never gzip'.
+                for (int i = 1; i < parts.length; i++) {
+                    if (parts[i].replace(" ", "").matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Does the client already have this content?
+     */
+    private boolean matchesEtag(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write out precompressed content.
+     * 
+     * This sends the cached gzipped bytes directly, so the response is never compressed again on the way out, and
+     * answers with a 304 if the client sent us the matching entity tag.
+     */
+    private void writeCompressed(HttpServletRequest request, HttpServletResponse response, CompressedContent content)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, content.etag);
+        if (matchesEtag(request, content.etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(content.gzipped.length);
+        response.getOutputStream().write(content.gzipped);
+    }
+
     /**
      * Serves up CSS or JS resources for a list of namespaces.
      * 
@@ -382,7 +441,18 @@ public class AuraResourceServlet extends AuraBaseServlet {
                 return;
             }
             try {
-                writeCss(request, topLevel, context, response.getWriter());
+                if (isAppRequest(request)) {
+                    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                CompressedContent compressed = null;
+                if (isAppRequest(request) && acceptsGzip(request)) {
+                    compressed = Aura.getServerService().getCompressedAppCss(topLevel);
+                }
+                if (compressed != null) {
+                    writeCompressed(request, response, compressed);
+                } else {
+                    writeCss(request, topLevel, context, getWriter(request, response));
+                }
             } catch (Throwable t) {
                 handleServletException(t, true, context, request, response, true);
             }
@@ -393,7 +463,22 @@ public class AuraResourceServlet extends AuraBaseServlet {
                 return;
             }
             try {
-                writeJs(request, topLevel, context, response.getWriter());
+                if (isAppRequest(request)) {
+                    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    if (!Aura.getServerService().prepareDefinitions(topLevel)) {
+                        // still being minified, so this version must not stick around.
+                        setNoCache(response);
+                    }
+                }
+                CompressedContent compressed = null;
+                if (isAppRequest(request) && acceptsGzip(request)) {
+                    compressed = Aura.getServerService().getCompressedDefinitions(topLevel);
+                }
+                if (compressed != null) {
+                    writeCompressed(request, response, compressed);
+                } else {
+                    writeJs(request, topLevel, context, getWriter(request, response));
+                }
             } catch (Throwable t) {
                 handleServletException(t, true, context, request, response, true);
             }
@@ -410,7 +495,7 @@ public class AuraResourceServlet extends AuraBaseServlet {
                 return;
             }
             try {
-                Aura.getServerService().writeComponents(topLevel, response.getWriter());
+                Aura.getServerService().writeComponents(topLevel, getWriter(request, response));
             } catch (Throwable t) {
                 handleServletException(t, true, context, request, response, true);
             }
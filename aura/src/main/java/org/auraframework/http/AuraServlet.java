@@ -271,7 +271,7 @@ public class AuraServlet extends AuraBaseServlet {
             loggingService.startTimer(LoggingService.TIMER_SERIALIZATION);
             loggingService.startTimer(LoggingService.TIMER_SERIALIZATION_AURA);
             // Prevents Mhtml Xss exploit:
-            PrintWriter out = response.getWriter();
+            PrintWriter out = getWriter(request, response);
             out.write("\n    ");
             serializationService.write(def, getComponentAttributes(request),
                     def.getDescriptor().getDefType().getPrimaryInterface(), out);
@@ -401,7 +401,7 @@ public class AuraServlet extends AuraBaseServlet {
                 attributes.put("token", getToken());
             }
             
-            PrintWriter out = response.getWriter();
+            PrintWriter out = getWriter(request, response);
             written = true;
             out.write(CSRF_PROTECT);
             serverService.run(message, context, out, attributes);
@@ -17,6 +17,8 @@ package org.auraframework.service;
 
 import java.lang.ref.WeakReference;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
 
@@ -25,6 +27,7 @@ import org.auraframework.cache.Cache;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.Definition;
 import org.auraframework.system.*;
+import org.auraframework.system.SourceListener.SourceChange;
 import org.auraframework.system.SourceListener.SourceMonitorEvent;
 
 import com.google.common.base.Optional;
@@ -56,6 +59,14 @@ public interface CachingService extends AuraService {
 
 	Cache<String, String> getStringsCache();
 
+    /**
+     * Get the cache of compressed generated resources.
+     *
+     * This is keyed the same way as the strings cache, and holds the gzipped form of the values that are sent to
+     * clients directly.
+     */
+	Cache<String, CompressedContent> getCompressedContentCache();
+
 	Cache<String, Set<DefDescriptor<?>>> getDescriptorFilterCache();
 
 	Cache<String, DependencyEntry> getDepsCache();
@@ -66,12 +77,96 @@ public interface CachingService extends AuraService {
 	
     Cache<DefDescriptor.DescriptorKey, DefDescriptor<? extends Definition>> getDefDescriptorByNameCache();
 
+    /**
+     * Get the cache of rendered html pages.
+     *
+     * Each value is a page cut where auraInit goes, keyed on everything else that the page depends on. An empty
+     * list marks a page that has to be rendered every time.
+     */
+    Cache<List<Object>, List<String>> getPageShellCache();
+
+    /**
+     * Get all of the shared caches, by name.
+     *
+     * This is meant for monitoring, e.g. to report the statistics for each cache.
+     *
+     * @return an unmodifiable map from a short name to each cache.
+     */
+    Map<String, Cache<?, ?>> getCaches();
+
+    /**
+     * Get the shared read lock.
+     *
+     * Definition lookups no longer take this lock, they rely on {@link #getCacheEpoch()} instead. It is only
+     * retained so that callers can hold off source change notifications.
+     */
     Lock getReadLock();
 	
 	Lock getWriteLock();
+
+    /**
+     * Get the current cache epoch.
+     *
+     * The epoch is advanced every time the shared definition caches are invalidated. A compile remembers the
+     * epoch that it started in, and only publishes its results into the shared caches if the epoch has not
+     * moved in the meantime.
+     *
+     * @return the current epoch.
+     */
+    long getCacheEpoch();
+
+    /**
+     * Advance the cache epoch.
+     *
+     * This must be called before the shared caches are cleared, so that any compile already running cannot
+     * publish stale definitions after the clear.
+     *
+     * @return the new epoch.
+     */
+    long advanceCacheEpoch();
+
+    /**
+     * Index a dependency entry that is about to be put in the dependency cache.
+     *
+     * This lets a source change evict only the entries that include the changed descriptor. It must be called
+     * before the put, so that a concurrent invalidation cannot miss the entry.
+     *
+     * @param key the key in the dependency cache.
+     * @param entry the entry being cached.
+     */
+    void indexDependencyEntry(String key, DependencyEntry entry);
+
+    /**
+     * Index a string that is about to be put in the strings cache.
+     *
+     * @param key the key in the strings cache.
+     * @param entry the dependency entry from which the string was built.
+     */
+    void indexCachedString(String key, DependencyEntry entry);
+
+    /**
+     * Index a definition that is about to be put in the definition cache.
+     *
+     * @param descriptor the descriptor of the definition being cached.
+     */
+    void indexDefinition(DefDescriptor<?> descriptor);
 	
 	void notifyDependentSourceChange(
 			Collection<WeakReference<SourceListener>> listeners,
 			DefDescriptor<?> source, SourceMonitorEvent event, String filePath);
 
+	/**
+	 * Notify listeners of a batch of source changes, and invalidate the
+	 * caches once for the whole batch.
+	 * 
+	 * @param listeners
+	 *            the listeners to notify. A {@link BatchSourceListener} is
+	 *            called once, others once for each change.
+	 * @param changes
+	 *            the changes, in the order they were seen.
+	 */
+	void notifyDependentSourceChanges(
+			Collection<WeakReference<SourceListener>> listeners,
+			Collection<SourceChange> changes);
+
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.DefDescriptor.DefType;
 import org.auraframework.def.Definition;
 import org.auraframework.def.DescriptorFilter;
+import org.auraframework.system.BatchSourceListener;
 import org.auraframework.system.MasterDefRegistry;
 import org.auraframework.system.SourceListener;
 import org.auraframework.throwable.ClientOutOfSyncException;
@@ -36,7 +37,7 @@ import org.auraframework.throwable.quickfix.QuickFixException;
  * Instances of all AuraServices should be retrieved from {@link Aura}
  * </p>
  */
-public interface DefinitionService extends AuraService, SourceListener {
+public interface DefinitionService extends AuraService, BatchSourceListener {
 
     /**
      * <p>
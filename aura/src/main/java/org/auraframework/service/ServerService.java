@@ -24,6 +24,7 @@ import java.util.Set;
 import org.auraframework.Aura;
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.system.AuraContext;
+import org.auraframework.system.CompressedContent;
 import org.auraframework.system.Message;
 import org.auraframework.throwable.quickfix.QuickFixException;
 
@@ -78,6 +79,43 @@ public interface ServerService extends AuraService {
      */
     void writeDefinitions(Set<DefDescriptor<?>> dependencies, Writer out) throws IOException, QuickFixException;
 
+    /**
+     * Check whether the definitions for the current app are ready for clients to cache.
+     * 
+     * In production modes the definitions are minified in the background the first time they are asked for, and until
+     * that is done, {@link #writeDefinitions(Set, Writer)} writes them unminified. This starts that work if needed, so
+     * it should be called before writing the definitions.
+     * 
+     * @return false if the definitions written now will soon be replaced, and should not be cached.
+     */
+    boolean prepareDefinitions(Set<DefDescriptor<?>> dependencies) throws IOException, QuickFixException;
+
+    /**
+     * Get the CSS for the preloads + app, gzipped.
+     * 
+     * This is the same content as {@link #writeAppCss(Set, Writer)}, compressed once it has been cached so that it
+     * can be sent to clients that accept gzip without further work. Nothing is rendered or compressed here: until
+     * the CSS has been cached, callers write it out uncompressed with {@link #writeAppCss(Set, Writer)}, which also
+     * caches it.
+     * 
+     * @return the compressed CSS, or null if it is not cached.
+     * @throws IOException if unable to generate the content.
+     * @throws QuickFixException if the definitions could not be compiled.
+     */
+    CompressedContent getCompressedAppCss(Set<DefDescriptor<?>> dependencies) throws IOException, QuickFixException;
+
+    /**
+     * Get the complete set of definitions in JS, gzipped.
+     * 
+     * This is the same content as {@link #writeDefinitions(Set, Writer)}, compressed once it has been cached. As
+     * with {@link #getCompressedAppCss(Set)}, callers fall back to {@link #writeDefinitions(Set, Writer)} until it
+     * is.
+     * 
+     * @return the compressed definitions, or null if they are not cached.
+     */
+    CompressedContent getCompressedDefinitions(Set<DefDescriptor<?>> dependencies) throws IOException,
+            QuickFixException;
+
     /**
      * Write out a set of components in JSON.
      * 
@@ -46,6 +46,20 @@ public interface Annotations {
     public @interface CabooseAction {
     }
 
+    /**
+     * Marks a server action as independent of the rest of the request.
+     *
+     * When parallel actions are enabled, an independent action may run on another thread, at the same time as
+     * the other actions in the request. Its parameters are converted on the request thread, but the method itself
+     * must not use the Aura context or depend on the results of other actions.
+     *
+     * The AuraEnabled annotation is still required to use this method as a server action.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.METHOD)
+    public @interface IndependentAction {
+    }
+
     @Retention(RetentionPolicy.RUNTIME)
     @Target(ElementType.METHOD)
     public @interface AuraEnabled {
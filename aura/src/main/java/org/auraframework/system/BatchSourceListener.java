@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.system;
+
+import java.util.Collection;
+
+/**
+ * A {@link SourceListener} that handles a batch of changes at once.
+ * 
+ * Listeners that clear everything on any change should implement this, so that a batch only clears once. Other
+ * listeners are called once for each change in the batch.
+ */
+public interface BatchSourceListener extends SourceListener {
+
+    /**
+     * @param changes - the changes, in the order they were seen. Never empty.
+     */
+    public void onSourceChanges(Collection<SourceChange> changes);
+}
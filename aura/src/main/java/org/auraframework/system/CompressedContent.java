@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.system;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+import org.auraframework.util.text.Hash;
+
+/**
+ * A generated resource, ready to be sent to a client.
+ * 
+ * This holds the content gzipped, along with a strong entity tag computed from the uncompressed content, so that a
+ * cached resource can be sent to a client with a single write, or not at all if the client already has it.
+ * 
+ * all values are final, the gzipped bytes must not be modified.
+ */
+public class CompressedContent {
+    /**
+     * The entity tag, including the quotes required by HTTP.
+     */
+    public final String etag;
+
+    /**
+     * The UTF-8 content, gzipped.
+     */
+    public final byte[] gzipped;
+
+    public CompressedContent(String etag, byte[] gzipped) {
+        this.etag = etag;
+        this.gzipped = gzipped;
+    }
+
+    /**
+     * Compress a string.
+     * 
+     * @param content the content.
+     * @return the compressed content, with its entity tag.
+     */
+    public static CompressedContent create(String content) {
+        Hash.StringBuilder hash = new Hash.StringBuilder();
+        hash.addString(content);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length() / 4 + 64);
+        try {
+            Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), "UTF-8");
+            writer.write(content);
+            writer.close();
+        } catch (IOException ioe) {
+            // only possible if UTF-8 is missing.
+            throw new IllegalStateException(ioe);
+        }
+        return new CompressedContent("\"" + hash.build() + "\"", bytes.toByteArray());
+    }
+}
@@ -32,7 +32,8 @@ import org.auraframework.throwable.quickfix.QuickFixException;
  * This entry is created for each descriptor that a context uses at the top level. It is cached globally and
  * locally. The second version of the entry (with a quick fix) is only ever cached locally.
  * 
- * all values are final, and unmodifiable.
+ * all values are final, and unmodifiable. Dependencies are held in a {@link DescriptorSet}, so that they can be
+ * checked and combined cheaply on every request.
  */
 public class DependencyEntry {
     public final String uid;
@@ -44,7 +45,7 @@ public class DependencyEntry {
     public DependencyEntry(String uid, Set<DefDescriptor<? extends Definition>> dependencies, long lastModTime,
                            List<ClientLibraryDef> clientLibraries) {
         this.uid = uid;
-        this.dependencies = dependencies;
+        this.dependencies = dependencies != null ? DescriptorSet.copyOf(dependencies) : null;
         this.clientLibraries = Collections.unmodifiableList(clientLibraries);
         this.lastModTime = lastModTime;
         this.qfe = null;
@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2013 salesforce.com, inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.auraframework.system;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentMap;
+
+import org.auraframework.def.DefDescriptor;
+
+import com.google.common.collect.Maps;
+
+/**
+ * An immutable set of descriptors, stored as a bitset of interned ids.
+ *
+ * Every descriptor put in one of these sets is given a small integer id from a global table, so that containment is
+ * a single bit test, and unions are done a word at a time with a {@link Builder}. This is used for dependency sets,
+ * which are large, cached for a long time, and checked on every request.
+ *
+ * The set keeps the order in which descriptors were given to {@link #copyOf(Collection)}, as that is the order in
+ * which dependencies must be sent to the client. Sets made by a builder iterate in id order.
+ *
+ * The bitset only covers the words between the lowest and highest ids in the set. A set whose ids are spread so
+ * thinly that the bitset would be larger than the ids themselves keeps them in a sorted array instead, and
+ * containment is a binary search.
+ *
+ * Ids are never reclaimed: the table holds every distinct descriptor ever put in a set, with one map entry and one
+ * array slot each, for the life of the JVM. Only dependencies go into these sets, so in production the table is
+ * bounded by the definitions in the system. In development, descriptors of definitions that have since been
+ * removed or renamed stay in it until restart.
+ */
+public final class DescriptorSet extends AbstractSet<DefDescriptor<?>> {
+    private static final int[] NO_IDS = new int[0];
+    private static final long[] NO_WORDS = new long[0];
+
+    private static final ConcurrentMap<DefDescriptor<?>, Integer> ids = Maps.newConcurrentMap();
+    private static final Object lock = new Object();
+    private static volatile DefDescriptor<?>[] descriptors = new DefDescriptor<?>[1024];
+    private static int nextId = 0;
+
+    private static final DescriptorSet EMPTY = new DescriptorSet(NO_IDS, null, NO_WORDS, 0);
+
+    private final int[] order;
+
+    /**
+     * The ids in ascending order, for sparse sets, or null if the set uses {@link #words}.
+     */
+    private final int[] sorted;
+
+    /**
+     * The bitset, where words[i] holds the ids of word (base + i).
+     */
+    private final long[] words;
+    private final int base;
+
+    private DescriptorSet(int[] order, int[] sorted, long[] words, int base) {
+        this.order = order;
+        this.sorted = sorted;
+        this.words = words;
+        this.base = base;
+    }
+
+    /**
+     * Make a set from distinct ids, choosing the smaller of a bitset and a sorted array.
+     *
+     * @param order the ids, in iteration order.
+     * @param sorted the same ids, in ascending order.
+     */
+    private static DescriptorSet create(int[] order, int[] sorted) {
+        if (order.length == 0) {
+            return EMPTY;
+        }
+        int base = sorted[0] >>> 6;
+        int length = (sorted[sorted.length - 1] >>> 6) - base + 1;
+
+        // a long per word against an int per id.
+        if (length * 2L >= sorted.length) {
+            return new DescriptorSet(order, sorted, NO_WORDS, 0);
+        }
+        long[] words = new long[length];
+        for (int id : sorted) {
+            words[(id >>> 6) - base] |= 1L << id;
+        }
+        return new DescriptorSet(order, null, words, base);
+    }
+
+    /**
+     * Get the id for a descriptor, assigning one if it does not have one yet.
+     */
+    static int intern(DefDescriptor<?> descriptor) {
+        Integer id = ids.get(descriptor);
+        if (id != null) {
+            return id;
+        }
+        synchronized (lock) {
+            id = ids.get(descriptor);
+            if (id == null) {
+                id = nextId++;
+                DefDescriptor<?>[] current = descriptors;
+                if (id >= current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                }
+                current[id] = descriptor;
+                descriptors = current;
+                // only publish the id once the descriptor can be found from it.
+                ids.put(descriptor, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Get the id for a descriptor, or -1 if it has never been put in a set.
+     */
+    static int idOf(Object descriptor) {
+        if (descriptor == null) {
+            return -1;
+        }
+        Integer id = ids.get(descriptor);
+        return id == null ? -1 : id;
+    }
+
+    private static DefDescriptor<?> descriptorOf(int id) {
+        return descriptors[id];
+    }
+
+    /**
+     * Make a set with the given descriptors, in the same order.
+     */
+    public static DescriptorSet copyOf(Collection<? extends DefDescriptor<?>> descriptors) {
+        if (descriptors instanceof DescriptorSet) {
+            return (DescriptorSet) descriptors;
+        }
+        if (descriptors.isEmpty()) {
+            return EMPTY;
+        }
+        int[] ids = new int[descriptors.size()];
+        int count = 0;
+
+        for (DefDescriptor<?> descriptor : descriptors) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = intern(descriptor);
+        }
+        int[] sorted = Arrays.copyOf(ids, count);
+        Arrays.sort(sorted);
+
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || sorted[unique - 1] != sorted[i]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        if (unique == count) {
+            return create(count == ids.length ? ids : Arrays.copyOf(ids, count), sorted);
+        }
+
+        // drop the repeats, keeping the first of each.
+        sorted = Arrays.copyOf(sorted, unique);
+        boolean[] seen = new boolean[unique];
+        int[] order = new int[unique];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(sorted, ids[i]);
+            if (!seen[index]) {
+                seen[index] = true;
+                order[length++] = ids[i];
+            }
+        }
+        return create(order, sorted);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        int id = idOf(o);
+        if (sorted != null) {
+            return id >= 0 && Arrays.binarySearch(sorted, id) >= 0;
+        }
+        return isSet(words, base, id);
+    }
+
+    @Override
+    public int size() {
+        return order.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return order.length == 0;
+    }
+
+    @Override
+    public Iterator<DefDescriptor<?>> iterator() {
+        return new Iterator<DefDescriptor<?>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < order.length;
+            }
+
+            @Override
+            public DefDescriptor<?> next() {
+                if (next >= order.length) {
+                    throw new NoSuchElementException();
+                }
+                return descriptorOf(order[next++]);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static boolean isSet(long[] words, int base, int id) {
+        if (id < 0) {
+            return false;
+        }
+        int word = (id >>> 6) - base;
+        return word >= 0 && word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * A mutable accumulator for descriptor sets.
+     *
+     * This is not thread safe, it is meant to be used within a single request.
+     */
+    public static final class Builder {
+        private long[] words = NO_WORDS;
+        private int size = 0;
+
+        private Builder() {
+        }
+
+        private void ensureWords(int length) {
+            if (length > words.length) {
+                words = Arrays.copyOf(words, Math.max(length, words.length * 2));
+            }
+        }
+
+        /**
+         * Add a single descriptor.
+         */
+        public Builder add(DefDescriptor<?> descriptor) {
+            addId(intern(descriptor));
+            return this;
+        }
+
+        private void addId(int id) {
+            int word = id >>> 6;
+            ensureWords(word + 1);
+            long bit = 1L << id;
+            if ((words[word] & bit) == 0) {
+                words[word] |= bit;
+                size += 1;
+            }
+        }
+
+        /**
+         * Add all of a set of descriptors.
+         *
+         * This is a word by word union if the descriptors are already in a {@link DescriptorSet}.
+         */
+        public Builder addAll(Collection<? extends DefDescriptor<?>> descriptors) {
+            if (descriptors instanceof DescriptorSet) {
+                DescriptorSet set = (DescriptorSet) descriptors;
+                if (set.sorted != null) {
+                    for (int id : set.sorted) {
+                        addId(id);
+                    }
+                    return this;
+                }
+                long[] other = set.words;
+                int base = set.base;
+                ensureWords(base + other.length);
+                for (int i = 0; i < other.length; i++) {
+                    long added = other[i] & ~words[base + i];
+                    if (added != 0) {
+                        words[base + i] |= added;
+                        size += Long.bitCount(added);
+                    }
+                }
+            } else {
+                for (DefDescriptor<?> descriptor : descriptors) {
+                    add(descriptor);
+                }
+            }
+            return this;
+        }
+
+        public boolean contains(Object descriptor) {
+            return isSet(words, 0, idOf(descriptor));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Make an immutable set of everything added so far, in id order.
+         */
+        public DescriptorSet build() {
+            int[] order = new int[size];
+            int count = 0;
+
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    order[count++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return create(order, order);
+        }
+    }
+}
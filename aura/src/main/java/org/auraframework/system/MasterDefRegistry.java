@@ -15,6 +15,8 @@
  */
 package org.auraframework.system;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -174,6 +176,50 @@ public interface MasterDefRegistry {
      */
     String getCachedString(String uid, DefDescriptor<?> descriptor, String key);
 
+    /**
+     * Check for a named string in the cache for a def, without reading it.
+     * 
+     * @param uid the UID for the definition (must have called {@link #getUid(String, DefDescriptor<?>)}).
+     * @param descriptor the descriptor.
+     * @param key the key.
+     * @return true if the string is cached.
+     */
+    boolean hasCachedString(String uid, DefDescriptor<?> descriptor, String key);
+
+    /**
+     * Write a named string from the cache for a def.
+     * 
+     * This avoids reading large values in to memory when the cache can stream them.
+     * 
+     * @param uid the UID for the definition (must have called {@link #getUid(String, DefDescriptor<?>)}).
+     * @param descriptor the descriptor.
+     * @param key the key.
+     * @param out the writer to copy the string to.
+     * @return true if the string was cached and written, false if nothing was written.
+     */
+    boolean writeCachedString(String uid, DefDescriptor<?> descriptor, String key, Writer out) throws IOException;
+
+    /**
+     * Get a named string from the cache for a def, compressed.
+     * 
+     * The compressed form is built from the cached string the first time it is asked for, and cached alongside it.
+     * 
+     * @param uid the UID for the definition (must have called {@link #getUid(String, DefDescriptor<?>)}).
+     * @param descriptor the descriptor.
+     * @param key the key.
+     * @return the compressed string, or null if the string is not cached.
+     */
+    CompressedContent getCompressedString(String uid, DefDescriptor<?> descriptor, String key);
+
+    /**
+     * Check whether named strings for a def can be cached at all.
+     * 
+     * @param uid the UID for the definition (must have called {@link #getUid(String, DefDescriptor<?>)}).
+     * @param descriptor the descriptor.
+     * @return true if {@link #putCachedString(String, DefDescriptor, String, String)} would keep a string.
+     */
+    boolean canCacheString(String uid, DefDescriptor<?> descriptor);
+
     /**
      * Put a named string in the cache for a def.
      * 
@@ -16,19 +16,19 @@
 package org.auraframework.system;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.Writer;
 import java.net.URL;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 import org.auraframework.def.DefDescriptor;
 import org.auraframework.def.Definition;
 import org.auraframework.system.Parser.Format;
+import org.auraframework.util.Utf8Encoder;
 import org.auraframework.util.text.Hash;
 
 /**
@@ -42,6 +42,7 @@ import org.auraframework.util.text.Hash;
 public abstract class Source<D extends Definition> implements Serializable {
 
     private static final long serialVersionUID = -1359253157810260816L;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
 
     private final String systemId;
     private final Format format;
@@ -52,23 +53,22 @@ public abstract class Source<D extends Definition> implements Serializable {
      * A {@link Reader} that, on completion will update the containing
      * {@link Source} with {@link ChangeInfo}. This provides a read-once
      * method to both parse and hash the contents.
+     *
+     * Characters are encoded to UTF-8 into a buffer that is reused for every
+     * read, and a surrogate pair split across two reads is hashed as the pair.
      */
     public class HashingReader extends Reader {
 
         private final Reader reader;
         private MessageDigest digest;
-        private final Charset utf8;
+        private final byte[] bytes = new byte[4096];
+        private final Utf8Encoder encoder = new Utf8Encoder();
         private boolean hadError;
         private boolean closed;
 
         public HashingReader(Reader reader) {
             this.reader = reader;
-            try {
-                digest = MessageDigest.getInstance("MD5");
-            } catch (NoSuchAlgorithmException e) {
-                throw new IllegalStateException("MD5 is a required MessageDigest algorithm, but is not registered here.");
-            }
-            utf8 = Charset.forName("UTF-8");
+            this.digest = Hash.newDigest();
         }
 
         @Override
@@ -97,8 +97,7 @@ public abstract class Source<D extends Definition> implements Serializable {
                 int result = reader.read(cbuf, off, len);
                 if (digest != null) {
                     if (result > 0) {
-                        ByteBuffer bytes = utf8.encode(CharBuffer.wrap(cbuf, off, result));
-                        digest.update(bytes);
+                        update(cbuf, off, result);
                     } else if (result < 0) {
                         setChangeInfo();
                     }
@@ -112,17 +111,22 @@ public abstract class Source<D extends Definition> implements Serializable {
             }
         }
 
+        private void update(char[] cbuf, int off, int len) {
+            int count = 0;
+            for (int i = off; i < off + len; i++) {
+                if (count > bytes.length - Utf8Encoder.MAX_BYTES_PER_CHAR) {
+                    digest.update(bytes, 0, count);
+                    count = 0;
+                }
+                count = encoder.encode(cbuf[i], bytes, count);
+            }
+            digest.update(bytes, 0, count);
+        }
+
         private void setChangeInfo() {
             if (!hadError && digest != null) {
-                synchronized (hash) {
-                    // Multi-threading guard: if we have multiple readers for a
-                    // single Source, only one needs to set the hash. Note that
-                    // the parallel reads is probably a bad idea anyway, but it
-                    // shouldn't be a fatal one!
-                    if (!hash.isSet()) {
-                        hash.setHash(digest.digest());
-                    }
-                }
+                digest.update(bytes, 0, encoder.finish(bytes, 0));
+                setHash(digest);
                 digest = null; // We're done; ensure we can't try to set it again.
             }
         }
@@ -188,12 +192,60 @@ public abstract class Source<D extends Definition> implements Serializable {
     }
 
     public final Reader getHashingReader() {
+        Reader reader = getReader();
         if (hash.isSet()) {
-            // We don't need to re-hash after we've set our source. Actually,
-            // we should never need to re-read, but today we do.
-            return getReader();
+            // We don't need to re-hash after we've set our source, or if
+            // getReader() already did. Actually, we should never need to
+            // re-read, but today we do.
+            return reader;
+        }
+        return new HashingReader(reader);
+    }
+
+    /**
+     * Reads the whole of a stream as UTF-8, and closes it.
+     *
+     * The hash is set from the bytes as they were read, so sources that start
+     * from bytes should use this rather than decoding them in a reader, which
+     * would then have to encode every character again to hash it. The content
+     * is decoded once, in a single pass.
+     *
+     * @param in the stream to read.
+     * @param sizeHint the expected number of bytes, or 0 if not known.
+     * @return the contents.
+     */
+    protected final String readContents(InputStream in, int sizeHint) throws IOException {
+        byte[] bytes = new byte[sizeHint > 0 ? sizeHint + 1 : 8192];
+        int count = 0;
+        try {
+            int read;
+            while ((read = in.read(bytes, count, bytes.length - count)) >= 0) {
+                count += read;
+                if (count == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        if (!hash.isSet()) {
+            MessageDigest digest = Hash.newDigest();
+            digest.update(bytes, 0, count);
+            setHash(digest);
+        }
+        return new String(bytes, 0, count, UTF8);
+    }
+
+    private void setHash(MessageDigest digest) {
+        synchronized (hash) {
+            // Multi-threading guard: if we have multiple readers for a
+            // single Source, only one needs to set the hash. Note that
+            // the parallel reads is probably a bad idea anyway, but it
+            // shouldn't be a fatal one!
+            if (!hash.isSet()) {
+                hash.setHash(digest.digest());
+            }
         }
-        return new HashingReader(getReader());
     }
 
     /**
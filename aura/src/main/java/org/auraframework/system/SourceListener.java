@@ -52,4 +52,58 @@ public interface SourceListener {
      */
     public void onSourceChanged(DefDescriptor<?> source, SourceMonitorEvent event, String filePath);
 
+    /**
+     * A single change to a source, as part of a batch.
+     */
+    public static final class SourceChange {
+        private final DefDescriptor<?> source;
+        private final SourceMonitorEvent event;
+        private final String filePath;
+
+        public SourceChange(DefDescriptor<?> source, SourceMonitorEvent event, String filePath) {
+            this.source = source;
+            this.event = event;
+            this.filePath = filePath;
+        }
+
+        /**
+         * @return null (affects all) or the descriptor of the source that was affected
+         */
+        public DefDescriptor<?> getSource() {
+            return source;
+        }
+
+        public SourceMonitorEvent getEvent() {
+            return event;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SourceChange)) {
+                return false;
+            }
+            SourceChange other = (SourceChange) o;
+            return equal(source, other.source) && event == other.event && equal(filePath, other.filePath);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = source == null ? 0 : source.hashCode();
+            hash = 31 * hash + (event == null ? 0 : event.hashCode());
+            return 31 * hash + (filePath == null ? 0 : filePath.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return event + " " + (filePath != null ? filePath : source);
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
 }
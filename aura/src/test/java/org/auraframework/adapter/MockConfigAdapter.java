@@ -31,4 +31,8 @@ public interface MockConfigAdapter extends ConfigAdapter, MockBean {
     void setIsAuraJSStatic(boolean isAuraJSStatic);
 
     void setValidateCss(boolean validateCss);
+
+    void setIsParallelCompileEnabled(boolean isParallelCompileEnabled);
+
+    void setIsParallelActionsEnabled(boolean isParallelActionsEnabled);
 }
@@ -15,7 +15,11 @@
  */
 package org.auraframework.system;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
@@ -36,6 +40,10 @@ public class SourceTest extends AuraTestCase {
         return Arrays.hashCode(MessageDigest.getInstance("MD5").digest(string.getBytes()));
     }
 
+    private Hash md5(String string) throws Exception {
+        return new Hash(MessageDigest.getInstance("MD5").digest(string.getBytes("UTF-8")));
+    }
+
     private void assertHash(Hash hash, boolean isSet, int hashCode) throws Exception {
         assertEquals(isSet, hash.isSet());
         assertEquals(hashCode, hash.hashCode());
@@ -125,4 +133,93 @@ public class SourceTest extends AuraTestCase {
         assertEquals(-1, reader.read(buffer));
         assertHash(hash, true, expectedHashCode);
     }
+
+    /**
+     * Characters are hashed as UTF-8, including surrogate pairs split between reads.
+     */
+    public void testHashingReaderSplitSurrogatePair() throws Exception {
+        String content = "a\u00e9\u20ac\ud83d\ude00b";
+        Source<?> src = new StringSource<Definition>(null, content, null, null);
+        Reader reader = src.getHashingReader();
+        char[] buffer = new char[1];
+        StringBuilder read = new StringBuilder();
+        while (reader.read(buffer, 0, 1) > 0) {
+            read.append(buffer[0]);
+        }
+        reader.close();
+
+        assertEquals(content, read.toString());
+        assertEquals(md5(content), src.getHash());
+    }
+
+    /**
+     * Sources read as bytes get the same hash as they would through a hashing reader.
+     */
+    public void testReadContents() throws Exception {
+        String content = "<aura:component>\u00e9\u20ac\ud83d\ude00</aura:component>";
+        BytesSource src = new BytesSource(content.getBytes("UTF-8"), 4);
+
+        assertEquals(content, src.getContents());
+        assertEquals(md5(content), src.getHash());
+
+        Source<?> stringSource = new StringSource<Definition>(null, content, null, null);
+        stringSource.getContents();
+        assertEquals(stringSource.getHash(), src.getHash());
+    }
+
+    /**
+     * Reading the whole source again does not change the hash.
+     */
+    public void testReadContentsTwice() throws Exception {
+        BytesSource src = new BytesSource("hi".getBytes("UTF-8"), 0);
+        assertEquals("hi", src.getContents());
+        assertEquals("hi", src.getContents());
+        assertHash(src.getHash(), true, getHashCode("hi"));
+    }
+
+    private static class BytesSource extends Source<Definition> {
+        private static final long serialVersionUID = 1L;
+        private final byte[] bytes;
+        private final int sizeHint;
+
+        BytesSource(byte[] bytes, int sizeHint) {
+            super(null, "bytes", null);
+            this.bytes = bytes;
+            this.sizeHint = sizeHint;
+        }
+
+        @Override
+        public Reader getReader() {
+            return new StringReader(getContents());
+        }
+
+        @Override
+        public Writer getWriter() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean addOrUpdate(CharSequence newContents) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getContents() {
+            try {
+                return readContents(new ByteArrayInputStream(bytes), sizeHint);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public long getLastModified() {
+            return 0;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+    }
 }